@@ -22,19 +22,17 @@ package org.openmicroscopy.shoola.agents.dataBrowser;
 
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageNode;
+import org.openmicroscopy.shoola.agents.dataBrowser.browser.Thumbnail;
 import org.openmicroscopy.shoola.agents.dataBrowser.view.DataBrowser;
 import omero.gateway.SecurityContext;
 import org.openmicroscopy.shoola.env.data.util.StructuredDataResults;
 import org.openmicroscopy.shoola.env.data.views.CallHandle;
 import omero.gateway.model.DataObject;
-import omero.gateway.model.ImageData;
 
 /** 
  * Loads data for the report.
@@ -52,8 +50,11 @@ public class ReportLoader
 	extends DataBrowserLoader
 {
 
-	/** The images the reports are for. */
-	private Map<Long, ImageNode>	imageMap;
+	/** The images the reports are for, the key is the id of the image. */
+	private Map<Long, DataObject>	imageMap;
+	
+	/** The thumbnails of the images. */
+	private Map<DataObject, Thumbnail> thumbnails;
 	
 	/** The images the reports are for. */
 	private List<DataObject>		nodes;
@@ -74,11 +75,11 @@ public class ReportLoader
      *               	Mustn't be <code>null</code>.
      * @param ctx The security context.
      * @param types		The types of annotation to add to the report.
-     * @param images	The images the report is for.
+     * @param images	The images the report is for and their thumbnails.
      * @param path		The name of the report file.
      */
 	public ReportLoader(DataBrowser viewer, SecurityContext ctx, 
-			List<Class> types, Collection<ImageNode> images, String path)
+			List<Class> types, Map<DataObject, Thumbnail> images, String path)
 	{
 		super(viewer, ctx);
 		if (images == null || images.size() == 0)
@@ -87,15 +88,14 @@ public class ReportLoader
 			throw new IllegalArgumentException("No file name specified.");
 		this.path = path;
 		this.types = types;
-		imageMap = new LinkedHashMap<Long, ImageNode>(images.size());
+		thumbnails = images;
+		imageMap = new LinkedHashMap<Long, DataObject>(images.size());
 		nodes = new ArrayList<DataObject>(images.size());
-		Iterator<ImageNode> i = images.iterator();
-		ImageNode n;
-		ImageData data;
+		Iterator<DataObject> i = images.keySet().iterator();
+		DataObject data;
 		while (i.hasNext()) {
-			n = i.next();
-			data = (ImageData) n.getHierarchyObject();
-			imageMap.put(data.getId(), n);
+			data = i.next();
+			imageMap.put(data.getId(), data);
 			nodes.add(data);
 		}
 	}
@@ -124,18 +124,18 @@ public class ReportLoader
     	if (viewer.getState() == DataBrowser.DISCARDED) return;  //Async cancel.
     	Map<DataObject, StructuredDataResults> m = 
     			(Map<DataObject, StructuredDataResults>) result;
-    	Map<ImageNode, StructuredDataResults> 
-    		r = new LinkedHashMap<ImageNode, StructuredDataResults>();
+    	Map<DataObject, StructuredDataResults> 
+    		r = new LinkedHashMap<DataObject, StructuredDataResults>();
     	Entry<DataObject, StructuredDataResults> entry;
     	Iterator<Entry<DataObject, StructuredDataResults>>
     	i = m.entrySet().iterator();
-    	ImageNode n;
+    	DataObject n;
     	while (i.hasNext()) {
     		entry = i.next();
 			n = imageMap.get(entry.getKey().getId());
-			r.put(n, entry.getValue());
+			if (n != null) r.put(n, entry.getValue());
 		}
-    	viewer.setReportData(r, types, path);
+    	viewer.setReportData(r, thumbnails, types, path);
     }
     
 }
@@ -26,6 +26,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageDisplay;
@@ -33,6 +34,7 @@ import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageNode;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.Thumbnail;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.WellImageSet;
 
+import omero.gateway.model.DataObject;
 import omero.gateway.model.ExperimenterData;
 import omero.gateway.model.ImageData;
 
@@ -139,6 +141,48 @@ public class ThumbnailsManager
         }
     }
     
+    /**
+     * Creates a new instance from the thumbnails of the images so that
+     * the nodes of the images are not needed.
+     * 
+     * @param thumbnails The thumbnails, the images being the values.
+     *                   Mustn't be <code>null</code>.
+     * @param totalIDs The total number of images to load.
+     */
+    public ThumbnailsManager(Map<Thumbnail, DataObject> thumbnails,
+            int totalIDs)
+    {
+        if (thumbnails == null)
+            throw new NullPointerException("No thumbnails.");
+        this.totalIDs = totalIDs;
+        processedIDs = new HashSet<Object>();
+        thumbProviders = new HashMap<Object, Set>();
+        Iterator<Entry<Thumbnail, DataObject>> i =
+                thumbnails.entrySet().iterator();
+        Entry<Thumbnail, DataObject> e;
+        Object ho, key;
+        Set<Thumbnail> providers;
+        while (i.hasNext()) {
+            e = i.next();
+            ho = e.getValue();
+            key = null;
+            if (ho instanceof ImageData) {
+                key = ho;
+                if (((ImageData) ho).getId() >= 0)
+                    key = ((ImageData) ho).getId();
+            } else if (ho instanceof ExperimenterData) {
+                key = ((ExperimenterData) ho).getId();
+            }
+            if (key == null) continue;
+            providers = thumbProviders.get(key);
+            if (providers == null) {
+                providers = new HashSet<Thumbnail>();
+                thumbProviders.put(key, providers);
+            }
+            providers.add(e.getKey());
+        }
+    }
+    
     /**
      * Sets the specified pixels to be the thumbnail for the specified Image.
      * 
@@ -24,12 +24,14 @@ package org.openmicroscopy.shoola.agents.dataBrowser.browser;
 import java.awt.Point;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import javax.swing.JComponent;
 
 import org.openmicroscopy.shoola.agents.dataBrowser.layout.Layout;
 import org.openmicroscopy.shoola.util.ui.component.ObservableComponent;
 import omero.gateway.model.DataObject;
+import omero.gateway.model.ImageData;
 
 /** 
  * Defines the interface provided by the browser component.
@@ -116,6 +118,9 @@ public interface Browser
 	
 	/** Bound property indicating to view the specified note. */
 	public static final String  MAIN_VIEW_DISPLAY_PROPERTY = "mainViewDisplay";
+
+	/** Bound property indicating that nodes have been added. */
+	public static final String  NODES_ADDED_PROPERTY = "nodesAdded";
 	
 	/**
 	 * Returns the node, if any, that is currently selected in the 
@@ -188,7 +193,8 @@ public interface Browser
 	
 	/**
 	 * Returns all the {@link ImageNode}s in the visualization trees hosted
-	 * by the browser.
+	 * by the browser. When the images are displayed in a grid, only the
+	 * nodes already created are returned.
 	 * 
 	 * @return A set of {@link ImageNode} objects.
 	 */
@@ -339,6 +345,16 @@ public interface Browser
 	 * @return See above.
 	 */
 	public Set<DataObject> getOriginal();
+
+	/**
+	 * Adds the specified images to the images already displayed, the
+	 * images already displayed are ignored. The layout has to be applied
+	 * again.
+	 * 
+	 * @param images The images to add.
+	 * @return The images added.
+	 */
+	public List<ImageData> addImages(Collection<ImageData> images);
 	
 	/** 
 	 * Returns the images currently visible.
@@ -348,19 +364,32 @@ public interface Browser
 	public Set<DataObject> getVisibleImages();
 	
 	/** 
-	 * Returns the images currently visible.
+	 * Returns the images currently visible. When the images are displayed
+	 * in a grid, only the nodes already created are returned, see
+	 * {@link #getVisibleThumbnails()}.
 	 * 
 	 * @return See above.
 	 */
 	public List<ImageNode> getVisibleImageNodes();
 	
 	/** 
-     * Returns the nodes currently visible.
+     * Returns the nodes currently visible. When the images are displayed
+     * in a grid, only the nodes already created are returned, see
+     * {@link #getVisibleThumbnails()}.
      * 
      * @return See above.
      */
     public List<ImageNode> getVisibleNodes();
     
+    /**
+     * Returns the thumbnails of the images currently visible, the images
+     * being the values. Unlike {@link #getVisibleImageNodes()}, this method
+     * does not create the nodes of the images displayed in a grid.
+     * 
+     * @return See above.
+     */
+    public Map<Thumbnail, DataObject> getVisibleThumbnails();
+    
 	/**
 	 * Returns the selected layout.
 	 * 
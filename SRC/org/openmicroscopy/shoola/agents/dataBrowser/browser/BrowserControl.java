@@ -388,6 +388,7 @@ class BrowserControl
         model.addPropertyChangeListener(
         		Browser.SELECTED_DATA_BROWSER_NODE_DISPLAY_PROPERTY, this);
         model.addPropertyChangeListener(Browser.ROLL_OVER_PROPERTY, this);
+        model.addPropertyChangeListener(Browser.NODES_ADDED_PROPERTY, this);
         this.model = model;
         this.view = view;
         view.getInternalDesktop().addMouseMotionListener(this);
@@ -542,6 +543,10 @@ class BrowserControl
         } else if (ImageDisplay.ANNOTATE_NODE_PROPERTY.equals(name)) {
             model.setNodeForProperty(Browser.ANNOTATED_NODE_PROPERTY, 
                                     evt.getNewValue());
+        } else if (Browser.NODES_ADDED_PROPERTY.equals(name)) {
+        	Iterator i = ((Collection) evt.getNewValue()).iterator();
+        	while (i.hasNext())
+        		((ImageDisplay) i.next()).accept(this);
         } else if (Browser.ROLL_OVER_PROPERTY.equals(name)) {
         	RollOverNode n = (RollOverNode) evt.getNewValue();
         	ImageNode img = null;
@@ -32,6 +32,7 @@ import java.util.Iterator;
 //Third-party libraries
 
 //Application-internal dependencies
+import omero.gateway.model.ImageData;
 
 /** 
  * Factory to create {@link Browser} objects.
@@ -78,5 +79,23 @@ public class BrowserFactory
          //Fit to go!
          return model;
     }
+
+    /**
+     * Creates a new {@link Browser} displaying the images in a grid.
+     * Unlike {@link #createBrowser(Collection)}, no node is created for the
+     * images until needed, use it to display a large number of images.
+     * 
+     * @param images The images to display. Don't pass <code>null</code>.
+     * @return A new {@link Browser} object.
+     */
+    public static Browser createGridBrowser(Collection<ImageData> images)
+    {
+        if (images == null) throw new NullPointerException("No images.");
+        RootDisplay view = new RootDisplay();
+        BrowserModel model = new BrowserModel(view, images);
+        BrowserControl controller = new BrowserControl(model, view);
+        controller.initialize();
+        return model;
+    }
     
 }
@@ -29,7 +29,9 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import javax.swing.JComponent;
 import javax.swing.JScrollBar;
@@ -38,6 +40,7 @@ import javax.swing.JScrollPane;
 import org.apache.commons.collections.CollectionUtils;
 
 import org.openmicroscopy.shoola.agents.dataBrowser.Colors;
+import org.openmicroscopy.shoola.agents.dataBrowser.ThumbnailProvider;
 import org.openmicroscopy.shoola.agents.dataBrowser.layout.Layout;
 import org.openmicroscopy.shoola.agents.dataBrowser.layout.LayoutFactory;
 import org.openmicroscopy.shoola.agents.dataBrowser.visitor.FilesetVisitor;
@@ -109,6 +112,12 @@ class BrowserModel
 	/** The collection of original images. */
 	private Set<ImageDisplay>	originalNodes;
 	
+	/**
+	 * Displays the images if the browser was created from the images
+	 * instead of the visualization trees, <code>null</code> otherwise.
+	 */
+	private ThumbnailGrid		grid;
+	
 	/**
 	 * Adds the children of the passed node to its internal desktop.
 	 * This method should be invoked when user switches between layout.
@@ -229,6 +238,20 @@ class BrowserModel
 	    titleBarVisible = true;
 	}
 	
+	/**
+	 * Creates a new instance displaying the images in a grid. The nodes of
+	 * the images are only created when needed.
+	 * 
+	 * @param view The root display. Mustn't be <code>null</code>.
+	 * @param images The images to display. Mustn't be <code>null</code>.
+	 */
+	BrowserModel(RootDisplay view, Collection<ImageData> images)
+	{
+	    this(view);
+	    grid = new ThumbnailGrid(this, images);
+	    rootDisplay.getDeskDecorator().setViewportView(grid);
+	}
+	
     /**
      * Sets the title and the color of the selected node.
      * 
@@ -417,6 +440,7 @@ class BrowserModel
 	 */
 	public Set<DataObject> getImages()
 	{ 
+	    if (grid != null) return grid.getImages(false);
 	    //Note: avoid caching b/c we don't know yet what we are going
 	    //to do with updates
 	    ImageFinder finder = new ImageFinder();
@@ -430,6 +454,8 @@ class BrowserModel
 	 */
 	public Set<ImageDisplay> getImageNodes()
 	{ 
+	    if (grid != null)
+	        return new HashSet<ImageDisplay>(grid.getNodes(false));
 	    //Note: avoid caching b/c we don't know yet what we are going
 	    //to do with updates
 	    ImageFinder finder = new ImageFinder();
@@ -443,7 +469,7 @@ class BrowserModel
 	 */
 	public void accept(ImageDisplayVisitor visitor) 
 	{
-	    rootDisplay.accept(visitor, ImageDisplayVisitor.ALL_NODES);
+	    accept(visitor, ImageDisplayVisitor.ALL_NODES);
 	}
 	
 	/**
@@ -452,7 +478,13 @@ class BrowserModel
 	 */
 	public void accept(ImageDisplayVisitor visitor, int algoType) 
 	{
+	    if (grid != null && visitor instanceof Layout) {
+	        grid.refresh((Layout) visitor);
+	        return;
+	    }
 	    rootDisplay.accept(visitor, algoType);
+	    if (grid != null && algoType != ImageDisplayVisitor.IMAGE_SET_ONLY)
+	        grid.accept(visitor);
 	}
 	
 	/**
@@ -537,6 +569,7 @@ class BrowserModel
 	 */
 	public void resetChildDisplay()
 	{
+	    if (grid != null) return;
 	    rootDisplay.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
 	    Collection<ImageDisplay> rootChildren = rootDisplay.getChildrenDisplay();
 	    JComponent desktop = rootDisplay.getInternalDesktop();
@@ -585,7 +618,8 @@ class BrowserModel
 			//Check again
 			Collection<ImageDisplay> selected = getSelectedDisplays();
             if (CollectionUtils.isEmpty(selected)) {
-                setNodesColor(null, getRootNodes());
+                if (grid != null) setNodesColor(null, grid.getCreatedNodes());
+                else setNodesColor(null, getRootNodes());
             }
 			return;
 		}
@@ -614,6 +648,10 @@ class BrowserModel
 	{
 		ResetNodesVisitor visitor = new ResetNodesVisitor(nodes, true);
 		rootDisplay.accept(visitor, ImageDisplayVisitor.IMAGE_SET_ONLY);
+		if (grid != null) {
+			grid.setFilter(nodes);
+			grid.refresh(selectedLayout);
+		}
 		final Set<DataObject> visibleDataObjects = getVisibleImages();
 		final Collection<DataObject> selectedDataObjects = getSelectedDataObjects();
 		final Set<ImageDisplay> nodesWithVisibleSelectedDataObjects = new HashSet<ImageDisplay>();
@@ -631,6 +669,11 @@ class BrowserModel
 	 */
 	public void showAll()
 	{
+		if (grid != null) {
+			grid.setFilter(null);
+			grid.refresh(selectedLayout);
+			return;
+		}
 		setFilterNodes(getImageNodes());
 	}
 
@@ -640,6 +683,7 @@ class BrowserModel
 	 */
 	public Set<DataObject> getOriginal()
 	{
+		if (grid != null) return grid.getImages(false);
 		Set<DataObject> nodes = new HashSet<DataObject>();
 		Iterator<ImageDisplay> i = originalNodes.iterator();
 		Object ho;
@@ -651,12 +695,53 @@ class BrowserModel
 		return nodes;
 	}
 
+	/**
+	 * Implemented as specified by the {@link Browser} interface.
+	 * @see Browser#addImages(Collection)
+	 */
+	public List<ImageData> addImages(Collection<ImageData> images)
+	{
+		if (grid != null) return grid.addImages(images);
+		List<ImageData> added = new ArrayList<ImageData>();
+		if (images == null) return added;
+		Set<Long> ids = new HashSet<Long>();
+		double f = -1;
+		Iterator<ImageDisplay> i = originalNodes.iterator();
+		ImageDisplay display;
+		while (i.hasNext()) {
+			display = i.next();
+			if (display.getHierarchyObject() instanceof DataObject)
+				ids.add(((DataObject) display.getHierarchyObject()).getId());
+			if (f < 0 && display instanceof ImageNode)
+				f = ((ImageNode) display).getThumbnail().getScalingFactor();
+		}
+		List<ImageDisplay> nodes = new ArrayList<ImageDisplay>();
+		ThumbnailProvider provider;
+		ImageNode node;
+		for (ImageData image : images) {
+			if (image.getId() >= 0 && !ids.add(image.getId())) continue;
+			provider = new ThumbnailProvider(image);
+			if (f > 0) provider.scale(f);
+			node = new ImageNode(image.getId() >= 0 ? image.getName() : "",
+					image, provider);
+			provider.setImageNode(node);
+			rootDisplay.addChildDisplay(node);
+			originalNodes.add(node);
+			nodes.add(node);
+			added.add(image);
+		}
+		if (nodes.size() > 0) firePropertyChange(NODES_ADDED_PROPERTY, null,
+				nodes);
+		return added;
+	}
+
 	/**
 	 * Implemented as specified by the {@link Browser} interface.
 	 * @see Browser#getVisibleImages()
 	 */
 	public Set<DataObject> getVisibleImages()
 	{
+		if (grid != null) return grid.getImages(true);
 		//Note: avoid caching b/c we don't know yet what we are going
 		//to do with updates
 	    ImageFinder finder = new ImageFinder();
@@ -670,6 +755,7 @@ class BrowserModel
 	 */
 	public List<ImageNode> getVisibleImageNodes()
 	{
+		if (grid != null) return grid.getNodes(true);
 		//Note: avoid caching b/c we don't know yet what we are going
 		//to do with updates
 	    ImageFinder finder = new ImageFinder();
@@ -683,6 +769,7 @@ class BrowserModel
      */
     public List<ImageNode> getVisibleNodes()
     {
+        if (grid != null) return grid.getNodes(true);
         //Note: avoid caching b/c we don't know yet what we are going
         //to do with updates
         ImageFinder finder = new ImageFinder();
@@ -690,6 +777,26 @@ class BrowserModel
         return new ArrayList<ImageNode>(finder.getVisibleImageNodes());
     }
 
+	/**
+	 * Implemented as specified by the {@link Browser} interface.
+	 * @see Browser#getVisibleThumbnails()
+	 */
+	public Map<Thumbnail, DataObject> getVisibleThumbnails()
+	{
+		if (grid != null) return grid.getThumbnails();
+		Map<Thumbnail, DataObject> m =
+				new LinkedHashMap<Thumbnail, DataObject>();
+		Iterator<ImageNode> i = getVisibleImageNodes().iterator();
+		ImageNode node;
+		while (i.hasNext()) {
+			node = i.next();
+			if (node.getHierarchyObject() instanceof DataObject)
+				m.put(node.getThumbnail(),
+						(DataObject) node.getHierarchyObject());
+		}
+		return m;
+	}
+
 	/**
 	 * Implemented as specified by the {@link Browser} interface.
 	 * @see Browser#setNodesSelection(Collection)
@@ -800,6 +907,11 @@ class BrowserModel
 	 * @see Browser#setSelectedDisplay(Point, boolean)
 	 */
 	public void setSelectedDisplay(Point coords, boolean multiSel) {
+		if (grid != null) {
+			ImageDisplay node = grid.getNode(coords);
+			if (node != null) setSelectedDisplay(node, multiSel, true);
+			return;
+		}
 		Component c = rootDisplay.getInternalDesktop().getComponentAt(coords);
 		if (c != null && c instanceof ImageDisplay) {
 			setSelectedDisplay((ImageDisplay) c, multiSel, true);
@@ -884,6 +996,10 @@ class BrowserModel
 	public void scrollToNode(ImageDisplay node)
 	{
 		if (node == null) return;
+		if (grid != null) {
+			grid.scrollToNode(node);
+			return;
+		}
 		JScrollPane pane = rootDisplay.getDeskDecorator();
 		Rectangle bounds = node.getBounds();
 		Rectangle viewRect = pane.getViewport().getViewRect();
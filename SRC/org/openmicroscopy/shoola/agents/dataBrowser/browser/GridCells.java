@@ -0,0 +1,249 @@
+/*
+ * org.openmicroscopy.shoola.agents.dataBrowser.browser.GridCells
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.agents.dataBrowser.browser;
+
+//Java imports
+import java.awt.Dimension;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+//Third-party libraries
+
+//Application-internal dependencies
+
+/**
+ * Maps the items displayed by a {@link ThumbnailGrid} onto the cells of
+ * the grid, the cells being filled row by row.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+class GridCells<T>
+{
+
+    /** The items displayed, in the order of the cells. */
+    private final List<T> items;
+
+    /** The index of the cell of each item. */
+    private final Map<T, Integer> indexes;
+
+    /** The size of a cell. */
+    private Dimension cellSize;
+
+    /** The number of cells in a row. */
+    private int columns;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param cellSize The size of a cell. Mustn't be <code>null</code>.
+     */
+    GridCells(Dimension cellSize)
+    {
+        items = new ArrayList<T>();
+        indexes = new HashMap<T, Integer>();
+        setGeometry(cellSize, 1, 0);
+    }
+
+    /**
+     * Sets the items to display, in the order of the cells.
+     *
+     * @param l The items to display.
+     */
+    void setItems(List<T> l)
+    {
+        items.clear();
+        indexes.clear();
+        if (l == null) return;
+        for (T item : l) {
+            if (!indexes.containsKey(item)) {
+                indexes.put(item, items.size());
+                items.add(item);
+            }
+        }
+    }
+
+    /**
+     * Sets the size of the cells and the number of cells in a row.
+     *
+     * @param cellSize The size of a cell. Mustn't be <code>null</code>.
+     * @param perRow The number of cells per row or <code>0</code> to fit
+     *               the specified width.
+     * @param width The width to fit if the number of cells per row is not
+     *              set.
+     */
+    void setGeometry(Dimension cellSize, int perRow, int width)
+    {
+        if (cellSize == null || cellSize.width <= 0 || cellSize.height <= 0)
+            throw new IllegalArgumentException("Cell size not valid.");
+        this.cellSize = cellSize;
+        if (perRow > 0) columns = perRow;
+        else columns = Math.max(1, width/cellSize.width);
+    }
+
+    /**
+     * Returns the number of cells in a row.
+     *
+     * @return See above.
+     */
+    int getColumns() { return columns; }
+
+    /**
+     * Returns the size of a cell.
+     *
+     * @return See above.
+     */
+    Dimension getCellSize() { return cellSize; }
+
+    /**
+     * Returns the number of items displayed.
+     *
+     * @return See above.
+     */
+    int size() { return items.size(); }
+
+    /**
+     * Returns the items displayed, in the order of the cells.
+     *
+     * @return See above.
+     */
+    List<T> getItems() { return items; }
+
+    /**
+     * Returns the index of the cell displaying the specified item or
+     * <code>-1</code> if the item is not displayed.
+     *
+     * @param item The item to handle.
+     * @return See above.
+     */
+    int indexOf(T item)
+    {
+        Integer index = indexes.get(item);
+        return index == null ? -1 : index.intValue();
+    }
+
+    /**
+     * Returns the items displayed between the specified items, both
+     * included, in the order of the cells. Returns an empty list if one of
+     * the items is not displayed.
+     *
+     * @param first One end of the range.
+     * @param last The other end of the range.
+     * @return See above.
+     */
+    List<T> getRange(T first, T last)
+    {
+        int i = indexOf(first);
+        int j = indexOf(last);
+        if (i < 0 || j < 0) return new ArrayList<T>();
+        return new ArrayList<T>(items.subList(Math.min(i, j),
+                Math.max(i, j)+1));
+    }
+
+    /**
+     * Returns the item displayed at the specified location or
+     * <code>null</code> if there is no cell at that location.
+     *
+     * @param p The location in the grid.
+     * @return See above.
+     */
+    T getItemAt(Point p)
+    {
+        if (p == null || p.x < 0 || p.y < 0) return null;
+        int column = p.x/cellSize.width;
+        if (column >= columns) return null;
+        int index = (p.y/cellSize.height)*columns+column;
+        if (index >= items.size()) return null;
+        return items.get(index);
+    }
+
+    /**
+     * Returns the bounds of the specified cell.
+     *
+     * @param index The index of the cell.
+     * @return See above.
+     */
+    Rectangle getBounds(int index)
+    {
+        return new Rectangle((index%columns)*cellSize.width,
+                (index/columns)*cellSize.height, cellSize.width,
+                cellSize.height);
+    }
+
+    /**
+     * Returns the bounds of the cell displaying the specified item or
+     * <code>null</code> if the item is not displayed.
+     *
+     * @param item The item to handle.
+     * @return See above.
+     */
+    Rectangle getBounds(T item)
+    {
+        int index = indexOf(item);
+        return index < 0 ? null : getBounds(index);
+    }
+
+    /**
+     * Returns the indexes of the cells intersecting the specified area,
+     * row by row.
+     *
+     * @param area The area to handle.
+     * @return See above.
+     */
+    List<Integer> getIndexesIn(Rectangle area)
+    {
+        List<Integer> l = new ArrayList<Integer>();
+        if (area == null || area.isEmpty()) return l;
+        int firstRow = Math.max(0, area.y/cellSize.height);
+        int lastRow = (area.y+area.height-1)/cellSize.height;
+        int firstColumn = Math.max(0, area.x/cellSize.width);
+        int lastColumn = Math.min(columns-1,
+                (area.x+area.width-1)/cellSize.width);
+        int index;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                index = row*columns+column;
+                if (index >= items.size()) return l;
+                l.add(index);
+            }
+        }
+        return l;
+    }
+
+    /**
+     * Returns the size required to display all the cells.
+     *
+     * @return See above.
+     */
+    Dimension getSize()
+    {
+        int rows = (items.size()+columns-1)/columns;
+        return new Dimension(columns*cellSize.width, rows*cellSize.height);
+    }
+
+}
@@ -0,0 +1,59 @@
+/*
+ * org.openmicroscopy.shoola.agents.dataBrowser.browser.GridVisitor
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.agents.dataBrowser.browser;
+
+//Java imports
+
+//Third-party libraries
+
+//Application-internal dependencies
+import omero.gateway.model.DataObject;
+
+/**
+ * A visitor which can also visit the images displayed in a grid. The
+ * images displayed in a grid do not have a node until one is needed e.g.
+ * when the image is selected. For the images without a node, the
+ * {@link #visit(DataObject, Thumbnail)} method is called instead of
+ * {@link #visit(ImageNode)}. The visitors not implementing this interface
+ * only visit the nodes already created.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+public interface GridVisitor
+    extends ImageDisplayVisitor
+{
+
+    /**
+     * Visits an image displayed in a grid whose node has not been created.
+     * Returns <code>true</code> if the node of the image has to be created
+     * and visited, <code>false</code> otherwise.
+     *
+     * @param object The image.
+     * @param thumbnail The thumbnail of the image.
+     * @return See above.
+     */
+    public boolean visit(DataObject object, Thumbnail thumbnail);
+
+}
@@ -44,7 +44,7 @@ import omero.gateway.model.WellSampleData;
  * @since OME3.0
  */
 public class ImageFinder
-    implements ImageDisplayVisitor
+    implements GridVisitor
 {
 
     /** Set of <code>ImageNode</code>s */
@@ -115,6 +115,17 @@ public class ImageFinder
         if (ho instanceof ImageData) images.add((ImageData) ho);
     }
 
+    /**
+     * Adds the image displayed in a grid to the images, the node is not
+     * created.
+     * @see GridVisitor#visit(DataObject, Thumbnail)
+     */
+    public boolean visit(DataObject object, Thumbnail thumbnail)
+    {
+        if (object instanceof ImageData) images.add(object);
+        return false;
+    }
+
     /**
      * Implemented as specified by {@link ImageDisplayVisitor}.
      * @see ImageDisplayVisitor#visit(ImageSet)
@@ -0,0 +1,720 @@
+/*
+ * org.openmicroscopy.shoola.agents.dataBrowser.browser.ThumbnailGrid
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.agents.dataBrowser.browser;
+
+//Java imports
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import javax.swing.JComponent;
+import javax.swing.Scrollable;
+import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+//Third-party libraries
+
+//Application-internal dependencies
+import org.openmicroscopy.shoola.agents.dataBrowser.ThumbnailProvider;
+import org.openmicroscopy.shoola.agents.dataBrowser.layout.Layout;
+import org.openmicroscopy.shoola.agents.util.ViewerSorter;
+import org.openmicroscopy.shoola.util.ui.UIUtilities;
+import org.openmicroscopy.shoola.util.ui.tpane.TinyPane;
+import omero.gateway.model.DataObject;
+import omero.gateway.model.ImageData;
+
+/**
+ * Displays the images in a grid painting only the visible cells, used
+ * instead of the image nodes when the browser displays a large number of
+ * images. The grid is built from the images: the node of an image is only
+ * created when needed e.g. when the image is selected, and is neither
+ * laid out nor painted. The thumbnails scaled to the size of the cells
+ * are kept in a cache whose size is bounded.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+class ThumbnailGrid
+    extends JComponent
+    implements Scrollable, PropertyChangeListener
+{
+
+    /** The space around a thumbnail. */
+    private static final int PADDING = 4;
+
+    /** The width of the border indicating the selection. */
+    private static final int BORDER = 2;
+
+    /** The maximum number of bytes used by the scaled thumbnails. */
+    private static final long CACHE_SIZE = 64L*1024*1024;
+
+    /** The delay before painting again the thumbnails not yet loaded. */
+    private static final int LOADING_DELAY = 200;
+
+    /** An image displayed in the grid. */
+    private static class Cell
+    {
+
+        /** The image. */
+        private final ImageData image;
+
+        /** The title displayed below the thumbnail. */
+        private final String title;
+
+        /** The thumbnail of the image. */
+        private final Thumbnail thumbnail;
+
+        /** The node of the image, <code>null</code> until needed. */
+        private ImageNode node;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param image The image.
+         */
+        private Cell(ImageData image)
+        {
+            this.image = image;
+            title = image.getId() >= 0 ? image.getName() : "";
+            thumbnail = new ThumbnailProvider(image);
+        }
+
+    }
+
+    /** Reference to the model. */
+    private final BrowserModel model;
+
+    /** The images, in the order they were passed. */
+    private final List<Cell> all;
+
+    /** The cells whose node has been created. */
+    private final Map<ImageNode, Cell> created;
+
+    /** The cells displayed, <code>null</code> if no filter is applied. */
+    private Set<Cell> filter;
+
+    /** Maps the cells displayed onto the grid. */
+    private final GridCells<Cell> cells;
+
+    /** The number of cells per row set by the layout, 0 to fit the width. */
+    private int perRow;
+
+    /** The size of a thumbnail. */
+    private Dimension thumbSize;
+
+    /** The scaled thumbnails, the least recently painted first. */
+    private final LinkedHashMap<Cell, BufferedImage> cache;
+
+    /** The thumbnails the scaled ones were created from. */
+    private final Map<Cell, BufferedImage> sources;
+
+    /** The number of bytes used by the scaled thumbnails. */
+    private long used;
+
+    /** Paints again the visible cells while thumbnails are loading. */
+    private final Timer loading;
+
+    /** The cell a range selected with the shift key starts from. */
+    private Cell anchor;
+
+    /**
+     * Returns the height of the label below a thumbnail.
+     *
+     * @return See above.
+     */
+    private int getLabelHeight()
+    {
+        return getFontMetrics(getFont()).getHeight();
+    }
+
+    /**
+     * Sets the size of the cells and the number of cells in a row
+     * according to the size of the thumbnails and the width available.
+     *
+     * @return The cells laid out.
+     */
+    private GridCells<Cell> layoutCells()
+    {
+        int w = getParent() == null ? getWidth() : getParent().getWidth();
+        cells.setGeometry(new Dimension(thumbSize.width+2*PADDING,
+                thumbSize.height+getLabelHeight()+2*PADDING), perRow, w);
+        return cells;
+    }
+
+    /**
+     * Returns the node of the specified cell, creates it if needed.
+     *
+     * @param cell The cell to handle.
+     * @return See above.
+     */
+    private ImageNode getNode(Cell cell)
+    {
+        if (cell.node == null) {
+            cell.node = new ImageNode(cell.title, cell.image, cell.thumbnail);
+            cell.thumbnail.setImageNode(cell.node);
+            cell.node.addPropertyChangeListener(TinyPane.HIGHLIGHT_PROPERTY,
+                    this);
+            created.put(cell.node, cell);
+        }
+        return cell.node;
+    }
+
+    /**
+     * Returns <code>true</code> if the specified cell is displayed,
+     * <code>false</code> otherwise.
+     *
+     * @param cell The cell to handle.
+     * @return See above.
+     */
+    private boolean isDisplayed(Cell cell)
+    {
+        return filter == null || filter.contains(cell);
+    }
+
+    /**
+     * Returns the thumbnail of the cell scaled to fit the cells, or
+     * <code>null</code> if the thumbnail is not loaded yet.
+     *
+     * @param cell The cell to handle.
+     * @return See above.
+     */
+    private BufferedImage getScaledThumbnail(Cell cell)
+    {
+        BufferedImage source = cell.thumbnail.getFullScaleThumb();
+        if (source == null) return null;
+        BufferedImage scaled = cache.get(cell);
+        if (scaled != null && sources.get(cell) == source) return scaled;
+        if (scaled != null) remove(cell);
+        double f = Math.min((double) thumbSize.width/source.getWidth(),
+                (double) thumbSize.height/source.getHeight());
+        int w = Math.max(1, (int) (source.getWidth()*f));
+        int h = Math.max(1, (int) (source.getHeight()*f));
+        scaled = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(source, 0, 0, w, h, null);
+        g.dispose();
+        long size = 4L*w*h;
+        Iterator<Entry<Cell, BufferedImage>> i = cache.entrySet().iterator();
+        Entry<Cell, BufferedImage> e;
+        while (used+size > CACHE_SIZE && i.hasNext()) {
+            e = i.next();
+            used -= 4L*e.getValue().getWidth()*e.getValue().getHeight();
+            sources.remove(e.getKey());
+            i.remove();
+        }
+        cache.put(cell, scaled);
+        sources.put(cell, source);
+        used += size;
+        return scaled;
+    }
+
+    /**
+     * Removes the scaled thumbnail of the specified cell from the cache.
+     *
+     * @param cell The cell to handle.
+     */
+    private void remove(Cell cell)
+    {
+        BufferedImage img = cache.remove(cell);
+        sources.remove(cell);
+        if (img != null) used -= 4L*img.getWidth()*img.getHeight();
+    }
+
+    /** Discards the scaled thumbnails. */
+    private void clearCache()
+    {
+        cache.clear();
+        sources.clear();
+        used = 0;
+    }
+
+    /**
+     * Paints the specified cell.
+     *
+     * @param g The graphics context.
+     * @param cell The cell to paint.
+     * @param r The bounds of the cell.
+     * @return <code>true</code> if the thumbnail is painted,
+     *         <code>false</code> if not loaded yet.
+     */
+    private boolean paintCell(Graphics2D g, Cell cell, Rectangle r)
+    {
+        Color c = cell.node == null ? null : cell.node.getHighlight();
+        if (c != null) {
+            g.setColor(c);
+            g.fillRect(r.x+PADDING-BORDER, r.y+PADDING-BORDER,
+                    thumbSize.width+2*BORDER, thumbSize.height+2*BORDER);
+        }
+        BufferedImage img = getScaledThumbnail(cell);
+        if (img != null) {
+            g.drawImage(img, r.x+PADDING+(thumbSize.width-img.getWidth())/2,
+                    r.y+PADDING+(thumbSize.height-img.getHeight())/2, null);
+        } else {
+            g.setColor(Color.LIGHT_GRAY);
+            g.fillRect(r.x+PADDING, r.y+PADDING, thumbSize.width,
+                    thumbSize.height);
+        }
+        String title = cell.title;
+        if (title != null) {
+            FontMetrics fm = g.getFontMetrics();
+            int max = r.width-2*PADDING;
+            if (fm.stringWidth(title) > max) {
+                int n = title.length();
+                while (n > 0 && fm.stringWidth(title.substring(0, n)+
+                        UIUtilities.DOTS) > max)
+                    n--;
+                title = title.substring(0, n)+UIUtilities.DOTS;
+            }
+            g.setColor(getForeground());
+            g.drawString(title, r.x+PADDING,
+                    r.y+2*PADDING+thumbSize.height+fm.getAscent());
+        }
+        return img != null;
+    }
+
+    /**
+     * Selects the images displayed between the cell last clicked and the
+     * specified one, both included. Only selects the specified cell if no
+     * cell was clicked before or if that cell is no longer displayed.
+     *
+     * @param cell The cell clicked.
+     */
+    private void selectRange(Cell cell)
+    {
+        List<Cell> range = anchor == null ? null :
+            layoutCells().getRange(anchor, cell);
+        if (range == null || range.isEmpty()) {
+            anchor = cell;
+            model.setSelectedDisplay(getNode(cell), false, true);
+            return;
+        }
+        List<ImageDisplay> nodes = new ArrayList<ImageDisplay>(range.size());
+        for (Cell c : range)
+            nodes.add(getNode(c));
+        model.setNodesSelection(nodes);
+    }
+
+    /**
+     * Handles the mouse pressed or released event.
+     *
+     * @param me The event to handle.
+     * @param released Pass <code>true</code> if the mouse is released,
+     *                 <code>false</code> otherwise.
+     */
+    private void onClick(MouseEvent me, boolean released)
+    {
+        Cell cell = layoutCells().getItemAt(me.getPoint());
+        if (cell == null) return;
+        ImageNode node = getNode(cell);
+        Point p = SwingUtilities.convertPoint(this, me.getPoint(),
+                model.getUI());
+        boolean popup = me.isPopupTrigger() ||
+                (UIUtilities.isMacOS() && SwingUtilities.isLeftMouseButton(me)
+                        && me.isControlDown());
+        if (!released) {
+            if (popup) {
+                if (!model.getSelectedDisplays().contains(node))
+                    model.setSelectedDisplay(node, false, true);
+            } else if (me.isShiftDown()) {
+                selectRange(cell);
+            } else if (me.isControlDown() || me.isMetaDown()) {
+                anchor = cell;
+                if (model.getSelectedDisplays().contains(node))
+                    model.removeSelectedDisplay(node);
+                else model.setSelectedDisplay(node, true, true);
+            } else if (me.getClickCount() == 1) {
+                anchor = cell;
+                model.setSelectedDisplay(node, false, true);
+            } else if (me.getClickCount() == 2) {
+                model.viewDisplay(node, false);
+            }
+        }
+        model.setPopupPoint(p, false);
+        if (popup) model.setPopupPoint(p, true);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param model Reference to the model. Mustn't be <code>null</code>.
+     * @param images The images to display. Mustn't be <code>null</code>.
+     */
+    ThumbnailGrid(BrowserModel model, Collection<ImageData> images)
+    {
+        if (model == null) throw new NullPointerException("No model.");
+        if (images == null) throw new NullPointerException("No images.");
+        this.model = model;
+        all = new ArrayList<Cell>(images.size());
+        Set<Long> ids = new HashSet<Long>();
+        for (ImageData image : images) {
+            if (image.getId() < 0 || ids.add(image.getId()))
+                all.add(new Cell(image));
+        }
+        created = new HashMap<ImageNode, Cell>();
+        thumbSize = new Dimension(Thumbnail.THUMB_MAX_WIDTH,
+                Thumbnail.THUMB_MAX_HEIGHT);
+        cells = new GridCells<Cell>(thumbSize);
+        cells.setItems(all);
+        cache = new LinkedHashMap<Cell, BufferedImage>(16, 0.75f, true);
+        sources = new HashMap<Cell, BufferedImage>();
+        loading = new Timer(LOADING_DELAY, new ActionListener() {
+            public void actionPerformed(ActionEvent e) { repaint(); }
+        });
+        loading.setRepeats(false);
+        setOpaque(true);
+        setBackground(UIUtilities.BACKGROUND);
+        MouseAdapter adapter = new MouseAdapter() {
+            public void mousePressed(MouseEvent me) { onClick(me, false); }
+            public void mouseReleased(MouseEvent me) { onClick(me, true); }
+            public void mouseMoved(MouseEvent me)
+            {
+                if (!ThumbnailGrid.this.model.isRollOver()) return;
+                Cell cell = layoutCells().getItemAt(me.getPoint());
+                RollOverNode n = null;
+                if (cell != null) {
+                    Point p = cells.getBounds(cell).getLocation();
+                    SwingUtilities.convertPointToScreen(p,
+                            ThumbnailGrid.this);
+                    n = new RollOverNode(getNode(cell), p);
+                }
+                ThumbnailGrid.this.model.setRollOverNode(n);
+            }
+            public void mouseExited(MouseEvent me)
+            {
+                if (ThumbnailGrid.this.model.isRollOver())
+                    ThumbnailGrid.this.model.setRollOverNode(null);
+            }
+        };
+        addMouseListener(adapter);
+        addMouseMotionListener(adapter);
+    }
+
+    /**
+     * Adds the specified images to the images already displayed, the
+     * images already displayed are ignored. The added images are displayed
+     * even if a filter is applied. The layout has to be applied again.
+     *
+     * @param images The images to add.
+     * @return The images added.
+     */
+    List<ImageData> addImages(Collection<ImageData> images)
+    {
+        List<ImageData> added = new ArrayList<ImageData>();
+        if (images == null) return added;
+        Set<Long> ids = new HashSet<Long>();
+        for (Cell cell : all)
+            ids.add(cell.image.getId());
+        Cell cell;
+        for (ImageData image : images) {
+            if (image.getId() >= 0 && !ids.add(image.getId())) continue;
+            cell = new Cell(image);
+            if (!all.isEmpty())
+                cell.thumbnail.scale(all.get(0).thumbnail.getScalingFactor());
+            all.add(cell);
+            if (filter != null) filter.add(cell);
+            added.add(image);
+        }
+        return added;
+    }
+
+    /**
+     * Displays the images passing the filter sorted and laid out as
+     * specified by the layout.
+     *
+     * @param layout The layout selected.
+     */
+    void refresh(Layout layout)
+    {
+        List<Cell> l = new ArrayList<Cell>(all.size());
+        for (Cell cell : all) {
+            if (isDisplayed(cell)) l.add(cell);
+        }
+        ViewerSorter sorter = layout == null ? null : layout.getSorter();
+        if (sorter != null) {
+            Map<Object, Cell> images = new IdentityHashMap<Object, Cell>();
+            for (Cell cell : l)
+                images.put(cell.image, cell);
+            List<Cell> sorted = new ArrayList<Cell>(l.size());
+            for (Object o : sorter.sort(images.keySet()))
+                sorted.add(images.get(o));
+            l = sorted;
+        }
+        cells.setItems(l);
+        perRow = layout == null ? 0 : layout.getImagesPerRow();
+        Dimension d = thumbSize;
+        if (!all.isEmpty()) {
+            double f = all.get(0).thumbnail.getScalingFactor();
+            d = new Dimension((int) (Thumbnail.THUMB_MAX_WIDTH*f),
+                    (int) (Thumbnail.THUMB_MAX_HEIGHT*f));
+        }
+        if (!d.equals(thumbSize)) {
+            thumbSize = d;
+            clearCache();
+        }
+        Set<Cell> displayed = new HashSet<Cell>(l);
+        cache.keySet().retainAll(displayed);
+        sources.keySet().retainAll(displayed);
+        used = 0;
+        for (BufferedImage img : cache.values())
+            used += 4L*img.getWidth()*img.getHeight();
+        revalidate();
+        repaint();
+    }
+
+    /**
+     * Only displays the images of the specified nodes, displays all the
+     * images if <code>null</code>. The layout has to be applied again.
+     *
+     * @param nodes The nodes of the images to display.
+     */
+    void setFilter(Collection<ImageDisplay> nodes)
+    {
+        if (nodes == null) {
+            filter = null;
+            return;
+        }
+        filter = new HashSet<Cell>();
+        Cell cell;
+        for (ImageDisplay node : nodes) {
+            cell = created.get(node);
+            if (cell != null) filter.add(cell);
+        }
+    }
+
+    /**
+     * Has the visitor visit the nodes already created. If the visitor is a
+     * {@link GridVisitor}, the images without a node are visited too and
+     * their node is created if requested by the visitor.
+     *
+     * @param visitor The visitor.
+     */
+    void accept(ImageDisplayVisitor visitor)
+    {
+        GridVisitor gv = null;
+        if (visitor instanceof GridVisitor) gv = (GridVisitor) visitor;
+        for (Cell cell : all) {
+            if (cell.node != null) visitor.visit(cell.node);
+            else if (gv != null && gv.visit(cell.image, cell.thumbnail))
+                visitor.visit(getNode(cell));
+        }
+    }
+
+    /**
+     * Returns the nodes of the images already created. The nodes of the
+     * other images are not created, {@link #getThumbnails()} or a
+     * {@link GridVisitor} should be used to handle all the images.
+     *
+     * @param displayed Pass <code>true</code> to only return the nodes of
+     *                  the images displayed, <code>false</code> otherwise.
+     * @return See above.
+     */
+    List<ImageNode> getNodes(boolean displayed)
+    {
+        List<ImageNode> l = new ArrayList<ImageNode>(created.size());
+        for (Cell cell : all) {
+            if (cell.node != null && (!displayed || isDisplayed(cell)))
+                l.add(cell.node);
+        }
+        return l;
+    }
+
+    /**
+     * Returns the nodes already created.
+     *
+     * @return See above.
+     */
+    Collection<ImageDisplay> getCreatedNodes()
+    {
+        return new ArrayList<ImageDisplay>(created.keySet());
+    }
+
+    /**
+     * Returns the images.
+     *
+     * @param displayed Pass <code>true</code> to only return the images
+     *                  displayed, <code>false</code> otherwise.
+     * @return See above.
+     */
+    Set<DataObject> getImages(boolean displayed)
+    {
+        Set<DataObject> l = new HashSet<DataObject>();
+        for (Cell cell : all) {
+            if (!displayed || isDisplayed(cell)) l.add(cell.image);
+        }
+        return l;
+    }
+
+    /**
+     * Returns the thumbnails of the images displayed, the images being the
+     * values. The nodes are not created.
+     *
+     * @return See above.
+     */
+    Map<Thumbnail, DataObject> getThumbnails()
+    {
+        Map<Thumbnail, DataObject> m =
+                new LinkedHashMap<Thumbnail, DataObject>();
+        for (Cell cell : all) {
+            if (isDisplayed(cell)) m.put(cell.thumbnail, cell.image);
+        }
+        return m;
+    }
+
+    /**
+     * Returns the node displayed at the specified location or
+     * <code>null</code>. The node is created if needed.
+     *
+     * @param p The location in the grid.
+     * @return See above.
+     */
+    ImageNode getNode(Point p)
+    {
+        Cell cell = layoutCells().getItemAt(p);
+        return cell == null ? null : getNode(cell);
+    }
+
+    /**
+     * Scrolls to the cell displaying the specified node.
+     *
+     * @param node The node to display.
+     */
+    void scrollToNode(ImageDisplay node)
+    {
+        Cell cell = created.get(node);
+        if (cell == null) return;
+        Rectangle r = layoutCells().getBounds(cell);
+        if (r != null) scrollRectToVisible(r);
+    }
+
+    /**
+     * Paints the cell of the node whose highlight changed.
+     * @see PropertyChangeListener#propertyChange(PropertyChangeEvent)
+     */
+    public void propertyChange(PropertyChangeEvent evt)
+    {
+        Cell cell = created.get(evt.getSource());
+        if (cell == null) return;
+        Rectangle r = layoutCells().getBounds(cell);
+        if (r != null) repaint(r);
+    }
+
+    /**
+     * Returns the size required to display all the cells.
+     * @see JComponent#getPreferredSize()
+     */
+    public Dimension getPreferredSize() { return layoutCells().getSize(); }
+
+    /**
+     * Paints the visible cells only.
+     * @see JComponent#paintComponent(Graphics)
+     */
+    protected void paintComponent(Graphics g)
+    {
+        Graphics2D g2D = (Graphics2D) g;
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) clip = new Rectangle(getSize());
+        g2D.setColor(getBackground());
+        g2D.fillRect(clip.x, clip.y, clip.width, clip.height);
+        g2D.setFont(getFont());
+        GridCells<Cell> l = layoutCells();
+        boolean missing = false;
+        for (Integer index : l.getIndexesIn(clip)) {
+            if (!paintCell(g2D, l.getItems().get(index), l.getBounds(index)))
+                missing = true;
+        }
+        if (missing) loading.restart();
+    }
+
+    /**
+     * Implemented as specified by the {@link Scrollable} interface.
+     * @see Scrollable#getPreferredScrollableViewportSize()
+     */
+    public Dimension getPreferredScrollableViewportSize()
+    {
+        return getPreferredSize();
+    }
+
+    /**
+     * Scrolls by one row or column.
+     * @see Scrollable#getScrollableUnitIncrement(Rectangle, int, int)
+     */
+    public int getScrollableUnitIncrement(Rectangle visibleRect,
+            int orientation, int direction)
+    {
+        Dimension d = layoutCells().getCellSize();
+        return orientation == SwingConstants.VERTICAL ? d.height : d.width;
+    }
+
+    /**
+     * Scrolls by the visible rows or columns.
+     * @see Scrollable#getScrollableBlockIncrement(Rectangle, int, int)
+     */
+    public int getScrollableBlockIncrement(Rectangle visibleRect,
+            int orientation, int direction)
+    {
+        Dimension d = layoutCells().getCellSize();
+        if (orientation == SwingConstants.VERTICAL)
+            return Math.max(d.height, (visibleRect.height/d.height)*d.height);
+        return Math.max(d.width, (visibleRect.width/d.width)*d.width);
+    }
+
+    /**
+     * Fits the width of the viewport unless the number of cells per row
+     * is set.
+     * @see Scrollable#getScrollableTracksViewportWidth()
+     */
+    public boolean getScrollableTracksViewportWidth() { return perRow <= 0; }
+
+    /**
+     * Implemented as specified by the {@link Scrollable} interface.
+     * @see Scrollable#getScrollableTracksViewportHeight()
+     */
+    public boolean getScrollableTracksViewportHeight() { return false; }
+
+}
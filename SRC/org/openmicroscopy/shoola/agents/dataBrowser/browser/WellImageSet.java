@@ -30,6 +30,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 
 import omero.gateway.model.TableResult;
+import org.openmicroscopy.shoola.env.data.model.ColumnarTableResult;
 import org.openmicroscopy.shoola.util.ui.UIUtilities;
 import omero.gateway.model.ImageData;
 import omero.gateway.model.WellData;
@@ -374,7 +375,18 @@ public class WellImageSet
 		while (i.hasNext()) {
 			table = i.next();
 			index = table.getColumnIndex(TableResult.WELL_COLUMN_INDEX);
-			if (index >= 0) {
+			if (index >= 0 && table instanceof ColumnarTableResult) {
+				//Look up the row without creating the values of the table.
+				ColumnarTableResult columns = (ColumnarTableResult) table;
+				headers = table.getHeaders();
+				values = new Object[headers.length];
+				int row = columns.findRow(index, wellID);
+				if (row >= 0) {
+					for (int k = 0; k < values.length; k++)
+						values[k] = columns.getValueAt(row, k);
+				}
+				tabularData.put(headers, values);
+			} else if (index >= 0) {
 				data = table.getData();
 				headers = table.getHeaders();
 				values = new Object[headers.length];
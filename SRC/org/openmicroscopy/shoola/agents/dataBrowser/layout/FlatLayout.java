@@ -143,4 +143,10 @@ class FlatLayout
      */
     public int getImagesPerRow() { return itemsPerRow; }
 
+    /**
+     * Implemented as specified by the {@link Layout} interface.
+     * @see Layout#getSorter()
+     */
+    public ViewerSorter getSorter() { return sorter; }
+
 }
@@ -30,6 +30,7 @@ import java.util.Set;
 
 //Application-internal dependencies
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageDisplayVisitor;
+import org.openmicroscopy.shoola.agents.util.ViewerSorter;
 
 /** 
  * Interface for layout classes.
@@ -87,4 +88,12 @@ public interface Layout
      */
     public int getImagesPerRow();
 
+    /**
+     * Returns the sorter used to order the images or <code>null</code>
+     * if the images are not sorted.
+     * 
+     * @return See above.
+     */
+    public ViewerSorter getSorter();
+
 }
@@ -34,6 +34,7 @@ import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageDisplay;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageNode;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageSet;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.WellSampleNode;
+import org.openmicroscopy.shoola.agents.util.ViewerSorter;
 import omero.gateway.model.WellSampleData;
 
 
@@ -167,4 +168,10 @@ public class PlateLayout
      */
     public int getImagesPerRow() { return 0; }
 
+    /**
+     * Implemented as specified by the {@link Layout} interface.
+     * @see Layout#getSorter()
+     */
+    public ViewerSorter getSorter() { return null; }
+
 }
@@ -182,4 +182,10 @@ class SquaryLayout
      */
     public int getImagesPerRow() { return itemsPerRow; }
 
+    /**
+     * Implemented as specified by the {@link Layout} interface.
+     * @see Layout#getSorter()
+     */
+    public ViewerSorter getSorter() { return sorter; }
+
 }
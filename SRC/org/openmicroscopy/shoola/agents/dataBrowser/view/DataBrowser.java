@@ -33,7 +33,7 @@ import org.openmicroscopy.shoola.agents.dataBrowser.RateFilter;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.Browser;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.CellDisplay;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageDisplay;
-import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageNode;
+import org.openmicroscopy.shoola.agents.dataBrowser.browser.Thumbnail;
 import org.openmicroscopy.shoola.env.LookupNames;
 import org.openmicroscopy.shoola.env.data.model.ApplicationData;
 import org.openmicroscopy.shoola.env.data.model.ThumbnailData;
@@ -47,6 +47,7 @@ import org.openmicroscopy.shoola.util.ui.component.ObservableComponent;
 
 import omero.gateway.model.DataObject;
 import omero.gateway.model.ExperimenterData;
+import omero.gateway.model.ImageData;
 
 
 /** 
@@ -633,11 +634,13 @@ public interface DataBrowser
 	 * Sets the data for the report.
 	 * 
 	 * @param data 	The data to add to report.
+	 * @param thumbnails The thumbnails of the images.
 	 * @param types	The types of annotation to add to the report.
 	 * @param path	The name of the report.
 	 */
-	public void setReportData(Map<ImageNode, StructuredDataResults> data, 
-			List<Class> types, String path);
+	public void setReportData(Map<DataObject, StructuredDataResults> data,
+			Map<DataObject, Thumbnail> thumbnails, List<Class> types,
+			String path);
 
 	/**
 	 * Creates a report.
@@ -858,4 +861,13 @@ public interface DataBrowser
      * @return See above.
      */
     ExperimenterData getCurrentUser();
+
+    /**
+     * Adds the specified images to the images already displayed e.g. when
+     * the images of the parent are loaded page by page. Only supported
+     * when browsing images.
+     * 
+     * @param images The images to add.
+     */
+    void addImages(Collection<ImageData> images);
 }
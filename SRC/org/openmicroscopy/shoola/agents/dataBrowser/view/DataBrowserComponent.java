@@ -28,8 +28,10 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
@@ -145,6 +147,43 @@ class DataBrowserComponent
 		UIUtilities.centerAndShow(wizard);
 	}
 
+	/**
+	 * Returns the thumbnails of the images displayed by the specified
+	 * browser, the images being the keys. The nodes of the images displayed
+	 * in a grid are not created.
+	 * 
+	 * @param browser The browser to handle.
+	 * @return See above.
+	 */
+	private static Map<DataObject, Thumbnail> getVisibleThumbnails(
+			Browser browser)
+	{
+		Map<DataObject, Thumbnail> m = new LinkedHashMap<DataObject, Thumbnail>();
+		Map<Thumbnail, DataObject> thumbnails = browser.getVisibleThumbnails();
+		if (thumbnails == null) return m;
+		Iterator<Entry<Thumbnail, DataObject>> i =
+				thumbnails.entrySet().iterator();
+		Entry<Thumbnail, DataObject> e;
+		while (i.hasNext()) {
+			e = i.next();
+			if (e.getValue() instanceof ImageData)
+				m.put(e.getValue(), e.getKey());
+		}
+		return m;
+	}
+
+	/**
+	 * Returns the name of the image as displayed by its node.
+	 * 
+	 * @param image The image to handle.
+	 * @return See above.
+	 */
+	private static String getImageName(DataObject image)
+	{
+		if (!(image instanceof ImageData)) return "";
+		return EditorUtil.getPartialName(((ImageData) image).getName());
+	}
+
 	/**
 	 * Creates a new instance.
 	 * The {@link #initialize() initialize} method should be called straight 
@@ -329,14 +368,13 @@ class DataBrowserComponent
 			return;
 		}
 		
-		final List<ImageNode> visibleNodes =
-				model.getBrowser().getVisibleImageNodes();
-		final List<Long> visibleObjectIds =
-				new ArrayList<Long>(visibleNodes.size());
-		for (final ImageNode visibleNode : visibleNodes) {
-			final Object hierarchyObject = visibleNode.getHierarchyObject();
-			if (hierarchyObject instanceof ImageData)
-				visibleObjectIds.add(((ImageData) hierarchyObject).getId());
+		final Set<DataObject> visibleObjects =
+				model.getBrowser().getVisibleImages();
+		final Set<Long> visibleObjectIds =
+				new HashSet<Long>(visibleObjects.size());
+		for (final DataObject visibleObject : visibleObjects) {
+			if (visibleObject instanceof ImageData)
+				visibleObjectIds.add(visibleObject.getId());
 		}
 		
 		List<Object> others = new ArrayList<Object>();
@@ -1239,16 +1277,16 @@ class DataBrowserComponent
 	{
 		if (!isImagesModel() || file == null) return;
 		Browser browser = model.getBrowser();
-		List<ImageNode> l = browser.getVisibleImageNodes();
+		Map<DataObject, Thumbnail> thumbnails = getVisibleThumbnails(browser);
 		
 		UserNotifier un = DataBrowserAgent.getRegistry().getUserNotifier();
-		if (l == null || l.size() == 0) {
+		if (thumbnails.size() == 0) {
 			un.notifyInfo("Save Thumbnails", "No images to save");
 			return;
 		}
-		List<ImageNode> nodes = model.sortCollection(l);
-		Iterator<ImageNode> i = nodes.iterator();
-		ImageNode node;
+		List<DataObject> nodes = model.sortCollection(thumbnails.keySet());
+		Iterator<DataObject> i = nodes.iterator();
+		DataObject node;
 		try {
 			ExcelWriter writer = new ExcelWriter(file.getAbsolutePath());
 			writer.openFile();
@@ -1264,8 +1302,8 @@ class DataBrowserComponent
 			String imageName;
 			while (i.hasNext()) {
 				node = i.next();
-				imageName = node.toString();
-				thumbnail = node.getThumbnail().getFullScaleThumb();
+				imageName = getImageName(node);
+				thumbnail = thumbnails.get(node).getFullScaleThumb();
 				writer.addImageToWorkbook(imageName, thumbnail); 
 				writer.writeImage(row, col, w, h, imageName);
 				writer.writeElement(row+6, col, imageName);
@@ -1289,9 +1327,8 @@ class DataBrowserComponent
 			row++;
 			while (i.hasNext()) {
 				node = i.next();
-				imageName = node.toString();
-				writer.writeElement(row, col, (
-						(DataObject) node.getHierarchyObject()).getId());
+				imageName = getImageName(node);
+				writer.writeElement(row, col, node.getId());
 				writer.writeElement(row, col+1, imageName);
 				row++;
 			}
@@ -1322,17 +1359,18 @@ class DataBrowserComponent
 
 	/**
 	 * Implemented as specified by the {@link DataBrowser} interface.
-	 * @see DataBrowser#setReportData(Collection, List, String)
+	 * @see DataBrowser#setReportData(Map, Map, List, String)
 	 */
-	public void setReportData(Map<ImageNode, StructuredDataResults> data, 
-			List<Class> types, String name)
+	public void setReportData(Map<DataObject, StructuredDataResults> data,
+			Map<DataObject, Thumbnail> thumbnails, List<Class> types,
+			String name)
 	{
 		if (data == null || data.size() == 0) return;
 		UserNotifier un = DataBrowserAgent.getRegistry().getUserNotifier();
 		//tags for now
 		List sorted = model.sortCollection(data.keySet());
-		Iterator<ImageNode> i = sorted.iterator();
-		ImageNode node;
+		Iterator<DataObject> i = sorted.iterator();
+		DataObject node;
 		Map<Long, List> tagImageMap = new HashMap<Long, List>();
 		Map<Long, TagAnnotationData> 
 			tagMap = new HashMap<Long, TagAnnotationData>();
@@ -1359,10 +1397,9 @@ class DataBrowserComponent
 			row++;
 			while (i.hasNext()) {
 				node = i.next();
-				imageName = node.toString();
-				rowImage.put(node.getHierarchyObject(), row);
-				writer.writeElement(row, col, (
-						(DataObject) node.getHierarchyObject()).getId());
+				imageName = getImageName(node);
+				rowImage.put(node, row);
+				writer.writeElement(row, col, node.getId());
 				writer.writeElement(row, col+1, imageName);
 				row++;
 				r = data.get(node);
@@ -1379,7 +1416,7 @@ class DataBrowserComponent
 							nodes = new ArrayList();
 							tagImageMap.put(id, nodes);
 						}
-						nodes.add(node.getHierarchyObject());
+						nodes.add(node);
 					}
 				}
 			}
@@ -1403,8 +1440,7 @@ class DataBrowserComponent
 				i = data.keySet().iterator();
 				while (i.hasNext()) {
 					count++;
-					node = i.next();
-					object = node.getHierarchyObject();
+					object = i.next();
 					row = rowImage.get(object);
 					value = 0;
 					if (nodes.contains(object)) value = 1;
@@ -1437,9 +1473,9 @@ class DataBrowserComponent
 			count = 0;
 			while (i.hasNext()) {
 				node = i.next();
-				id = ((DataObject) node.getHierarchyObject()).getId();
-				imageName = node.toString();
-				thumbnail = node.getThumbnail().getFullScaleThumb();
+				id = node.getId();
+				imageName = getImageName(node);
+				thumbnail = thumbnails.get(node).getFullScaleThumb();
 				writer.addImageToWorkbook(imageName, thumbnail); 
 				writer.writeImage(row, col, w, h, imageName);
 				writer.writeElement(row+3, col, id);
@@ -1473,14 +1509,14 @@ class DataBrowserComponent
 	public void createReport(String name)
 	{
 		Browser browser = model.getBrowser();
-		List<ImageNode> nodes = browser.getVisibleImageNodes();
-		if (nodes == null || nodes.size() == 0) {
+		Map<DataObject, Thumbnail> thumbnails = getVisibleThumbnails(browser);
+		if (thumbnails.size() == 0) {
 			UserNotifier un = DataBrowserAgent.getRegistry().getUserNotifier();
 			un.notifyInfo("Create Report", "No images displayed");
 			return;
 		}
 		List<Class> types = new ArrayList<Class>();
-		model.fireReportLoading(nodes, types, name);
+		model.fireReportLoading(thumbnails, types, name);
 	}
 
 	/**
@@ -1839,6 +1875,23 @@ class DataBrowserComponent
         return model.getCurrentUser();
     }
 
+    /** 
+     * Implemented as specified by the {@link DataBrowser} interface.
+     * @see DataBrowser#addImages(Collection)
+     */
+    public void addImages(Collection<ImageData> images)
+    {
+        if (model.getState() == DISCARDED || !(model instanceof ImagesModel))
+            return;
+        List<ImageData> added = ((ImagesModel) model).addImages(images);
+        if (added.size() == 0) return;
+        view.setNumberOfImages(-1);
+        view.layoutUI();
+        if (view.getSelectedView() == DataBrowserUI.THUMB_VIEW)
+            model.loadThumbnails(new ArrayList<DataObject>(added));
+        fireStateChange();
+    }
+
     /** 
      * Overridden to return the name of the instance to save. 
      * @see #toString()
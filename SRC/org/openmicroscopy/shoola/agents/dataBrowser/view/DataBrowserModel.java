@@ -28,6 +28,7 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.openmicroscopy.shoola.agents.dataBrowser.AnnotatedFilter;
@@ -49,6 +50,7 @@ import org.openmicroscopy.shoola.agents.dataBrowser.browser.Browser;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageDisplay;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageDisplayVisitor;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageNode;
+import org.openmicroscopy.shoola.agents.dataBrowser.browser.Thumbnail;
 import org.openmicroscopy.shoola.agents.dataBrowser.layout.Layout;
 import org.openmicroscopy.shoola.agents.dataBrowser.layout.LayoutFactory;
 import org.openmicroscopy.shoola.agents.dataBrowser.visitor.ResetThumbnailVisitor;
@@ -124,6 +126,12 @@ abstract class DataBrowserModel
 	/** Identifies the <code>FSFolderModel</code>. */
 	static final int FS_FOLDER = DataBrowser.FS_FOLDER;
 	
+	/**
+	 * The number of images from which the images are displayed in a grid
+	 * instead of being laid out as nodes.
+	 */
+	private static final String GRID_THRESHOLD = "/views/GRID_THRESHOLD";
+	
 	/** Holds one of the state flags defined by {@link DataBrowser}. */
     protected int state;
     
@@ -175,6 +183,12 @@ abstract class DataBrowserModel
     /** The number of images loaded. */
     protected int				imagesLoaded;
     
+    /**
+     * The images whose thumbnails are loaded when the thumbnails currently
+     * loading are loaded.
+     */
+    private List<DataObject>	thumbnailsToLoad;
+    
 	/** The parent of the nodes. Used as back pointer. */
     protected Object			parent;
 	
@@ -187,6 +201,21 @@ abstract class DataBrowserModel
 	/** The display mode.*/
     protected int displayMode;
     
+    /**
+     * Returns <code>true</code> if the specified number of images is
+     * displayed in a grid, <code>false</code> if the images are laid out
+     * as nodes.
+     * 
+     * @param n The number of images.
+     * @return See above.
+     */
+    static boolean isGridDisplayed(int n)
+    {
+    	Integer value = (Integer) DataBrowserAgent.getRegistry().lookup(
+    			GRID_THRESHOLD);
+    	return value != null && value.intValue() > 0 && n >= value.intValue();
+    }
+    
     /**
 	 * Invokes the value is not set. 
 	 */
@@ -473,6 +502,34 @@ abstract class DataBrowserModel
     	this.component = component;
     }
 
+    /**
+     * Loads the thumbnails of the specified images e.g. images added to
+     * the images already displayed. If thumbnails are already loading,
+     * the thumbnails are loaded when the current loading is done.
+     * 
+     * @param objects The images to handle.
+     */
+    void loadThumbnails(List<DataObject> objects)
+    {
+    	if (objects == null || objects.size() == 0) return;
+    	imagesLoaded += objects.size();
+    	if (state == DataBrowser.LOADING) {
+    		if (thumbnailsToLoad == null)
+    			thumbnailsToLoad = new ArrayList<DataObject>();
+    		thumbnailsToLoad.addAll(objects);
+    		return;
+    	}
+    	List<DataBrowserLoader> loaders = createThumbnailsLoader(
+    			sorter.sort(objects));
+    	if (loaders == null || loaders.size() == 0) return;
+    	thumbsManager = null;
+    	state = DataBrowser.LOADING;
+    	Iterator<DataBrowserLoader> i = loaders.iterator();
+    	while (i.hasNext()) {
+			i.next().load();
+		}
+    }
+
     /**
      * Sets the specified thumbnail for all image nodes in the display that
      * map to the same image hierarchy object.
@@ -495,7 +552,7 @@ abstract class DataBrowserModel
         		thumbsManager = new ThumbnailsManager(getNodes(), maxEntries);
         	} else {
         		thumbsManager = new ThumbnailsManager(
-        		          browser.getVisibleImageNodes(), maxEntries);
+        		          browser.getVisibleThumbnails(), maxEntries);
         	}
         }
 
@@ -504,6 +561,12 @@ abstract class DataBrowserModel
         if (thumbsManager.isDone()) {
             state = DataBrowser.READY;
             thumbsManager = null;
+            if (thumbnailsToLoad != null) {
+                List<DataObject> l = thumbnailsToLoad;
+                thumbnailsToLoad = null;
+                imagesLoaded -= l.size();
+                loadThumbnails(l);
+            }
         }
         return perc;
     }
@@ -715,15 +778,15 @@ abstract class DataBrowserModel
 	/**
 	 * Starts an asynchronous data retrieval for writing the report.
 	 * 
-	 * @param images 	The images to handle.
+	 * @param images 	The images to handle and their thumbnails.
 	 * @param types	 	The types of data to report.
 	 * @param name 		The name of the report.
 	 */
-	void fireReportLoading(Collection images, List<Class> types,
-			String name)
+	void fireReportLoading(Map<DataObject, Thumbnail> images,
+			List<Class> types, String name)
 	{
 		ReportLoader loader = new ReportLoader(component, ctx, types, 
-				sorter.sort(images), name);
+				images, name);
 		loader.load();
 	}
 	
@@ -29,6 +29,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 
 import javax.swing.JSplitPane;
 
@@ -253,33 +255,38 @@ class DataBrowserUI
 		
 		//if (slideShowView != null) return;
 		Browser browser = model.getBrowser();
-		List<ImageNode> nodes;
-		Iterator i;
+		List<ImageNode> selection = new ArrayList<ImageNode>();
 		Collection selected = browser.getSelectedDisplays();
 		if (selected != null && selected.size() > 0) {
-			nodes = new ArrayList<ImageNode>();
-			i = selected.iterator();
+			Iterator i = selected.iterator();
 			Object n;
 			while (i.hasNext()) {
 				n = i.next();
 				if (n instanceof ImageNode)
-					nodes.add((ImageNode) n);
+					selection.add(((ImageNode) n).copy());
 			}
 		} else {
-			nodes = browser.getVisibleImageNodes();
+			//Do not create the nodes of the images displayed in a grid.
+			Map<Thumbnail, DataObject> thumbnails =
+					browser.getVisibleThumbnails();
+			Iterator<Entry<Thumbnail, DataObject>> i =
+					thumbnails.entrySet().iterator();
+			Entry<Thumbnail, DataObject> e;
+			String name;
+			while (i.hasNext()) {
+				e = i.next();
+				name = "";
+				if (e.getValue() instanceof ImageData &&
+						e.getValue().getId() >= 0)
+					name = ((ImageData) e.getValue()).getName();
+				selection.add(new ImageNode(name, e.getValue(), e.getKey()));
+			}
 		}
 		
-		if (nodes == null || nodes.size() == 0) {
+		if (selection.size() == 0) {
 			toolBar.enableSlideShow(true);
 			return;
 		}
-		List<ImageNode> selection = new ArrayList<ImageNode>(nodes.size());
-		ImageNode n;
-		i = nodes.iterator();
-		while (i.hasNext()) {
-			n = (ImageNode) i.next();
-			selection.add(n.copy());
-		}
 		Registry reg = DataBrowserAgent.getRegistry();
 		slideShowView = new SlideShowView(reg.getTaskBar().getFrame(), 
 										selection);
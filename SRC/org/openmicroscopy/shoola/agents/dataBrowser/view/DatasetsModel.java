@@ -23,15 +23,18 @@ package org.openmicroscopy.shoola.agents.dataBrowser.view;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import org.openmicroscopy.shoola.agents.dataBrowser.DataBrowserLoader;
 import org.openmicroscopy.shoola.agents.dataBrowser.DataBrowserTranslator;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.BrowserFactory;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageDisplay;
-import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageNode;
+import org.openmicroscopy.shoola.agents.dataBrowser.browser.Thumbnail;
 import org.openmicroscopy.shoola.agents.dataBrowser.visitor.DecoratorVisitor;
 import omero.gateway.SecurityContext;
 
@@ -67,15 +70,25 @@ class DatasetsModel
 		if (datasets  == null) 
 			throw new IllegalArgumentException("No datasets.");
 		this.parent = parent;
-		Set visTrees = DataBrowserTranslator.transformHierarchy(datasets);
-        browser = BrowserFactory.createBrowser(visTrees);
-        browser.accept(new DecoratorVisitor(getCurrentUser().getId()));
+		List<ImageData> all = new ArrayList<ImageData>();
+		Iterator<DatasetData> i = datasets.iterator();
+		DatasetData data;
+		while (i.hasNext()) {
+			data = i.next();
+			if (data.getImages() != null) all.addAll(data.getImages());
+		}
+		if (isGridDisplayed(all.size())) {
+			browser = BrowserFactory.createGridBrowser(all);
+		} else {
+			Set visTrees = DataBrowserTranslator.transformHierarchy(datasets);
+	        browser = BrowserFactory.createBrowser(visTrees);
+	        browser.accept(new DecoratorVisitor(getCurrentUser().getId()));
+		}
         
         //Visit the node to set the 
         //layoutBrowser();
-        Iterator<DatasetData> i = datasets.iterator();
-		DatasetData data;
-		List<Long> ids = new ArrayList<Long>();
+        i = datasets.iterator();
+		Set<Long> ids = new HashSet<Long>();
 		Set images;
 		Iterator j;
 		ImageData img;
@@ -110,18 +123,19 @@ class DatasetsModel
 			imagesLoaded = imagesLoaded-ids.size();
 		if (imagesLoaded == numberOfImages) return null;
 		//only load thumbnails not loaded.
-		List<ImageNode> nodes = browser.getVisibleImageNodes();
-		if (nodes == null || nodes.size() == 0) return null;
-		Iterator<ImageNode> i = nodes.iterator();
-		ImageNode node;
+		Map<Thumbnail, DataObject> thumbnails = browser.getVisibleThumbnails();
+		if (thumbnails == null || thumbnails.size() == 0) return null;
+		Iterator<Entry<Thumbnail, DataObject>> i =
+				thumbnails.entrySet().iterator();
+		Entry<Thumbnail, DataObject> entry;
 		List<DataObject> imgs = new ArrayList<DataObject>();
 		ImageData img;
-		List<Long> loaded = new ArrayList<Long>();
+		Set<Long> loaded = new HashSet<Long>();
 		if (ids != null) {
 			while (i.hasNext()) {
-				node = i.next();
-				if (node.getThumbnail().getFullScaleThumb() == null) {
-					img = (ImageData) node.getHierarchyObject();
+				entry = i.next();
+				if (entry.getKey().getFullScaleThumb() == null) {
+					img = (ImageData) entry.getValue();
 					if (ids.contains(img.getId())) {
 						if (!loaded.contains(img.getId())) {
 							try {
@@ -136,9 +150,9 @@ class DatasetsModel
 			}
 		} else {
 			while (i.hasNext()) {
-				node = i.next();
-				if (node.getThumbnail().getFullScaleThumb() == null) {
-					img = (ImageData) node.getHierarchyObject();
+				entry = i.next();
+				if (entry.getKey().getFullScaleThumb() == null) {
+					img = (ImageData) entry.getValue();
 					if (!loaded.contains(img.getId())) {
 						try {
 							img.getDefaultPixels();
@@ -24,13 +24,15 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import org.openmicroscopy.shoola.agents.dataBrowser.DataBrowserLoader;
 import org.openmicroscopy.shoola.agents.dataBrowser.DataBrowserTranslator;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.BrowserFactory;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageDisplay;
-import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageNode;
+import org.openmicroscopy.shoola.agents.dataBrowser.browser.Thumbnail;
 import omero.gateway.SecurityContext;
 
 import omero.gateway.model.DataObject;
@@ -92,18 +94,19 @@ class FSFolderModel
 			imagesLoaded = imagesLoaded-ids.size();
 		if (imagesLoaded == numberOfImages) return null;
 		//only load thumbnails not loaded.
-		List<ImageNode> nodes = browser.getVisibleImageNodes();
-		if (nodes == null || nodes.size() == 0) return null;
-		Iterator<ImageNode> i = nodes.iterator();
-		ImageNode node;
+		Map<Thumbnail, DataObject> thumbnails = browser.getVisibleThumbnails();
+		if (thumbnails == null || thumbnails.size() == 0) return null;
+		Iterator<Entry<Thumbnail, DataObject>> i =
+				thumbnails.entrySet().iterator();
+		Entry<Thumbnail, DataObject> entry;
 		List<DataObject> imgs = new ArrayList<DataObject>();
 		DataObject data;
 		List<Long> loaded = new ArrayList<Long>();
 		if (ids != null) {
 			while (i.hasNext()) {
-				node = i.next();
-				if (node.getThumbnail().getFullScaleThumb() == null) {
-					data = (DataObject) node.getHierarchyObject();
+				entry = i.next();
+				if (entry.getKey().getFullScaleThumb() == null) {
+					data = (DataObject) entry.getValue();
 					if (ids.contains(data.getId())) {
 						if (!loaded.contains(data.getId())) {
 							imgs.add(data);
@@ -117,9 +120,9 @@ class FSFolderModel
 			long id;
 			List<ImageData> list;
 			while (i.hasNext()) {
-				node = i.next();
-				if (node.getThumbnail().getFullScaleThumb() == null) {
-					data = (DataObject) node.getHierarchyObject();
+				entry = i.next();
+				if (entry.getKey().getFullScaleThumb() == null) {
+					data = (DataObject) entry.getValue();
 					id = data.getId();
 					if (id > 0) {
 						if (!loaded.contains(id)) {
@@ -24,13 +24,15 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import org.openmicroscopy.shoola.agents.dataBrowser.DataBrowserLoader;
 import org.openmicroscopy.shoola.agents.dataBrowser.DataBrowserTranslator;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.BrowserFactory;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageDisplay;
-import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageNode;
+import org.openmicroscopy.shoola.agents.dataBrowser.browser.Thumbnail;
 import org.openmicroscopy.shoola.agents.dataBrowser.visitor.DecoratorVisitor;
 import omero.gateway.SecurityContext;
 import omero.gateway.model.DataObject;
@@ -52,6 +54,12 @@ class ImagesModel
 
 	/** The images to lay out. */
 	private Collection<ImageData> images;
+
+	/**
+	 * Flag indicating that the images are displayed in a grid instead of
+	 * nodes.
+	 */
+	private boolean grid;
 	
 	/**
 	 * Creates a new instance.
@@ -69,12 +77,38 @@ class ImagesModel
 		this.images = images;
 		this.parent = parent;
 		numberOfImages = images.size();
-		Set visTrees = DataBrowserTranslator.transformImages(images);
-        browser = BrowserFactory.createBrowser(visTrees);
-        browser.accept(new DecoratorVisitor(getCurrentUser().getId()));
+		grid = isGridDisplayed(numberOfImages);
+		if (grid) {
+			browser = BrowserFactory.createGridBrowser(images);
+		} else {
+			Set visTrees = DataBrowserTranslator.transformImages(images);
+	        browser = BrowserFactory.createBrowser(visTrees);
+	        browser.accept(new DecoratorVisitor(getCurrentUser().getId()));
+		}
         //layoutBrowser();
 	}
 	
+	/**
+	 * Adds the specified images to the images already displayed e.g. when
+	 * the images of the parent are loaded page by page. The images already
+	 * displayed are ignored.
+	 * 
+	 * @param images The images to add.
+	 * @return The images added.
+	 */
+	List<ImageData> addImages(Collection<ImageData> images)
+	{
+		List<ImageData> added = browser.addImages(images);
+		if (added.size() == 0) return added;
+		List<ImageData> l = new ArrayList<ImageData>(this.images);
+		l.addAll(added);
+		this.images = l;
+		numberOfImages += added.size();
+		if (!grid)
+			browser.accept(new DecoratorVisitor(getCurrentUser().getId()));
+		return added;
+	}
+
 	/**
 	 * Creates a concrete loader.
 	 * @see DataBrowserModel#createDataLoader(boolean, Collection)
@@ -88,18 +122,19 @@ class ImagesModel
 		
 		//only load thumbnails not loaded.
 		if (imagesLoaded == numberOfImages) return null;
-		List<ImageNode> nodes = browser.getVisibleImageNodes();
-		if (nodes == null || nodes.size() == 0) return null;
-		Iterator<ImageNode> i = nodes.iterator();
-		ImageNode node;
+		Map<Thumbnail, DataObject> thumbnails = browser.getVisibleThumbnails();
+		if (thumbnails == null || thumbnails.size() == 0) return null;
+		Iterator<Entry<Thumbnail, DataObject>> i =
+				thumbnails.entrySet().iterator();
+		Entry<Thumbnail, DataObject> entry;
 		List<DataObject> imgs = new ArrayList<DataObject>();
 		ImageData img;
 		if (ids != null) {
 			while (i.hasNext()) {
-				node = i.next();
-				img = (ImageData) node.getHierarchyObject();
+				entry = i.next();
+				img = (ImageData) entry.getValue();
 				if (ids.contains(img.getId())) {
-					if (node.getThumbnail().getFullScaleThumb() == null) {
+					if (entry.getKey().getFullScaleThumb() == null) {
 						try {
 							//valid.
 							img.getDefaultPixels();
@@ -111,9 +146,9 @@ class ImagesModel
 			}
 		} else {
 			while (i.hasNext()) {
-				node = i.next();
-				img = (ImageData) node.getHierarchyObject();
-				if (node.getThumbnail().getFullScaleThumb() == null) {
+				entry = i.next();
+				img = (ImageData) entry.getValue();
+				if (entry.getKey().getFullScaleThumb() == null) {
 					try {
 						img.getDefaultPixels();
 						imgs.add(img);
@@ -35,7 +35,7 @@ import org.openmicroscopy.shoola.agents.dataBrowser.DataBrowserTranslator;
 import org.openmicroscopy.shoola.agents.dataBrowser.ThumbnailLoader;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.BrowserFactory;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageDisplay;
-import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageNode;
+import org.openmicroscopy.shoola.agents.dataBrowser.browser.Thumbnail;
 import omero.gateway.SecurityContext;
 
 import omero.gateway.model.DataObject;
@@ -106,21 +106,22 @@ class SearchModel
 			imagesLoaded = imagesLoaded-ids.size();
 		if (imagesLoaded == numberOfImages) return;
 		Map<Long, List<ImageData>> map = new HashMap<Long, List<ImageData>>();
-		List<ImageNode> nodes = browser.getVisibleImageNodes();
-		if (nodes == null || nodes.size() == 0) return;
-		Iterator<ImageNode> i = nodes.iterator();
-		ImageNode node;
+		Map<Thumbnail, DataObject> thumbnails = browser.getVisibleThumbnails();
+		if (thumbnails == null || thumbnails.size() == 0) return;
+		Iterator<Entry<Thumbnail, DataObject>> i =
+				thumbnails.entrySet().iterator();
+		Entry<Thumbnail, DataObject> entry;
 		ImageData image;
 		long groupId;
 		List<ImageData> imgs;
 		if (ids != null) {
 			ImageData img;
 			while (i.hasNext()) {
-				node = i.next();
-				img = (ImageData) node.getHierarchyObject();
+				entry = i.next();
+				img = (ImageData) entry.getValue();
 				if (ids.contains(img.getId())) {
-					if (node.getThumbnail().getFullScaleThumb() == null) {
-						image = (ImageData) node.getHierarchyObject();
+					if (entry.getKey().getFullScaleThumb() == null) {
+						image = (ImageData) entry.getValue();
 						groupId = image.getGroupId();
 						if (!map.containsKey(groupId)) {
 							map.put(groupId, new ArrayList<ImageData>());
@@ -133,9 +134,9 @@ class SearchModel
 			}
 		} else {
 			while (i.hasNext()) {
-				node = i.next();
-				if (node.getThumbnail().getFullScaleThumb() == null) {
-					image = (ImageData) node.getHierarchyObject();
+				entry = i.next();
+				if (entry.getKey().getFullScaleThumb() == null) {
+					image = (ImageData) entry.getValue();
 					groupId = image.getGroupId();
 					if (!map.containsKey(groupId)) {
 						map.put(groupId, new ArrayList<ImageData>());
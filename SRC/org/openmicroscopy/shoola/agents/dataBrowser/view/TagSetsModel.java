@@ -24,13 +24,15 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import org.openmicroscopy.shoola.agents.dataBrowser.DataBrowserLoader;
 import org.openmicroscopy.shoola.agents.dataBrowser.DataBrowserTranslator;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.BrowserFactory;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageDisplay;
-import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageNode;
+import org.openmicroscopy.shoola.agents.dataBrowser.browser.Thumbnail;
 import omero.gateway.SecurityContext;
 
 import omero.gateway.model.DataObject;
@@ -115,28 +117,29 @@ class TagSetsModel
 		if (refresh) imagesLoaded = 0;
 		if (imagesLoaded == numberOfImages) return null;
 		//only load thumbnails not loaded.
-		List<ImageNode> nodes = browser.getVisibleImageNodes();
-		if (nodes == null || nodes.size() == 0) return null;
-		Iterator<ImageNode> i = nodes.iterator();
-		ImageNode node;
+		Map<Thumbnail, DataObject> thumbnails = browser.getVisibleThumbnails();
+		if (thumbnails == null || thumbnails.size() == 0) return null;
+		Iterator<Entry<Thumbnail, DataObject>> i =
+				thumbnails.entrySet().iterator();
+		Entry<Thumbnail, DataObject> entry;
 		List<DataObject> imgs = new ArrayList<DataObject>();
 		if (ids != null) {
 			ImageData img;
 			while (i.hasNext()) {
-				node = i.next();
-				img = (ImageData) node.getHierarchyObject();
+				entry = i.next();
+				img = (ImageData) entry.getValue();
 				if (ids.contains(img.getId())) {
-					if (node.getThumbnail().getFullScaleThumb() == null) {
-						imgs.add((ImageData) node.getHierarchyObject());
+					if (entry.getKey().getFullScaleThumb() == null) {
+						imgs.add((ImageData) entry.getValue());
 						imagesLoaded++;
 					}
 				}
 			}
 		} else {
 			while (i.hasNext()) {
-				node = i.next();
-				if (node.getThumbnail().getFullScaleThumb() == null) {
-					imgs.add((ImageData) node.getHierarchyObject());
+				entry = i.next();
+				if (entry.getKey().getFullScaleThumb() == null) {
+					imgs.add((ImageData) entry.getValue());
 					imagesLoaded++;
 				}
 			}
@@ -24,13 +24,15 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import org.openmicroscopy.shoola.agents.dataBrowser.DataBrowserLoader;
 import org.openmicroscopy.shoola.agents.dataBrowser.DataBrowserTranslator;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.BrowserFactory;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageDisplay;
-import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageNode;
+import org.openmicroscopy.shoola.agents.dataBrowser.browser.Thumbnail;
 import omero.gateway.SecurityContext;
 
 import omero.gateway.model.DataObject;
@@ -166,18 +168,19 @@ public class TagsModel
 			imagesLoaded = imagesLoaded-ids.size();
 		if (imagesLoaded == numberOfImages) return null;
 		//only load thumbnails not loaded.
-		List<ImageNode> nodes = browser.getVisibleImageNodes();
-		if (nodes == null || nodes.size() == 0) return null;
-		Iterator<ImageNode> i = nodes.iterator();
-		ImageNode node;
+		Map<Thumbnail, DataObject> thumbnails = browser.getVisibleThumbnails();
+		if (thumbnails == null || thumbnails.size() == 0) return null;
+		Iterator<Entry<Thumbnail, DataObject>> i =
+				thumbnails.entrySet().iterator();
+		Entry<Thumbnail, DataObject> entry;
 		List<DataObject> imgs = new ArrayList<DataObject>();
 		List<Long> loaded = new ArrayList<Long>();
 		ImageData img;
 		if (ids != null) {
 			while (i.hasNext()) {
-				node = i.next();
-				if (node.getThumbnail().getFullScaleThumb() == null) {
-					img = (ImageData) node.getHierarchyObject();
+				entry = i.next();
+				if (entry.getKey().getFullScaleThumb() == null) {
+					img = (ImageData) entry.getValue();
 					if (ids.contains(img.getId())) {
 						if (!loaded.contains(img.getId())) {
 							imgs.add(img);
@@ -189,9 +192,9 @@ public class TagsModel
 			}
 		} else {
 			while (i.hasNext()) {
-				node = i.next();
-				if (node.getThumbnail().getFullScaleThumb() == null) {
-					img = (ImageData) node.getHierarchyObject();
+				entry = i.next();
+				if (entry.getKey().getFullScaleThumb() == null) {
+					img = (ImageData) entry.getValue();
 					if (!loaded.contains(img.getId())) {
 						imgs.add(img);
 						loaded.add(img.getId());
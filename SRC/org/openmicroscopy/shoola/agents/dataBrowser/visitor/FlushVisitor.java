@@ -30,10 +30,12 @@ package org.openmicroscopy.shoola.agents.dataBrowser.visitor;
 //Third-party libraries
 
 //Application-internal dependencies
+import org.openmicroscopy.shoola.agents.dataBrowser.browser.GridVisitor;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageDisplayVisitor;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageNode;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageSet;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.Thumbnail;
+import omero.gateway.model.DataObject;
 
 /** 
  * Flushes all the images before closing.
@@ -43,7 +45,7 @@ import org.openmicroscopy.shoola.agents.dataBrowser.browser.Thumbnail;
  * @since Beta4.4
  */
 public class FlushVisitor
-	implements ImageDisplayVisitor
+	implements GridVisitor
 {
 
     /** 
@@ -56,6 +58,16 @@ public class FlushVisitor
 		if (thumbnail != null) thumbnail.flush();
 	}
 
+    /** 
+     * Implemented as specified by {@link GridVisitor}. 
+     * @see GridVisitor#visit(DataObject, Thumbnail)
+     */
+	public boolean visit(DataObject object, Thumbnail thumbnail)
+	{
+		if (thumbnail != null) thumbnail.flush();
+		return false;
+	}
+
     /** 
      * Implemented as specified by {@link ImageDisplayVisitor}. 
      * @see ImageDisplayVisitor#visit(ImageNode)
@@ -27,10 +27,12 @@ package org.openmicroscopy.shoola.agents.dataBrowser.visitor;
 //Third-party libraries
 
 //Application-internal dependencies
+import org.openmicroscopy.shoola.agents.dataBrowser.browser.GridVisitor;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageDisplayVisitor;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageNode;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageSet;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.Thumbnail;
+import omero.gateway.model.DataObject;
 
 /** 
  * Magnifies the {@link ImageNode}s contained in the selected {@link ImageSet}.
@@ -48,7 +50,7 @@ import org.openmicroscopy.shoola.agents.dataBrowser.browser.Thumbnail;
  * @since OME3.0
  */
 public class MagnificationVisitor
-	implements ImageDisplayVisitor
+	implements GridVisitor
 {
 
 	/** The magnification factor. */
@@ -68,18 +70,34 @@ public class MagnificationVisitor
 		this.factor = factor;
 	}
 	
-	/** 
-     * Implemented as specified by {@link ImageDisplayVisitor}. 
-     * @see ImageDisplayVisitor#visit(ImageNode)
-     */
-	public void visit(ImageNode node)
+	/**
+	 * Magnifies the specified thumbnail.
+	 * 
+	 * @param th The thumbnail to handle.
+	 */
+	private void scale(Thumbnail th)
 	{
-		 Thumbnail th = node.getThumbnail();
 		 if (th != null) {
 			 double sf = th.getScalingFactor();
 		     if (sf != factor) th.scale(factor); 
 		 }
 	}
+	
+	/** 
+     * Implemented as specified by {@link ImageDisplayVisitor}. 
+     * @see ImageDisplayVisitor#visit(ImageNode)
+     */
+	public void visit(ImageNode node) { scale(node.getThumbnail()); }
+
+    /** 
+     * Implemented as specified by {@link GridVisitor}. 
+     * @see GridVisitor#visit(DataObject, Thumbnail)
+     */
+	public boolean visit(DataObject object, Thumbnail thumbnail)
+	{
+		scale(thumbnail);
+		return false;
+	}
 
     /** 
      * Implemented as specified by {@link ImageDisplayVisitor}. 
@@ -24,10 +24,12 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
+import org.openmicroscopy.shoola.agents.dataBrowser.browser.GridVisitor;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageDisplay;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageDisplayVisitor;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageNode;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageSet;
+import org.openmicroscopy.shoola.agents.dataBrowser.browser.Thumbnail;
 import omero.gateway.model.DataObject;
 
 /** 
@@ -42,7 +44,7 @@ import omero.gateway.model.DataObject;
  * @since OME3.0
  */
 public class NodesFinder
-    implements ImageDisplayVisitor
+    implements GridVisitor
 {
 
     /** The collection of found nodes. */
@@ -52,29 +54,36 @@ public class NodesFinder
     private List<DataObject> nodes;
 
     /**
-     * Checks if the passed node is contained in the list.
+     * Returns <code>true</code> if the passed object is contained in the
+     * list, <code>false</code> otherwise.
      *
-     * @param node The node to handle.
+     * @param o The object to handle.
+     * @return See above.
      */
-    private void findNode(ImageDisplay node)
+    private boolean matches(Object o)
     {
-        Object o = node.getHierarchyObject();
-        if (!(o instanceof DataObject)) return;
-        if (nodes.isEmpty()) {
-            foundNodes.add(node);
-            return;
-        }
+        if (!(o instanceof DataObject)) return false;
+        if (nodes.isEmpty()) return true;
         Iterator<DataObject> i = nodes.iterator();
         DataObject object;
         Class<?> k = o.getClass();
         long id = ((DataObject) o).getId();
         while (i.hasNext()) {
             object = i.next();
-            if (k.equals(object.getClass()) && id == object.getId()) {
-                foundNodes.add(node);
-                break;
-            }
+            if (k.equals(object.getClass()) && id == object.getId())
+                return true;
         }
+        return false;
+    }
+
+    /**
+     * Checks if the passed node is contained in the list.
+     *
+     * @param node The node to handle.
+     */
+    private void findNode(ImageDisplay node)
+    {
+        if (matches(node.getHierarchyObject())) foundNodes.add(node);
     }
 
     /** Creates a new instance.*/
@@ -115,4 +124,14 @@ public class NodesFinder
      */
     public void visit(ImageSet node) { findNode(node); }
 
+    /**
+     * Returns <code>true</code> if the image is contained in the list so
+     * that its node is found.
+     * @see GridVisitor#visit(DataObject, Thumbnail)
+     */
+    public boolean visit(DataObject object, Thumbnail thumbnail)
+    {
+        return matches(object);
+    }
+
 }
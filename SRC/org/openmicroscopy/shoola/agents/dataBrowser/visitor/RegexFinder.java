@@ -26,11 +26,14 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.regex.Pattern;
 
+import org.openmicroscopy.shoola.agents.dataBrowser.browser.GridVisitor;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageDisplay;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageDisplayVisitor;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageNode;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageSet;
+import org.openmicroscopy.shoola.agents.dataBrowser.browser.Thumbnail;
 import org.openmicroscopy.shoola.util.ui.RegExFactory;
+import omero.gateway.model.DataObject;
 import omero.gateway.model.DatasetData;
 import omero.gateway.model.ImageData;
 import omero.gateway.model.PlateData;
@@ -48,7 +51,7 @@ import omero.gateway.model.ScreenData;
  * @since OME3.0
  */
 public class RegexFinder 
-	implements ImageDisplayVisitor
+	implements GridVisitor
 {
 
     /** The pattern to find. */
@@ -99,6 +102,24 @@ public class RegexFinder
         return null;
     }
     
+    /**
+     * Returns <code>true</code> if the pattern is found in the name or
+     * the description of the specified object, <code>false</code>
+     * otherwise.
+     * 
+     * @param userObject The <code>DataObject</code> hosted by the visited node.
+     * @return See above.
+     */
+    private boolean matches(Object userObject)
+    {
+        String name = getName(userObject);
+        if (name != null && RegExFactory.find(pattern, name.trim()))
+        	return true;
+        String description = getDescription(userObject);
+        return description != null &&
+        		RegExFactory.find(pattern, description.trim());
+    }
+    
     /**
      * Finds the pattern.
      * 
@@ -106,21 +127,8 @@ public class RegexFinder
      */
     private void foundNode(ImageDisplay node)
     {
-        Object userObject = node.getHierarchyObject();
-        String name = getName(userObject);
-        if (name != null) {
-        	name = name.trim();
-        	if (RegExFactory.find(pattern, name) && !foundNodes.contains(node))
-        		foundNodes.add(node);
-        }
-        	
-        String description = getDescription(userObject);
-        if (description != null) {
-        	description = description.trim();
-        	if (RegExFactory.find(pattern, description) 
-        			&& !foundNodes.contains(node))
-        		foundNodes.add(node);
-        } 
+        if (matches(node.getHierarchyObject()) && !foundNodes.contains(node))
+        	foundNodes.add(node);
     }
     
     /**
@@ -168,5 +176,15 @@ public class RegexFinder
      * @see ImageDisplayVisitor#visit(ImageSet)
      */
 	public void visit(ImageSet node) { foundNode(node); }
+	
+	/** 
+     * Returns <code>true</code> if the pattern is found so that the node
+     * of the image is found.
+     * @see GridVisitor#visit(DataObject, Thumbnail)
+     */
+	public boolean visit(DataObject object, Thumbnail thumbnail)
+	{
+		return matches(object);
+	}
     
 }
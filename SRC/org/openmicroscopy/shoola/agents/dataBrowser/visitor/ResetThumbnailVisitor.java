@@ -22,10 +22,12 @@ package org.openmicroscopy.shoola.agents.dataBrowser.visitor;
 
 import java.util.Collection;
 
+import org.openmicroscopy.shoola.agents.dataBrowser.browser.GridVisitor;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageDisplayVisitor;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageNode;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.ImageSet;
 import org.openmicroscopy.shoola.agents.dataBrowser.browser.Thumbnail;
+import omero.gateway.model.DataObject;
 import omero.gateway.model.ImageData;
 
 /** 
@@ -39,7 +41,7 @@ import omero.gateway.model.ImageData;
  * @since OME3.0
  */
 public class ResetThumbnailVisitor 
-	implements ImageDisplayVisitor
+	implements GridVisitor
 {
 	
 	/** The collection of images. */
@@ -56,23 +58,41 @@ public class ResetThumbnailVisitor
 		this.ids = ids;
 	}
 	
+	/**
+	 * Sets the thumbnail to <code>null</code> if the image is one of the
+	 * images to reload.
+	 * 
+	 * @param ho The image.
+	 * @param th The thumbnail of the image.
+	 */
+	private void reset(Object ho, Thumbnail th)
+	{
+		if (th == null) return;
+		if (ids == null || ids.size() == 0)
+			th.setFullScaleThumb(null);
+		else if (ho instanceof ImageData) {
+			ImageData d = (ImageData) ho;
+			if (ids.contains(d.getId())) th.setFullScaleThumb(null);
+		}
+	}
+	
 	/** 
      * Implemented as specified by {@link ImageDisplayVisitor}. 
      * @see ImageDisplayVisitor#visit(ImageNode)
      */
 	public void visit(ImageNode node)
 	{
-		Thumbnail th = node.getThumbnail();
-		if (th == null) return;
-		if (ids == null || ids.size() == 0)
-			th.setFullScaleThumb(null);
-		else {
-			Object ho = node.getHierarchyObject(); 
-			if (ho instanceof ImageData) {
-				ImageData d = (ImageData) ho;
-				if (ids.contains(d.getId())) th.setFullScaleThumb(null);
-			}
-		}
+		reset(node.getHierarchyObject(), node.getThumbnail());
+	}
+
+	/** 
+     * Implemented as specified by {@link GridVisitor}. 
+     * @see GridVisitor#visit(DataObject, Thumbnail)
+     */
+	public boolean visit(DataObject object, Thumbnail thumbnail)
+	{
+		reset(object, thumbnail);
+		return false;
 	}
 
     /** 
@@ -81,6 +81,12 @@ public class ImageRendered
      * @return See above. 
      */
     public long getPixelsID() { return pixelsID; }
+
+    /**
+     * Only the last image rendered for a pixels set is of interest.
+     * @see org.openmicroscopy.shoola.env.event.AgentEvent#getCoalescingKey()
+     */
+    public Object getCoalescingKey() { return Long.valueOf(pixelsID); }
     
     /**
      * Returns the thumbnail.
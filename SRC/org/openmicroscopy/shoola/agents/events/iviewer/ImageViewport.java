@@ -92,5 +92,11 @@ public class ImageViewport
 	 * @return See above.
 	 */
 	public long getPixelsID() { return pixelsID; }
+
+	/**
+	 * Only the last viewport displayed for a pixels set is of interest.
+	 * @see org.openmicroscopy.shoola.env.event.AgentEvent#getCoalescingKey()
+	 */
+	public Object getCoalescingKey() { return Long.valueOf(pixelsID); }
 	
 }
@@ -118,6 +118,12 @@ public class MeasurePlane
      * @return See above. 
      */
     public long getPixelsID() { return pixelsID; }
+
+    /**
+     * Only the last plane selected for a pixels set is of interest.
+     * @see org.openmicroscopy.shoola.env.event.AgentEvent#getCoalescingKey()
+     */
+    public Object getCoalescingKey() { return Long.valueOf(pixelsID); }
     
     /**
      * Returns the currently selected z-section.
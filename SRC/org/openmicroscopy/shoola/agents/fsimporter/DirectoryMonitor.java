@@ -21,16 +21,37 @@
 package org.openmicroscopy.shoola.agents.fsimporter;
 
 
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.swing.Timer;
 
 import org.openmicroscopy.shoola.agents.fsimporter.view.Importer;
+import org.openmicroscopy.shoola.env.LookupNames;
+import org.openmicroscopy.shoola.env.data.events.DSCallFeedbackEvent;
+import org.openmicroscopy.shoola.env.data.model.FileObject;
+import org.openmicroscopy.shoola.env.data.model.ImportableFile;
+import org.openmicroscopy.shoola.env.data.model.ImportableObject;
 import omero.gateway.SecurityContext;
 import org.openmicroscopy.shoola.env.data.views.CallHandle;
+import org.openmicroscopy.shoola.env.data.views.calls.DirectoryWatcher;
 
 import omero.gateway.model.DataObject;
+import omero.gateway.model.DatasetData;
+import omero.gateway.model.GroupData;
 
 /** 
- * Loads a directory.
+ * Watches a directory and imports the new filesets written into it.
+ * The filesets are imported once the previous import is complete, the
+ * filesets found in the meantime are imported together, at most
+ * <code>/services/IMPORT/watchBatchSize</code> at a time.
  *
  * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
  * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
@@ -43,6 +64,12 @@ public class DirectoryMonitor
 	extends DataImporterLoader
 {
 
+	/** The delay, in milliseconds, between checks of the ongoing import. */
+	private static final int DELAY = 1000;
+
+	/** The default maximum number of filesets imported together. */
+	private static final int BATCH_SIZE = 10;
+
 	/** Handle to the asynchronous call so that we can cancel it. */
     private CallHandle	handle; 
     
@@ -51,7 +78,82 @@ public class DirectoryMonitor
     
     /** The container where to import the images into. */
     private DataObject 	container;
-    
+
+    /** The filesets waiting for the ongoing import to complete. */
+    private Set<File> pending;
+
+    /** Imports the pending filesets when the ongoing import is complete. */
+    private Timer timer;
+
+    /**
+     * Returns the group corresponding to the security context.
+     *
+     * @return See above.
+     */
+    private GroupData getGroup()
+    {
+        Collection groups = ImporterAgent.getAvailableUserGroups();
+        if (groups == null || ctx == null) return null;
+        Iterator i = groups.iterator();
+        GroupData g;
+        while (i.hasNext()) {
+            g = (GroupData) i.next();
+            if (g.getId() == ctx.getGroupID()) return g;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the maximum number of filesets imported together.
+     *
+     * @return See above.
+     */
+    private int getBatchSize()
+    {
+        Integer v = (Integer) ImporterAgent.getRegistry().lookup(
+                LookupNames.IMPORT_WATCH_BATCH);
+        if (v == null || v.intValue() <= 0) return BATCH_SIZE;
+        return v.intValue();
+    }
+
+    /**
+     * Imports the first pending filesets if no import is ongoing, the
+     * others are imported once the import is complete.
+     * Stops if the viewer has been discarded.
+     */
+    private void importPending()
+    {
+        if (viewer.getState() == Importer.DISCARDED) {
+            cancel();
+            return;
+        }
+        if (pending.isEmpty() || viewer.hasOnGoingImport()) return;
+        List<ImportableFile> files = new ArrayList<ImportableFile>();
+        GroupData group = getGroup();
+        int max = getBatchSize();
+        Iterator<File> i = pending.iterator();
+        File f;
+        ImportableFile importable;
+        while (i.hasNext() && files.size() < max) {
+            f = i.next();
+            i.remove();
+            if (!f.exists()) continue;
+            importable = new ImportableFile(new FileObject(f),
+                    f.isDirectory() && !(container instanceof DatasetData));
+            if (container instanceof DatasetData)
+                importable.setLocation(null, (DatasetData) container);
+            else importable.setLocation(container, null);
+            importable.setGroup(group);
+            importable.setUser(ImporterAgent.getUserDetails());
+            files.add(importable);
+        }
+        if (pending.isEmpty()) timer.stop();
+        if (files.isEmpty()) return;
+        ImportableObject object = new ImportableObject(files, false);
+        object.setScanningDepth(ImporterAgent.getScanningDepth());
+        viewer.importData(object);
+    }
+
     /**
      * Creates a new instance.
      * 
@@ -69,6 +171,10 @@ public class DirectoryMonitor
 			throw new IllegalArgumentException("No directory to monitor.");
 		this.directory = directory;
 		this.container = container;
+		pending = new LinkedHashSet<File>();
+		timer = new Timer(DELAY, new ActionListener() {
+			public void actionPerformed(ActionEvent e) { importPending(); }
+		});
 	}
 	
 	/** 
@@ -82,18 +188,42 @@ public class DirectoryMonitor
 	}
 	
 	/** 
-	 * Cancels the import.
+	 * Stops monitoring the directory.
 	 * @see DataImporterLoader#load()
 	 */
-	public void cancel() { handle.cancel(); }
+	public void cancel()
+	{
+		timer.stop();
+		pending.clear();
+		DirectoryWatcher.stop(directory);
+		if (handle != null) handle.cancel();
+	}
+
+	/**
+	 * Queues the new filesets and imports them if no import is ongoing.
+	 * @see DataImporterLoader#update(DSCallFeedbackEvent)
+	 */
+	public void update(DSCallFeedbackEvent fe)
+	{
+		List files = (List) fe.getPartialResult();
+		if (files == null) return;
+		Iterator i = files.iterator();
+		while (i.hasNext())
+			pending.add((File) i.next());
+		importPending();
+		if (!pending.isEmpty()) timer.start();
+	}
 
 	/** 
-     * Feeds the result back to the viewer.
+     * Does nothing as the filesets are delivered during the updates.
      * @see DataImporterLoader#handleResult(Object)
      */
-    public void handleResult(Object result)
-    {
-        if (viewer.getState() == Importer.DISCARDED) return;  //Async cancel.
-    }
-    
+    public void handleResult(Object result) {}
+
+    /**
+     * Does nothing as the call returns <code>null</code> when stopped.
+     * @see DataImporterLoader#handleNullResult()
+     */
+    public void handleNullResult() {}
+
 }
@@ -619,7 +619,7 @@ public class ImViewerAgent
         bus.register(this, CopyRndSettings.class);
         bus.register(this, SaveRelatedData.class);
         bus.register(this, FocusGainedEvent.class);
-        bus.register(this, ImageViewport.class);
+        bus.registerAsync(this, ImageViewport.class);
         bus.register(this, UserGroupSwitched.class);
         bus.register(this, ViewObjectEvent.class);
         bus.register(this, RendererUnloadedEvent.class);
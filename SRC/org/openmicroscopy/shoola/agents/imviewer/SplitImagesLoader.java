@@ -0,0 +1,132 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2016 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+
+package org.openmicroscopy.shoola.agents.imviewer;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import omero.romio.PlaneDef;
+import org.openmicroscopy.shoola.agents.imviewer.view.ImViewer;
+import omero.gateway.SecurityContext;
+import org.openmicroscopy.shoola.env.data.views.CallHandle;
+
+/** 
+ * Renders each of the active channels of the plane on its own, as
+ * displayed in the split view. This class calls the
+ * <code>renderChannels</code> in the <code>ImageDataView</code>.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * 				<a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+public class SplitImagesLoader
+    extends DataLoader
+{
+
+    /** The ID of the pixels set. */
+    private long pixelsID;
+    
+    /** The plane to render. */
+    private PlaneDef pd;
+    
+    /** The indexes of the channels to render. */
+    private List<Integer> channels;
+    
+    /** Flag indicating to render the channels in grey. */
+    private boolean greyScale;
+    
+    /** Flag indicating to add the combined image. */
+    private boolean combined;
+    
+    /** Handle to the asynchronous call so that we can cancel it. */
+    private CallHandle handle;
+    
+    /** Indicates that the rendering of the channels has been cancelled.*/
+    private boolean cancelled;
+
+    /**
+     * Creates a new instance
+     * 
+     * @param viewer    The view this loader is for.
+     *                  Mustn't be <code>null</code>.
+     * @param ctx The security context.
+     * @param pixelsID  The id of the pixels set.
+     * @param pd        The plane to render.
+     * @param channels  The indexes of the channels to render.
+     * @param greyScale Pass <code>true</code> to render the channels in
+     *                  grey, <code>false</code> to use their color.
+     * @param combined  Pass <code>true</code> to add the combined image,
+     *                  <code>false</code> otherwise.
+     */
+    public SplitImagesLoader(ImViewer viewer, SecurityContext ctx,
+    		long pixelsID, PlaneDef pd, List<Integer> channels,
+    		boolean greyScale, boolean combined)
+    {
+        super(viewer, ctx);
+        this.pixelsID = pixelsID;
+        this.pd = pd;
+        this.channels = channels;
+        this.greyScale = greyScale;
+        this.combined = combined;
+    }
+
+    /**
+     * Renders the channels.
+     * @see DataLoader#load()
+     */
+    public void load()
+    {
+        handle = ivView.renderChannels(ctx, pixelsID, pd, channels, greyScale,
+        		combined, this);
+    }
+
+    /**
+     * Cancels the ongoing data retrieval.
+     * @see DataLoader#cancel()
+     */
+    public void cancel()
+    {
+    	cancelled = true;
+    	handle.cancel();
+    }
+    
+    /** 
+     * Feeds the result back to the viewer. 
+     * @see DataLoader#handleResult(Object)
+     */
+    public void handleResult(Object result)
+    {
+        if (viewer.getState() == ImViewer.DISCARDED) return;  //Async cancel.
+        if (!cancelled)
+        	viewer.setGridImages((List<BufferedImage>) result);
+    }
+    
+    /**
+     * Notifies the user that it wasn't possible to render the channels.
+     * @see DataLoader#handleNullResult()
+     */
+    public void handleNullResult()
+    {
+        if (!cancelled) viewer.setGridImages(null);
+    }
+
+}
@@ -115,7 +115,11 @@ public class TileLoader
      * Cancels the ongoing data retrieval.
      * @see DataLoader#cancel()
      */
-    public void cancel() { handle.cancel(); }
+    public void cancel()
+    {
+    	proxy.cancelTiles();
+    	handle.cancel();
+    }
     
     /**
      * Does nothing as the asynchronous call returns <code>null</code>.
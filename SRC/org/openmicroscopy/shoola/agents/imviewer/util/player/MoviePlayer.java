@@ -27,10 +27,13 @@ package org.openmicroscopy.shoola.agents.imviewer.util.player;
 
 //Java imports
 import java.awt.event.ActionEvent;
+import java.util.ArrayList;
+import java.util.List;
 
 //Third-party libraries
 
 //Application-internal dependencies
+import omero.romio.PlaneDef;
 import org.openmicroscopy.shoola.agents.imviewer.view.ImViewer;
 
 /** 
@@ -73,6 +76,9 @@ class MoviePlayer
     /** Indicates to play the movie in loop starting from the end point. */
     protected static final int      LOOP_BACKWARD = 204;
     
+    /** The maximum number of frames rendered ahead of the current one. */
+    private static final int        MAX_PREFETCH = 10;
+    
     /** The start z-section. */
     private int                 startZ;
     
@@ -333,6 +339,100 @@ class MoviePlayer
         }
     }
 
+    /**
+     * Returns the frame following the specified one or <code>-1</code>
+     * if the movie stops after the specified frame.
+     * 
+     * @param frame The current frame.
+     * @param start The first frame.
+     * @param end The last frame.
+     * @param direction The direction of play, only used when the movie is
+     *                  played round trip. Modified when the direction changes.
+     * @return See above.
+     */
+    private int nextFrame(int frame, int start, int end, boolean[] direction)
+    {
+        switch (movieType) {
+            case LOOP:
+                return frame == end ? start : frame+1;
+            case LOOP_BACKWARD:
+                return frame == start ? end : frame-1;
+            case BACKWARD:
+                return frame == start ? -1 : frame-1;
+            case FORWARD:
+                return frame == end ? -1 : frame+1;
+            case PINGPONG:
+                if (start == end) return frame;
+                if (direction[0] && frame == end) direction[0] = false;
+                else if (!direction[0] && frame == start) direction[0] = true;
+                return direction[0] ? frame+1 : frame-1;
+        }
+        return -1;
+    }
+
+    /**
+     * Creates the plane to render.
+     * 
+     * @param z The selected z-section.
+     * @param t The selected timepoint.
+     * @return See above.
+     */
+    private PlaneDef createPlane(int z, int t)
+    {
+        PlaneDef pd = new PlaneDef();
+        pd.slice = omero.romio.XY.value;
+        pd.z = z;
+        pd.t = t;
+        return pd;
+    }
+
+    /**
+     * Indicates to the viewer the frames that are going to be displayed next
+     * so that they can be rendered ahead of time.
+     */
+    private void prefetchFrames()
+    {
+        if (state != Player.START) return;
+        List<PlaneDef> planes = new ArrayList<PlaneDef>();
+        boolean[] direction = new boolean[] {up};
+        int frame;
+        switch (index) {
+            case MoviePlayerDialog.ACROSS_Z:
+                frame = frameNumberZ;
+                int t = model.getRealSelectedT();
+                while (frame >= 0 && planes.size() < MAX_PREFETCH) {
+                    planes.add(createPlane(frame, t));
+                    frame = nextFrame(frame, startZ, endZ, direction);
+                }
+                break;
+            case MoviePlayerDialog.ACROSS_T:
+                frame = frameNumberT;
+                int z = model.getDefaultZ();
+                while (frame >= 0 && planes.size() < MAX_PREFETCH) {
+                    planes.add(createPlane(z, frame));
+                    frame = nextFrame(frame, startT, endT, direction);
+                }
+                break;
+            case MoviePlayerDialog.ACROSS_ZT:
+                if (movieType == PINGPONG) return;
+                boolean forward = movieType == LOOP || movieType == FORWARD;
+                int lastZ = forward ? endZ : startZ;
+                int frameZ = frameNumberZ;
+                int frameT = frameNumberT;
+                while (frameT >= 0 && planes.size() < MAX_PREFETCH) {
+                    planes.add(createPlane(frameZ, frameT));
+                    if (frameZ == lastZ) {
+                        frameZ = forward ? startZ : endZ;
+                        frameT = nextFrame(frameT, startT, endT, direction);
+                    } else frameZ = forward ? frameZ+1 : frameZ-1;
+                }
+                break;
+            default:
+                return;
+        }
+        if (planes.size() > 0) model.prefetchXYPlanes(planes);
+    }
+
     /**
      * Creates a new instance.
      * 
@@ -614,6 +714,7 @@ class MoviePlayer
                         && frameNumberZ <= endZ && state == Player.START) {
                     parent.renderImage();
                     playMovieAcrossZ();
+                    prefetchFrames();
                 } 
                 break;
             case MoviePlayerDialog.ACROSS_T:
@@ -621,6 +722,7 @@ class MoviePlayer
                         && frameNumberT <= endT && state == Player.START) {
                     parent.renderImage();
                     playMovieAcrossT();
+                    prefetchFrames();
                 }
                 break;
             case MoviePlayerDialog.ACROSS_BIN:
@@ -633,6 +735,7 @@ class MoviePlayer
             case MoviePlayerDialog.ACROSS_ZT:
                 parent.renderImage();
                 playMovieAcrossZT();
+                prefetchFrames();
                 break;
         }
     }
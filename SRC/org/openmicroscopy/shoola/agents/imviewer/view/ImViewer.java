@@ -33,6 +33,8 @@ import javax.swing.ImageIcon;
 import javax.swing.JComponent;
 import javax.swing.JFrame;
 
+import omero.romio.PlaneDef;
+
 import org.openmicroscopy.shoola.agents.imviewer.util.proj.ProjectionRef;
 import org.openmicroscopy.shoola.agents.metadata.rnd.Renderer;
 import omero.gateway.SecurityContext;
@@ -344,6 +346,14 @@ public interface ImViewer
 	 */
 	public void setSelectedXYPlane(int z, int t, int bin);
 	
+	/**
+	 * Renders, in the background, the specified XY-planes so that they
+	 * are available when selected e.g. the next frames of a movie.
+	 * 
+	 * @param planes The planes likely to be selected next.
+	 */
+	public void prefetchXYPlanes(List<PlaneDef> planes);
+	
 	/**
 	 * Sets the image to display.
 	 * 
@@ -710,11 +720,21 @@ public interface ImViewer
 	public void playMovie(boolean play, boolean visible, int index);
 
 	/**
-	 * Returns the collection of images composing the grid.
+	 * Returns the collection of images composing the grid or
+	 * <code>null</code> if the images are being rendered.
 	 * 
 	 * @return See above.
 	 */
 	public List getGridImages();
+
+	/**
+	 * Sets the images of the channels composing the grid, rendered in the
+	 * background.
+	 * 
+	 * @param images The rendered images or <code>null</code> if the
+	 *               channels could not be rendered.
+	 */
+	public void setGridImages(List<BufferedImage> images);
 	
 	/**
 	 * Returns the image in color when the channels are in grey scale.
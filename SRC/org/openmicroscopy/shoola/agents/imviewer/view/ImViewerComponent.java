@@ -914,6 +914,21 @@ class ImViewerComponent
 		setSelectedXYPlane(z, t, -1);
 	}
 
+	/** 
+	 * Implemented as specified by the {@link ImViewer} interface.
+	 * @see ImViewer#prefetchXYPlanes(List)
+	 */
+	public void prefetchXYPlanes(List<PlaneDef> planes)
+	{
+		switch (model.getState()) {
+			case NEW:
+			case DISCARDED:
+				return;
+		}
+		if (model.isBigImage()) return;
+		model.prefetchXYPlanes(planes);
+	}
+
 	/** 
 	 * Implemented as specified by the {@link ImViewer} interface.
 	 * @see ImViewer#setImage(Object)
@@ -1510,63 +1525,47 @@ class ImViewerComponent
 					"This method can't be invoked in the DISCARDED or NEW"+
 			" state.");
 		}
-		view.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-		//if (model.getColorModel().equals(GREY_SCALE_MODEL)) return null;
-		List active = model.getActiveChannels();
-		int maxC = model.getMaxC();
-		List<BufferedImage> images = new ArrayList<BufferedImage>(maxC);
+		boolean grey = model.getColorModel().equals(GREY_SCALE_MODEL);
+		List active = grey ? view.getActiveChannelsInGrid() :
+			model.getActiveChannels();
+		//The channels are rendered in the background, the grid is
+		//refreshed when the images are set.
 		List<ChannelData> list = getSortedChannelData();
+		List<Integer> channels = new ArrayList<Integer>();
 		Iterator<ChannelData> i = list.iterator();
 		int k;
-		Iterator w;
-		if (model.getColorModel().equals(GREY_SCALE_MODEL)) {
-			active = view.getActiveChannelsInGrid();
-			//Iterator i = active.iterator();
-			while (i.hasNext()) {
-				k = i.next().getIndex();
-				if (active.contains(k)) {
-					model.setChannelActive(k, true);
-					for (int j = 0; j < maxC; j++) {
-						if (j != k) model.setChannelActive(j, false);
-					}
-					images.add(model.getSplitComponentImage());
-				} else {
-					images.add(null);
-				}
-			}
-
-			w = active.iterator();
-			while (w.hasNext()) { //reset values.
-				model.setChannelActive((Integer) w.next(), true);
-			}
-			if (active.size() != 0) {
-				model.setColorModel(RGB_MODEL, false);
-				images.add(model.getSplitComponentImage());
-				model.setColorModel(GREY_SCALE_MODEL, false);
-			}
-
-		} else {
+		while (i.hasNext()) {
+			k = i.next().getIndex();
+			if (active.contains(k)) channels.add(k);
+		}
+		List<BufferedImage> images = null;
+		List<BufferedImage> rendered = model.getSplitComponentImages(channels,
+				grey, grey && channels.size() != 0);
+		if (rendered != null && rendered.size() >= channels.size()) {
+			images = new ArrayList<BufferedImage>(list.size()+1);
+			Iterator<BufferedImage> j = rendered.iterator();
+			i = list.iterator();
 			while (i.hasNext()) {
-				k = i.next().getIndex();
-				if (model.isChannelActive(k)) {
-					for (int l = 0; l < maxC; l++) {
-						model.setChannelActive(l, k == l);
-					}
-					images.add(model.getSplitComponentImage());
-					w = active.iterator();
-					while (w.hasNext()) { //reset values.
-						model.setChannelActive((Integer) w.next(), true);
-					}
-				} else {
-					images.add(null);
-				}
+				if (channels.contains(i.next().getIndex()))
+					images.add(j.next());
+				else images.add(null);
 			}
+			if (j.hasNext()) images.add(j.next());
 		}
-
-		view.setCursor(Cursor.getPredefinedCursor(Cursor.DEFAULT_CURSOR));
 		return images;
 	}
 
+	/** 
+	 * Implemented as specified by the {@link ImViewer} interface.
+	 * @see ImViewer#setGridImages(List)
+	 */
+	public void setGridImages(List<BufferedImage> images)
+	{
+		if (model.getState() == DISCARDED) return;
+		model.setSplitComponentImages(images);
+		if (images != null) model.getBrowser().viewSplitImages();
+	}
+
 	/** 
 	 * Implemented as specified by the {@link ImViewer} interface.
 	 * @see ImViewer#getCombinedGridImage()
@@ -3407,7 +3406,7 @@ class ImViewerComponent
     	model.clearTileImages(toClear);
 		if (l.size() > 0) {
 			view.removeComponentListener(controller);
-			model.fireTileLoading(l);
+			model.fireTileLoading(l, region);
 			fireStateChange();
 		}
 	}
@@ -59,6 +59,7 @@ import org.openmicroscopy.shoola.agents.imviewer.PlaneInfoLoader;
 import org.openmicroscopy.shoola.agents.imviewer.ProjectionSaver;
 import org.openmicroscopy.shoola.agents.imviewer.RenderingSettingsCreator;
 import org.openmicroscopy.shoola.agents.imviewer.RenderingSettingsLoader;
+import org.openmicroscopy.shoola.agents.imviewer.SplitImagesLoader;
 import org.openmicroscopy.shoola.agents.imviewer.TileLoader;
 import org.openmicroscopy.shoola.agents.imviewer.actions.ZoomAction;
 import org.openmicroscopy.shoola.agents.imviewer.browser.Browser;
@@ -152,6 +153,9 @@ class ImViewerModel
 	/** Index of the <code>ImageLoader</code> loader. */
 	private static final int BIRD_EYE_VIEW = 2;
 	
+	/** Index of the <code>SplitImagesLoader</code> loader. */
+	private static final int SPLIT_IMAGES = 3;
+	
 	/** The image to view. */
 	private DataObject image; 
 
@@ -164,6 +168,15 @@ class ImViewerModel
 	/** Map hosting the various loaders. */
 	private Map<Integer, DataLoader> loaders;
 	
+	/** The images of the channels rendered for the split view. */
+	private List<BufferedImage> splitImages;
+	
+	/** Identifies the plane and the channels of the split images. */
+	private String splitKey;
+	
+	/** Identifies the split images being rendered. */
+	private String pendingSplitKey;
+	
 	/** The sub-component that hosts the display. */
 	private Browser browser;
 
@@ -435,17 +448,33 @@ class ImViewerModel
 	}
 
     /**
-     * Sorts the tiles by index.
+     * Sorts the tiles by distance to the center of the specified region,
+     * then by index.
      * 
      * @param tiles The tiles to sort.
+     * @param region The region of reference.
      */
-    private void sortTilesByIndex(List<Tile> tiles)
+    private void sortTilesByDistance(List<Tile> tiles, Rectangle region)
     {
     	 if (tiles == null || tiles.size() == 0) return;
-         Comparator c = new Comparator() {
-             public int compare(Object o1, Object o2)
+    	 final long cx = region.x+region.width/2;
+    	 final long cy = region.y+region.height/2;
+         Comparator<Tile> c = new Comparator<Tile>() {
+             
+             private long distance(Tile t)
+             {
+                 Region r = t.getRegion();
+                 long dx = r.getX()+r.getWidth()/2-cx;
+                 long dy = r.getY()+r.getHeight()/2-cy;
+                 return dx*dx+dy*dy;
+             }
+             
+             public int compare(Tile o1, Tile o2)
              {
-                 int n1 = ((Tile) o1).getIndex(), n2 = ((Tile) o2).getIndex();
+                 long d1 = distance(o1), d2 = distance(o2);
+                 if (d1 < d2) return -1;
+                 if (d1 > d2) return 1;
+                 int n1 = o1.getIndex(), n2 = o2.getIndex();
                  int v = 0;
                  if (n1 < n2) v = -1;
                  else if (n1 > n2) v = 1;
@@ -1100,6 +1129,68 @@ class ImViewerModel
 		return rnd.renderPlane(pDef);
 	}
 
+	/**
+	 * Returns the images of the specified channels of the displayed plane,
+	 * each rendered on its own without modifying the rendering settings.
+	 * Returns <code>null</code> if the images are not rendered yet, in which
+	 * case they are rendered in the background.
+	 * 
+	 * @param channels The indexes of the channels to render.
+	 * @param greyScale Pass <code>true</code> to render the channels in
+	 *                  grey, <code>false</code> to use their color.
+	 * @param combined Pass <code>true</code> to add the combined image,
+	 *                 <code>false</code> otherwise.
+	 * @return See above.
+	 */
+	List<BufferedImage> getSplitComponentImages(List<Integer> channels,
+			boolean greyScale, boolean combined)
+	{
+		Renderer rnd = metadataViewer.getRenderer();
+		if (rnd == null) return null;
+		PlaneDef pDef = new PlaneDef();
+		pDef.t = getDefaultT();
+		pDef.z = getDefaultZ();
+		pDef.slice = omero.romio.XY.value;
+		String key = pDef.z+"/"+pDef.t+"/"+channels+"/"+greyScale+"/"+
+				combined;
+		if (key.equals(splitKey)) return splitImages;
+		if (key.equals(pendingSplitKey)) return null;
+		DataLoader loader = loaders.get(SPLIT_IMAGES);
+		if (loader != null) loader.cancel();
+		pendingSplitKey = key;
+		loader = new SplitImagesLoader(component, ctx, getPixelsID(), pDef,
+				channels, greyScale, combined);
+		loader.load();
+		loaders.put(SPLIT_IMAGES, loader);
+		return null;
+	}
+
+	/**
+	 * Sets the images of the channels rendered in the background.
+	 * 
+	 * @param images The rendered images or <code>null</code>.
+	 */
+	void setSplitComponentImages(List<BufferedImage> images)
+	{
+		loaders.remove(SPLIT_IMAGES);
+		splitImages = images;
+		splitKey = pendingSplitKey;
+		pendingSplitKey = null;
+	}
+
+	/**
+	 * Discards the images of the channels and cancels their rendering,
+	 * the displayed plane or the settings have been modified.
+	 */
+	private void clearSplitComponentImages()
+	{
+		DataLoader loader = loaders.remove(SPLIT_IMAGES);
+		if (loader != null) loader.cancel();
+		splitImages = null;
+		splitKey = null;
+		pendingSplitKey = null;
+	}
+
 	/** Notifies that the rendering control has been loaded. */
 	void onRndLoaded()
 	{
@@ -1179,6 +1270,7 @@ class ImViewerModel
 	double setImage(BufferedImage image)
 	{
 		state = ImViewer.READY; 
+		clearSplitComponentImages();
 		if (image != null) browser.setRenderedImage(image);
 		loaders.remove(IMAGE);
 		firstTime = false;
@@ -1247,6 +1339,18 @@ class ImViewerModel
 		rnd.setSelectedXYPlane(z, t, bin);
 	}
 
+	/**
+	 * Renders, in the background, the specified planes.
+	 * 
+	 * @param planes The planes likely to be selected next.
+	 */
+	void prefetchXYPlanes(List<PlaneDef> planes)
+	{
+		Renderer rnd = metadataViewer.getRenderer();
+		if (rnd == null) return;
+		rnd.prefetchPlanes(planes);
+	}
+
 	/**
 	 * Sets the color for the specified channel.
 	 * 
@@ -2855,50 +2959,32 @@ class ImViewerModel
     Map<Integer, Tile> getTiles() { return tiles; }
 
     /** 
-     * Fires an asynchronous call to load the tiles.
+     * Fires an asynchronous call to load the tiles. The tiles closest to
+     * the center of the visible region are loaded first. The tiles of the
+     * previous call not yet loaded are cancelled.
      * 
      * @param selection The collection of tiles to load.
+     * @param region The visible region.
      */
-    void fireTileLoading(List<Tile> selection)
+    void fireTileLoading(List<Tile> selection, Rectangle region)
     {
     	Renderer rnd = metadataViewer.getRenderer();
-		if (rnd == null || selection == null) return;
+		if (rnd == null || selection == null || selection.size() == 0)
+			return;
 		PlaneDef pDef = new PlaneDef();
 		pDef.t = getDefaultT();
 		pDef.z = getDefaultZ();
 		pDef.slice = omero.romio.XY.value;
-		List<Tile> list;
-		list = selection;
-		sortTilesByIndex(list);
+		List<Tile> list = new ArrayList<Tile>(selection);
+		sortTilesByDistance(list, region);
 		state = ImViewer.LOADING_TILES;
-		List<RenderingControl> proxies = rnd.getRenderingControls();
-		int m = proxies.size();
-		//Create n sublist
-		int n = selection.size();
-		int diff = n/m;
-		List<Tile> l;
-		int j;
-		int step = 0;
-		if (n < m) diff = 1;
-		tileTotalCount = n;
+		//The master renders the tiles concurrently with its slaves.
+		RenderingControl proxy = rnd.getRenderingControls().get(0);
+		tileTotalCount = list.size();
 		tileLoadedCount = 0;
-		RenderingControl proxy;
-		TileLoader loader;
-		for (int i = 0; i < m; i++) {
-			l = new ArrayList<Tile>();
-			j = step+diff;
-			if (i == (m-1)) j += (n-j);
-			if (j <= n) {
-				l =  list.subList(step, j);
-				step += l.size();
-			}
-			if (l.size() > 0) {
-				proxy = proxies.get(i);
-				loader = new TileLoader(component, ctx, currentPixelsID,
-						pDef, proxy, l);
-				loader.load();
-			}
-		}
+		TileLoader loader = new TileLoader(component, ctx, currentPixelsID,
+				pDef, proxy, list);
+		loader.load();
     }
     
     /** Resets the tiles.*/
@@ -336,12 +336,12 @@ public class MeasurementAgent
 		registry = ctx;
 		EventBus bus = ctx.getEventBus();
 		bus.register(this, MeasurementTool.class);
-		bus.register(this, MeasurePlane.class);
+		bus.registerAsync(this, MeasurePlane.class);
 		bus.register(this, ViewerState.class);
 		bus.register(this, ChannelSelection.class);
 		bus.register(this, SaveData.class);
 		bus.register(this, FocusGainedEvent.class);
-		bus.register(this, ImageRendered.class);
+		bus.registerAsync(this, ImageRendered.class);
 		bus.register(this, UserGroupSwitched.class);
 		bus.register(this, ActivityProcessEvent.class);
 		bus.register(this, ReconnectedEvent.class);
@@ -0,0 +1,101 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2016 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.agents.measurement;
+
+
+import java.util.Arrays;
+import java.util.List;
+
+import omero.gateway.SecurityContext;
+import omero.gateway.model.TableResult;
+
+import org.openmicroscopy.shoola.agents.measurement.view.MeasurementViewer;
+import org.openmicroscopy.shoola.env.data.model.TableParameters;
+import org.openmicroscopy.shoola.env.data.views.CallHandle;
+
+/**
+ * Loads a range of rows of a measurement table.
+ *
+ * @author Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+public class TableRowsLoader
+    extends MeasurementViewerLoader
+{
+
+    /** Handle to the asynchronous call so that we can cancel it. */
+    private CallHandle handle;
+
+    /** The id of the file hosting the table. */
+    private final long fileID;
+
+    /** The parameters indicating the rows to load. */
+    private final TableParameters parameters;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param viewer The viewer this data loader is for.
+     *               Mustn't be <code>null</code>.
+     * @param ctx The security context.
+     * @param fileID The id of the file hosting the table.
+     * @param rowOffset The index of the first row to load.
+     * @param rowCount The number of rows to load.
+     */
+    public TableRowsLoader(MeasurementViewer viewer, SecurityContext ctx,
+            long fileID, long rowOffset, int rowCount)
+    {
+        super(viewer, ctx);
+        this.fileID = fileID;
+        parameters = new TableParameters(Arrays.asList(fileID));
+        parameters.setRange(rowOffset, rowCount);
+    }
+
+    /**
+     * Loads the rows.
+     * @see MeasurementViewerLoader#load()
+     */
+    public void load()
+    {
+        handle = mhView.loadTabularData(ctx, parameters, getCurrentUser(),
+                this);
+    }
+
+    /**
+     * Cancels the data loading.
+     * @see MeasurementViewerLoader#cancel()
+     */
+    public void cancel() { handle.cancel(); }
+
+    /**
+     * Feeds the result back to the viewer.
+     * @see MeasurementViewerLoader#handleResult(Object)
+     */
+    public void handleResult(Object result)
+    {
+        if (viewer.getState() == MeasurementViewer.DISCARDED) return;  //Async cancel.
+        List l = (List) result;
+        if (l == null || l.isEmpty()) return;
+        viewer.setTableRows(fileID, (TableResult) l.get(0));
+    }
+
+}
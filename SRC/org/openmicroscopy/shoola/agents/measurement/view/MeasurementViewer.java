@@ -37,6 +37,7 @@ import omero.gateway.model.DataObject;
 import omero.gateway.model.FileAnnotationData;
 import omero.gateway.model.FolderData;
 import omero.gateway.model.ROIData;
+import omero.gateway.model.TableResult;
 
 import org.openmicroscopy.shoola.agents.util.ui.PermissionMenu;
 import org.openmicroscopy.shoola.env.data.util.StructuredDataResults;
@@ -408,6 +409,14 @@ public interface MeasurementViewer
      */
     public void setExistingTags(Collection tags);
 
+    /**
+     * Sets the rows loaded from the specified measurement table.
+     *
+     * @param fileID The id of the file hosting the table.
+     * @param rows The rows loaded.
+     */
+    public void setTableRows(long fileID, TableResult rows);
+
     /** Loads and displays the existing tags.*/
     public void loadTags();
 
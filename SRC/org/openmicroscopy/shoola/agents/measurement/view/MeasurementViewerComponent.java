@@ -87,6 +87,7 @@ import omero.gateway.model.FileAnnotationData;
 import omero.gateway.model.FolderData;
 import omero.gateway.model.ROIData;
 import omero.gateway.model.ShapeData;
+import omero.gateway.model.TableResult;
 import omero.gateway.model.TagAnnotationData;
 
 /** 
@@ -1172,6 +1173,16 @@ class MeasurementViewerComponent
         }
 	    return r;
 	}
+    /**
+     * Implemented as specified by the {@link MeasurementViewer} interface.
+     * @see MeasurementViewer#setTableRows(long, TableResult)
+     */
+    public void setTableRows(long fileID, TableResult rows)
+    {
+        if (rows == null) return;
+        view.setTableRows(fileID, rows);
+    }
+
     /**
      * Implemented as specified by the {@link MeasurementViewer} interface.
      * @see MeasurementViewer#setExistingTags(Collection)
@@ -55,6 +55,7 @@ import org.openmicroscopy.shoola.agents.measurement.ROIFolderSaver;
 import org.openmicroscopy.shoola.agents.measurement.ROILoader;
 import org.openmicroscopy.shoola.agents.measurement.ROISaver;
 import org.openmicroscopy.shoola.agents.measurement.ServerSideROILoader;
+import org.openmicroscopy.shoola.agents.measurement.TableRowsLoader;
 import org.openmicroscopy.shoola.agents.measurement.TagsLoader;
 import org.openmicroscopy.shoola.agents.measurement.util.FileMap;
 import org.openmicroscopy.shoola.agents.metadata.MetadataViewerAgent;
@@ -1967,6 +1968,21 @@ class MeasurementViewerModel
      */
     Collection getExistingTags() { return existingTags; }
 
+    /**
+     * Fires an asynchronous retrieval of a range of rows of the specified
+     * measurement table.
+     *
+     * @param fileID The id of the file hosting the table.
+     * @param rowOffset The index of the first row to load.
+     * @param rowCount The number of rows to load.
+     */
+    void fireTableRowsLoading(long fileID, long rowOffset, int rowCount)
+    {
+        TableRowsLoader loader = new TableRowsLoader(component,
+                getSecurityContext(), fileID, rowOffset, rowCount);
+        loader.load();
+    }
+
     /** Fires an asynchronous retrieval of existing tags. */
     void fireExistingTagsLoading()
     {
@@ -55,6 +55,7 @@ import javax.swing.filechooser.FileFilter;
 import omero.gateway.model.FolderData;
 import omero.gateway.model.ROIData;
 import omero.gateway.model.ROIResult;
+import omero.gateway.model.TableResult;
 
 import org.jhotdraw.draw.AttributeKey;
 import org.jhotdraw.draw.DelegationSelectionTool;
@@ -940,6 +941,22 @@ class MeasurementViewerUI
 		}
 	}
     
+    /**
+     * Sets the rows loaded from the specified measurement table.
+     * 
+     * @param fileID The id of the file hosting the table.
+     * @param rows The rows loaded.
+     */
+    void setTableRows(long fileID, TableResult rows)
+    {
+    	Iterator<ServerROITable> i = roiTables.iterator();
+    	ServerROITable table;
+    	while (i.hasNext()) {
+    		table = i.next();
+    		if (table.getFileID() == fileID) table.setRows(rows);
+    	}
+    }
+    
     /**
      * Sets the figures selected from the table.
      * 
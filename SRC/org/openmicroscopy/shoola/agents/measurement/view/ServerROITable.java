@@ -28,10 +28,13 @@ import java.awt.event.ActionListener;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.Map.Entry;
 import javax.swing.Icon;
@@ -44,13 +47,15 @@ import javax.swing.ListSelectionModel;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
 import javax.swing.filechooser.FileFilter;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.table.AbstractTableModel;
 import javax.swing.table.TableCellRenderer;
 import javax.swing.table.TableColumn;
 import javax.swing.table.TableColumnModel;
+import javax.swing.table.TableModel;
 
 import org.openmicroscopy.shoola.agents.measurement.IconManager;
 import org.openmicroscopy.shoola.agents.measurement.MeasurementAgent;
+import org.openmicroscopy.shoola.env.data.model.ColumnarTableResult;
 import omero.gateway.model.ROIResult;
 import omero.gateway.model.TableResult;
 import org.openmicroscopy.shoola.env.ui.UserNotifier;
@@ -86,6 +91,9 @@ class ServerROITable
 	/** The index of the visible flag. */
 	private static final int			VISIBILITY_INDEX = 0;
 	
+	/** The number of rows loaded at once when scrolled into view. */
+	private static final int			PAGE_SIZE = 500;
+	
 	/** Reference to the Model. */
 	private MeasurementViewerModel		model;
 	
@@ -104,6 +112,12 @@ class ServerROITable
 	/** Button to export the data to excel. */
 	private JButton						export;
 	
+	/** The model of the table. */
+	private ServerROITableModel			tableModel;
+	
+	/** The file to export to once all the rows are loaded. */
+	private File						pendingExport;
+	
 	/**
 	 * Rounds the specified value if it is a double or float.
 	 * 
@@ -126,8 +140,6 @@ class ServerROITable
 		TableResult tr = (TableResult) result.getResult();
 		if (tr == null) return;
 		String[] headers = tr.getHeaders();
-		Object[][] data = tr.getData();
-		Object[][] rows = new Object[data.length][headers.length];
 		String[] columns = new String[headers.length];
 		int roiIndex = tr.getColumnIndex(TableResult.ROI_COLUMN_INDEX);
 		if (roiIndex < 0) roiIndex = 0;
@@ -135,16 +147,18 @@ class ServerROITable
 			if (i == roiIndex) columns[i] = "Visible";
 			else columns[i] = headers[i];
 		}
-		
-		for (int i = 0; i < columns.length; i++) {
-			for (int j = 0; j < data.length; j++) {
-				if (i == roiIndex) {
-					rowIDs.put((Long) data[j][i], j);
-					rows[j][i] = Boolean.valueOf(true);
-				} else rows[j][i] = roundValue(data[j][i]);	
-			}
+		ServerROITableModel tm;
+		if (tr instanceof ColumnarTableResult) {
+			ColumnarTableResult ctr = (ColumnarTableResult) tr;
+			tm = new ServerROITableModel(ctr, null, columns, roiIndex);
+		} else {
+			Object[][] data = tr.getData();
+			tm = new ServerROITableModel(null, data, columns, roiIndex);
+			for (int j = 0; j < data.length; j++)
+				rowIDs.put((Long) data[j][roiIndex], j);
 		}
-		table = new JTable(new ServerROITableModel(rows, columns));
+		tableModel = tm;
+		table = new JTable(tm);
 		TableColumnModel tcm = table.getColumnModel();
 		
 		TableColumn tc = tcm.getColumn(VISIBILITY_INDEX);
@@ -195,6 +209,22 @@ class ServerROITable
 			String fileName = file.getAbsolutePath()+"."+ExcelFilter.EXCEL;
 			file = new File(fileName);
 		}
+		if (tableModel.isComplete()) {
+			writeTable(file);
+			return;
+		}
+		//Load the rows not scrolled into view first.
+		pendingExport = file;
+		model.fireTableRowsLoading(getFileID(), 0, tableModel.getRowCount());
+	}
+	
+	/**
+	 * Writes the table to the specified file.
+	 * 
+	 * @param file The file to write.
+	 */
+	private void writeTable(File file)
+	{
 		String filename = file.getAbsolutePath();
 		ExcelWriter writer = new ExcelWriter(filename);
 		try {
@@ -409,6 +439,23 @@ class ServerROITable
 		}
 	}
 	
+	/**
+	 * Adds the rows loaded from the table.
+	 * 
+	 * @param rows The rows to add.
+	 */
+	void setRows(TableResult rows)
+	{
+		if (tableModel == null || !(rows instanceof ColumnarTableResult))
+			return;
+		tableModel.addRows((ColumnarTableResult) rows);
+		if (pendingExport != null && tableModel.isComplete()) {
+			File file = pendingExport;
+			pendingExport = null;
+			writeTable(file);
+		}
+	}
+	
 	/**
 	 * Returns the ID of the file this component is hosting.
 	 * 
@@ -420,25 +467,159 @@ class ServerROITable
 		return result.getFileID();
 	}
 	
-	/** Inner class so that some cells cannot be edited. */
+	/**
+	 * Inner class so that some cells cannot be edited. The values are read
+	 * from the columns of the result when displayed, only the visibility
+	 * of the ROIs is stored. The rows of a table loaded in part are
+	 * requested page by page as they are scrolled into view.
+	 */
 	class ServerROITableModel 
-		extends DefaultTableModel
+		extends AbstractTableModel
 	{
 		
+		/** The rows loaded, indexed by the index of their first row. */
+		private final TreeMap<Long, ColumnarTableResult> pages;
+		
+		/** The index of the first row of the pages requested. */
+		private final Set<Long> requested;
+		
+		/** The values if the result is not columnar. */
+		private final Object[][] data;
+		
+		/** The name of the columns. */
+		private final String[] columns;
+		
+		/** The index of the ROI column, replaced by the visibility. */
+		private final int roiIndex;
+		
+		/** The number of rows of the table. */
+		private final int rowCount;
+		
+		/** The visibility of the ROI of each row. */
+		private final boolean[] visible;
+		
+		/**
+		 * Returns the rows containing the specified row or <code>null</code>
+		 * if not loaded yet, in which case the page is requested.
+		 * 
+		 * @param row The row to handle.
+		 * @return See above.
+		 */
+		private ColumnarTableResult getRows(int row)
+		{
+			Entry<Long, ColumnarTableResult> e = pages.floorEntry((long) row);
+			if (e != null && row < e.getKey()+e.getValue().getRowCount())
+				return e.getValue();
+			long start = (row/PAGE_SIZE)*((long) PAGE_SIZE);
+			if (requested.add(start))
+				model.fireTableRowsLoading(getFileID(), start, PAGE_SIZE);
+			return null;
+		}
+		
 		/**
 		 * Creates a new instance.
 		 * 
-		 * @param rows		The rows to display.
+		 * @param result	The rows of the result or <code>null</code>.
+		 * @param data		The values if the result is not columnar.
 		 * @param columns	The columns to display.
+		 * @param roiIndex	The index of the ROI column.
+		 */
+		ServerROITableModel(ColumnarTableResult result, Object[][] data,
+				String[] columns, int roiIndex)
+		{
+			this.data = data;
+			this.columns = columns;
+			this.roiIndex = roiIndex;
+			pages = new TreeMap<Long, ColumnarTableResult>();
+			requested = new HashSet<Long>();
+			if (result != null) {
+				rowCount = (int) Math.min(Integer.MAX_VALUE,
+						result.getTotalRowCount());
+				addRows(result);
+			} else rowCount = data.length;
+			visible = new boolean[rowCount];
+			Arrays.fill(visible, true);
+		}
+		
+		/**
+		 * Adds the rows loaded and maps the ROIs to their rows.
+		 * 
+		 * @param rows The rows to add.
+		 */
+		void addRows(ColumnarTableResult rows)
+		{
+			if (data != null || rows.getRowCount() == 0) return;
+			long offset = rows.getRowOffset();
+			pages.put(offset, rows);
+			if (rows.getColumnType(roiIndex) == ColumnarTableResult.LONG) {
+				for (int j = 0; j < rows.getRowCount(); j++)
+					rowIDs.put(rows.getLong(j, roiIndex), (int) (offset+j));
+			}
+			if (visible != null)
+				fireTableRowsUpdated((int) offset,
+						(int) (offset+rows.getRowCount()-1));
+		}
+		
+		/**
+		 * Returns <code>true</code> if all the rows are loaded,
+		 * <code>false</code> otherwise.
+		 * 
+		 * @return See above.
+		 */
+		boolean isComplete()
+		{
+			if (data != null) return true;
+			long covered = 0;
+			Iterator<Entry<Long, ColumnarTableResult>> i =
+					pages.entrySet().iterator();
+			Entry<Long, ColumnarTableResult> e;
+			while (i.hasNext()) {
+				e = i.next();
+				if (e.getKey() > covered) return false;
+				covered = Math.max(covered,
+						e.getKey()+e.getValue().getRowCount());
+			}
+			return covered >= rowCount;
+		}
+		
+		/**
+		 * Implemented as specified by the {@link TableModel} interface.
+		 * @see TableModel#getRowCount()
+		 */
+		public int getRowCount() { return rowCount; }
+		
+		/**
+		 * Implemented as specified by the {@link TableModel} interface.
+		 * @see TableModel#getColumnCount()
+		 */
+		public int getColumnCount() { return columns.length; }
+		
+		/**
+		 * Overridden to return the name of the column.
+		 * @see AbstractTableModel#getColumnName(int)
+		 */
+		public String getColumnName(int column) { return columns[column]; }
+		
+		/**
+		 * Implemented as specified by the {@link TableModel} interface.
+		 * @see TableModel#getValueAt(int, int)
 		 */
-		ServerROITableModel(Object[][] rows, String[] columns)
+		public Object getValueAt(int row, int column)
 		{
-			super(rows, columns);
+			if (column == roiIndex) return Boolean.valueOf(visible[row]);
+			if (data != null) return roundValue(data[row][column]);
+			ColumnarTableResult rows = getRows(row);
+			if (rows == null) return null;
+			int index = (int) (row-rows.getRowOffset());
+			if (rows.getColumnType(column) == ColumnarTableResult.DOUBLE)
+				return UIUtilities.roundTwoDecimals(
+						rows.getDouble(index, column));
+			return rows.getValueAt(index, column);
 		}
 		
 		/**
 		 * Overridden so that some cells cannot be edited.
-		 * @see DefaultTableModel#isCellEditable(int, int)
+		 * @see AbstractTableModel#isCellEditable(int, int)
 		 */
 		public boolean isCellEditable(int row, int column)
 		{ 
@@ -446,13 +627,14 @@ class ServerROITable
 		}
 		
 		/**
-		 * Overridden to set the name of the image to save.
-		 * @see DefaultTableModel#setValueAt(Object, int, int)
+		 * Overridden to show or hide the ROI of the row.
+		 * @see AbstractTableModel#setValueAt(Object, int, int)
 		 */
 		public void setValueAt(Object value, int row, int col)
 		{   
-			super.setValueAt(value, row, col);
-			if (col == VISIBILITY_INDEX) handleVisibility(row, (Boolean) value);	
+			if (col != roiIndex) return;
+			visible[row] = (Boolean) value;
+			handleVisibility(row, visible[row]);
 			fireTableCellUpdated(row, col);
 		}
 		
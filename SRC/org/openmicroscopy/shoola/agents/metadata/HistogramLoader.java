@@ -104,11 +104,32 @@ public class HistogramLoader extends DSCallAdapter {
         handle.cancel();
     }
 
+    /** Notifies the viewer that the histogram data could not be loaded. */
+    private void onFailure() {
+        for (int ch : channels)
+            viewer.setHistogramData(ch, z, t, null);
+    }
+
     @Override
     public void handleResult(Object result) {
         Map<Integer, int[]> data = (Map<Integer, int[]>) result;
         for (int ch : channels)
-            viewer.setHistogramData(ch, data.get(ch));
+            viewer.setHistogramData(ch, z, t, data.get(ch));
+    }
+
+    @Override
+    public void handleNullResult() {
+        onFailure();
+    }
+
+    @Override
+    public void handleCancellation() {
+        onFailure();
+    }
+
+    @Override
+    public void handleException(Throwable exc) {
+        onFailure();
     }
 
 }
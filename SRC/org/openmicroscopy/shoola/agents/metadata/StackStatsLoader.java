@@ -0,0 +1,115 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2016 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.agents.metadata;
+
+import java.util.Map;
+
+import org.openmicroscopy.shoola.agents.metadata.view.MetadataViewer;
+import org.openmicroscopy.shoola.env.config.Registry;
+import org.openmicroscopy.shoola.env.data.events.DSCallAdapter;
+import org.openmicroscopy.shoola.env.data.views.CallHandle;
+import org.openmicroscopy.shoola.env.data.views.MetadataHandlerView;
+import org.openmicroscopy.shoola.env.rnd.PlaneStats;
+
+/**
+ * Computes the statistics of the stacks of the channels without statistics
+ * on the server, so that the minimum and maximum of these channels are not
+ * computed on the Swing thread.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+public class StackStatsLoader extends DSCallAdapter {
+
+    /** Reference to the {@link MetadataHandlerView} */
+    private MetadataHandlerView view;
+
+    /** The viewer this data loader is for. */
+    protected final MetadataViewer viewer;
+
+    /** Handle to the asynchronous call so that we can cancel it. */
+    private CallHandle handle;
+
+    /** The id of the pixels set. */
+    private long pixelsID;
+
+    /** The channel indices */
+    private int[] channels;
+
+    /** The T plane */
+    private int t;
+
+    /**
+     * Creates a new instance
+     *
+     * @param viewer
+     *            Reference to the {@link MetadataViewer}
+     * @param pixelsID
+     *            The id of the pixels set
+     * @param channels
+     *            The channel indices
+     * @param t
+     *            The T plane
+     */
+    public StackStatsLoader(MetadataViewer viewer, long pixelsID,
+            int[] channels, int t) {
+        this.viewer = viewer;
+        this.pixelsID = pixelsID;
+        this.channels = channels;
+        this.t = t;
+
+        Registry registry = MetadataViewerAgent.getRegistry();
+        view = (MetadataHandlerView) registry
+                .getDataServicesView(MetadataHandlerView.class);
+    }
+
+    /** Fires an asynchronous computation. */
+    public void load() {
+        handle = view.loadStackStats(pixelsID, channels, t, this);
+    }
+
+    /** Cancels any ongoing computation. */
+    public void cancel() {
+        handle.cancel();
+    }
+
+    @Override
+    public void handleResult(Object result) {
+        viewer.setStackStats(t, (Map<Integer, PlaneStats>) result);
+    }
+
+    @Override
+    public void handleNullResult() {
+        viewer.setStackStats(t, null);
+    }
+
+    @Override
+    public void handleCancellation() {
+        viewer.setStackStats(t, null);
+    }
+
+    @Override
+    public void handleException(Throwable exc) {
+        viewer.setStackStats(t, null);
+    }
+
+}
@@ -22,8 +22,6 @@ package org.openmicroscopy.shoola.agents.metadata.actions;
 
 
 import java.awt.event.ActionEvent;
-import java.util.Iterator;
-import java.util.List;
 
 import javax.swing.Action;
 
@@ -34,7 +32,6 @@ import org.openmicroscopy.shoola.agents.metadata.view.RndSettingsPasted;
 import org.openmicroscopy.shoola.env.event.EventBus;
 import org.openmicroscopy.shoola.util.ui.UIUtilities;
 import org.openmicroscopy.shoola.agents.events.iviewer.CopyRndSettings;
-import omero.gateway.model.ChannelData;
 
 /** 
  * Handles the rendering settings.
@@ -247,20 +244,7 @@ public class ManageRndSettingsAction
     {
         switch (index) {
             case MIN_MAX:
-                //check if we have stats for channel
-                boolean range = false;
-                if (index == MIN_MAX) {
-                    List<ChannelData> channels = model.getChannelData();
-                    Iterator<ChannelData> i = channels.iterator();
-                    while (i.hasNext()) {
-                        ChannelData c = i.next();
-                        if (!c.hasStats()) {
-                            range = true;
-                            break;
-                        }
-                    }
-                }
-                model.setRangeAllChannels(range);
+                model.setRangeFromStats();
                 break;
             case ABSOLUTE_MIN_MAX:
                 model.setRangeAllChannels(true);
@@ -48,7 +48,6 @@ import javax.swing.JPanel;
 import javax.swing.JSeparator;
 
 import org.apache.commons.collections.CollectionUtils;
-import org.openmicroscopy.shoola.agents.metadata.HistogramLoader;
 import org.openmicroscopy.shoola.agents.util.ViewedByItem;
 import org.openmicroscopy.shoola.env.rnd.RenderingControl;
 import org.openmicroscopy.shoola.env.rnd.RndProxyDef;
@@ -216,13 +215,8 @@ class GraphicsPane
                 int channelIndex = sel.getIndex();
 
                 int[] data = model.getHistogramData(channelIndex);
-                if (data == null) {
-                    HistogramLoader loader = new HistogramLoader(model
-                            .getViewer(), model.getSecurityContext(), model
-                            .getRefImage(), new int[] { channelIndex }, model
-                            .getDefaultZ(), model.getDefaultT());
-                    loader.load();
-                }
+                if (data == null)
+                    model.loadHistogram(channelIndex);
                 histogram.setData(data);
                 
                 double r = (model.getGlobalMax(channelIndex) - model
@@ -516,13 +510,8 @@ class GraphicsPane
             return;
         
         int[] data = model.getHistogramData(channelIndex);
-        if (data == null) {
-            HistogramLoader loader = new HistogramLoader(model.getViewer(),
-                    model.getSecurityContext(), model.getRefImage(),
-                    new int[] { channelIndex }, model.getDefaultZ(),
-                    model.getDefaultT());
-            loader.load();
-        }
+        if (data == null)
+            model.loadHistogram(channelIndex);
         histogram.setData(data);
         
         if(start == null) 
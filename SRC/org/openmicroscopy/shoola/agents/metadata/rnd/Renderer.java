@@ -36,6 +36,7 @@ import org.openmicroscopy.shoola.agents.util.ViewedByItem;
 import omero.gateway.exception.DSOutOfServiceException;
 import omero.gateway.exception.RenderingServiceException;
 
+import org.openmicroscopy.shoola.env.rnd.PlaneStats;
 import org.openmicroscopy.shoola.env.rnd.RenderingControl;
 import org.openmicroscopy.shoola.env.rnd.RndProxyDef;
 import org.openmicroscopy.shoola.env.rnd.data.ResolutionLevel;
@@ -138,6 +139,13 @@ public interface Renderer
      * copied.
      */
     public static final String COPY_SETTINGS_PROPERTY = "copySettings";
+
+    /**
+     * Bound property indicating that the statistics of the stacks are
+     * being computed or have been computed.
+     */
+    public static final String STACK_STATS_LOADING_PROPERTY =
+            "stackStatsLoading";
     
     /** 
      * Sets the pixels intensity interval for the
@@ -614,6 +622,14 @@ public interface Renderer
      */
     BufferedImage renderPlane(PlaneDef pDef);
 
+    /**
+     * Renders, in the background, the specified planes so that they are
+     * available when requested.
+     * 
+     * @param planes The planes likely to be requested next.
+     */
+    void prefetchPlanes(List<PlaneDef> planes);
+
     /** 
      * Sets the maximum range for channels.
      * 
@@ -622,6 +638,15 @@ public interface Renderer
      */
     void setRangeAllChannels(boolean absolute);
 
+    /**
+     * Sets the range of all the channels to their minimum and maximum if
+     * known for all the channels, to the absolute value otherwise. The
+     * minimum and maximum of the channels without statistics on the server
+     * are first computed in the background over the stack loaded on the
+     * client, the range being set once they are computed.
+     */
+    void setRangeFromStats();
+
     /**
      * Returns <code>true</code> if the passed channels compose an RGB image, 
      * <code>false</code> otherwise.
@@ -863,12 +888,28 @@ public interface Renderer
 
     
     /**
-     * Set the histogram data for the given channel
+     * Set the histogram data for the given channel and plane
      * 
      * @param ch
      *            The channel index
+     * @param z
+     *            The Z plane
+     * @param t
+     *            The T plane
      * @param data
-     *            The data
+     *            The data or <code>null</code> if it could not be loaded
+     */
+    void setHistogramData(int ch, int z, int t, int[] data);
+
+    /**
+     * Sets the statistics of the stacks computed on the client for the
+     * channels without statistics on the server.
+     * 
+     * @param t
+     *            The T plane
+     * @param stats
+     *            The statistics keyed by channel index or <code>null</code>
+     *            if they could not be computed
      */
-    void setHistogramData(int ch, int[] data);
+    void setStackStats(int t, Map<Integer, PlaneStats> stats);
 }
@@ -51,6 +51,7 @@ import omero.log.LogMessage;
 import omero.log.Logger;
 import omero.model.Length;
 
+import org.openmicroscopy.shoola.env.rnd.PlaneStats;
 import org.openmicroscopy.shoola.env.rnd.RenderingControl;
 import org.openmicroscopy.shoola.env.rnd.RndProxyDef;
 import org.openmicroscopy.shoola.env.rnd.data.ResolutionLevel;
@@ -115,6 +116,12 @@ class RendererComponent
     
     /** The original lookup table, in case a lut is previewed */
     private String origLookupTable;
+
+    /**
+     * Flag indicating to set the range of the channels once the statistics
+     * of the stacks are computed.
+     */
+    private boolean rangeFromStats;
     
 	/**
 	 * Notifies the user than an error occurred while trying to modify the 
@@ -1146,6 +1153,16 @@ class RendererComponent
 
 	/** 
      * Implemented as specified by the {@link Renderer} interface.
+     * @see Renderer#prefetchPlanes(List)
+     */
+	public void prefetchPlanes(List<PlaneDef> planes)
+	{
+		if (planes == null || planes.isEmpty()) return;
+		model.prefetch(planes);
+	}
+
+	/** 
+     * Implemented as specified by the {@link Renderer} interface.
      * @see Renderer#setRangeAllChannels(boolean)
      */
 	public void setRangeAllChannels(boolean absolute)
@@ -1158,8 +1175,14 @@ class RendererComponent
 					min = model.getLowestValue(i);
 					max = model.getHighestValue(i);
 				} else {
-					min = model.getGlobalMin(i);
-					max = model.getGlobalMax(i);
+					double[] range = model.getStackRange(i);
+					if (range != null) {
+						min = range[0];
+						max = range[1];
+					} else {
+						min = model.getLowestValue(i);
+						max = model.getHighestValue(i);
+					}
 				}
 				model.setInputInterval(i, min, max);
 			}
@@ -1450,11 +1473,53 @@ class RendererComponent
     /**
      * Implemented as specified by the {@link Renderer} interface.
      * 
-     * @see Renderer#setHistogramData(int, int[])
+     * @see Renderer#setHistogramData(int, int, int, int[])
+     */
+    @Override
+    public void setHistogramData(int ch, int z, int t, int[] data) {
+        model.setHistogramData(ch, z, t, data);
+        if (data != null)
+            view.onHistogramLoaded(ch);
+    }
+
+    /**
+     * Implemented as specified by the {@link Renderer} interface.
+     * 
+     * @see Renderer#setRangeFromStats()
+     */
+    @Override
+    public void setRangeFromStats() {
+        List<Integer> channels = model.getChannelsWithoutRange();
+        if (channels.isEmpty()) {
+            setRangeAllChannels(false);
+            return;
+        }
+        if (model.isStackStatsLoading()) {
+            rangeFromStats = true;
+            return;
+        }
+        if (!model.loadStackStats(channels)) {
+            setRangeAllChannels(true);
+            return;
+        }
+        rangeFromStats = true;
+        firePropertyChange(STACK_STATS_LOADING_PROPERTY,
+                Boolean.valueOf(false), Boolean.valueOf(true));
+    }
+
+    /**
+     * Implemented as specified by the {@link Renderer} interface.
+     * 
+     * @see Renderer#setStackStats(int, Map)
      */
     @Override
-    public void setHistogramData(int ch, int[] data) {
-        model.setHistogramData(ch, data);
-        view.onHistogramLoaded(ch);
+    public void setStackStats(int t, Map<Integer, PlaneStats> stats) {
+        model.setStackStats(t, stats);
+        firePropertyChange(STACK_STATS_LOADING_PROPERTY,
+                Boolean.valueOf(true), Boolean.valueOf(false));
+        if (!rangeFromStats)
+            return;
+        rangeFromStats = false;
+        setRangeAllChannels(!model.getChannelsWithoutRange().isEmpty());
     }
 }
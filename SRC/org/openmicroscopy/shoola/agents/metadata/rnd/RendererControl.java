@@ -467,6 +467,10 @@ class RendererControl
 			view.setZSection(((Integer) evt.getNewValue()).intValue());
 		} else if (Renderer.T_SELECTED_PROPERTY.equals(name)) {
 			view.setTimepoint(((Integer) evt.getNewValue()).intValue());
+		} else if (Renderer.STACK_STATS_LOADING_PROPERTY.equals(name)) {
+			boolean loading = (Boolean) evt.getNewValue();
+			actionsMap.get(RND_MIN_MAX).setEnabled(!loading &&
+					model.getPixelsDimensionsC() < Renderer.MAX_CHANNELS);
 		}   
         
         if(Renderer.SAVE_SETTINGS_PROPERTY.equals(name)) {
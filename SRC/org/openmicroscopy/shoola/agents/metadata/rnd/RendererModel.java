@@ -27,16 +27,20 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.collections.CollectionUtils;
 
 import omero.romio.PlaneDef;
 
+import org.openmicroscopy.shoola.agents.metadata.HistogramLoader;
 import org.openmicroscopy.shoola.agents.metadata.MetadataViewerAgent;
 import org.openmicroscopy.shoola.agents.metadata.RenderingControlShutDown;
+import org.openmicroscopy.shoola.agents.metadata.StackStatsLoader;
 import org.openmicroscopy.shoola.agents.metadata.view.MetadataViewer;
 import org.openmicroscopy.shoola.agents.util.ViewerSorter;
 import org.openmicroscopy.shoola.env.data.OmeroImageService;
@@ -49,6 +53,7 @@ import omero.model.Length;
 import omero.model.LengthI;
 import omero.model.enums.UnitsLength;
 
+import org.openmicroscopy.shoola.env.rnd.PlaneStats;
 import org.openmicroscopy.shoola.env.rnd.RenderingControl;
 import org.openmicroscopy.shoola.env.rnd.RndProxyDef;
 import org.openmicroscopy.shoola.env.rnd.data.ResolutionLevel;
@@ -179,8 +184,18 @@ class RendererModel
     /** The alternative rendering settings if any.*/
     private RndProxyDef def;
 
-    /** The data used to create the histogram. */
-    private Map<Integer, int[]> histogramData = new HashMap<Integer, int[]>();
+    /** The planes and channels whose histogram is being loaded. */
+    private Set<String> histogramLoading = new HashSet<String>();
+
+    /**
+     * The minimum and maximum computed over the stacks loaded on the client,
+     * keyed by time-point and channel.
+     */
+    private Map<String, double[]> stackRanges =
+            new HashMap<String, double[]>();
+
+    /** Flag indicating that the statistics of the stacks are computed. */
+    private boolean stackStatsLoading;
     
     /** Reference to the {@link MetadataViewer} */
     private MetadataViewer viewer;
@@ -1396,6 +1411,17 @@ class RendererModel
 		return rndControl.render(pDef);
 	}
 
+	/**
+	 * Renders, in the background, the specified planes.
+	 * 
+	 * @param planes The planes likely to be requested next.
+	 */
+	void prefetch(List<PlaneDef> planes)
+	{
+		if (rndControl == null) return;
+		rndControl.prefetch(planes);
+	}
+
 	/**
 	 * Renders the specified plane.
 	 * 
@@ -1793,21 +1819,120 @@ class RendererModel
 	}
 
     /**
-     * Set the histogram data for the given channel
+     * Set the histogram data for the given channel and plane
      * @param channelIndex The channel index
-     * @param data The data
+     * @param z The Z plane
+     * @param t The T plane
+     * @param data The data or <code>null</code> if it could not be loaded
      */
-    public void setHistogramData(int channelIndex, int[] data) {
-        histogramData.put(channelIndex, data);
+    public void setHistogramData(int channelIndex, int z, int t, int[] data) {
+        histogramLoading.remove(z+"/"+t+"/"+channelIndex);
+        if (rndControl != null)
+            rndControl.setHistogram(z, t, channelIndex, data);
     }
 
     /**
-     * Get the histogram data for the given channel
+     * Get the histogram data for the given channel in the current plane,
+     * <code>null</code> if it has to be loaded.
      * @param channelIndex The channel index
      * @return See above.
      */
     public int[] getHistogramData(int channelIndex) {
-        return histogramData.get(channelIndex);
+        if (rndControl == null)
+            return null;
+        return rndControl.getHistogram(getDefaultZ(), getDefaultT(),
+                channelIndex);
+    }
+
+    /**
+     * Loads the histogram data for the given channel in the current plane
+     * unless it is already being loaded.
+     * @param channelIndex The channel index
+     */
+    void loadHistogram(int channelIndex) {
+        int z = getDefaultZ();
+        int t = getDefaultT();
+        if (!histogramLoading.add(z+"/"+t+"/"+channelIndex))
+            return;
+        HistogramLoader loader = new HistogramLoader(getViewer(),
+                getSecurityContext(), getRefImage(),
+                new int[] { channelIndex }, z, t);
+        loader.load();
+    }
+
+    /**
+     * Returns the minimum and maximum of the channel from the statistics
+     * of the image or, if the image has none, computed over the stack at
+     * the current time-point by {@link #loadStackStats(List)}. Returns
+     * <code>null</code> if not known.
+     * @param channelIndex The channel index
+     * @return See above.
+     */
+    double[] getStackRange(int channelIndex) {
+        if (rndControl == null)
+            return null;
+        ChannelData channel = rndControl.getChannelData(channelIndex);
+        if (channel.hasStats())
+            return new double[] { channel.getGlobalMin(),
+                    channel.getGlobalMax() };
+        return stackRanges.get(getDefaultT()+"/"+channelIndex);
+    }
+
+    /**
+     * Returns the channels whose minimum and maximum are not known.
+     * @return See above.
+     */
+    List<Integer> getChannelsWithoutRange() {
+        List<Integer> channels = new ArrayList<Integer>();
+        for (int i = 0; i < getMaxC(); i++) {
+            if (getStackRange(i) == null)
+                channels.add(i);
+        }
+        return channels;
+    }
+
+    /**
+     * Computes in the background the statistics of the stacks of the
+     * specified channels at the current time-point, unless they are
+     * already being computed.
+     * @param channels The channel indices
+     * @return <code>true</code> if the statistics are computed,
+     *         <code>false</code> otherwise.
+     */
+    boolean loadStackStats(List<Integer> channels) {
+        if (rndControl == null || stackStatsLoading)
+            return false;
+        int[] indexes = new int[channels.size()];
+        for (int i = 0; i < indexes.length; i++)
+            indexes[i] = channels.get(i);
+        stackStatsLoading = true;
+        StackStatsLoader loader = new StackStatsLoader(getViewer(),
+                rndControl.getPixelsID(), indexes, getDefaultT());
+        loader.load();
+        return true;
+    }
+
+    /**
+     * Returns <code>true</code> if the statistics of the stacks are being
+     * computed, <code>false</code> otherwise.
+     * @return See above.
+     */
+    boolean isStackStatsLoading() { return stackStatsLoading; }
+
+    /**
+     * Sets the statistics of the stacks computed in the background.
+     * @param t The T plane
+     * @param stats The statistics keyed by channel index or
+     *              <code>null</code> if they could not be computed
+     */
+    void setStackStats(int t, Map<Integer, PlaneStats> stats) {
+        stackStatsLoading = false;
+        if (stats == null)
+            return;
+        for (Map.Entry<Integer, PlaneStats> e : stats.entrySet()) {
+            stackRanges.put(t+"/"+e.getKey(), new double[] {
+                    e.getValue().getMin(), e.getValue().getMax() });
+        }
     }
     
     /**
@@ -39,6 +39,7 @@ import org.openmicroscopy.shoola.agents.metadata.util.DataToSave;
 import org.openmicroscopy.shoola.env.data.model.ScriptObject;
 import omero.gateway.SecurityContext;
 import org.openmicroscopy.shoola.env.data.util.StructuredDataResults;
+import org.openmicroscopy.shoola.env.rnd.PlaneStats;
 import org.openmicroscopy.shoola.env.rnd.RndProxyDef;
 import org.openmicroscopy.shoola.util.ui.component.ObservableComponent;
 import omero.gateway.model.AnnotationData;
@@ -715,12 +716,28 @@ public interface MetadataViewer
 
     
     /**
-     * Set the histogram data for the given channel
+     * Set the histogram data for the given channel and plane
      * 
      * @param ch
      *            The channel index
+     * @param z
+     *            The Z plane
+     * @param t
+     *            The T plane
      * @param data
-     *            The data
+     *            The data or <code>null</code> if it could not be loaded
      */
-    public void setHistogramData(int ch, int[] data);
+    public void setHistogramData(int ch, int z, int t, int[] data);
+
+    /**
+     * Sets the statistics of the stacks computed on the client for the
+     * channels without statistics on the server.
+     * 
+     * @param t
+     *            The T plane
+     * @param stats
+     *            The statistics keyed by channel index or <code>null</code>
+     *            if they could not be computed
+     */
+    public void setStackStats(int t, Map<Integer, PlaneStats> stats);
 }
@@ -68,6 +68,7 @@ import omero.gateway.SecurityContext;
 import org.openmicroscopy.shoola.env.data.util.StructuredDataResults;
 import org.openmicroscopy.shoola.env.event.EventBus;
 import omero.log.LogMessage;
+import org.openmicroscopy.shoola.env.rnd.PlaneStats;
 import org.openmicroscopy.shoola.env.rnd.RndProxyDef;
 import org.openmicroscopy.shoola.env.ui.UserNotifier;
 import org.openmicroscopy.shoola.util.ui.component.AbstractComponent;
@@ -1319,10 +1320,21 @@ class MetadataViewerComponent
 
     /**
      * Implemented as specified by the {@link MetadataViewer} interface.
-     * @see MetadataViewer#setHistogramData(int, int[])
+     * @see MetadataViewer#setHistogramData(int, int, int, int[])
      */
     @Override
-    public void setHistogramData(int ch, int[] data) {
-        model.getEditor().getRenderer().setHistogramData(ch, data);
+    public void setHistogramData(int ch, int z, int t, int[] data) {
+        model.getEditor().getRenderer().setHistogramData(ch, z, t, data);
+    }
+
+    /**
+     * Implemented as specified by the {@link MetadataViewer} interface.
+     * @see MetadataViewer#setStackStats(int, Map)
+     */
+    @Override
+    public void setStackStats(int t, Map<Integer, PlaneStats> stats) {
+        Renderer rnd = model.getEditor().getRenderer();
+        if (rnd != null)
+            rnd.setStackStats(t, stats);
     }
 }
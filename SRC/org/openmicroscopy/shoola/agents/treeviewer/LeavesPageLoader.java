@@ -0,0 +1,264 @@
+/*
+ * org.openmicroscopy.shoola.agents.treeviewer.LeavesPageLoader
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.agents.treeviewer;
+
+//Java imports
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+
+//Third-party libraries
+import org.apache.commons.collections.CollectionUtils;
+
+//Application-internal dependencies
+import org.openmicroscopy.shoola.agents.treeviewer.browser.Browser;
+import org.openmicroscopy.shoola.agents.util.browser.TreeFileSet;
+import org.openmicroscopy.shoola.agents.util.browser.TreeImageDisplay;
+import org.openmicroscopy.shoola.agents.util.browser.TreeImageSet;
+import org.openmicroscopy.shoola.env.LookupNames;
+import org.openmicroscopy.shoola.env.data.views.CallHandle;
+import omero.gateway.SecurityContext;
+import omero.gateway.model.DatasetData;
+import omero.gateway.model.ExperimenterData;
+import omero.gateway.model.GroupData;
+import omero.log.LogMessage;
+
+/**
+ * Loads a page of the images contained in a dataset, of the orphaned images
+ * or of the datasets of an experimenter not contained in a project.
+ * The first page is loaded when the node is expanded and is handled
+ * as the leaves of the node, the following ones are added to the node
+ * when the user scrolls down to them.
+ * This class calls the <code>loadImagesPage</code>,
+ * <code>loadOrphanedImagesPage</code> or
+ * <code>loadContainerHierarchyPage</code> method in the
+ * <code>DataManagerView</code>.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+public class LeavesPageLoader
+    extends DataBrowserLoader
+{
+
+    /**
+     * The node hosting the experimenter the data are for or
+     * <code>null</code> if a following page is loaded.
+     */
+    private final TreeImageSet expNode;
+
+    /**
+     * The node hosting the dataset, the orphaned images or the
+     * experimenter.
+     */
+    private final TreeImageSet parent;
+
+    /** The index of the first object to load. */
+    private final int offset;
+
+    /** The maximum number of objects to load. */
+    private final int limit;
+
+    /**
+     * Pass <code>true</code> to order the objects by date,
+     * <code>false</code> to order them by name.
+     */
+    private final boolean byDate;
+
+    /** Handle to the asynchronous call so that we can cancel it. */
+    private CallHandle handle;
+
+    /**
+     * Returns <code>true</code> if the specified node hosts an experimenter
+     * or a group, <code>false</code> otherwise.
+     *
+     * @param node The node to handle.
+     * @return See above.
+     */
+    private static boolean isExperimenterNode(TreeImageDisplay node)
+    {
+        Object ho = node.getUserObject();
+        return ho instanceof ExperimenterData || ho instanceof GroupData;
+    }
+
+    /**
+     * Returns <code>true</code> if the specified node hosts the orphaned
+     * images, <code>false</code> otherwise.
+     *
+     * @param node The node to handle.
+     * @return See above.
+     */
+    private static boolean isOrphanedImagesNode(TreeImageDisplay node)
+    {
+        return node instanceof TreeFileSet &&
+                ((TreeFileSet) node).getType() == TreeFileSet.ORPHANED_IMAGES;
+    }
+
+    /**
+     * Returns the id of the user whose orphaned images are loaded or
+     * <code>-1</code> to load the images of all the members of the group.
+     *
+     * @return See above.
+     */
+    private long getOrphanedImagesOwner()
+    {
+        TreeImageDisplay exp = expNode;
+        if (exp == null) exp = parent.getParentDisplay();
+        long expID = -1;
+        if (exp.getUserObject() instanceof ExperimenterData)
+            expID = exp.getUserObjectId();
+        //Load only the data of the user currently logged in if "enabled" is false
+        Boolean v = Boolean.parseBoolean((String) registry.lookup(
+                LookupNames.ORPHANED_IMAGE_ENABLED));
+        if (v != null && !v.booleanValue()) {
+            boolean enabled = false;
+            if (!TreeViewerAgent.isAdministrator()) {
+                TreeImageDisplay node = exp.getParentDisplay();
+                long id = node.getUserObjectId();
+                if (id == -1) { //only in one group
+                    id = TreeViewerAgent.getUserDetails().getGroupId();
+                }
+                Set leaders = TreeViewerAgent.getGroupsLeaderOf();
+                if (CollectionUtils.isNotEmpty(leaders)) {
+                    Iterator i = leaders.iterator();
+                    while (i.hasNext()) {
+                        GroupData type = (GroupData) i.next();
+                        if (id == type.getId()) {
+                            enabled = true;
+                        }
+                    }
+                }
+            }
+            if (!enabled) {
+                expID = TreeViewerAgent.getUserDetails().getId();
+            }
+        }
+        return expID;
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param viewer The viewer this data loader is for.
+     *               Mustn't be <code>null</code>.
+     * @param ctx The security context.
+     * @param expNode The node hosting the experimenter the data are for.
+     *                Pass <code>null</code> to load a following page,
+     *                the first page otherwise.
+     * @param parent The node hosting the dataset, the orphaned images or
+     *               the experimenter. Mustn't be <code>null</code>.
+     * @param offset The index of the first object to load.
+     * @param limit The maximum number of objects to load.
+     * @param byDate Pass <code>true</code> to order the objects by date,
+     *               <code>false</code> to order them by name.
+     */
+    public LeavesPageLoader(Browser viewer, SecurityContext ctx,
+            TreeImageSet expNode, TreeImageSet parent, int offset, int limit,
+            boolean byDate)
+    {
+        super(viewer, ctx);
+        if (parent == null || !(parent.getUserObject() instanceof DatasetData
+                || isOrphanedImagesNode(parent) || isExperimenterNode(parent)))
+            throw new IllegalArgumentException("Node not valid.");
+        if (expNode != null && !isExperimenterNode(expNode))
+            throw new IllegalArgumentException("Experimenter not valid.");
+        this.expNode = expNode;
+        this.parent = parent;
+        this.offset = offset;
+        this.limit = limit;
+        this.byDate = byDate;
+    }
+
+    /**
+     * Returns <code>true</code> if the first page is loaded,
+     * <code>false</code> otherwise.
+     *
+     * @return See above.
+     */
+    private boolean isFirstPage() { return expNode != null; }
+
+    /**
+     * Retrieves the data.
+     * @see DataBrowserLoader#load()
+     */
+    public void load()
+    {
+        if (parent.getUserObject() instanceof DatasetData)
+            handle = dmView.loadImagesPage(ctx, parent.getUserObjectId(),
+                    offset, limit, byDate, this);
+        else if (isOrphanedImagesNode(parent))
+            handle = dmView.loadOrphanedImagesPage(ctx,
+                    getOrphanedImagesOwner(), offset, limit, byDate, this);
+        else {
+            long expID = -1;
+            if (parent.getUserObject() instanceof ExperimenterData)
+                expID = parent.getUserObjectId();
+            handle = dmView.loadContainerHierarchyPage(ctx, expID, offset,
+                    limit, byDate, this);
+        }
+    }
+
+    /**
+     * Cancels the data loading.
+     * @see DataBrowserLoader#cancel()
+     */
+    public void cancel() { handle.cancel(); }
+
+    /**
+     * Notifies the user that an error has occurred. The failure of a
+     * following page does not cancel the current loading of the browser.
+     * @see DataBrowserLoader#handleException(Throwable)
+     */
+    public void handleException(Throwable exc)
+    {
+        if (isFirstPage()) {
+            super.handleException(exc);
+            return;
+        }
+        String s = "Data Retrieval Failure: ";
+        LogMessage msg = new LogMessage();
+        msg.print(s);
+        msg.print(exc);
+        registry.getLogger().error(this, msg);
+        if (viewer.getState() != Browser.DISCARDED)
+            registry.getUserNotifier().notifyError("Data Retrieval Failure",
+                    s, exc);
+        viewer.addLeaves(null, parent, offset);
+    }
+
+    /**
+     * Feeds the result back to the viewer.
+     * @see DataBrowserLoader#handleResult(Object)
+     */
+    public void handleResult(Object result)
+    {
+        if (viewer.getState() == Browser.DISCARDED) return;  //Async cancel.
+        if (!isFirstPage())
+            viewer.addLeaves((Collection) result, parent, offset);
+        else if (parent == expNode)
+            viewer.setExperimenterData(expNode, (Collection) result);
+        else viewer.setLeaves((Collection) result, parent, expNode);
+    }
+
+}
@@ -267,6 +267,18 @@ public interface Browser
      */
     public void setLeaves(Collection leaves, TreeImageSet parent, 
     					TreeImageSet expNode);
+
+    /**
+     * Call-back used by a data loader to add a page of leaves to the
+     * specified node, when the node holds too many leaves to be loaded
+     * at once.
+     *
+     * @param leaves The collection of leaves or <code>null</code> if the
+     *               page could not be loaded.
+     * @param parent The parent of the leaves.
+     * @param offset The index of the first leaf of the page.
+     */
+    public void addLeaves(Collection leaves, TreeImageSet parent, int offset);
     
     /** 
      * Returns the type of this browser.
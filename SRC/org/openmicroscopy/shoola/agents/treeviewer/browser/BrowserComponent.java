@@ -29,6 +29,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -602,7 +603,44 @@ class BrowserComponent
         model.getParentModel().setStatus(false, "", true);
         fireStateChange();
     }
-    
+
+    /**
+     * Implemented as specified by the {@link Browser} interface.
+     * @see Browser#addLeaves(Collection, TreeImageSet, int)
+     */
+    public void addLeaves(Collection leaves, TreeImageSet parent, int offset)
+    {
+        model.onPageLoaded(parent);
+        if (model.getState() == DISCARDED || leaves == null) return;
+        if (model.getPageOffset(parent) != offset) return;
+        Object ho = parent.getUserObject();
+        if (ho instanceof ExperimenterData || ho instanceof GroupData) {
+            //The projects are only handled with the first page.
+            Set<Object> datasets = new HashSet<Object>();
+            Iterator<?> i = leaves.iterator();
+            Object object;
+            while (i.hasNext()) {
+                object = i.next();
+                if (object instanceof DatasetData)
+                    datasets.add(object);
+            }
+            Set<TreeImageSet> nodes = new HashSet<TreeImageSet>();
+            Iterator<TreeImageDisplay> j =
+                    TreeViewerTranslator.transformHierarchy(datasets).iterator();
+            while (j.hasNext())
+                nodes.add((TreeImageSet) j.next());
+            view.addLeavesViews(nodes, parent);
+            if (!datasets.isEmpty())
+                model.fireContainerCountLoading(datasets, nodes, parent);
+            return;
+        }
+        view.addLeavesViews(TreeViewerTranslator.transformHierarchy(leaves),
+                parent);
+        //Keep the images displayed in sync if the node is selected.
+        if (parent == model.getLastSelectedDisplay())
+            model.getParentModel().addLeaves(parent, leaves);
+    }
+
     /**
      * Implemented as specified by the {@link Browser} interface.
      * @see Browser#setSelectedDisplay(TreeImageDisplay)
@@ -784,6 +822,7 @@ class BrowserComponent
                 throw new IllegalArgumentException("SortType not supported.");
         }
         view.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        model.setSortedByDate(sortType == SORT_NODES_BY_DATE);
         view.sortNodes(sortType);
         view.setCursor(Cursor.getPredefinedCursor(Cursor.DEFAULT_CURSOR));
     }
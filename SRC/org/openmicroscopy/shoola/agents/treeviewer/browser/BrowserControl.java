@@ -250,6 +250,7 @@ class BrowserControl
         } 
         if (!expanded) {
             model.cancel();
+            model.cancelPageLoading(display);
             return;
         }
         int state = model.getState();
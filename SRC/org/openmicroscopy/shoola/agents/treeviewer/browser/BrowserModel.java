@@ -37,6 +37,7 @@ import org.openmicroscopy.shoola.agents.treeviewer.DataBrowserLoader;
 import org.openmicroscopy.shoola.agents.treeviewer.ExperimenterDataLoader;
 import org.openmicroscopy.shoola.agents.treeviewer.ExperimenterImageLoader;
 import org.openmicroscopy.shoola.agents.treeviewer.ExperimenterImagesCounter;
+import org.openmicroscopy.shoola.agents.treeviewer.LeavesPageLoader;
 import org.openmicroscopy.shoola.agents.treeviewer.RefreshExperimenterDataLoader;
 import org.openmicroscopy.shoola.agents.treeviewer.RefreshExperimenterDef;
 import org.openmicroscopy.shoola.agents.treeviewer.ScreenPlateLoader;
@@ -79,7 +80,13 @@ import omero.gateway.model.TagAnnotationData;
  */
 class BrowserModel
 {
-    
+
+    /**
+     * The maximum number of images of a dataset or of datasets of an
+     * experimenter loaded at once.
+     */
+    static final int PAGE_SIZE = 500;
+
     /** The type of Browser. */
     private int                 	browserType;
     
@@ -103,6 +110,15 @@ class BrowserModel
 	 * <code>null</code> depending on the current state. 
 	 */
 	private DataBrowserLoader		numberLoader;
+
+	/** The loaders of the following pages, one per node. */
+	private Map<TreeImageSet, DataBrowserLoader> pageLoaders;
+
+	/**
+	 * Flag indicating if the nodes are sorted by date or by name so that
+	 * the pages are loaded in the order of the tree.
+	 */
+	private boolean sortedByDate;
 	
     /** List of founds nodes. */
     private List					foundNodes;
@@ -182,6 +198,7 @@ class BrowserModel
         foundNodeIndex = -1;
         selectedNodes = new ArrayList<TreeImageDisplay>();
         displayed = true;
+        pageLoaders = new HashMap<TreeImageSet, DataBrowserLoader>();
         //adminContext = TreeViewerAgent.getAdminContext();
     }
 
@@ -308,16 +325,27 @@ class BrowserModel
     {
     	state = Browser.LOADING_LEAVES;
     	SecurityContext ctx = getSecurityContext(expNode);
-    	if (node instanceof TreeImageTimeSet || node instanceof TreeFileSet) {
+    	if (isPaged(node) && node instanceof TreeFileSet) {
+    		currentLoader = new LeavesPageLoader(component, ctx,
+    				(TreeImageSet) expNode, (TreeImageSet) node, 0, PAGE_SIZE,
+    				sortedByDate);
+    		currentLoader.load();
+    	} else if (node instanceof TreeImageTimeSet ||
+    			node instanceof TreeFileSet) {
     		currentLoader = new ExperimenterImageLoader(component, ctx,
 					(TreeImageSet) expNode, (TreeImageSet) node);
     		 currentLoader.load();
     	} else {
     		Object ho = node.getUserObject();
             if (ho instanceof DatasetData)  {
-        		currentLoader = new ExperimenterDataLoader(component, ctx,
-        				ExperimenterDataLoader.DATASET, 
-        				(TreeImageSet) expNode, (TreeImageSet) node);
+            	if (isPaged(node))
+            		currentLoader = new LeavesPageLoader(component, ctx,
+            				(TreeImageSet) expNode, (TreeImageSet) node, 0,
+            				PAGE_SIZE, sortedByDate);
+            	else
+            		currentLoader = new ExperimenterDataLoader(component, ctx,
+            				ExperimenterDataLoader.DATASET,
+            				(TreeImageSet) expNode, (TreeImageSet) node);
         		 currentLoader.load();
         	} else if (ho instanceof TagAnnotationData) {
         		currentLoader = new ExperimenterDataLoader(component, ctx,
@@ -371,8 +399,135 @@ class BrowserModel
         	numberLoader.cancel();
         	numberLoader = null;
         }
+        Iterator<DataBrowserLoader> i = pageLoaders.values().iterator();
+        while (i.hasNext())
+        	i.next().cancel();
+        pageLoaders.clear();
         state = Browser.DISCARDED;
     }
+
+    /**
+     * Returns <code>true</code> if the children of the specified node are
+     * loaded page by page, <code>false</code> otherwise. The datasets
+     * holding more than {@link #PAGE_SIZE} images, the number of images
+     * being counted before the node is expanded, the orphaned images and
+     * the datasets of an experimenter not contained in a project are paged.
+     *
+     * @param node The node to handle.
+     * @return See above.
+     */
+    boolean isPaged(TreeImageDisplay node)
+    {
+        if (!(node instanceof TreeImageSet)) return false;
+        Object ho = node.getUserObject();
+        if (ho instanceof DatasetData)
+        	return node.getNumberOfItems() > PAGE_SIZE;
+        if (node instanceof TreeFileSet)
+        	return ((TreeFileSet) node).getType() ==
+        			TreeFileSet.ORPHANED_IMAGES;
+        return browserType == Browser.PROJECTS_EXPLORER &&
+        		(ho instanceof ExperimenterData || ho instanceof GroupData);
+    }
+
+    /**
+     * Returns the index of the first object of the next page of the
+     * specified node i.e. the number of datasets already loaded for an
+     * experimenter, the number of images otherwise.
+     *
+     * @param node The node to handle.
+     * @return See above.
+     */
+    int getPageOffset(TreeImageSet node)
+    {
+        Object ho = node.getUserObject();
+        if (!(ho instanceof ExperimenterData || ho instanceof GroupData))
+        	return node.getChildrenDisplay().size();
+        int n = 0;
+        Iterator<?> i = node.getChildrenDisplay().iterator();
+        while (i.hasNext()) {
+        	if (((TreeImageDisplay) i.next()).getUserObject()
+        			instanceof DatasetData)
+        		n++;
+        }
+        return n;
+    }
+
+    /**
+     * Returns <code>true</code> if the children of the specified node are
+     * not all loaded, <code>false</code> otherwise. The number of
+     * orphaned images and of datasets is not known so a full page
+     * indicates that more objects have to be loaded.
+     *
+     * @param node The node to handle.
+     * @param loaded The number of objects in the last page loaded.
+     * @return See above.
+     */
+    boolean hasNextPage(TreeImageSet node, int loaded)
+    {
+        if (loaded < PAGE_SIZE || !isPaged(node)) return false;
+        if (!(node.getUserObject() instanceof DatasetData)) return true;
+        return getPageOffset(node) < node.getNumberOfItems();
+    }
+
+    /**
+     * Sets the flag indicating if the nodes are sorted by date or by name.
+     *
+     * @param sortedByDate Pass <code>true</code> if the nodes are sorted by
+     *                     date, <code>false</code> otherwise.
+     */
+    void setSortedByDate(boolean sortedByDate)
+    {
+        this.sortedByDate = sortedByDate;
+    }
+
+    /**
+     * Starts the asynchronous retrieval of the next page of the specified
+     * node. Does nothing if the page is already loading.
+     * The pages are loaded independently of the state of the browser.
+     *
+     * @param node The node to handle.
+     */
+    void firePageLoading(TreeImageSet node)
+    {
+        if (state == Browser.DISCARDED || pageLoaders.containsKey(node))
+        	return;
+        DataBrowserLoader loader = new LeavesPageLoader(component,
+        		getSecurityContext(node), null, node, getPageOffset(node),
+        		PAGE_SIZE, sortedByDate);
+        pageLoaders.put(node, loader);
+        loader.load();
+    }
+
+    /**
+     * Indicates that the page of the specified node has been loaded.
+     *
+     * @param node The node to handle.
+     */
+    void onPageLoaded(TreeImageSet node) { pageLoaders.remove(node); }
+
+    /**
+     * Cancels the loading of the pages of the specified node and
+     * of its descendants.
+     *
+     * @param node The collapsed or sorted node.
+     */
+    void cancelPageLoading(TreeImageDisplay node)
+    {
+        Iterator<Map.Entry<TreeImageSet, DataBrowserLoader>> i =
+        		pageLoaders.entrySet().iterator();
+        Map.Entry<TreeImageSet, DataBrowserLoader> e;
+        TreeImageDisplay n;
+        while (i.hasNext()) {
+        	e = i.next();
+        	n = e.getKey();
+        	while (n != null && n != node)
+        		n = n.getParentDisplay();
+        	if (n != null) {
+        		e.getValue().cancel();
+        		i.remove();
+        	}
+        }
+    }
     
     /** 
      * Cancels any ongoing data loading and sets the state to 
@@ -551,8 +706,12 @@ class BrowserModel
 				//index = ExperimenterDataLoader.FILE;
 		}
 		if (index == -1) return;
-		currentLoader = new ExperimenterDataLoader(component, ctx, index,
-				expNode);
+		if (isPaged(expNode))
+			currentLoader = new LeavesPageLoader(component, ctx, expNode,
+					expNode, 0, PAGE_SIZE, sortedByDate);
+		else
+			currentLoader = new ExperimenterDataLoader(component, ctx, index,
+					expNode);
         currentLoader.load();
         state = Browser.LOADING_DATA;
 	}
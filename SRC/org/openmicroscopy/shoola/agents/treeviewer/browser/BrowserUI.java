@@ -39,6 +39,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -58,6 +59,8 @@ import javax.swing.JTree;
 import javax.swing.KeyStroke;
 import javax.swing.SwingUtilities;
 import javax.swing.ToolTipManager;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 import javax.swing.event.TreeExpansionEvent;
 import javax.swing.event.TreeExpansionListener;
 import javax.swing.event.TreeSelectionEvent;
@@ -156,6 +159,9 @@ class BrowserUI
 
     /** Collections of nodes whose <code>enabled</code> flag has to be reset. */
     private Set<TreeImageDisplay>	nodesToReset;
+
+    /** The nodes standing for the children of a node not loaded yet. */
+    private Set<PageNode>			pageNodes;
     
     /** Button indicating if the partial name is displayed or not. */
     private JToggleButton			partialButton;
@@ -225,7 +231,126 @@ class BrowserUI
     {
     	setLayout(new BorderLayout(0, 0));
     	add(buildToolBar(), BorderLayout.NORTH);
-    	add(new JScrollPane(treeDisplay), BorderLayout.CENTER);
+    	JScrollPane pane = new JScrollPane(treeDisplay);
+    	pane.getViewport().addChangeListener(new ChangeListener() {
+
+    		public void stateChanged(ChangeEvent e) { loadVisiblePages(); }
+    	});
+    	add(pane, BorderLayout.CENTER);
+    }
+
+    /**
+     * Loads the next page of the nodes whose page node is visible i.e.
+     * when the user scrolls down to the end of the children already loaded
+     * or expands the node.
+     */
+    private void loadVisiblePages()
+    {
+    	if (pageNodes.isEmpty()) return;
+    	Rectangle r = treeDisplay.getVisibleRect();
+    	Iterator<PageNode> i = pageNodes.iterator();
+    	PageNode node;
+    	Rectangle bounds;
+    	while (i.hasNext()) {
+    		node = i.next();
+    		if (node.getParent() == null) { //node reloaded.
+    			i.remove();
+    			continue;
+    		}
+    		bounds = treeDisplay.getPathBounds(new TreePath(node.getPath()));
+    		if (bounds != null && r.intersects(bounds))
+    			model.firePageLoading((TreeImageSet) node.getParent());
+    	}
+    }
+
+    /**
+     * Adds a node standing for the children of the specified node not
+     * loaded yet. The node is added before the folders e.g. the orphaned
+     * images so that the datasets of an experimenter are kept together.
+     *
+     * @param parent The node to handle.
+     * @param tm The tree model.
+     */
+    private void buildPageNode(TreeImageSet parent, DefaultTreeModel tm)
+    {
+    	long n = -1;
+    	if (parent.getUserObject() instanceof DatasetData)
+    		n = parent.getNumberOfItems()-parent.getChildrenDisplay().size();
+    	PageNode node = new PageNode(n);
+    	int index = parent.getChildCount();
+    	while (index > 0 && parent.getChildAt(index-1) instanceof TreeFileSet)
+    		index--;
+    	tm.insertNodeInto(node, parent, index);
+    	pageNodes.add(node);
+    }
+
+    /**
+     * Returns the node standing for the children of the specified node not
+     * loaded yet or <code>null</code> if there is none.
+     *
+     * @param parent The node to handle.
+     * @return See above.
+     */
+    private PageNode getPageNode(TreeImageSet parent)
+    {
+    	for (int i = parent.getChildCount()-1; i >= 0; i--) {
+    		if (parent.getChildAt(i) instanceof PageNode)
+    			return (PageNode) parent.getChildAt(i);
+    	}
+    	return null;
+    }
+
+    /**
+     * Restores the number of images of a paged dataset, the number of items
+     * being reset to the number of children when a child is added.
+     *
+     * @param node The node to handle.
+     * @param total The number of images counted before the node was
+     *              expanded.
+     */
+    private void restoreNumberOfItems(TreeImageSet node, long total)
+    {
+    	if (node.getUserObject() instanceof DatasetData &&
+    			total > node.getNumberOfItems())
+    		node.setNumberItems(total);
+    }
+
+    /**
+     * Removes the children of the nodes whose pages are not all loaded so
+     * that the pages are loaded again in the order of the tree.
+     *
+     * @return The nodes to load again.
+     */
+    private List<TreeImageSet> resetPages()
+    {
+    	List<TreeImageSet> nodes = new ArrayList<TreeImageSet>();
+    	Iterator<PageNode> i = pageNodes.iterator();
+    	PageNode node;
+    	TreeImageSet parent;
+    	Iterator<?> j;
+    	TreeImageDisplay child;
+    	Object ho;
+    	long total;
+    	while (i.hasNext()) {
+    		node = i.next();
+    		i.remove();
+    		if (!(node.getParent() instanceof TreeImageSet)) continue;
+    		parent = (TreeImageSet) node.getParent();
+    		model.cancelPageLoading(parent);
+    		total = parent.getNumberOfItems();
+    		ho = parent.getUserObject();
+    		if (ho instanceof ExperimenterData || ho instanceof GroupData) {
+    			j = new ArrayList<Object>(parent.getChildrenDisplay()).iterator();
+    			while (j.hasNext()) {
+    				child = (TreeImageDisplay) j.next();
+    				if (child.getUserObject() instanceof DatasetData)
+    					parent.removeChildDisplay(child);
+    			}
+    		} else parent.removeAllChildrenDisplay();
+    		restoreNumberOfItems(parent, total);
+    		nodes.add(parent);
+    	}
+    	return nodes;
     }
     
     /** Helper method to create the menu bar. */
@@ -1514,6 +1639,7 @@ class BrowserUI
     {
         sorter = new ViewerSorter();
         nodesToReset = new HashSet<TreeImageDisplay>();
+        pageNodes = new LinkedHashSet<PageNode>();
         listener = new TreeExpansionListener() {
             public void treeCollapsed(TreeExpansionEvent e) {
                 onNodeNavigation((TreeImageDisplay) 
@@ -1789,6 +1915,7 @@ class BrowserUI
     	boolean b = type == Browser.SORT_NODES_BY_DATE;
         sorter.setByDate(b);
         sorter.setAscending(!b);
+        List<TreeImageSet> paged = resetPages();
         DefaultTreeModel dtm = (DefaultTreeModel) treeDisplay.getModel();
         TreeImageDisplay root = (TreeImageDisplay) dtm.getRoot();
     	int n = root.getChildCount();
@@ -1863,6 +1990,26 @@ class BrowserUI
 					}
 				}
 		}
+        //Load the pages again in the new order.
+        Iterator<TreeImageSet> k = paged.iterator();
+        TreeImageSet set;
+        while (k.hasNext()) {
+        	set = k.next();
+        	if (set.getParent() == null) continue;
+        	if (set.getUserObject() instanceof DatasetData ||
+        			set instanceof TreeFileSet)
+        		set.removeAllChildren();
+        	else {
+        		for (int i = set.getChildCount()-1; i >= 0; i--) {
+        			if (!(set.getChildAt(i) instanceof TreeImageDisplay))
+        				set.remove(i);
+        		}
+        	}
+        	buildPageNode(set, dtm);
+        	dtm.reload(set);
+        	if (set.isExpanded()) expandNode(set);
+        }
+        loadVisiblePages();
     }
 
     /** 
@@ -1992,6 +2139,11 @@ class BrowserUI
 					buildEmptyNode(expNode);
         	}
 		}
+        if (expNode instanceof TreeImageSet) {
+        	TreeImageSet set = (TreeImageSet) expNode;
+        	if (model.hasNextPage(set, model.getPageOffset(set)))
+        		buildPageNode(set, dtm);
+        }
         //
         i = nodesToReset.iterator();
         while (i.hasNext()) 
@@ -2186,6 +2338,8 @@ class BrowserUI
     void setLeavesViews(Collection nodes, TreeImageSet parent)
     {
         DefaultTreeModel dtm = (DefaultTreeModel) treeDisplay.getModel();
+        long total = parent.getNumberOfItems();
+        boolean paged = model.isPaged(parent);
         parent.removeAllChildren();
         parent.removeAllChildrenDisplay();
         parent.setChildrenLoaded(Boolean.TRUE);
@@ -2193,14 +2347,59 @@ class BrowserUI
             Iterator i = nodes.iterator();
             while (i.hasNext())
                 parent.addChildDisplay((TreeImageDisplay) i.next()) ;
+            if (paged) restoreNumberOfItems(parent, total);
             buildTreeNode(parent, sorter.sort(nodes), dtm);
         } else buildEmptyNode(parent);
+        if (model.hasNextPage(parent, nodes.size()))
+        	buildPageNode(parent, dtm);
         dtm.reload(parent);
         if (!isPartialName()) {
     		model.component.accept(new PartialNameVisitor(isPartialName()), 
     				TreeImageDisplayVisitor.TREEIMAGE_NODE_ONLY);
         }
     }
+
+    /**
+     * Adds the specified page of nodes to the nodes already displayed,
+     * in place of the node standing for the children not loaded yet.
+     * Does nothing if the node has been reloaded in the meantime.
+     *
+     * @param nodes The collection of nodes to add.
+     * @param parent The parent of the nodes.
+     */
+    void addLeavesViews(Collection nodes, TreeImageSet parent)
+    {
+    	PageNode node = getPageNode(parent);
+    	if (node == null) return;
+    	DefaultTreeModel dtm = (DefaultTreeModel) treeDisplay.getModel();
+    	int n = parent.getIndex(node);
+    	dtm.removeNodeFromParent(node);
+    	pageNodes.remove(node);
+    	if (nodes.size() == 0) {
+    		if (parent.getChildCount() == 0) buildEmptyNode(parent);
+    		return;
+    	}
+    	long total = parent.getNumberOfItems();
+    	int[] indices = new int[nodes.size()];
+    	Iterator i = sorter.sort(nodes).iterator();
+    	TreeImageDisplay display;
+    	int index = 0;
+    	while (i.hasNext()) {
+    		display = (TreeImageDisplay) i.next();
+    		parent.addChildDisplay(display);
+    		parent.insert(display, n+index);
+    		indices[index] = n+index;
+    		index++;
+    	}
+    	restoreNumberOfItems(parent, total);
+    	dtm.nodesWereInserted(parent, indices);
+    	if (model.hasNextPage(parent, nodes.size()))
+    		buildPageNode(parent, dtm);
+    	if (!isPartialName()) {
+    		model.component.accept(new PartialNameVisitor(isPartialName()),
+    				TreeImageDisplayVisitor.TREEIMAGE_NODE_ONLY);
+    	}
+    }
     
 	/**
 	 * Adds a new experimenter to the tree.
@@ -2510,4 +2709,23 @@ class BrowserUI
 		}
 	}
 
+    /** Stands for the children of a node not loaded yet. */
+    private static class PageNode
+    	extends DefaultMutableTreeNode
+    {
+
+    	/**
+    	 * Creates a new instance.
+    	 *
+    	 * @param remaining The number of children not loaded yet or
+    	 *                  <code>-1</code> if the number is not known.
+    	 */
+    	PageNode(long remaining)
+    	{
+    		super(remaining < 0 ? Browser.LOADING_MSG :
+    			Browser.LOADING_MSG+" ("+remaining+" more)", false);
+    	}
+
+    }
+
 }
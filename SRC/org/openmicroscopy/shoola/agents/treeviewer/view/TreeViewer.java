@@ -697,6 +697,15 @@ public interface TreeViewer
 	 * @param leaves	The leaves to convert and add to the node.
 	 */
 	public void setLeaves(TreeImageSet parent, Collection leaves);
+
+	/**
+	 * Adds the specified leaves to the leaves already displayed for the
+	 * specified parent e.g. when the leaves are loaded page by page.
+	 * 
+	 * @param parent 	The node the leaves are related to.
+	 * @param leaves	The leaves to add.
+	 */
+	public void addLeaves(TreeImageSet parent, Collection leaves);
 	
 	/**
 	 * Sets the selected node.
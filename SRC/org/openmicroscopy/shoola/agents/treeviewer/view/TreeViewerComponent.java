@@ -2803,6 +2803,29 @@ class TreeViewerComponent
 		model.setDataViewer(db);
 	}
 	
+	/**
+	 * Implemented as specified by the {@link TreeViewer} interface.
+	 * @see TreeViewer#addLeaves(TreeImageSet, Collection)
+	 */
+	public void addLeaves(TreeImageSet parent, Collection leaves)
+	{
+		if (parent == null || leaves == null) return;
+		DataBrowser db;
+		if (parent instanceof TreeFileSet)
+			db = DataBrowserFactory.getDataBrowser(parent);
+		else db = DataBrowserFactory.getDataBrowser(parent.getUserObject());
+		//Only update the browser displayed.
+		if (db == null || db != model.getDataViewer()) return;
+		List<ImageData> images = new ArrayList<ImageData>();
+		Iterator i = leaves.iterator();
+		Object o;
+		while (i.hasNext()) {
+			o = i.next();
+			if (o instanceof ImageData) images.add((ImageData) o);
+		}
+		if (images.size() > 0) db.addImages(images);
+	}
+	
 	/**
 	 * Implemented as specified by the {@link TreeViewer} interface.
 	 * @see TreeViewer#getDisplayedImages()
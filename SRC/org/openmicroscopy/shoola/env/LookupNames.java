@@ -275,6 +275,28 @@ public class LookupNames
     /** Field to access the <code>Cache on</code> information. */
     public static final String CACHE_ON = "/services/CACHE/on";
 
+    /** 
+     * Field to access the name of the directory, in the <code>OMERO</code>
+     * folder, hosting the persistent cache.
+     */
+    public static final String CACHE_DISK_DIR = "/services/CACHE/diskDir";
+
+    /** Field to access the <code>Size</code> of the persistent tile cache. */
+    public static final String TILE_CACHE_SZ = "/services/CACHE/tileCacheSz";
+
+    /** 
+     * Field to access the <code>Size</code> of the persistent thumbnail
+     * cache.
+     */
+    public static final String THUMBNAIL_CACHE_SZ =
+            "/services/CACHE/thumbnailCacheSz";
+
+    /** 
+     * Field to access the <code>Size</code> of the persistent cache of
+     * the files to import found while scanning.
+     */
+    public static final String SCAN_CACHE_SZ = "/services/CACHE/scanCacheSz";
+
     /** Field to access the <code>Size</code> of the cache. */
     public static final String RE_CACHE_SZ = "/services/RE/cacheSz";
 
@@ -294,8 +316,31 @@ public class LookupNames
 
     public static final String RE_MAX_PRE_FETCH = "/services/RE/maxPreFetch";
 
+    /** 
+     * Field to access the size, in Mb, of the cache hosting the raw planes
+     * rendered on the client.
+     */
+    public static final String RE_LOCAL_CACHE_SZ =
+            "/services/RE/localCacheSz";
+
     public static final String CMD_PROCESSOR = "/services/CmdProcessor";
 
+    /** Field to access the policy used to execute the calls. */
+    public static final String CMD_PROCESSOR_TYPE =
+            "/services/CmdProcessor/type";
+
+    /** Field to access the number of threads always available. */
+    public static final String CMD_PROCESSOR_THREADS =
+            "/services/CmdProcessor/threads";
+
+    /** Field to access the maximum number of threads. */
+    public static final String CMD_PROCESSOR_MAX_THREADS =
+            "/services/CmdProcessor/maxThreads";
+
+    /** Field indicating to use virtual threads if supported. */
+    public static final String CMD_PROCESSOR_VIRTUAL =
+            "/services/CmdProcessor/virtual";
+
     public static final String MONITOR_FACTORY =
             "/services/data/views/MonitorFactory";
 
@@ -437,4 +482,34 @@ public class LookupNames
     /** Lookup name for the flag indicating if the offline import is on/off.*/
     public static final String OFFLINE_IMPORT_ENABLED = "omero.client.import.offline.enabled";
 
+    /** Field to access the number of filesets imported at the same time. */
+    public static final String IMPORT_FILESETS = "/services/IMPORT/filesets";
+
+    /**
+     * Field to access the number of files of a fileset uploaded at the same
+     * time.
+     */
+    public static final String IMPORT_UPLOAD_THREADS =
+            "/services/IMPORT/uploadThreads";
+
+    /**
+     * Field to access the time, in milliseconds, during which the files of
+     * a watched folder must not change before being imported.
+     */
+    public static final String IMPORT_WATCH_QUIET =
+            "/services/IMPORT/watchQuietPeriod";
+
+    /**
+     * Field to access the maximum number of filesets of a watched folder
+     * imported together.
+     */
+    public static final String IMPORT_WATCH_BATCH =
+            "/services/IMPORT/watchBatchSize";
+
+    /**
+     * Field to access the number of parts of a file downloaded at the same
+     * time.
+     */
+    public static final String DOWNLOAD_THREADS = "/services/DOWNLOAD/threads";
+
 }
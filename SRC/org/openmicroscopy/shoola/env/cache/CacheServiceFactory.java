@@ -24,6 +24,7 @@ package org.openmicroscopy.shoola.env.cache;
 
 
 //Java imports
+import java.io.File;
 import java.io.InputStream;
 
 //Third-party libraries
@@ -78,13 +79,29 @@ public class CacheServiceFactory
 		
 		//We have a config file, set up ehcache.
 		CacheService cache = new CacheServiceImpl(config,
-				container.getRegistry().getLogger());
+				container.getRegistry().getLogger(), getDiskDirectory(reg));
 		try {
 			config.close();
 		} catch (Exception e) {}
 		return cache;
 	}
 	
+	/**
+	 * Returns the directory hosting the persistent cache or 
+	 * <code>null</code> if not specified.
+	 * 
+	 * @param reg Reference to the registry.
+	 * @return See above.
+	 */
+	private static File getDiskDirectory(Registry reg)
+	{
+		String home = (String) reg.lookup(LookupNames.USER_HOME_OMERO);
+		String name = (String) reg.lookup(LookupNames.CACHE_DISK_DIR);
+		if (home == null || name == null || name.trim().length() == 0)
+			return null;
+		return new File(home, name.trim());
+	}
+	
 	/**
 	 * Shuts downs the caching service.
 	 * 
@@ -21,7 +21,17 @@
 
 package org.openmicroscopy.shoola.env.cache;
 
+import java.io.File;
 import java.io.InputStream;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 
 import net.sf.ehcache.Cache;
@@ -55,24 +65,163 @@ class CacheServiceImpl
 	/** Reference to the log service.*/ 
 	private Logger log;
 	
+	/** The directory hosting the persistent cache. */
+	private File diskDir;
+	
+	/** The persistent cache, opened when first requested. */
+	private DiskCache diskCache;
+	
+	/**
+	 * The identifiers of the caches backed by the persistent cache and
+	 * the namespaces of their keys.
+	 */
+	private Map<Integer, Set<String>> diskCacheIDs;
+	
+	/** The largest size, in bytes, requested for the persistent cache. */
+	private long diskCacheSize;
+	
+	/** Compacts the persistent cache in the background. */
+	private ScheduledExecutorService compactor;
+	
+	/** The delay, in minutes, between two compaction passes. */
+	private static final int COMPACTION_DELAY = 5;
+	
+	/**
+	 * Logs the specified message and exception.
+	 * 
+	 * @param s The message.
+	 * @param e The exception.
+	 */
+	private void log(String s, Exception e)
+	{
+		LogMessage msg = new LogMessage();
+		msg.print(s);
+		msg.print(e);
+		log.debug(this, msg);
+	}
+	
+	/**
+	 * Returns the persistent cache if the specified identifier denotes a
+	 * cache backed by it, <code>null</code> otherwise.
+	 * 
+	 * @param cacheID The identifier of the cache.
+	 * @return See above.
+	 */
+	private synchronized DiskCache getDiskCache(int cacheID)
+	{
+		if (diskCache == null || !diskCacheIDs.containsKey(cacheID))
+			return null;
+		return diskCache;
+	}
+	
+	/**
+	 * Returns the key of the element in the persistent cache and records
+	 * its namespace, i.e. its first segment, so that the elements of the
+	 * cache can be cleared without removing the ones of the other caches
+	 * sharing the persistent cache.
+	 * 
+	 * @param cacheID The identifier of the cache.
+	 * @param key The key of the element.
+	 * @return See above.
+	 */
+	private synchronized String getDiskKey(int cacheID, Object key)
+	{
+		String k = key.toString();
+		Set<String> namespaces = diskCacheIDs.get(cacheID);
+		if (namespaces != null) {
+			int index = k.indexOf('/');
+			namespaces.add(index < 0 ? k : k.substring(0, index+1));
+		}
+		return k;
+	}
+	
+	/**
+	 * Opens the persistent cache if not already opened and starts the 
+	 * compaction. Returns the identifier of the new cache or <code>-1</code>
+	 * if the persistent cache cannot be used. The persistent cache is never
+	 * shrunk by a cache requesting a smaller size.
+	 * 
+	 * @param size The maximum size, in megabytes, of the persistent cache.
+	 * @return See above.
+	 */
+	private synchronized int createDiskCache(int size)
+	{
+		if (diskDir == null) return -1;
+		long max = ((long) size)*1024*1024;
+		if (diskCache == null) {
+			try {
+				diskCache = new DiskCache(diskDir, max);
+			} catch (Exception e) {
+				log("Cannot open the persistent cache: "+diskDir, e);
+				diskDir = null; //Do not try again.
+				return -1;
+			}
+			compactor = Executors.newSingleThreadScheduledExecutor(
+					new ThreadFactory() {
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "DiskCacheCompactor");
+					t.setDaemon(true);
+					t.setPriority(Thread.MIN_PRIORITY);
+					return t;
+				}
+			});
+			final DiskCache cache = diskCache;
+			compactor.scheduleWithFixedDelay(new Runnable() {
+				public void run() {
+					try {
+						while (cache.compact()) ;
+					} catch (Exception e) {
+						log("Cannot compact the persistent cache", e);
+					}
+				}
+			}, COMPACTION_DELAY, COMPACTION_DELAY, TimeUnit.MINUTES);
+		} else if (max > diskCacheSize) diskCache.setMaximumSize(max);
+		diskCacheSize = Math.max(diskCacheSize, max);
+		cacheID++;
+		diskCacheIDs.put(cacheID, new HashSet<String>());
+		return cacheID;
+	}
+	
+	/** Writes the index of the persistent cache and closes it. */
+	private synchronized void closeDiskCache()
+	{
+		diskCacheIDs.clear();
+		if (diskCache == null) return;
+		compactor.shutdownNow();
+		try {
+			log.debug(this, diskCache.getStatistics());
+			diskCache.close();
+		} catch (Exception e) {
+			log("Cannot close the persistent cache", e);
+		}
+		diskCache = null;
+		diskCacheSize = 0;
+		compactor = null;
+	}
+	
 	/**
 	 * Creates a new instance.
 	 * 
 	 * @param config The configuration file as input stream.
 	 * @param log Reference to the logger.
+	 * @param diskDir The directory hosting the persistent cache or
+	 *                <code>null</code> if persistence is not supported.
 	 */
-	CacheServiceImpl(InputStream config, Logger log)
+	CacheServiceImpl(InputStream config, Logger log, File diskDir)
 	{
 		if (log == null)
 			throw new IllegalArgumentException("Logger cannot be null");
 		manager = new CacheManager(config);
 		this.log = log;
+		this.diskDir = diskDir;
+		diskCacheIDs = new HashMap<Integer, Set<String>>();
 		cacheID = -1;
 	}
 
 	/** Shuts down the cache manager. */
 	public void shutDown()
 	{
+		closeDiskCache();
 		try {
 			manager.shutdown();
 		} catch (Exception e) {
@@ -92,16 +241,20 @@ class CacheServiceImpl
 
 	/** 
 	 * Implemented as specified by {@link CacheService}.
+	 * For {@link #PERSISTENCE_ON_DISK}, the size is the maximum size, in
+	 * megabytes, of the persistent cache. All the caches of that type share
+	 * the same persistent cache so that the elements are available across
+	 * sessions; the keys are converted into string and the elements must be
+	 * byte arrays.
 	 * @see CacheService#createCache(int, int)
 	 */
-	public int createCache(int type, int size) 
+	public synchronized int createCache(int type, int size) 
 	{
 		Cache cache;
 		if (size <= 0) size = 1;
 		switch (type) {
 			case PERSISTENCE_ON_DISK:
-				//TODO: implement.
-				return -1;
+				return createDiskCache(size);
 			case IN_MEMORY:
 				cacheID++;
 				//name, maximum number of elements, overflow to disk, eternal
@@ -138,6 +291,10 @@ class CacheServiceImpl
 	 */
 	public void removeCache(int cacheID)
 	{
+		synchronized (this) {
+			//The persistent elements are kept.
+			if (diskCacheIDs.remove(cacheID) != null) return;
+		}
 		Cache cache = null;
 		try {
 			cache = manager.getCache(""+cacheID);
@@ -157,6 +314,16 @@ class CacheServiceImpl
 	 */
 	public void addElement(int cacheID, Object key, Object element) 
 	{
+		DiskCache disk = getDiskCache(cacheID);
+		if (disk != null) {
+			if (key == null || !(element instanceof byte[])) return;
+			try {
+				disk.put(getDiskKey(cacheID, key), (byte[]) element);
+			} catch (Exception e) {
+				log("Cannot store the element: "+key, e);
+			}
+			return;
+		}
 		Cache cache = null;
 		try {
 			cache = manager.getCache(""+cacheID);
@@ -180,6 +347,11 @@ class CacheServiceImpl
 	 */
 	public Object getElement(int cacheID, Object key)
 	{
+		DiskCache disk = getDiskCache(cacheID);
+		if (disk != null) {
+			if (key == null) return null;
+			return disk.get(getDiskKey(cacheID, key));
+		}
 		Cache cache = null;
 		try {
 			cache = manager.getCache(""+cacheID);
@@ -211,6 +383,20 @@ class CacheServiceImpl
 	 */
 	public void clearCache(int cacheID) 
 	{
+		DiskCache disk = getDiskCache(cacheID);
+		if (disk != null) {
+			//Only the elements of that cache, other caches share the store.
+			Set<String> namespaces;
+			synchronized (this) {
+				namespaces = diskCacheIDs.get(cacheID);
+				if (namespaces == null) return;
+				namespaces = new HashSet<String>(namespaces);
+			}
+			Iterator<String> i = namespaces.iterator();
+			while (i.hasNext())
+				disk.clear(i.next());
+			return;
+		}
 		Cache cache = null;
 		try {
 			cache = manager.getCache(""+cacheID);
@@ -231,6 +417,8 @@ class CacheServiceImpl
 	 */
 	public void clearAllCaches() 
 	{
+		//The persistent cache is written to disk not erased.
+		closeDiskCache();
 		try {
 			String[] names = manager.getCacheNames();
 			if (names == null) return;
@@ -251,6 +439,11 @@ class CacheServiceImpl
 	 */
 	public void setCacheEntries(int cacheID, int size)
 	{
+		DiskCache disk = getDiskCache(cacheID);
+		if (disk != null) {
+			if (size > 0) disk.setMaximumSize(((long) size)*1024*1024);
+			return;
+		}
 		Cache cache = null;
 		try {
 			cache = manager.getCache(""+cacheID);
@@ -0,0 +1,778 @@
+/*
+ * org.openmicroscopy.shoola.env.cache.DiskCache
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ * 	This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+
+package org.openmicroscopy.shoola.env.cache;
+
+
+//Java imports
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+//Third-party libraries
+
+//Application-internal dependencies
+
+/**
+ * Stores byte arrays e.g. encoded images in a directory so that they are
+ * available across sessions.
+ * <p>The values are appended to segment files and located using an index
+ * kept in memory and written to disk when the cache is closed. The least
+ * recently used values are removed when the maximum size is reached.
+ * Removing a value leaves a hole in its segment; the holes are reclaimed
+ * by {@link #compact()} which copies the live values of the most
+ * fragmented segment at the end of the current segment and deletes it.</p>
+ * <p>A directory can only be used by one cache at a time, a lock file
+ * prevents two clients from sharing it.</p>
+ * <p>The segments are read and written by a dedicated thread: a
+ * <code>FileChannel</code> is closed when the thread using it is
+ * interrupted, so the interrupts of the callers, e.g. cancelled loaders,
+ * must not reach the channels shared by the whole session.</p>
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+class DiskCache
+{
+
+    /** The name of the index file. */
+    static final String INDEX = "index";
+
+    /** The name of the lock file. */
+    static final String LOCK = "lock";
+
+    /** The prefix of the segment files. */
+    static final String SEGMENT = "segment-";
+
+    /** The extension of the segment files. */
+    static final String EXTENSION = ".dat";
+
+    /** Identifies the format of the index file. */
+    private static final int MAGIC = 0x4f4d5443;
+
+    /** The version of the index file. */
+    private static final int VERSION = 1;
+
+    /** The size after which a new segment is started. */
+    static final long SEGMENT_SIZE = 32*1024*1024;
+
+    /** Locates a value. */
+    static final class Location
+    {
+
+        /** The segment hosting the value. */
+        final int segment;
+
+        /** The position of the value in the segment. */
+        final long offset;
+
+        /** The length of the value. */
+        final int length;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param segment The segment hosting the value.
+         * @param offset The position of the value in the segment.
+         * @param length The length of the value.
+         */
+        Location(int segment, long offset, int length)
+        {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /** The directory hosting the files. */
+    private final File dir;
+
+    /** The index, ordered from least to most recently used. */
+    private final LinkedHashMap<String, Location> index;
+
+    /** The open segments. */
+    private final Map<Integer, FileChannel> segments;
+
+    /** The number of live bytes per segment. */
+    private final Map<Integer, Long> liveBytes;
+
+    /** The thread reading and writing the segments. */
+    private final ExecutorService io;
+
+    /** The lock preventing other clients to use the directory. */
+    private FileLock lock;
+
+    /** The channel of the lock file. */
+    private FileChannel lockChannel;
+
+    /** The segment values are appended to. */
+    private int current;
+
+    /** The maximum number of bytes of values kept. */
+    private long maxSize;
+
+    /** The number of bytes of values kept. */
+    private long size;
+
+    /** The number of values found. */
+    private long hits;
+
+    /** The number of values not found. */
+    private long misses;
+
+    /**
+     * Returns the file of the specified segment.
+     *
+     * @param segment The segment.
+     * @return See above.
+     */
+    private File getSegmentFile(int segment)
+    {
+        return new File(dir, SEGMENT+segment+EXTENSION);
+    }
+
+    /**
+     * Returns the channel to the specified segment, opening it if required.
+     *
+     * @param segment The segment.
+     * @return See above.
+     * @throws IOException If the segment cannot be opened.
+     */
+    private FileChannel getSegment(int segment)
+        throws IOException
+    {
+        FileChannel channel = segments.get(segment);
+        if (channel != null && !channel.isOpen()) {
+            segments.remove(segment);
+            channel = null;
+        }
+        if (channel == null) {
+            RandomAccessFile f = new RandomAccessFile(getSegmentFile(segment),
+                    "rw");
+            channel = f.getChannel();
+            segments.put(segment, channel);
+        }
+        return channel;
+    }
+
+    /**
+     * Closes and deletes the specified segment.
+     *
+     * @param segment The segment.
+     */
+    private void deleteSegment(int segment)
+    {
+        FileChannel channel = segments.remove(segment);
+        try {
+            if (channel != null) channel.close();
+        } catch (IOException e) {
+            //ignore
+        }
+        Long v = liveBytes.remove(segment);
+        if (v != null) size -= v.longValue();
+        getSegmentFile(segment).delete();
+    }
+
+    /**
+     * Updates the number of live bytes of the specified segment.
+     *
+     * @param segment The segment.
+     * @param delta The number of bytes added or removed.
+     */
+    private void updateLiveBytes(int segment, long delta)
+    {
+        Long v = liveBytes.get(segment);
+        long n = (v == null ? 0 : v.longValue())+delta;
+        liveBytes.put(segment, n);
+        size += delta;
+    }
+
+    /**
+     * Reads the value at the specified location.
+     *
+     * @param l The location of the value.
+     * @return See above.
+     * @throws IOException If the value cannot be read.
+     */
+    private byte[] read(final Location l)
+        throws IOException
+    {
+        return execute(new Callable<byte[]>() {
+            public byte[] call() throws IOException
+            {
+                try {
+                    return readValue(l);
+                } catch (ClosedChannelException e) {
+                    return readValue(l); //Reopened by getSegment.
+                }
+            }
+        });
+    }
+
+    /**
+     * Reads the value at the specified location. Invoked on the
+     * {@link #io} thread.
+     *
+     * @param l The location of the value.
+     * @return See above.
+     * @throws IOException If the value cannot be read.
+     */
+    private byte[] readValue(Location l)
+        throws IOException
+    {
+        FileChannel channel = getSegment(l.segment);
+        ByteBuffer buf = ByteBuffer.allocate(l.length);
+        long position = l.offset;
+        int n;
+        while (buf.hasRemaining()) {
+            n = channel.read(buf, position);
+            if (n < 0) throw new IOException("Truncated segment.");
+            position += n;
+        }
+        return buf.array();
+    }
+
+    /**
+     * Appends the value to the current segment and returns its location.
+     *
+     * @param value The value to write.
+     * @return See above.
+     * @throws IOException If the value cannot be written.
+     */
+    private Location write(final byte[] value)
+        throws IOException
+    {
+        Location l = execute(new Callable<Location>() {
+            public Location call() throws IOException
+            {
+                try {
+                    return writeValue(value);
+                } catch (ClosedChannelException e) {
+                    return writeValue(value); //Reopened by getSegment.
+                }
+            }
+        });
+        updateLiveBytes(l.segment, l.length);
+        return l;
+    }
+
+    /**
+     * Appends the value to the current segment and returns its location.
+     * Invoked on the {@link #io} thread.
+     *
+     * @param value The value to write.
+     * @return See above.
+     * @throws IOException If the value cannot be written.
+     */
+    private Location writeValue(byte[] value)
+        throws IOException
+    {
+        FileChannel channel = getSegment(current);
+        long position = channel.size();
+        if (position > 0 && position+value.length > SEGMENT_SIZE) {
+            current++;
+            channel = getSegment(current);
+            position = channel.size();
+        }
+        Location l = new Location(current, position, value.length);
+        ByteBuffer buf = ByteBuffer.wrap(value);
+        while (buf.hasRemaining())
+            position += channel.write(buf, position);
+        return l;
+    }
+
+    /**
+     * Runs the task on the {@link #io} thread and waits for its result.
+     * The caller being interrupted does not abort the task, the interrupt
+     * is restored once the task is done.
+     *
+     * @param task The task to run.
+     * @return See above.
+     * @throws IOException If the task failed.
+     */
+    private <T> T execute(Callable<T> task)
+        throws IOException
+    {
+        Future<T> f = io.submit(task);
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return f.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException)
+                        throw (IOException) cause;
+                    if (cause instanceof RuntimeException)
+                        throw (RuntimeException) cause;
+                    throw new IOException(cause);
+                }
+            }
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Removes the value and updates the number of live bytes.
+     *
+     * @param key The key of the value.
+     */
+    private void delete(String key)
+    {
+        Location l = index.remove(key);
+        if (l != null) updateLiveBytes(l.segment, -l.length);
+    }
+
+    /** Removes the least recently used values until the size fits. */
+    private void evict()
+    {
+        Iterator<Entry<String, Location>> i = index.entrySet().iterator();
+        Location l;
+        while (size > maxSize && i.hasNext()) {
+            l = i.next().getValue();
+            i.remove();
+            updateLiveBytes(l.segment, -l.length);
+        }
+    }
+
+    /**
+     * Reads the index. The entries referring to missing or truncated
+     * segments are ignored.
+     */
+    private void readIndex()
+    {
+        File f = new File(dir, INDEX);
+        if (!f.exists()) return;
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(
+                    new FileInputStream(f)));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return;
+            int n = in.readInt();
+            String key;
+            Location l;
+            File segment;
+            Map<Integer, Long> lengths = new HashMap<Integer, Long>();
+            Long length;
+            for (int i = 0; i < n; i++) {
+                key = in.readUTF();
+                l = new Location(in.readInt(), in.readLong(), in.readInt());
+                length = lengths.get(l.segment);
+                if (length == null) {
+                    segment = getSegmentFile(l.segment);
+                    length = segment.exists() ? segment.length() : -1L;
+                    lengths.put(l.segment, length);
+                }
+                if (l.offset+l.length <= length.longValue()) {
+                    index.put(key, l);
+                    updateLiveBytes(l.segment, l.length);
+                }
+            }
+        } catch (IOException e) {
+            //Corrupted index, the values will be reloaded.
+            index.clear();
+            liveBytes.clear();
+            size = 0;
+        } finally {
+            try {
+                if (in != null) in.close();
+            } catch (IOException e) {}
+        }
+    }
+
+    /**
+     * Writes the index to a temporary file then replaces the index file.
+     *
+     * @throws IOException If the index cannot be written.
+     */
+    private void writeIndex()
+        throws IOException
+    {
+        File tmp = new File(dir, INDEX+".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(tmp)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(index.size());
+            Iterator<Entry<String, Location>> i = index.entrySet().iterator();
+            Entry<String, Location> e;
+            Location l;
+            while (i.hasNext()) {
+                e = i.next();
+                l = e.getValue();
+                out.writeUTF(e.getKey());
+                out.writeInt(l.segment);
+                out.writeLong(l.offset);
+                out.writeInt(l.length);
+            }
+        } finally {
+            out.close();
+        }
+        Files.move(tmp.toPath(), new File(dir, INDEX).toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Deletes the segments no longer referenced and sets the segment to
+     * append the values to.
+     */
+    private void initializeSegments()
+    {
+        File[] files = dir.listFiles();
+        int max = -1;
+        String name;
+        int segment;
+        if (files != null) {
+            for (int i = 0; i < files.length; i++) {
+                name = files[i].getName();
+                if (!name.startsWith(SEGMENT) || !name.endsWith(EXTENSION))
+                    continue;
+                try {
+                    segment = Integer.parseInt(name.substring(SEGMENT.length(),
+                            name.length()-EXTENSION.length()));
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                if (liveBytes.containsKey(segment)) max = Math.max(max, segment);
+                else files[i].delete();
+            }
+        }
+        //Never append to a segment written by a previous session.
+        current = max+1;
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param dir The directory hosting the files. Created if it does not
+     *            exist.
+     * @param maxSize The maximum number of bytes of values kept.
+     * @throws IOException If the directory cannot be used.
+     */
+    DiskCache(File dir, long maxSize)
+        throws IOException
+    {
+        if (dir == null)
+            throw new IllegalArgumentException("No directory specified.");
+        if (!dir.exists() && !dir.mkdirs())
+            throw new IOException("Cannot create "+dir);
+        if (!dir.isDirectory())
+            throw new IOException(dir+" is not a directory.");
+        this.dir = dir;
+        this.maxSize = maxSize;
+        index = new LinkedHashMap<String, Location>(16, 0.75f, true);
+        segments = new HashMap<Integer, FileChannel>();
+        liveBytes = new HashMap<Integer, Long>();
+        io = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable r)
+            {
+                Thread t = new Thread(r, "DiskCache-io");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        lockChannel = new RandomAccessFile(new File(dir, LOCK),
+                "rw").getChannel();
+        try {
+            lock = lockChannel.tryLock();
+        } catch (Exception e) {
+            lock = null;
+        }
+        if (lock == null) {
+            lockChannel.close();
+            io.shutdown();
+            throw new IOException(dir+" is used by another client.");
+        }
+        readIndex();
+        initializeSegments();
+        evict();
+    }
+
+    /**
+     * Returns the value associated to the specified key or <code>null</code>
+     * if the key is not in the cache.
+     *
+     * @param key The key.
+     * @return See above.
+     */
+    synchronized byte[] get(String key)
+    {
+        if (key == null || lock == null) return null;
+        Location l = index.get(key);
+        if (l == null) {
+            misses++;
+            return null;
+        }
+        try {
+            byte[] value = read(l);
+            hits++;
+            return value;
+        } catch (ClosedChannelException e) {
+            //The value is fine, only the channel could not be used.
+            misses++;
+            return null;
+        } catch (IOException e) {
+            delete(key);
+            misses++;
+            return null;
+        }
+    }
+
+    /**
+     * Associates the value to the specified key. The least recently used
+     * values are removed if the maximum size is reached.
+     *
+     * @param key The key.
+     * @param value The value.
+     * @throws IOException If the value cannot be written.
+     */
+    synchronized void put(String key, byte[] value)
+        throws IOException
+    {
+        if (key == null || value == null || lock == null) return;
+        delete(key);
+        if (value.length > maxSize) return;
+        index.put(key, write(value));
+        evict();
+    }
+
+    /**
+     * Returns <code>true</code> if the cache contains the specified key,
+     * <code>false</code> otherwise. Does not affect the order of use.
+     *
+     * @param key The key.
+     * @return See above.
+     */
+    synchronized boolean contains(String key)
+    {
+        return index.containsKey(key);
+    }
+
+    /** Removes all the values and deletes the segments. */
+    synchronized void clear()
+    {
+        index.clear();
+        List<Integer> l = new ArrayList<Integer>(liveBytes.keySet());
+        l.addAll(segments.keySet());
+        Iterator<Integer> i = l.iterator();
+        while (i.hasNext())
+            deleteSegment(i.next());
+        current++;
+    }
+
+    /**
+     * Removes the values whose key starts with the specified prefix.
+     * The space used is reclaimed when the segments are compacted.
+     *
+     * @param prefix The prefix of the keys to remove.
+     */
+    synchronized void clear(String prefix)
+    {
+        if (prefix == null) return;
+        Iterator<Entry<String, Location>> i = index.entrySet().iterator();
+        Entry<String, Location> e;
+        while (i.hasNext()) {
+            e = i.next();
+            if (e.getKey().startsWith(prefix)) {
+                i.remove();
+                updateLiveBytes(e.getValue().segment, -e.getValue().length);
+            }
+        }
+    }
+
+    /**
+     * Sets the maximum number of bytes of values kept.
+     *
+     * @param maxSize The value to set.
+     */
+    synchronized void setMaximumSize(long maxSize)
+    {
+        this.maxSize = maxSize;
+        evict();
+    }
+
+    /**
+     * Returns the number of bytes of values kept.
+     *
+     * @return See above.
+     */
+    synchronized long getSize() { return size; }
+
+    /**
+     * Returns the number of values kept.
+     *
+     * @return See above.
+     */
+    synchronized int getCount() { return index.size(); }
+
+    /**
+     * Returns the number of bytes that can be reclaimed by compacting
+     * the segments.
+     *
+     * @return See above.
+     */
+    synchronized long getWastedSize()
+    {
+        long total = 0;
+        Iterator<Integer> i = liveBytes.keySet().iterator();
+        while (i.hasNext())
+            total += getSegmentFile(i.next()).length();
+        return total-size;
+    }
+
+    /**
+     * Compacts the most fragmented segment other than the current one:
+     * its live values are appended to the current segment and the segment
+     * is deleted. Returns <code>true</code> if a segment was compacted,
+     * <code>false</code> otherwise.
+     *
+     * @return See above.
+     * @throws IOException If an error occurred while copying the values.
+     */
+    synchronized boolean compact()
+        throws IOException
+    {
+        if (lock == null) return false;
+        int candidate = -1;
+        long wasted = 0;
+        long length, live, w;
+        Iterator<Integer> i = liveBytes.keySet().iterator();
+        Integer segment;
+        while (i.hasNext()) {
+            segment = i.next();
+            if (segment.intValue() == current) continue;
+            length = getSegmentFile(segment).length();
+            live = liveBytes.get(segment).longValue();
+            w = length-live;
+            //Only worth it if at least half of the segment is wasted.
+            if (w > wasted && w >= length/2) {
+                wasted = w;
+                candidate = segment.intValue();
+            }
+        }
+        if (candidate < 0) return false;
+        //Iterate over the entries so the order of use is not modified.
+        Map<String, Location> moved = new HashMap<String, Location>();
+        Iterator<Entry<String, Location>> j = index.entrySet().iterator();
+        Entry<String, Location> e;
+        while (j.hasNext()) {
+            e = j.next();
+            if (e.getValue().segment == candidate)
+                moved.put(e.getKey(), e.getValue());
+        }
+        Iterator<Entry<String, Location>> k = moved.entrySet().iterator();
+        Location l;
+        while (k.hasNext()) {
+            e = k.next();
+            l = e.getValue();
+            e.setValue(write(read(l)));
+            updateLiveBytes(l.segment, -l.length);
+        }
+        j = index.entrySet().iterator();
+        while (j.hasNext()) {
+            e = j.next();
+            l = moved.get(e.getKey());
+            if (l != null) e.setValue(l);
+        }
+        deleteSegment(candidate);
+        writeIndex();
+        return true;
+    }
+
+    /**
+     * Returns a summary of the cache activity.
+     *
+     * @return See above.
+     */
+    synchronized String getStatistics()
+    {
+        StringBuffer buf = new StringBuffer();
+        buf.append("Disk cache "+dir);
+        buf.append(" hits="+hits);
+        buf.append(" misses="+misses);
+        buf.append(" entries="+index.size());
+        buf.append(" bytes="+size+"/"+maxSize);
+        return buf.toString();
+    }
+
+    /**
+     * Writes the index and releases the directory. The cache cannot be
+     * used after this call.
+     *
+     * @throws IOException If the index cannot be written.
+     */
+    synchronized void close()
+        throws IOException
+    {
+        if (lock == null) return;
+        try {
+            writeIndex();
+        } finally {
+            Iterator<FileChannel> i = segments.values().iterator();
+            while (i.hasNext()) {
+                try {
+                    i.next().close();
+                } catch (IOException e) {}
+            }
+            segments.clear();
+            io.shutdown();
+            try {
+                lock.release();
+            } finally {
+                lockChannel.close();
+                lock = null;
+            }
+        }
+    }
+
+}
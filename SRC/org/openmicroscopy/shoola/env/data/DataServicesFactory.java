@@ -437,6 +437,32 @@ public class DataServicesFactory
         return v.intValue();
     }
 
+    /**
+     * Returns the number of files of a fileset uploaded at the same time.
+     * 
+     * @return See above.
+     */
+    int getImportUploadThreads()
+    {
+        Integer v = (Integer) container.getRegistry().lookup(
+                LookupNames.IMPORT_UPLOAD_THREADS);
+        if (v == null || v.intValue() < 1) return 1;
+        return v.intValue();
+    }
+
+    /**
+     * Returns the number of parts of a file downloaded at the same time.
+     * 
+     * @return See above.
+     */
+    int getDownloadThreads()
+    {
+        Integer v = (Integer) container.getRegistry().lookup(
+                LookupNames.DOWNLOAD_THREADS);
+        if (v == null || v.intValue() < 1) return 1;
+        return v.intValue();
+    }
+
 	/**
 	 * Brings up a dialog indicating that the session has expired and
 	 * quits the application.
@@ -803,8 +829,12 @@ public class DataServicesFactory
             if (omeroGateway != null)
                 omeroGateway.logout();
             DataServicesFactory.registry.getCacheService().clearAllCaches();
+            if (is instanceof OmeroImageServiceImpl)
+                ((OmeroImageServiceImpl) is).resetCaches();
             PixelsServicesFactory.shutDownRenderingControls(container
                     .getRegistry());
+            container.getRegistry().getLogger().debug(this,
+                    container.getRegistry().getEventBus().getStatistics());
         } catch (Exception e) {
             LogMessage msg = new LogMessage(
                     "Could not properly shutdown OMERO connection", e);
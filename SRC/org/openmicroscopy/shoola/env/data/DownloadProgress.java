@@ -0,0 +1,267 @@
+/*
+ * org.openmicroscopy.shoola.env.data.DownloadProgress
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.data;
+
+//Java imports
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+//Third-party libraries
+
+//Application-internal dependencies
+
+/**
+ * Records the blocks of a file already downloaded so that an interrupted
+ * download can be resumed. The record is written next to the downloaded
+ * file, in a file with the {@link #EXTENSION} extension, and is deleted
+ * once the download is complete.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+class DownloadProgress
+{
+
+    /** The extension of the record. */
+    static final String EXTENSION = ".part";
+
+    /** The version of the format of the record. */
+    private static final int VERSION = 1;
+
+    /** The record. */
+    private final File record;
+
+    /** The id of the file downloaded. */
+    private final long fileID;
+
+    /** The size of the file downloaded. */
+    private final long size;
+
+    /** The size of a block. */
+    private final int blockSize;
+
+    /** The number of blocks. */
+    private final int blocks;
+
+    /** The blocks downloaded. */
+    private final BitSet done;
+
+    /** Flag indicating that a previous download is resumed. */
+    private final boolean resumed;
+
+    /**
+     * Returns the record of the specified file.
+     *
+     * @param file The downloaded file.
+     * @return See above.
+     */
+    private static File getRecord(File file)
+    {
+        return new File(file.getPath()+EXTENSION);
+    }
+
+    /**
+     * Reads the blocks downloaded from the record, returns <code>null</code>
+     * if there is no record or if the record is not for the specified
+     * download.
+     *
+     * @param record The record.
+     * @param fileID The id of the file downloaded.
+     * @param size The size of the file downloaded.
+     * @param blockSize The size of a block.
+     * @return See above.
+     */
+    private static BitSet read(File record, long fileID, long size,
+            int blockSize)
+    {
+        if (!record.isFile()) return null;
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new FileInputStream(record));
+            if (in.readInt() != VERSION || in.readLong() != fileID ||
+                    in.readLong() != size || in.readInt() != blockSize)
+                return null;
+            byte[] bits = new byte[in.readInt()];
+            in.readFully(bits);
+            return BitSet.valueOf(bits);
+        } catch (IOException e) {
+            return null;
+        } finally {
+            try {
+                if (in != null) in.close();
+            } catch (IOException e) {}
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if the specified file is a download of
+     * the specified original file that can be resumed, <code>false</code>
+     * otherwise.
+     *
+     * @param file The downloaded file.
+     * @param fileID The id of the original file.
+     * @return See above.
+     */
+    static boolean canResume(File file, long fileID)
+    {
+        File record = getRecord(file);
+        if (!file.isFile() || !record.isFile()) return false;
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new FileInputStream(record));
+            return in.readInt() == VERSION && in.readLong() == fileID;
+        } catch (IOException e) {
+            return false;
+        } finally {
+            try {
+                if (in != null) in.close();
+            } catch (IOException e) {}
+        }
+    }
+
+    /**
+     * Creates a new instance. The blocks already downloaded are read from
+     * the record if any.
+     *
+     * @param file The downloaded file.
+     * @param fileID The id of the file downloaded.
+     * @param size The size of the file downloaded.
+     * @param blockSize The size of a block.
+     */
+    DownloadProgress(File file, long fileID, long size, int blockSize)
+    {
+        if (blockSize <= 0)
+            throw new IllegalArgumentException("Block size not valid.");
+        record = getRecord(file);
+        this.fileID = fileID;
+        this.size = size;
+        this.blockSize = blockSize;
+        blocks = (int) ((size+blockSize-1)/blockSize);
+        BitSet bits = null;
+        if (file.isFile() && file.length() == size)
+            bits = read(record, fileID, size, blockSize);
+        resumed = bits != null;
+        done = resumed ? bits : new BitSet(blocks);
+    }
+
+    /**
+     * Returns <code>true</code> if a previous download is resumed,
+     * <code>false</code> otherwise.
+     *
+     * @return See above.
+     */
+    boolean isResumed() { return resumed; }
+
+    /**
+     * Returns the offset of the specified block.
+     *
+     * @param block The index of the block.
+     * @return See above.
+     */
+    long getOffset(int block) { return (long) block*blockSize; }
+
+    /**
+     * Returns the length of the specified block.
+     *
+     * @param block The index of the block.
+     * @return See above.
+     */
+    int getLength(int block)
+    {
+        return (int) Math.min(blockSize, size-getOffset(block));
+    }
+
+    /**
+     * Returns the indexes of the blocks not downloaded yet.
+     *
+     * @return See above.
+     */
+    synchronized List<Integer> getMissingBlocks()
+    {
+        List<Integer> l = new ArrayList<Integer>();
+        for (int i = done.nextClearBit(0); i < blocks;
+                i = done.nextClearBit(i+1))
+            l.add(i);
+        return l;
+    }
+
+    /**
+     * Marks the specified block as downloaded.
+     *
+     * @param block The index of the block.
+     */
+    synchronized void setDone(int block) { done.set(block); }
+
+    /**
+     * Returns <code>true</code> if all the blocks are downloaded,
+     * <code>false</code> otherwise.
+     *
+     * @return See above.
+     */
+    synchronized boolean isComplete()
+    {
+        return done.nextClearBit(0) >= blocks;
+    }
+
+    /**
+     * Writes the record. The record is replaced in one operation so that
+     * it is never left half written.
+     *
+     * @throws IOException If the record cannot be written.
+     */
+    synchronized void save()
+        throws IOException
+    {
+        File tmp = new File(record.getPath()+".tmp");
+        DataOutputStream out = new DataOutputStream(
+                new FileOutputStream(tmp));
+        try {
+            byte[] bits = done.toByteArray();
+            out.writeInt(VERSION);
+            out.writeLong(fileID);
+            out.writeLong(size);
+            out.writeInt(blockSize);
+            out.writeInt(bits.length);
+            out.write(bits);
+        } finally {
+            out.close();
+        }
+        Files.move(tmp.toPath(), record.toPath(),
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Deletes the record. */
+    void delete() { record.delete(); }
+
+}
@@ -0,0 +1,636 @@
+/*
+ * org.openmicroscopy.shoola.env.data.ImportScanner
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.data;
+
+//Java imports
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Third-party libraries
+
+//Application-internal dependencies
+import ome.formats.importer.ImportCandidates;
+import ome.formats.importer.ImportConfig;
+import ome.formats.importer.ImportContainer;
+import ome.formats.importer.OMEROWrapper;
+import omero.gateway.cache.CacheService;
+
+import org.openmicroscopy.shoola.env.LookupNames;
+import org.openmicroscopy.shoola.env.config.Registry;
+import org.openmicroscopy.shoola.env.data.model.ImportableFile;
+import org.openmicroscopy.shoola.env.data.model.ImportableObject;
+import org.openmicroscopy.shoola.env.data.util.Status;
+import org.openmicroscopy.shoola.util.ui.UIUtilities;
+
+/**
+ * Finds the files to import and the files they use.
+ * <p>A directory is split into its sub-directories and the files it
+ * contains directly. Each part is scanned by Bio-Formats on its own thread,
+ * the threads keeping their readers from one scan to the next. The files
+ * used by a file found in another part are then removed, as Bio-Formats
+ * does when scanning the directory as a whole.</p>
+ * <p>The result of each part is kept in the persistent cache with a digest
+ * of the paths, sizes and modification times of the files of the part, so
+ * the parts that did not change since the previous scan are not scanned
+ * again. The sizes and modification times of the files used by the files
+ * found are kept too, since the files of a folder are only fingerprinted
+ * at the first level while they may use files below it.</p>
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+class ImportScanner
+{
+
+    /** The depth of the scan, the default value used by Bio-Formats. */
+    static final int DEPTH = 4;
+
+    /** Indicates that the cache has not been created yet. */
+    private static final int NOT_CREATED = -2;
+
+    /** The version of the format of the cached parts. */
+    private static final int VERSION = 2;
+
+    /** The number of threads scanning the parts. */
+    private static final int THREADS =
+            Math.max(1, Runtime.getRuntime().availableProcessors());
+
+    /** The readers of each thread, one per configuration. */
+    private static final ThreadLocal<Map<String, OMEROWrapper>> READERS =
+            new ThreadLocal<Map<String, OMEROWrapper>>() {
+        protected Map<String, OMEROWrapper> initialValue() {
+            return new HashMap<String, OMEROWrapper>();
+        }
+    };
+
+    /** The pool scanning the parts, shared by all the scans. */
+    private static ExecutorService scanPool;
+
+    /** Reference to the registry. */
+    private final Registry context;
+
+    /** The identifier of the cache or <code>-1</code> if not available. */
+    private int cacheID = NOT_CREATED;
+
+    /**
+     * Returns the pool scanning the parts, creates it the first time.
+     *
+     * @return See above.
+     */
+    private static synchronized ExecutorService getScanPool()
+    {
+        if (scanPool == null) {
+            scanPool = Executors.newFixedThreadPool(THREADS,
+                    new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "ImportScanner");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+        return scanPool;
+    }
+
+    /**
+     * Returns the digest of the paths, sizes and modification times of the
+     * files found under the specified file, in any order.
+     *
+     * @param root The file or directory to walk.
+     * @param depth The maximum number of levels of directories to visit,
+     *              <code>1</code> to only visit the files of the directory.
+     * @param count Incremented by the number of files visited.
+     * @return See above.
+     * @throws IOException If the files cannot be listed.
+     */
+    static byte[] fingerprint(File root, int depth, AtomicLong count)
+        throws IOException
+    {
+        final Path start = root.toPath();
+        final List<String> entries = new ArrayList<String>();
+        Files.walkFileTree(start, EnumSet.noneOf(FileVisitOption.class), depth,
+                new SimpleFileVisitor<Path>() {
+            public FileVisitResult visitFile(Path file,
+                    BasicFileAttributes attrs) {
+                entries.add(start.relativize(file)+"|"+attrs.size()+"|"+
+                        attrs.lastModifiedTime().toMillis()+"|"+
+                        attrs.isDirectory());
+                return FileVisitResult.CONTINUE;
+            }
+            public FileVisitResult visitFileFailed(Path file,
+                    IOException e) {
+                entries.add(start.relativize(file)+"|failed");
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        Collections.sort(entries);
+        count.addAndGet(entries.size());
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-1");
+            Iterator<String> i = entries.iterator();
+            while (i.hasNext()) {
+                md.update(i.next().getBytes(StandardCharsets.UTF_8));
+                md.update((byte) '\n');
+            }
+            return md.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Returns the key identifying the result of the scan of a part in the
+     * cache. The key holds a digest of the paths scanned, in any order, so
+     * that the files of a folder scanned one at a time do not share the
+     * result of their siblings.
+     *
+     * @param paths The paths of the files or directory of the part.
+     * @param depth The depth of the scan.
+     * @param root The file whose content identifies the part.
+     * @param rootDepth The depth used to identify the part.
+     * @return See above.
+     * @throws IOException If the digest cannot be computed.
+     */
+    static String createKey(String[] paths, int depth, File root,
+            int rootDepth)
+        throws IOException
+    {
+        List<String> l = new ArrayList<String>(Arrays.asList(paths));
+        Collections.sort(l);
+        StringBuffer buf = new StringBuffer();
+        buf.append("scan/"+depth+"/"+rootDepth+"/"+root.getAbsolutePath()+"/");
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-1");
+            Iterator<String> i = l.iterator();
+            while (i.hasNext()) {
+                md.update(i.next().getBytes(StandardCharsets.UTF_8));
+                md.update((byte) '\n');
+            }
+            byte[] digest = md.digest();
+            for (int j = 0; j < digest.length; j++)
+                buf.append(String.format("%02x", digest[j]));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        return buf.toString();
+    }
+
+    /**
+     * Writes the path, the size and the modification time of a used file.
+     *
+     * @param out The stream to write to.
+     * @param path The path of the used file.
+     * @throws IOException If an error occurred while writing.
+     */
+    static void writeUsedFile(DataOutputStream out, String path)
+        throws IOException
+    {
+        File f = new File(path);
+        out.writeUTF(path);
+        out.writeLong(f.length());
+        out.writeLong(f.lastModified());
+    }
+
+    /**
+     * Reads a used file written by {@link #writeUsedFile}, returns its path
+     * or <code>null</code> if the file was modified or removed since.
+     *
+     * @param in The stream to read from.
+     * @return See above.
+     * @throws IOException If an error occurred while reading.
+     */
+    static String readUsedFile(DataInputStream in)
+        throws IOException
+    {
+        String path = in.readUTF();
+        long size = in.readLong();
+        long modified = in.readLong();
+        File f = new File(path);
+        if (!f.exists() || f.length() != size || f.lastModified() != modified)
+            return null;
+        return path;
+    }
+
+    /**
+     * Removes the containers whose file is used by a container using more
+     * files.
+     *
+     * @param containers The containers found in all the parts.
+     * @return See above.
+     */
+    private static List<ImportContainer> removeUsedFiles(
+            List<ImportContainer> containers)
+    {
+        if (containers.size() < 2) return containers;
+        Map<String, ImportContainer> owners =
+                new HashMap<String, ImportContainer>();
+        Iterator<ImportContainer> i = containers.iterator();
+        ImportContainer c, owner;
+        String[] used;
+        while (i.hasNext()) {
+            c = i.next();
+            used = c.getUsedFiles();
+            if (used == null) continue;
+            for (int j = 0; j < used.length; j++) {
+                owner = owners.get(used[j]);
+                if (owner == null ||
+                        owner.getUsedFiles().length < used.length)
+                    owners.put(used[j], c);
+            }
+        }
+        List<ImportContainer> result = new ArrayList<ImportContainer>();
+        i = containers.iterator();
+        while (i.hasNext()) {
+            c = i.next();
+            owner = owners.get(c.getFile().getAbsolutePath());
+            if (owner == null || owner == c || owner.getUsedFiles().length <=
+                    c.getUsedFiles().length)
+                result.add(c);
+        }
+        return result;
+    }
+
+    /**
+     * Creates the configuration used to scan for the specified import.
+     *
+     * @param object The object hosting the import options.
+     * @return See above.
+     */
+    private static ImportConfig createConfig(ImportableObject object)
+    {
+        ImportConfig config = new ImportConfig();
+        config.checksumAlgorithm.set(object.getChecksumAlgorithm());
+        if (object.skipThumbnails()) config.doThumbnails.set(false);
+        if (object.skipMinMax()) config.noStatsInfo.set(true);
+        return config;
+    }
+
+    /**
+     * Returns the reader of the calling thread for the specified
+     * configuration.
+     *
+     * @param object The object hosting the import options.
+     * @param config The configuration.
+     * @return See above.
+     */
+    private static OMEROWrapper getReader(ImportableObject object,
+            ImportConfig config)
+    {
+        String key = object.getChecksumAlgorithm()+"/"+
+                object.skipThumbnails()+"/"+object.skipMinMax();
+        Map<String, OMEROWrapper> readers = READERS.get();
+        OMEROWrapper reader = readers.get(key);
+        if (reader == null) {
+            reader = new OMEROWrapper(config);
+            readers.put(key, reader);
+        }
+        return reader;
+    }
+
+    /**
+     * Returns the identifier of the cache, creates the cache the first time.
+     *
+     * @return See above.
+     */
+    private synchronized int getCacheID()
+    {
+        if (cacheID != NOT_CREATED) return cacheID;
+        cacheID = -1;
+        CacheService cache = context.getCacheService();
+        Integer size = (Integer) context.lookup(LookupNames.SCAN_CACHE_SZ);
+        if (cache == null || size == null || size.intValue() <= 0)
+            return cacheID;
+        cacheID = cache.createCache(CacheService.PERSISTENCE_ON_DISK,
+                size.intValue());
+        return cacheID;
+    }
+
+    /**
+     * Forgets the cache when the session ends, the persistent caches being
+     * closed. It is created again when the next session scans files.
+     */
+    synchronized void reset() { cacheID = NOT_CREATED; }
+
+    /**
+     * Encodes the result of the scan of a part.
+     *
+     * @param digest The digest of the files of the part.
+     * @param containers The containers found.
+     * @return See above.
+     * @throws IOException If an error occurred while encoding.
+     */
+    private byte[] encode(byte[] digest, List<ImportContainer> containers)
+        throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(VERSION);
+        out.writeInt(digest.length);
+        out.write(digest);
+        out.writeInt(containers.size());
+        Iterator<ImportContainer> i = containers.iterator();
+        ImportContainer c;
+        String[] used;
+        while (i.hasNext()) {
+            c = i.next();
+            out.writeUTF(c.getFile().getAbsolutePath());
+            out.writeUTF(c.getReader() == null ? "" : c.getReader());
+            out.writeBoolean(Boolean.TRUE.equals(c.getIsSPW()));
+            used = c.getUsedFiles();
+            out.writeInt(used == null ? 0 : used.length);
+            for (int j = 0; used != null && j < used.length; j++)
+                writeUsedFile(out, used[j]);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes the result of the scan of a part. Returns <code>null</code> if
+     * the files of the part or the files they use changed since the result
+     * was stored.
+     *
+     * @param value The stored value.
+     * @param digest The digest of the files of the part.
+     * @param config The configuration of the import.
+     * @return See above.
+     * @throws IOException If an error occurred while decoding.
+     */
+    private List<ImportContainer> decode(byte[] value, byte[] digest,
+            ImportConfig config)
+        throws IOException
+    {
+        DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(value));
+        if (in.readInt() != VERSION) return null;
+        byte[] stored = new byte[in.readInt()];
+        in.readFully(stored);
+        if (!Arrays.equals(stored, digest)) return null;
+        int n = in.readInt();
+        List<ImportContainer> containers = new ArrayList<ImportContainer>(n);
+        File file;
+        String reader;
+        boolean spw;
+        String[] used;
+        for (int k = 0; k < n; k++) {
+            file = new File(in.readUTF());
+            reader = in.readUTF();
+            spw = in.readBoolean();
+            used = new String[in.readInt()];
+            for (int j = 0; j < used.length; j++) {
+                //a used file may be below the levels fingerprinted
+                used[j] = readUsedFile(in);
+                if (used[j] == null) return null;
+            }
+            containers.add(new ImportContainer(config, file, null, null,
+                    reader.length() == 0 ? null : reader, used, spw));
+        }
+        return containers;
+    }
+
+    /**
+     * Scans a part, or returns the cached result if the files of the part
+     * did not change.
+     *
+     * @param paths The paths of the files or directory of the part.
+     * @param depth The depth of the scan.
+     * @param root The file whose content identifies the part.
+     * @param rootDepth The depth used to identify the part.
+     * @param object The object hosting the import options.
+     * @param status The component notified while scanning.
+     * @param count Incremented by the number of files of the part.
+     * @param hits Incremented if the cached result is used.
+     * @return See above.
+     * @throws IOException If the files of the part cannot be listed.
+     */
+    private List<ImportContainer> scanPart(String[] paths, int depth,
+            File root, int rootDepth, ImportableObject object, Status status,
+            AtomicLong count, AtomicLong hits)
+        throws IOException
+    {
+        ImportConfig config = createConfig(object);
+        byte[] digest = fingerprint(root, rootDepth, count);
+        int id = getCacheID();
+        String key = null;
+        if (id >= 0) {
+            key = createKey(paths, depth, root, rootDepth);
+            Object value = context.getCacheService().getElement(id, key);
+            if (value instanceof byte[]) {
+                List<ImportContainer> l = decode((byte[]) value, digest,
+                        config);
+                if (l != null) {
+                    hits.incrementAndGet();
+                    return l;
+                }
+            }
+        }
+        ImportCandidates candidates = new ImportCandidates(depth,
+                getReader(object, config), paths, status);
+        List<ImportContainer> l = new ArrayList<ImportContainer>(
+                candidates.getContainers());
+        //Do not keep the failures so that the errors are reported again.
+        if (key != null && l.size() > 0)
+            context.getCacheService().addElement(id, key, encode(digest, l));
+        return l;
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param context Reference to the registry. Mustn't be <code>null</code>.
+     */
+    ImportScanner(Registry context)
+    {
+        if (context == null)
+            throw new IllegalArgumentException("No registry.");
+        this.context = context;
+    }
+
+    /**
+     * Returns the files to import found under the specified file.
+     *
+     * @param object The object hosting the import options.
+     * @param file The file or directory to scan.
+     * @param status The component notified while scanning.
+     * @return See above.
+     * @throws ImportException If an error occurred while scanning.
+     */
+    ScannedCandidates scan(final ImportableObject object, File file,
+            final Status status)
+        throws ImportException
+    {
+        long start = System.currentTimeMillis();
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong hits = new AtomicLong();
+        List<Callable<List<ImportContainer>>> parts =
+                new ArrayList<Callable<List<ImportContainer>>>();
+        final File[] children = file.isDirectory() ? file.listFiles() : null;
+        if (children == null) {
+            final File f = file;
+            final File parent = f.getAbsoluteFile().getParentFile();
+            parts.add(new Callable<List<ImportContainer>>() {
+                public List<ImportContainer> call() throws Exception {
+                    //the siblings can be used by the file
+                    return scanPart(new String[] {f.getAbsolutePath()}, DEPTH,
+                            parent == null ? f : parent, 1, object, status,
+                            count, hits);
+                }
+            });
+        } else {
+            final List<String> files = new ArrayList<String>();
+            for (int j = 0; j < children.length; j++) {
+                final File child = children[j];
+                if (child.isDirectory()) {
+                    parts.add(new Callable<List<ImportContainer>>() {
+                        public List<ImportContainer> call() throws Exception {
+                            return scanPart(new String[] {
+                                    child.getAbsolutePath()}, DEPTH-1, child,
+                                    DEPTH-1, object, status, count, hits);
+                        }
+                    });
+                } else files.add(child.getAbsolutePath());
+            }
+            if (files.size() > 0) {
+                final File dir = file;
+                parts.add(new Callable<List<ImportContainer>>() {
+                    public List<ImportContainer> call() throws Exception {
+                        return scanPart(files.toArray(new String[0]), DEPTH,
+                                dir, 1, object, status, count, hits);
+                    }
+                });
+            }
+        }
+        List<ImportContainer> containers = new ArrayList<ImportContainer>();
+        try {
+            if (parts.size() == 1) containers.addAll(parts.get(0).call());
+            else if (parts.size() > 1) {
+                for (Future<List<ImportContainer>> f :
+                    getScanPool().invokeAll(parts))
+                    containers.addAll(f.get());
+            }
+        } catch (ExecutionException e) {
+            throw new ImportException(e.getCause());
+        } catch (Throwable e) {
+            throw new ImportException(e);
+        }
+        containers = removeUsedFiles(containers);
+        Iterator<ImportContainer> i = containers.iterator();
+        ImportContainer ic;
+        while (i.hasNext()) {
+            ic = i.next();
+            if (object.isOverrideName()) {
+                ic.setUserSpecifiedName(UIUtilities.getDisplayedFileName(
+                        file.getAbsolutePath(), object.getDepthForName()));
+            }
+            if (object.skipThumbnails()) ic.setDoThumbnails(false);
+            if (object.skipMinMax()) ic.setNoStatsInfo(true);
+        }
+        long time = Math.max(1, System.currentTimeMillis()-start);
+        StringBuffer buf = new StringBuffer();
+        buf.append("Scanned "+file.getAbsolutePath()+": ");
+        buf.append(containers.size()+" files to import, ");
+        buf.append(hits.get()+"/"+parts.size()+" parts unchanged, ");
+        buf.append(time+" ms");
+        if (count.get() > 0)
+            buf.append(", "+(count.get()*1000/time)+" files/s");
+        context.getLogger().info(this, buf.toString());
+        return new ScannedCandidates(containers);
+    }
+
+    /**
+     * Returns the files contained directly in the specified folder that are
+     * used by another file of the folder, i.e. imported with it. The files
+     * are scanned together, as the files of the folder are when the folder
+     * is scanned, so the result is cached for the scan of the folder.
+     *
+     * @param dir The folder.
+     * @return See above.
+     * @throws ImportException If an error occurred while scanning.
+     */
+    Set<File> getUsedFiles(File dir)
+        throws ImportException
+    {
+        Set<File> used = new HashSet<File>();
+        File[] children = dir.listFiles();
+        if (children == null) return used;
+        List<String> files = new ArrayList<String>();
+        for (int j = 0; j < children.length; j++) {
+            if (!children[j].isDirectory())
+                files.add(children[j].getAbsolutePath());
+        }
+        if (files.isEmpty()) return used;
+        ImportableObject object = new ImportableObject(
+                new ArrayList<ImportableFile>(), false);
+        List<ImportContainer> containers;
+        try {
+            containers = removeUsedFiles(scanPart(
+                    files.toArray(new String[0]), DEPTH, dir, 1, object,
+                    new Status(null), new AtomicLong(), new AtomicLong()));
+        } catch (Throwable e) {
+            throw new ImportException(e);
+        }
+        Iterator<ImportContainer> i = containers.iterator();
+        String[] paths;
+        while (i.hasNext()) {
+            paths = i.next().getUsedFiles();
+            for (int j = 0; paths != null && j < paths.length; j++)
+                used.add(new File(paths[j]).getAbsoluteFile());
+        }
+        i = containers.iterator();
+        while (i.hasNext())
+            used.remove(i.next().getFile().getAbsoluteFile());
+        return used;
+    }
+
+}
@@ -25,12 +25,20 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
 import java.sql.Timestamp;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -40,7 +48,14 @@ import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.Set;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.openmicroscopy.shoola.util.CommonsLangUtils;
@@ -50,6 +65,7 @@ import com.google.common.collect.Multimap;
 
 import org.openmicroscopy.shoola.env.data.login.UserCredentials;
 import org.openmicroscopy.shoola.env.data.model.AdminObject;
+import org.openmicroscopy.shoola.env.data.model.ColumnarTableResult;
 import org.openmicroscopy.shoola.env.data.model.EnumerationObject;
 import org.openmicroscopy.shoola.env.data.model.ImportableObject;
 import org.openmicroscopy.shoola.env.data.model.MovieExportParam;
@@ -86,7 +102,6 @@ import org.openmicroscopy.shoola.util.ui.UIUtilities;
 
 import omero.ResourceError;
 import ome.formats.OMEROMetadataStoreClient;
-import ome.formats.importer.ImportCandidates;
 import ome.formats.importer.ImportConfig;
 import ome.formats.importer.ImportContainer;
 import ome.formats.importer.ImportEvent;
@@ -340,6 +355,30 @@ class OMEROGateway
 	/* checksum provider factory for verifying file integrity in upload */
 	private static final ChecksumProviderFactory checksumProviderFactory = new ChecksumProviderFactoryImpl();
 
+	/** Uploads the files of the filesets, shared by all the imports. */
+	private static ExecutorService uploader;
+
+	/** The size of the parts of a file downloaded at the same time. */
+	private static final int				DOWNLOAD_BLOCK = 8*INC;
+
+	/** The number of parts downloaded between two saves of the progress. */
+	private static final int				SAVE_PROGRESS = 16;
+
+	/** Downloads the parts of the files, shared by all the downloads. */
+	private static ExecutorService downloader;
+
+	/** The number of blocks of a file sent before waiting for a write. */
+	private static final int				UPLOAD_IN_FLIGHT = 4;
+
+	/**
+	 * The size of the regions of the files mapped in memory when uploaded.
+	 * Smaller files are read.
+	 */
+	private static final long				UPLOAD_MAP_SIZE = 64L*1024*1024;
+
+	/** Computes the checksums of the uploaded files. */
+	private static ExecutorService uploadHasher;
+
 	static {
 		SUPPORTED_SPECIAL_CHAR = new ArrayList<Character>();
 		SUPPORTED_SPECIAL_CHAR.add(Character.valueOf('-'));
@@ -622,72 +661,77 @@ class OMEROGateway
 	}
 
 	/**
-	 * Translates a set of table results into an array.
+	 * Creates the array hosting the values of the passed column.
+	 *
+	 * @param column The column to handle.
+	 * @param length The number of rows.
+	 * @return See above or <code>null</code> if the type is not supported.
+	 */
+	private Object createColumnValues(Column column, int length)
+	{
+		if (column instanceof LongColumn || column instanceof RoiColumn ||
+			column instanceof ImageColumn || column instanceof WellColumn)
+			return new long[length];
+		if (column instanceof DoubleColumn) return new double[length];
+		if (column instanceof BoolColumn) return new boolean[length];
+		if (column instanceof StringColumn) return new String[length];
+		return null;
+	}
+
+	/**
+	 * Copies a set of table results into the columns.
 	 * @param src Source data from the table.
-	 * @param dst Destination array.
-	 * @param offset Offset within the destination array from which to copy
+	 * @param dst The values of each column.
+	 * @param offset Offset within the destination arrays from which to copy
 	 * data into.
 	 * @param length Number of rows of data to be copied.
+	 * @param indexes The indexes of the ROI, image and well columns.
 	 */
-	private void translateTableResult(Data src, Object[][] dst, int offset,
+	private void translateTableResult(Data src, Object[] dst, int offset,
 	                                  int length, Map<Integer, Integer> indexes)
 	{
 		Column[] cols = src.columns;
 		Column column;
+		Object values;
 		for (int i = 0; i < cols.length; i++) {
 			column = cols[i];
+			values = null;
 			if (column instanceof LongColumn) {
-				for (int j = 0; j < length; j++) {
-					dst[j + offset][i] =
-						((LongColumn) column).values[j];
-				}
+				values = ((LongColumn) column).values;
 			} else if (column instanceof DoubleColumn) {
-				for (int j = 0; j < length; j++) {
-					dst[j + offset][i] =
-						((DoubleColumn) column).values[j];
-				}
+				values = ((DoubleColumn) column).values;
 			} else if (column instanceof StringColumn) {
-				for (int j = 0; j < length; j++) {
-					dst[j + offset][i] =
-						((StringColumn) column).values[j];
-				}
+				values = ((StringColumn) column).values;
 			} else if (column instanceof BoolColumn) {
-				for (int j = 0; j < length; j++) {
-					dst[j + offset][i] =
-						((BoolColumn) column).values[j];
-				}
+				values = ((BoolColumn) column).values;
 			} else if (column instanceof RoiColumn) {
 				indexes.put(TableResult.ROI_COLUMN_INDEX, i);
-				for (int j = 0; j < length; j++) {
-					dst[j + offset][i] =
-						((RoiColumn) column).values[j];
-				}
+				values = ((RoiColumn) column).values;
 			} else if (column instanceof ImageColumn) {
 				indexes.put(TableResult.IMAGE_COLUMN_INDEX, i);
-				for (int j = 0; j < length; j++) {
-					dst[j + offset][i] =
-						((ImageColumn) column).values[j];
-				}
+				values = ((ImageColumn) column).values;
 			} else if (column instanceof WellColumn) {
 				indexes.put(TableResult.WELL_COLUMN_INDEX, i);
-				for (int j = 0; j < length; j++) {
-					dst[j + offset][i] =
-						((WellColumn) column).values[j];
-				}
+				values = ((WellColumn) column).values;
 			}
+			if (values != null && dst[i] != null)
+				System.arraycopy(values, 0, dst[i], offset, length);
 		}
 	}
 
 	/**
-	 * Transforms a set of rows for the passed table.
+	 * Transforms a range of rows of the passed table.
 	 *
 	 * @param table The table to convert.
-	 * @param rows The rows of the table to convert.
+	 * @param rowOffset The index of the first row to convert.
+	 * @param rowCount The number of rows to convert or <code>-1</code> to
+	 *                 convert all the rows after the first one.
 	 * @return See above
 	 * @throws DSAccessException If an error occurred while trying to
 	 *                           retrieve data from OMEDS service.
 	 */
-	private TableResult createTableResult(TablePrx table, long[] rows)
+	private TableResult createTableResult(TablePrx table, long rowOffset,
+			int rowCount)
 		throws DSAccessException
 	{
 		if (table == null) return null;
@@ -699,33 +743,32 @@ class OMEROGateway
 				headers[i] = cols[i].name;
 				headersDescriptions[i] = cols[i].description;
 			}
-			int totalRowCount = rows.length;
-			Object[][] data = new Object[totalRowCount][cols.length];
-			Data d;
+			long totalRowCount = table.getNumberOfRows();
+			rowOffset = Math.min(rowOffset, totalRowCount);
+			long available = totalRowCount-rowOffset;
+			int n = (int) Math.min(Integer.MAX_VALUE, available);
+			if (rowCount >= 0) n = Math.min(n, rowCount);
+			Object[] data = new Object[cols.length];
 			long[] columns = new long[cols.length];
 			for (int i = 0; i < cols.length; i++) {
 				columns[i] = i;
+				data[i] = createColumnValues(cols[i], n);
 			}
-
-			int rowOffset = 0;
-			int rowCount = 0;
-			int rowsToGo = totalRowCount;
-			long[] rowSubset;
+			int offset = 0;
+			int count;
+			long start;
+			Data d;
 			Map<Integer, Integer> indexes = new HashMap<Integer, Integer>();
-			while (rowsToGo > 0) {
-				rowCount = (int) Math.min(MAX_TABLE_ROW_RETRIEVAL,
-				                          totalRowCount - rowOffset);
-				rowSubset = new long[rowCount];
-				System.arraycopy(rows, rowOffset, rowSubset, 0, rowCount);
-				d = table.slice(columns, rowSubset);
-				for (int i = 0; i < cols.length; i++) {
-					translateTableResult(d, data, rowOffset, rowCount, indexes);
-				}
-				rowOffset += rowCount;
-				rowsToGo -= rowCount;
+			while (offset < n) {
+				count = Math.min(MAX_TABLE_ROW_RETRIEVAL, n-offset);
+				start = rowOffset+offset;
+				d = table.read(columns, start, start+count);
+				translateTableResult(d, data, offset, count, indexes);
+				offset += count;
 			}
 			table.close();
-			TableResult tr = new TableResult(data, headers);
+			TableResult tr = new ColumnarTableResult(headers, data, n,
+					rowOffset, totalRowCount);
 			tr.setIndexes(indexes);
 			return tr;
 		} catch (Exception e) {
@@ -1841,6 +1884,216 @@ class OMEROGateway
 		return new HashSet();
 	}
 
+	/**
+	 * Loads the images whose identifiers are returned by the specified
+	 * query, the query selecting a page of identifiers. The images are
+	 * returned in the order of the identifiers.
+	 *
+	 * @param ctx The security context.
+	 * @param query The query selecting the identifiers.
+	 * @param param The parameters of the query.
+	 * @return See above.
+	 * @throws Throwable If an error occurred while loading the images.
+	 */
+	private List<ImageData> loadImagesPage(SecurityContext ctx, String query,
+			ParametersI param)
+		throws Throwable
+	{
+		List<ImageData> images = new ArrayList<ImageData>();
+		List<Long> ids = getIdsPage(ctx, query, param);
+		if (ids.isEmpty()) return images;
+		BrowseFacility browse = gw.getFacility(BrowseFacility.class);
+		Map<Long, ImageData> map = new HashMap<Long, ImageData>();
+		for (ImageData img : browse.getImages(ctx, ids))
+			map.put(img.getId(), img);
+		ImageData img;
+		for (Long id : ids) {
+			img = map.get(id);
+			if (img != null) images.add(img);
+		}
+		return images;
+	}
+
+	/**
+	 * Returns the page of identifiers selected by the specified query.
+	 *
+	 * @param ctx The security context.
+	 * @param query The query selecting the identifiers.
+	 * @param param The parameters of the query.
+	 * @return See above.
+	 * @throws Throwable If an error occurred while running the query.
+	 */
+	private List<Long> getIdsPage(SecurityContext ctx, String query,
+			ParametersI param)
+		throws Throwable
+	{
+		IQueryPrx service = gw.getQueryService(ctx);
+		List<List<RType>> rows = service.projection(query, param);
+		List<Long> ids = new ArrayList<Long>();
+		if (CollectionUtils.isEmpty(rows)) return ids;
+		Iterator<List<RType>> i = rows.iterator();
+		while (i.hasNext())
+			ids.add(((RLong) i.next().get(0)).getValue());
+		return ids;
+	}
+
+	/**
+	 * Returns the clause ordering the images as the tree does i.e.
+	 * by name or by acquisition date, the most recent first and the images
+	 * without date first.
+	 *
+	 * @param byDate Pass <code>true</code> to order by date,
+	 *               <code>false</code> to order by name.
+	 * @return See above.
+	 */
+	private String getImagesOrder(boolean byDate)
+	{
+		if (byDate)
+			return "order by case when img.acquisitionDate is null then 0 "+
+				"else 1 end, img.acquisitionDate desc, img.id";
+		return "order by lower(img.name), img.id";
+	}
+
+	/**
+	 * Retrieves a page of the images contained in the specified dataset.
+	 * The identifiers of the images are first retrieved in the order of
+	 * the tree so that the pages do not overlap, the images are then loaded.
+	 *
+	 * @param ctx The security context.
+	 * @param datasetID The identifier of the dataset.
+	 * @param offset The index of the first image to retrieve.
+	 * @param limit The maximum number of images to retrieve.
+	 * @param byDate Pass <code>true</code> to order the images by date,
+	 *               <code>false</code> to order them by name.
+	 * @return See above.
+	 * @throws DSOutOfServiceException If the connection is broken, or not logged in
+	 * @throws DSAccessException If an error occurred while trying to
+	 * retrieve data from OMERO service.
+	 */
+	Collection<ImageData> getContainerImagesPage(SecurityContext ctx,
+			long datasetID, int offset, int limit, boolean byDate)
+		throws DSOutOfServiceException, DSAccessException
+	{
+		try {
+			StringBuffer buffer = new StringBuffer();
+			buffer.append("select img.id from DatasetImageLink as link ");
+			buffer.append("join link.child as img ");
+			buffer.append("where link.parent.id = :id ");
+			buffer.append(getImagesOrder(byDate));
+			ParametersI param = new ParametersI();
+			param.addId(datasetID);
+			param.page(offset, limit);
+			return loadImagesPage(ctx, buffer.toString(), param);
+		} catch (Throwable t) {
+			handleException(t, "Cannot find the images of the dataset "+
+					datasetID+".");
+		}
+		return new ArrayList<ImageData>();
+	}
+
+	/**
+	 * Retrieves a page of the images not contained in a dataset or a plate.
+	 * The identifiers of the images are first retrieved in the order of
+	 * the tree so that the pages do not overlap, the images are then loaded.
+	 *
+	 * @param ctx The security context.
+	 * @param userID The identifier of the owner of the images or
+	 *               <code>-1</code> to retrieve the images of all the
+	 *               members of the group.
+	 * @param offset The index of the first image to retrieve.
+	 * @param limit The maximum number of images to retrieve.
+	 * @param byDate Pass <code>true</code> to order the images by date,
+	 *               <code>false</code> to order them by name.
+	 * @return See above.
+	 * @throws DSOutOfServiceException If the connection is broken, or not logged in
+	 * @throws DSAccessException If an error occurred while trying to
+	 * retrieve data from OMERO service.
+	 */
+	Collection<ImageData> getOrphanedImagesPage(SecurityContext ctx,
+			long userID, int offset, int limit, boolean byDate)
+		throws DSOutOfServiceException, DSAccessException
+	{
+		try {
+			StringBuffer buffer = new StringBuffer();
+			ParametersI param = new ParametersI();
+			buffer.append("select img.id from Image as img ");
+			buffer.append("where not exists (select link from ");
+			buffer.append("DatasetImageLink as link ");
+			buffer.append("where link.child = img.id) ");
+			buffer.append("and not exists (select ws from WellSample as ws ");
+			buffer.append("where ws.image = img.id) ");
+			if (userID >= 0) {
+				buffer.append("and img.details.owner.id = :userID ");
+				param.addLong("userID", userID);
+			}
+			buffer.append(getImagesOrder(byDate));
+			param.page(offset, limit);
+			return loadImagesPage(ctx, buffer.toString(), param);
+		} catch (Throwable t) {
+			handleException(t, "Cannot find the orphaned images.");
+		}
+		return new ArrayList<ImageData>();
+	}
+
+	/**
+	 * Retrieves a page of the datasets not contained in a project.
+	 * The identifiers of the datasets are first retrieved in the order of
+	 * the tree i.e. by name or by creation date, the most recent first, so
+	 * that the pages do not overlap. The datasets are then loaded without
+	 * their images.
+	 *
+	 * @param ctx The security context.
+	 * @param userID The identifier of the owner of the datasets or
+	 *               <code>-1</code> to retrieve the datasets of all the
+	 *               members of the group.
+	 * @param offset The index of the first dataset to retrieve.
+	 * @param limit The maximum number of datasets to retrieve.
+	 * @param byDate Pass <code>true</code> to order the datasets by date,
+	 *               <code>false</code> to order them by name.
+	 * @return See above.
+	 * @throws DSOutOfServiceException If the connection is broken, or not logged in
+	 * @throws DSAccessException If an error occurred while trying to
+	 * retrieve data from OMERO service.
+	 */
+	Collection<DataObject> getOrphanedDatasetsPage(SecurityContext ctx,
+			long userID, int offset, int limit, boolean byDate)
+		throws DSOutOfServiceException, DSAccessException
+	{
+		List<DataObject> datasets = new ArrayList<DataObject>();
+		try {
+			StringBuffer buffer = new StringBuffer();
+			ParametersI param = new ParametersI();
+			buffer.append("select d.id from Dataset as d ");
+			buffer.append("where not exists (select link from ");
+			buffer.append("ProjectDatasetLink as link ");
+			buffer.append("where link.child = d.id) ");
+			if (userID >= 0) {
+				buffer.append("and d.details.owner.id = :userID ");
+				param.addLong("userID", userID);
+			}
+			if (byDate)
+				buffer.append("order by d.details.creationEvent.time desc, d.id");
+			else buffer.append("order by lower(d.name), d.id");
+			param.page(offset, limit);
+			List<Long> ids = getIdsPage(ctx, buffer.toString(), param);
+			if (ids.isEmpty()) return datasets;
+			ParametersI options = new ParametersI();
+			options.noLeaves();
+			Map<Long, DataObject> map = new HashMap<Long, DataObject>();
+			for (DataObject d : loadContainerHierarchy(ctx, DatasetData.class,
+					ids, options))
+				map.put(d.getId(), d);
+			DataObject d;
+			for (Long id : ids) {
+				d = map.get(id);
+				if (d != null) datasets.add(d);
+			}
+		} catch (Throwable t) {
+			handleException(t, "Cannot find the datasets.");
+		}
+		return datasets;
+	}
+
     /**
      * Retrieves the images imported by the current user.
      * @param ctx
@@ -2369,6 +2622,60 @@ class OMEROGateway
 		}
 	}
 
+	/**
+	 * Returns the identifier of the last event modifying the rendering
+	 * settings of each pixels set. The value is used to determine if a
+	 * thumbnail stored locally is still valid. The pixels sets without
+	 * rendering settings are not in the map.
+	 *
+	 * @param ctx The security context.
+	 * @param pixelsID The collection of pixels set.
+	 * @return See above.
+	 * @throws DSOutOfServiceException If the connection is broken, or not logged in
+	 * @throws DSAccessException If an error occurred while trying to
+	 * retrieve data from OMERO service.
+	 */
+	Map<Long, Long> getRenderingSettingsVersions(SecurityContext ctx,
+			Collection<Long> pixelsID)
+		throws DSOutOfServiceException, DSAccessException
+	{
+		Map<Long, Long> versions = new HashMap<Long, Long>();
+		if (pixelsID == null || pixelsID.size() == 0) return versions;
+		try {
+		    IQueryPrx service = gw.getQueryService(ctx);
+			StringBuffer buffer = new StringBuffer();
+			buffer.append("select rdef.pixels.id, ");
+			buffer.append("max(rdef.details.updateEvent.id) ");
+			buffer.append("from RenderingDef as rdef ");
+			buffer.append("where rdef.pixels.id in (:ids) ");
+			buffer.append("group by rdef.pixels.id");
+			String query = buffer.toString();
+			List<Long> ids = new ArrayList<Long>(pixelsID);
+			ParametersI param;
+			List<List<RType>> rows;
+			List<RType> row;
+			Iterator<List<RType>> i;
+			int end;
+			for (int start = 0; start < ids.size(); start += MAX_RETRIEVAL) {
+				end = Math.min(ids.size(), start+MAX_RETRIEVAL);
+				param = new ParametersI();
+				param.addIds(ids.subList(start, end));
+				rows = service.projection(query, param);
+				if (rows == null) continue;
+				i = rows.iterator();
+				while (i.hasNext()) {
+					row = i.next();
+					versions.put(((RLong) row.get(0)).getValue(),
+							((RLong) row.get(1)).getValue());
+				}
+			}
+		} catch (Throwable t) {
+			handleException(t, "Cannot retrieve the rendering settings " +
+					"versions.");
+		}
+		return versions;
+	}
+
 	/**
 	 * Creates a new rendering service for the specified pixels set.
 	 *
@@ -3158,11 +3465,7 @@ class OMEROGateway
 		        values.put((OriginalFile)f, null);
 		}
 
-		RawFileStorePrx store = null;
 		OriginalFile of;
-		long size;
-		FileOutputStream stream = null;
-		long offset = 0;
 		File f = null;
 		List<File> results = new ArrayList<File>();
 		List<String> notDownloaded = new ArrayList<String>();
@@ -3208,56 +3511,32 @@ class OMEROGateway
                 path = folderPath;
             }
 			
-			try {
-			    store = gw.getRawFileService(ctx);
-				store.setFileId(of.getId().getValue());
-				
-				if (path != null) 
-				    f = new File(path, of.getName().getValue());
-				else
-				    f = file;
-				
-                if (f.exists()) {
-                    String newFileName = generateUniquePathname(f.getPath(),
-                            true);
-                    f = new File(newFileName);
-                }
-				
-				results.add(f);
+			if (path != null) 
+			    f = new File(path, of.getName().getValue());
+			else
+			    f = file;
+
+			if (f.exists() &&
+			        !DownloadProgress.canResume(f, of.getId().getValue())) {
+			    String newFileName = generateUniquePathname(f.getPath(),
+			            true);
+			    f = new File(newFileName);
+			}
 
-				stream = new FileOutputStream(f);
-				size = of.getSize().getValue();
-				try {
-					try {
-						for (offset = 0; (offset+INC) < size;) {
-							stream.write(store.read(offset, INC));
-							offset += INC;
-						}
-					} finally {
-						stream.write(store.read(offset, (int) (size-offset)));
-						stream.close();
-					}
-				} catch (Exception e) {
-					if (stream != null) stream.close();
-					if (f != null) {
-						f.delete();
-						results.remove(f);
-					}
-					notDownloaded.add(of.getName().getValue());
-					handleConnectionException(e);
-				}
-			} catch (IOException e) {
-				if (f != null) {
-					f.delete();
-					results.remove(f);
-				}
-				notDownloaded.add(of.getName().getValue());
-				throw new DSAccessException("Cannot create file in folderPath",
-						e);
-			} catch (ServerError sr) {
-			    throw new DSAccessException("ServerError on retrieveArchived", sr);
-			} finally {
-			    gw.closeService(ctx, store);
+			results.add(f);
+			try {
+			    downloadParts(ctx, of, f);
+			} catch (InterruptedException e) {
+			    //Cancelled, the part downloaded is kept to resume.
+			    results.remove(f);
+			    notDownloaded.add(of.getName().getValue());
+			    Thread.currentThread().interrupt();
+			    break;
+			} catch (Exception e) {
+			    //The part downloaded is kept to resume the download.
+			    results.remove(f);
+			    notDownloaded.add(of.getName().getValue());
+			    handleConnectionException(e);
 			}
 		}
 		result.put(Boolean.valueOf(true), results);
@@ -3299,6 +3578,220 @@ class OMEROGateway
         return path;
     }
 
+	/**
+	 * Returns the executor downloading the parts of the files, creates it
+	 * the first time.
+	 *
+	 * @return See above.
+	 */
+	private static synchronized ExecutorService getDownloader()
+	{
+		if (downloader == null) {
+			downloader = Executors.newCachedThreadPool(new ThreadFactory() {
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "FileDownloader");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		}
+		return downloader;
+	}
+
+	/**
+	 * Returns the SHA-1 of the specified file.
+	 *
+	 * @param file The file.
+	 * @return See above.
+	 * @throws Exception If the file cannot be read.
+	 */
+	private static String sha1(File file)
+		throws Exception
+	{
+		MessageDigest md = MessageDigest.getInstance("SHA-1");
+		byte[] buf = new byte[INC];
+		FileInputStream in = new FileInputStream(file);
+		try {
+			int n;
+			while ((n = in.read(buf)) > 0)
+				md.update(buf, 0, n);
+		} finally {
+			in.close();
+		}
+		StringBuffer buffer = new StringBuffer();
+		for (byte b : md.digest())
+			buffer.append(Integer.toHexString((b & 0xff) | 0x100).substring(1));
+		return buffer.toString();
+	}
+
+	/**
+	 * Forces the data written to the disk then saves the progress of the
+	 * download. The progress is saved even if the channel has been closed
+	 * by an interrupt, the parts marked as done having been written.
+	 *
+	 * @param channel The channel the parts are written to.
+	 * @param progress The progress to save.
+	 * @throws IOException If the progress cannot be saved.
+	 */
+	private static void saveProgress(FileChannel channel,
+			DownloadProgress progress)
+		throws IOException
+	{
+		synchronized (progress) {
+			try {
+				channel.force(false);
+			} catch (ClosedChannelException e) {
+				//closed by an interrupt, the data is kept by the system.
+			}
+			progress.save();
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if the SHA-1 of the original file is
+	 * known, <code>false</code> otherwise.
+	 *
+	 * @param of The original file.
+	 * @return See above.
+	 */
+	private static boolean hasSHA1(OriginalFile of)
+	{
+		if (of.getHash() == null) return false;
+		ChecksumAlgorithm hasher = of.getHasher();
+		if (hasher == null || !hasher.isLoaded() || hasher.getValue() == null)
+			return false;
+		return ChecksumAlgorithmSHA1160.value.equals(
+				hasher.getValue().getValue());
+	}
+
+	/**
+	 * Downloads the parts of the file not downloaded yet, each thread
+	 * reading the next part from its own store and writing it at its
+	 * position in the file. The progress is saved next to the file so that
+	 * an interrupted download is resumed. Checks the SHA-1 of the file if
+	 * the original file has one.
+	 *
+	 * @param ctx The security context.
+	 * @param of The original file to download.
+	 * @param f The file to copy the data into.
+	 * @throws InterruptedException If the download has been cancelled.
+	 * @throws Exception If the file cannot be downloaded.
+	 */
+	private void downloadParts(final SecurityContext ctx,
+			final OriginalFile of, File f)
+		throws Exception
+	{
+		final long fileID = of.getId().getValue();
+		long size = -1;
+		if (of.getSize() != null) size = of.getSize().getValue();
+		else {
+			RawFileStorePrx store = gw.getRawFileService(ctx);
+			try {
+				store.setFileId(fileID);
+				size = store.size();
+			} finally {
+				gw.closeService(ctx, store);
+			}
+		}
+		final DownloadProgress progress = new DownloadProgress(f, fileID,
+				size, DOWNLOAD_BLOCK);
+		final List<Integer> blocks = progress.getMissingBlocks();
+		if (progress.isResumed())
+			log("Resume the download of "+f+", "+blocks.size()+" parts left");
+		RandomAccessFile raf = new RandomAccessFile(f, "rw");
+		try {
+			if (raf.length() != size) raf.setLength(size);
+			final FileChannel channel = raf.getChannel();
+			final AtomicInteger next = new AtomicInteger();
+			final AtomicInteger count = new AtomicInteger();
+			final AtomicBoolean failed = new AtomicBoolean();
+			Callable<Object> worker = new Callable<Object>() {
+				public Object call() throws Exception {
+					RawFileStorePrx store = null;
+					try {
+						store = gw.getRawFileService(ctx);
+						store.setFileId(fileID);
+						int i, block, n;
+						long offset, end;
+						ByteBuffer buf;
+						while (!failed.get() &&
+								(i = next.getAndIncrement()) < blocks.size()) {
+							block = blocks.get(i);
+							offset = progress.getOffset(block);
+							end = offset+progress.getLength(block);
+							while (offset < end) {
+								n = (int) Math.min(INC, end-offset);
+								buf = ByteBuffer.wrap(store.read(offset, n));
+								while (buf.hasRemaining())
+									offset += channel.write(buf, offset);
+							}
+							progress.setDone(block);
+							if (count.incrementAndGet() % SAVE_PROGRESS == 0)
+								saveProgress(channel, progress);
+						}
+					} catch (Exception e) {
+						failed.set(true);
+						throw e;
+					} finally {
+						gw.closeService(ctx, store);
+					}
+					return null;
+				}
+			};
+			int threads = Math.min(dsFactory.getDownloadThreads(),
+					blocks.size());
+			Throwable cause = null;
+			if (threads <= 1) {
+				try {
+					if (threads == 1) worker.call();
+				} catch (Exception e) {
+					cause = e;
+				}
+			} else {
+				List<Callable<Object>> l = new ArrayList<Callable<Object>>();
+				for (int k = 0; k < threads; k++)
+					l.add(worker);
+				try {
+					for (Future<Object> future : getDownloader().invokeAll(l)) {
+						try {
+							future.get();
+						} catch (ExecutionException e) {
+							if (cause == null) cause = e.getCause();
+						}
+					}
+				} catch (InterruptedException e) {
+					failed.set(true);
+					cause = e;
+				}
+			}
+			if (cause == null) {
+				try {
+					channel.force(false);
+				} catch (ClosedByInterruptException e) {
+					cause = e;
+				}
+			}
+			if (cause != null) {
+				saveProgress(channel, progress);
+				if (cause instanceof InterruptedException ||
+						cause instanceof ClosedByInterruptException ||
+						Thread.interrupted())
+					throw new InterruptedException("The download of "+f+
+							" has been cancelled.");
+				if (cause instanceof Exception) throw (Exception) cause;
+				throw new Exception(cause);
+			}
+		} finally {
+			raf.close();
+		}
+		progress.delete();
+		if (hasSHA1(of) &&
+				!of.getHash().getValue().equalsIgnoreCase(sha1(f))) {
+			f.delete();
+			throw new IOException("The checksum of "+f+" does not match.");
+		}
+	}
+
 	/**
 	 * Downloads a file previously uploaded to the server.
 	 *
@@ -3336,43 +3829,15 @@ class OMEROGateway
 		OriginalFile of = getOriginalFile(ctx, fileID);
 		if (of == null) return null;
 
-		final String path = file.getAbsolutePath();
-
-		RawFileStorePrx store = null;
 		try {
-		    store = gw.getRawFileService(ctx);
-			store.setFileId(fileID);
+			downloadParts(ctx, of, file);
+		} catch (InterruptedException e) {
+			//Cancelled, the part downloaded is kept to resume.
+			Thread.currentThread().interrupt();
+			return null;
 		} catch (Throwable e) {
-		    gw.closeService(ctx, store);
-			handleException(e, "Cannot set the file's id.");
-			return null; // Never reached.
-		}
-
-		try {
-			long size = -1;
-			long offset = 0;
-			FileOutputStream stream = new FileOutputStream(file);
-			try {
-				try {
-				    size = store.size();
-					for (offset = 0; (offset+INC) < size;) {
-						stream.write(store.read(offset, INC));
-						offset += INC;
-					}
-				} finally {
-					stream.write(store.read(offset, (int) (size-offset)));
-					stream.close();
-				}
-			} catch (Exception e) {
-				if (stream != null) stream.close();
-				if (file != null) file.delete();
-			}
-		} catch (IOException e) {
-			if (file != null) file.delete();
-			gw.closeService(ctx, store);
-			throw new DSAccessException("Cannot create file  " +path, e);
-		} finally {
-		    gw.closeService(ctx, store);
+			handleException(e, "Cannot download the file "+
+					file.getAbsolutePath());
 		}
 
 		return file;
@@ -3398,6 +3863,7 @@ class OMEROGateway
 			param.map.put("id", omero.rtypes.rlong(id));
 			of = (OriginalFile) svc.findByQuery(
 					"select p from OriginalFile as p " +
+					"left outer join fetch p.hasher " +
 					"where p.id = :id", param);
 		} catch (Exception e) {
 			handleException(e, "Cannot retrieve original file");
@@ -3454,6 +3920,112 @@ class OMEROGateway
 		return upload(ctx, file, mimeType, originalFileID);
 	}
 
+	/**
+	 * Returns the executor computing the checksums of the uploaded files,
+	 * creates it the first time. A single thread is used so that the blocks
+	 * of a file are hashed in order.
+	 *
+	 * @return See above.
+	 */
+	private static synchronized ExecutorService getUploadHasher()
+	{
+		if (uploadHasher == null) {
+			uploadHasher = Executors.newSingleThreadExecutor(
+					new ThreadFactory() {
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "UploadHasher");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		}
+		return uploadHasher;
+	}
+
+	/**
+	 * Logs the number of bytes transferred and the rate.
+	 *
+	 * @param name The name of the transfer.
+	 * @param size The number of bytes transferred.
+	 * @param time The time, in milliseconds, of the transfer.
+	 */
+	private void logThroughput(String name, long size, long time)
+	{
+		double rate = size/1048576.0/Math.max(1, time)*1000;
+		log(name+": "+size+" bytes in "+time+" ms ("+
+				String.format("%.1f", rate)+" MB/s)");
+	}
+
+	/**
+	 * Writes the content of the channel to the store. Up to
+	 * {@link #UPLOAD_IN_FLIGHT} blocks are sent before waiting for the
+	 * first one to be written, and the blocks are hashed in the background
+	 * while the next ones are read and sent. Large files are mapped in
+	 * memory instead of read.
+	 *
+	 * @param store The store to write to.
+	 * @param channel The channel to read from.
+	 * @param hasher The provider computing the checksum.
+	 * @return The number of bytes written.
+	 * @throws Exception If an error occurred while reading or writing.
+	 */
+	private long writeParts(RawFileStorePrx store, FileChannel channel,
+			final ChecksumProvider hasher)
+		throws Exception
+	{
+		long size = channel.size();
+		ExecutorService executor = getUploadHasher();
+		Deque<Ice.AsyncResult> writes = new ArrayDeque<Ice.AsyncResult>();
+		Deque<Future<?>> hashes = new ArrayDeque<Future<?>>();
+		Deque<byte[]> buffers = new ArrayDeque<byte[]>();
+		MappedByteBuffer map = null;
+		long mapStart = 0;
+		long pos = 0;
+		int length;
+		byte[] buf;
+		try {
+			while (pos < size) {
+				if (writes.size() == UPLOAD_IN_FLIGHT) {
+					store.end_write(writes.removeFirst());
+					hashes.removeFirst().get();
+				}
+				buf = buffers.size() > UPLOAD_IN_FLIGHT ?
+						buffers.removeFirst() : new byte[INC];
+				length = (int) Math.min(INC, size-pos);
+				if (size >= UPLOAD_MAP_SIZE) {
+					if (map == null || pos+length > mapStart+map.capacity()) {
+						mapStart = pos;
+						map = channel.map(FileChannel.MapMode.READ_ONLY, pos,
+								Math.min(UPLOAD_MAP_SIZE, size-pos));
+					}
+					map.position((int) (pos-mapStart));
+					map.get(buf, 0, length);
+				} else {
+					ByteBuffer bb = ByteBuffer.wrap(buf, 0, length);
+					while (bb.hasRemaining()) {
+						if (channel.read(bb, pos+bb.position()) < 0)
+							throw new IOException("Unexpected end of file.");
+					}
+				}
+				writes.addLast(store.begin_write(buf, pos, length));
+				final ByteBuffer block = ByteBuffer.wrap(buf, 0, length);
+				hashes.addLast(executor.submit(new Runnable() {
+					public void run() { hasher.putBytes(block); }
+				}));
+				buffers.addLast(buf);
+				pos += length;
+			}
+			while (!writes.isEmpty())
+				store.end_write(writes.removeFirst());
+			while (!hashes.isEmpty())
+				hashes.removeFirst().get();
+		} finally {
+			for (Future<?> f : hashes)
+				f.cancel(false);
+		}
+		return pos;
+	}
+
 	/**
 	 * Uploads the passed file to the server and returns the
 	 * original file i.e. the server object.
@@ -3541,26 +4113,19 @@ class OMEROGateway
 		}
 
 
-		byte[] buf = new byte[INC];
-		FileInputStream stream = null;
+		RandomAccessFile stream = null;
 		final ChecksumProvider hasher = checksumProviderFactory.getProvider(
 				ChecksumType.SHA1);
 		RawFileStorePrx store = null;
 		try {
 		    store = gw.getRawFileService(ctx);
 		    store.setFileId(fileId);
-			stream = new FileInputStream(file);
-			long pos = 0;
-			int rlen;
-			ByteBuffer bbuf;
-			while ((rlen = stream.read(buf)) > 0) {
-				store.write(buf, pos, rlen);
-				pos += rlen;
-				bbuf = ByteBuffer.wrap(buf);
-				bbuf.limit(rlen);
-				hasher.putBytes(bbuf);
-			}
+			stream = new RandomAccessFile(file, "r");
+			long start = System.currentTimeMillis();
+			long size = writeParts(store, stream.getChannel(), hasher);
 			stream.close();
+			logThroughput("Upload of "+file.getName(), size,
+					System.currentTimeMillis()-start);
 			OriginalFile f = store.save();
 			if (f != null) {
 				save = f;
@@ -5857,6 +6422,92 @@ class OMEROGateway
 		return runScript(ctx, id, map);
 	}
 
+	/**
+	 * Returns the executor uploading the files, creates it the first time.
+	 *
+	 * @return See above.
+	 */
+	private static synchronized ExecutorService getUploader()
+	{
+		if (uploader == null) {
+			uploader = Executors.newCachedThreadPool(new ThreadFactory() {
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "ImportUploader");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		}
+		return uploader;
+	}
+
+	/**
+	 * Uploads the files of a fileset using the specified number of threads.
+	 * Each thread uploads the next file not yet uploaded with its own
+	 * buffer, so the checksum of a file is computed while the blocks of the
+	 * other files are written. The upload stops at the first failure.
+	 *
+	 * @param library The library used to import the fileset.
+	 * @param proc The import process.
+	 * @param srcFiles The files to upload.
+	 * @param threads The number of files uploaded at the same time.
+	 * @param blockSize The size of the blocks written.
+	 * @param totalSize The size of all the files, used to estimate the time
+	 *                  left.
+	 * @return The checksums of the files, in the order of the files.
+	 * @throws Throwable If a file cannot be uploaded.
+	 */
+	private List<String> uploadFiles(final ImportLibrary library,
+			final ImportProcessPrx proc, final String[] srcFiles, int threads,
+			final int blockSize, final long totalSize)
+		throws Throwable
+	{
+		final String[] checksums = new String[srcFiles.length];
+		final AtomicInteger next = new AtomicInteger();
+		final AtomicBoolean failed = new AtomicBoolean();
+		List<Future<Object>> workers = new ArrayList<Future<Object>>(threads);
+		ExecutorService executor = getUploader();
+		for (int k = 0; k < threads; k++) {
+			workers.add(executor.submit(new Callable<Object>() {
+				public Object call() throws Exception {
+					byte[] buf = new byte[blockSize];
+					TimeEstimator estimator =
+							new ProportionalTimeEstimatorImpl(totalSize);
+					int i;
+					while (!failed.get() &&
+							(i = next.getAndIncrement()) < srcFiles.length) {
+						try {
+							checksums[i] = library.uploadFile(proc, srcFiles,
+									i, checksumProviderFactory, estimator,
+									buf);
+						} catch (Exception e) {
+							failed.set(true);
+							throw e;
+						}
+					}
+					return null;
+				}
+			}));
+		}
+		Throwable cause = null;
+		try {
+			for (Future<Object> f : workers) {
+				try {
+					f.get();
+				} catch (ExecutionException e) {
+					if (cause == null) cause = e.getCause();
+				}
+			}
+		} catch (InterruptedException e) {
+			failed.set(true);
+			for (Future<Object> f : workers)
+				f.cancel(true);
+			throw e;
+		}
+		if (cause != null) throw cause;
+		return Arrays.asList(checksums);
+	}
+
     /**
 	 * Imports the specified file. Returns the image.
 	 *
@@ -5913,10 +6564,18 @@ class OMEROGateway
 	        library.notifyObservers(new ImportEvent.FILESET_UPLOAD_START(
 	                null, 0, srcFiles.length, null, null, null));
 
-	        for (int i = 0; i < srcFiles.length; i++) {
-	            checksums.add(library. uploadFile(proc, srcFiles, i,
-	                    checksumProviderFactory, estimator,
-	                    buf));
+	        int threads = Math.min(dsFactory.getImportUploadThreads(),
+	                srcFiles.length);
+	        if (threads > 1) {
+	            checksums.addAll(uploadFiles(library, proc, srcFiles, threads,
+	                    omsc.getDefaultBlockSize(),
+	                    ic.getUsedFilesTotalSize()));
+	        } else {
+	            for (int i = 0; i < srcFiles.length; i++) {
+	                checksums.add(library. uploadFile(proc, srcFiles, i,
+	                        checksumProviderFactory, estimator,
+	                        buf));
+	            }
 	        }
 
 	        try {
@@ -5955,63 +6614,6 @@ class OMEROGateway
 		}
 	}
 
-	/**
-	 * Returns the import candidates.
-	 *
-	 * @param ctx The security context.
-	 * @param object Host information about the file to import.
-	 * @param file The file to import.
-	 * @param archived Pass <code>true</code> to archived the files,
-	 *                 <code>false</code> otherwise.
-	 * @param depth The depth used to set the name. This will be taken into
-	 *              account if the file is a directory.
-	 * @return See above.
-	 * @throws ImportException If an error occurred while importing.
-	 */
-	ImportCandidates getImportCandidates(SecurityContext ctx,
-			ImportableObject object, File file, Status status)
-		throws ImportException
-	{
-		OMEROWrapper reader = null;
-		try {
-            ImportConfig config = new ImportConfig();
-            config.checksumAlgorithm.set(object.getChecksumAlgorithm());
-            if (object.skipThumbnails()) {
-                config.doThumbnails.set(false);
-            }
-            if (object.skipMinMax()) {
-                config.noStatsInfo.set(true);
-            }
-
-			reader = new OMEROWrapper(config);
-			String[] paths = new String[1];
-			paths[0] = file.getAbsolutePath();
-			ImportCandidates icans = new ImportCandidates(reader, paths, status);
-			
-			for(ImportContainer ic : icans.getContainers()) {
-			    if(object.isOverrideName()) {
-			        String name = UIUtilities.getDisplayedFileName(file.getAbsolutePath(), object.getDepthForName());
-			        ic.setUserSpecifiedName(name);
-			    }
-			    if (object.skipThumbnails()) {
-	                ic.setDoThumbnails(false);
-	            }
-	            if (object.skipMinMax()) {
-	                ic.setNoStatsInfo(true);
-	            }
-            }
-			return icans;
-		} catch (Throwable e) {
-			throw new ImportException(e);
-		} finally {
-			if (reader != null) {
-				try {
-					reader.close();
-				} catch (Exception ex) {}
-			}
-		}
-	}
-
 	/**
 	 * Removes the rendering service corresponding to the pixels set ID.
 	 *
@@ -6093,7 +6695,6 @@ class OMEROGateway
 		List<TableResult> results = new ArrayList<TableResult>();
 		try {
 		    SharedResourcesPrx svc = getSharedResources(ctx);
-			long[] rows;
 			TableResult result;
 			List<Long> ids;
 			if (parameters.getNodeType() != null) {
@@ -6123,10 +6724,9 @@ class OMEROGateway
 					id = i.next();
 					tablePrx = svc.openTable(new OriginalFileI(id, false));
 					if (tablePrx != null) {
-						rows = new long[(int) tablePrx.getNumberOfRows()];
-						for (int j = 0; j < rows.length; j++)
-							rows[j] = j;
-						result = createTableResult(tablePrx, rows);
+						result = createTableResult(tablePrx,
+								parameters.getRowOffset(),
+								parameters.getRowCount());
 						if (result != null)
 							results.add(result);
 					}
@@ -6241,6 +6841,69 @@ class OMEROGateway
 		return new ArrayList<Object>();
 	}
 
+	/**
+	 * Counts the measurement files annotating each of the specified objects
+	 * using one aggregate query per block of identifiers. The objects
+	 * without measurement are not in the map.
+	 *
+	 * @param ctx The security context.
+	 * @param type The type of the objects e.g. <code>PlateData</code>.
+	 * @param ids The identifiers of the objects.
+	 * @param userID The id of the user who added the measurements or
+	 *               <code>-1</code> if the user is not specified.
+	 * @return See above.
+	 * @throws DSOutOfServiceException  If the connection is broken, or logged
+	 *                                  in.
+	 * @throws DSAccessException        If an error occurred while trying to
+	 *                                  retrieve data from OMEDS service.
+	 */
+	Map<Long, Long> countROIMeasurements(SecurityContext ctx, Class type,
+			List<Long> ids, long userID)
+		throws DSOutOfServiceException, DSAccessException
+	{
+		Map<Long, Long> counts = new HashMap<Long, Long>();
+		String table = getAnnotationTableLink(type);
+		if (table == null || ids == null || ids.size() == 0) return counts;
+		try {
+		    IQueryPrx service = gw.getQueryService(ctx);
+			StringBuffer buffer = new StringBuffer();
+			buffer.append("select link.parent.id, count(distinct fa.id) ");
+			buffer.append("from "+table+" as link, FileAnnotation as fa ");
+			buffer.append("where fa.id = link.child.id ");
+			buffer.append("and fa.ns = :ns ");
+			buffer.append("and link.parent.id in (:ids) ");
+			if (userID >= 0)
+				buffer.append("and link.details.owner.id = :userID ");
+			buffer.append("group by link.parent.id");
+			String query = buffer.toString();
+			ParametersI param;
+			List<List<RType>> rows;
+			List<RType> row;
+			Iterator<List<RType>> i;
+			int end;
+			for (int start = 0; start < ids.size(); start += MAX_RETRIEVAL) {
+				end = Math.min(ids.size(), start+MAX_RETRIEVAL);
+				param = new ParametersI();
+				param.addIds(ids.subList(start, end));
+				param.map.put("ns", omero.rtypes.rstring(
+						FileAnnotationData.MEASUREMENT_NS));
+				if (userID >= 0)
+					param.map.put("userID", omero.rtypes.rlong(userID));
+				rows = service.projection(query, param);
+				if (rows == null) continue;
+				i = rows.iterator();
+				while (i.hasNext()) {
+					row = i.next();
+					counts.put(((RLong) row.get(0)).getValue(),
+							((RLong) row.get(1)).getValue());
+				}
+			}
+		} catch (Throwable t) {
+			handleException(t, "Cannot count the ROI measurements.");
+		}
+		return counts;
+	}
+
 	/**
 	 * Returns the file
 	 *
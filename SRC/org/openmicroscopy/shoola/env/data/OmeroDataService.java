@@ -189,6 +189,68 @@ public interface OmeroDataService
 			long userID)
 		throws DSOutOfServiceException, DSAccessException;
 
+	/**
+	 * Retrieves a page of the images contained in the specified dataset,
+	 * ordered by name or by date.
+	 *
+	 * @param ctx The security context.
+	 * @param datasetID The identifier of the dataset.
+	 * @param offset The index of the first image to retrieve.
+	 * @param limit The maximum number of images to retrieve.
+	 * @param byDate Pass <code>true</code> to order the images by date,
+	 *               <code>false</code> to order them by name.
+	 * @return See above.
+	 * @throws DSOutOfServiceException If the connection is broken, or not logged in
+	 * @throws DSAccessException If an error occurred while trying to
+	 * retrieve data from OMERO service.
+	 */
+	public Collection<ImageData> getImagesPage(SecurityContext ctx,
+			long datasetID, int offset, int limit, boolean byDate)
+		throws DSOutOfServiceException, DSAccessException;
+
+	/**
+	 * Retrieves a page of the images not contained in a dataset or a plate,
+	 * ordered by name or by date.
+	 *
+	 * @param ctx The security context.
+	 * @param userID The id of the user or <code>-1</code> to retrieve the
+	 *               images of all the members of the group.
+	 * @param offset The index of the first image to retrieve.
+	 * @param limit The maximum number of images to retrieve.
+	 * @param byDate Pass <code>true</code> to order the images by date,
+	 *               <code>false</code> to order them by name.
+	 * @return See above.
+	 * @throws DSOutOfServiceException If the connection is broken, or not logged in
+	 * @throws DSAccessException If an error occurred while trying to
+	 * retrieve data from OMERO service.
+	 */
+	public Collection<ImageData> getOrphanedImagesPage(SecurityContext ctx,
+			long userID, int offset, int limit, boolean byDate)
+		throws DSOutOfServiceException, DSAccessException;
+
+	/**
+	 * Retrieves the projects of the specified user and a page of the
+	 * datasets not contained in a project, ordered by name or by date.
+	 * The projects are only retrieved with the first page.
+	 * The images are not retrieved.
+	 *
+	 * @param ctx The security context.
+	 * @param userID The id of the user or <code>-1</code> to retrieve the
+	 *               data of all the members of the group.
+	 * @param offset The index of the first dataset to retrieve.
+	 * @param limit The maximum number of datasets to retrieve.
+	 * @param byDate Pass <code>true</code> to order the datasets by date,
+	 *               <code>false</code> to order them by name.
+	 * @return See above.
+	 * @throws DSOutOfServiceException If the connection is broken, or not logged in
+	 * @throws DSAccessException If an error occurred while trying to
+	 * retrieve data from OMERO service.
+	 */
+	public Collection<DataObject> loadContainerHierarchyPage(
+			SecurityContext ctx, long userID, int offset, int limit,
+			boolean byDate)
+		throws DSOutOfServiceException, DSAccessException;
+
 	/**
 	 * Retrieves the images imported by the specified user.
 	 *
@@ -276,6 +276,61 @@ class OmeroDataServiceImpl
 		return gateway.getContainerImages(ctx, nodeType, nodeIDs, po);
 	}
 
+	/**
+	 * Implemented as specified by {@link OmeroDataService}.
+	 * @see OmeroDataService#getImagesPage(SecurityContext, long, int, int,
+	 * boolean)
+	 */
+	public Collection<ImageData> getImagesPage(SecurityContext ctx,
+			long datasetID, int offset, int limit, boolean byDate)
+		throws DSOutOfServiceException, DSAccessException
+	{
+		if (offset < 0 || limit <= 0)
+			throw new IllegalArgumentException("Page not valid.");
+		return gateway.getContainerImagesPage(ctx, datasetID, offset, limit,
+				byDate);
+	}
+
+	/**
+	 * Implemented as specified by {@link OmeroDataService}.
+	 * @see OmeroDataService#getOrphanedImagesPage(SecurityContext, long, int,
+	 * int, boolean)
+	 */
+	public Collection<ImageData> getOrphanedImagesPage(SecurityContext ctx,
+			long userID, int offset, int limit, boolean byDate)
+		throws DSOutOfServiceException, DSAccessException
+	{
+		if (offset < 0 || limit <= 0)
+			throw new IllegalArgumentException("Page not valid.");
+		return gateway.getOrphanedImagesPage(ctx, userID, offset, limit,
+				byDate);
+	}
+
+	/**
+	 * Implemented as specified by {@link OmeroDataService}.
+	 * @see OmeroDataService#loadContainerHierarchyPage(SecurityContext, long,
+	 * int, int, boolean)
+	 */
+	public Collection<DataObject> loadContainerHierarchyPage(
+			SecurityContext ctx, long userID, int offset, int limit,
+			boolean byDate)
+		throws DSOutOfServiceException, DSAccessException
+	{
+		if (offset < 0 || limit <= 0)
+			throw new IllegalArgumentException("Page not valid.");
+		List<DataObject> results = new ArrayList<DataObject>();
+		if (offset == 0) {
+			ParametersI param = new ParametersI();
+			if (userID >= 0) param.exp(omero.rtypes.rlong(userID));
+			param.noLeaves();
+			results.addAll(gateway.loadContainerHierarchy(ctx,
+					ProjectData.class, null, param));
+		}
+		results.addAll(gateway.getOrphanedDatasetsPage(ctx, userID, offset,
+				limit, byDate));
+		return results;
+	}
+
 	/**
 	 * Implemented as specified by {@link OmeroDataService}.
 	 * @see OmeroDataService#getExperimenterImages(SecurityContext, long,
@@ -416,6 +416,29 @@ public interface OmeroImageService
 	public BufferedImage renderProjected(SecurityContext ctx, long pixelsID,
 		int startZ, int endZ, int stepping, int type, List<Integer> channels)
 		throws RenderingServiceException, DSOutOfServiceException; 
+
+	/**
+	 * Renders each of the specified channels of the plane on its own,
+	 * as displayed in the split view. The rendering settings are not
+	 * modified. If requested, the combination of the channels is added last.
+	 * 
+	 * @param ctx The security context.
+	 * @param pixelsID The ID of the pixels set.
+	 * @param pd The plane to render.
+	 * @param channels The indexes of the channels to render.
+	 * @param greyScale Pass <code>true</code> to render the channels in
+	 *                  grey, <code>false</code> to use their color.
+	 * @param combined Pass <code>true</code> to add the combined image,
+	 *                 <code>false</code> otherwise.
+	 * @return The images representing the channels.
+	 * @throws RenderingServiceException If the server cannot render the image.
+	 * @throws DSOutOfServiceException  If the connection is broken, or logged
+	 *                                  in.
+	 */
+	public List<BufferedImage> renderChannels(SecurityContext ctx,
+		long pixelsID, PlaneDef pd, List<Integer> channels, boolean greyScale,
+		boolean combined)
+		throws RenderingServiceException, DSOutOfServiceException;
 	
 	/**
 	 * Projects the specified set of pixels according to the projection's 
@@ -487,6 +510,20 @@ public interface OmeroImageService
 	public Object importFile(ImportableObject object,
 		ImportableFile importable , boolean close)
 		throws ImportException, DSAccessException, DSOutOfServiceException;
+
+	/**
+	 * Closes the import services used to import the specified file.
+	 * Used when the files are imported at the same time i.e. without
+	 * closing the import.
+	 * 
+	 * @param importable The file imported. Mustn't be <code>null</code>.
+	 * @throws DSOutOfServiceException If the connection is broken, or logged
+	 *                                  in.
+	 * @throws DSAccessException If an error occurred while trying to 
+	 *                           retrieve data from OMEDS service.
+	 */
+	public void closeImport(ImportableFile importable)
+		throws DSAccessException, DSOutOfServiceException;
 	
 	/**
 	 * Returns the collection of supported file formats.
@@ -494,6 +531,18 @@ public interface OmeroImageService
 	 * @return See above.
 	 */
 	public FileFilter[] getSupportedFileFormats();
+
+	/**
+	 * Returns the files contained directly in the specified folder that are
+	 * imported with another file of the folder, e.g. the companion files,
+	 * so should not be imported on their own.
+	 *
+	 * @param folder The folder. Mustn't be <code>null</code>.
+	 * @return See above.
+	 * @throws ImportException If an error occurred while scanning the files.
+	 */
+	public Set<File> getUsedFiles(File folder)
+		throws ImportException;
 	
 	/**
 	 * Creates a movie. Returns script call-back.
@@ -634,6 +683,26 @@ public interface OmeroImageService
 	public Collection loadROIMeasurements(SecurityContext ctx, Class type,
 		long id, long userID)
 		throws DSOutOfServiceException, DSAccessException;
+
+	/**
+	 * Counts the measurements associated to each of the given objects
+	 * without loading them.
+	 * 
+	 * @param ctx The security context.
+	 * @param type The type of the objects e.g. <code>PlateData</code>.
+	 * @param ids The ids of the objects.
+	 * @param userID The id of the user who added the measurements or
+	 * <code>-1</code> if the user is not specified.
+	 * @return A map whose keys are the ids of the objects and the values
+	 * the number of measurements.
+	 * @throws DSOutOfServiceException If the connection is broken, or logged
+	 *                                  in.
+	 * @throws DSAccessException        If an error occurred while trying to 
+	 *                                  retrieve data from OMEDS service.
+	 */
+	public Map<Long, Long> countROIMeasurements(SecurityContext ctx,
+		Class type, List<Long> ids, long userID)
+		throws DSOutOfServiceException, DSAccessException;
 	
 	/**
 	 * Returns all the scripts the default one and the 
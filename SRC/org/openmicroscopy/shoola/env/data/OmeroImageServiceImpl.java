@@ -35,6 +35,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import javax.imageio.ImageIO;
 import javax.swing.filechooser.FileFilter;
@@ -51,7 +52,6 @@ import loci.common.RandomAccessInputStream;
 import loci.formats.ImageReader;
 import loci.formats.tiff.TiffParser;
 import loci.formats.tiff.TiffSaver;
-import ome.formats.importer.ImportCandidates;
 import ome.formats.importer.ImportContainer;
 import omero.ValidationException;
 import omero.api.RawPixelsStorePrx;
@@ -150,6 +150,12 @@ class OmeroImageServiceImpl
 	/** Lookup tables cache (they are not likely to change during a session) */
 	private static Collection<String> LOOKUP_TABLES;
 
+	/** Keeps the thumbnails across sessions. */
+	private ThumbnailCache thumbnailCache;
+
+	/** Finds the files to import. */
+	private ImportScanner scanner;
+
 	/**
 	 * Returns <code>true</code> if the files are put on import queue,
 	 * <code>false</code>.
@@ -205,6 +211,57 @@ class OmeroImageServiceImpl
 		return number;
 	}
 	
+	/**
+	 * Starts the rendering engine used to render in the background the
+	 * planes likely to be requested next. Planes are not prefetched
+	 * for big images or if <code>/services/RE/maxPreFetch</code> is not
+	 * positive.
+	 * 
+	 * @param ctx The security context.
+	 * @param pixelsID The id of pixels set.
+	 * @param proxy The rendering control to prefetch planes for.
+	 */
+	private void startPrefetching(SecurityContext ctx, long pixelsID,
+			RenderingControl proxy)
+	{
+		if (proxy == null || proxy.isBigImage()) return;
+		Integer depth = (Integer) context.lookup(LookupNames.RE_MAX_PRE_FETCH);
+		if (depth == null || depth.intValue() <= 0) return;
+		try {
+			PixelsServicesFactory.setPrefetchingEngine(context, pixelsID,
+					gateway.createRenderingEngine(ctx, pixelsID),
+					depth.intValue());
+		} catch (Exception e) {
+			LogMessage msg = new LogMessage();
+			msg.print("Cannot start the prefetching for: "+pixelsID);
+			msg.print(e);
+			context.getLogger().debug(this, msg);
+		}
+	}
+	
+	/**
+	 * Turns on the rendering of the planes on the client if
+	 * <code>/services/RE/localCacheSz</code> is positive. The stacks used
+	 * to render the orthogonal planes are bounded by
+	 * <code>/services/RE/stackBufSz</code>.
+	 * 
+	 * @param pixelsID The id of pixels set.
+	 * @param proxy The rendering control to render the planes for.
+	 */
+	private void startLocalRendering(long pixelsID, RenderingControl proxy)
+	{
+		if (proxy == null || proxy.isBigImage()) return;
+		Integer size = (Integer) context.lookup(LookupNames.RE_LOCAL_CACHE_SZ);
+		if (size == null || size.intValue() <= 0) return;
+		Integer stackSize = (Integer) context.lookup(
+				LookupNames.RE_STACK_BUF_SZ);
+		Integer blockSize = (Integer) context.lookup(
+				LookupNames.RE_STACK_BLOCK_SZ);
+		PixelsServicesFactory.setLocalRendering(context, pixelsID,
+				size.intValue(), stackSize == null ? 0 : stackSize.intValue(),
+				blockSize == null ? 0 : blockSize.intValue());
+	}
+	
 	/**
 	 * Imports the specified candidates.
 	 * 
@@ -236,7 +293,7 @@ class OmeroImageServiceImpl
 		boolean toClose = false;
 		int n = files.size()-1;
 		int index = 0;
-		ImportCandidates ic;
+		ScannedCandidates ic;
 		List<ImportContainer> icContainers;
 		ImportContainer importIc;
 		while (jj.hasNext()) {
@@ -255,7 +312,7 @@ class OmeroImageServiceImpl
 			if (!label.isMarkedAsCancel()) {
 				try {
 					if (ioContainer == null) label.setNoContainer();
-					ic = gateway.getImportCandidates(ctx, object, file, status);
+					ic = scanner.scan(object, file, status);
 					icContainers = ic.getContainers();
 					if (icContainers.size() == 0) {
 					    Object o = status.getImportResult();
@@ -288,6 +345,23 @@ class OmeroImageServiceImpl
 		return null;
 	}
 
+	/**
+	 * Returns the name of the user to import the file for or
+	 * <code>null</code> if the file is imported for the logged in user.
+	 * 
+	 * @param importable The file to import.
+	 * @param loggedIn The user currently logged in.
+	 * @return See above.
+	 */
+	private String getImportUserName(ImportableFile importable,
+		ExperimenterData loggedIn)
+	{
+		ExperimenterData exp = importable.getUser();
+		if (exp != null && exp.getId() != loggedIn.getId())
+			return exp.getUserName();
+		return null;
+	}
+
 	/**
 	 * Returns <code>true</code> if the binary data are available, 
 	 * <code>false</code> otherwise.
@@ -353,6 +427,30 @@ class OmeroImageServiceImpl
 	private IObject determineContainer(SecurityContext ctx, DatasetData dataset,
 		DataObject container, ImportableObject object, String userName)
 		throws DSOutOfServiceException, DSAccessException
+	{
+		//The files can be imported at the same time.
+		synchronized (object) {
+			return createContainer(ctx, dataset, container, object, userName);
+		}
+	}
+
+	/**
+	 * Recycles or creates the container. The caller must hold the lock of
+	 * the object hosting the import option.
+	 * 
+	 * @param ctx The security context.
+	 * @param dataset The dataset to create or recycle.
+	 * @param container The container to create and link the dataset to.
+	 * @param object The object hosting the import option.
+	 * @param userName The name of the user to create the data for.
+	 * @return See above.
+	 * @throws DSOutOfServiceException If the connection is broken, or not logged in
+	 * @throws DSAccessException If an error occurred while trying to 
+	 * retrieve data from OMERO service. 
+	 */
+	private IObject createContainer(SecurityContext ctx, DatasetData dataset,
+		DataObject container, ImportableObject object, String userName)
+		throws DSOutOfServiceException, DSAccessException
 	{
 		IObject ioContainer = null;
 		Map<Object, Object> parameters = new HashMap<Object, Object>();
@@ -492,6 +590,18 @@ class OmeroImageServiceImpl
 			throw new IllegalArgumentException("No gateway.");
 		context = registry;
 		this.gateway = gateway;
+		thumbnailCache = new ThumbnailCache(registry);
+		scanner = new ImportScanner(registry);
+	}
+
+	/**
+	 * Resets the persistent caches used by this service. Invoked when the
+	 * connection is shut down.
+	 */
+	void resetCaches()
+	{
+		thumbnailCache.reset();
+		scanner.reset();
 	}
 	
 	/** 
@@ -547,6 +657,8 @@ class OmeroImageServiceImpl
 					reList, pixels, m, compressionLevel, defs);
 			
 			proxy.setAvailableLookupTables(getLookupTables(ctx));
+			startPrefetching(ctx, pixelsID, proxy);
+			startLocalRendering(pixelsID, proxy);
 		}
 		return proxy;
 	}
@@ -658,6 +770,42 @@ class OmeroImageServiceImpl
 				}
 				return r;
 			}
+			Map m = new HashMap();
+			//Look up the thumbnails whose rendering settings did not change.
+			Map<Long, String> keys = new HashMap<Long, String>();
+			List<Long> toFetch = new ArrayList<Long>(pixelsID);
+			Map<Long, Long> versions = null;
+			if (thumbnailCache.isAvailable()) {
+				try {
+					versions = gateway.getRenderingSettingsVersions(ctx,
+							pixelsID);
+				} catch (Exception e) {
+					context.getLogger().debug(this, "Cannot check the " +
+							"thumbnails stored on disk: "+e.getMessage());
+				}
+			}
+			if (versions != null) {
+				toFetch.clear();
+				Long version;
+				String key;
+				byte[] values;
+				while (j.hasNext()) {
+					id = (Long) j.next();
+					version = versions.get(id);
+					if (version == null) {
+						toFetch.add(id);
+						continue;
+					}
+					key = thumbnailCache.createKey(id, version, max);
+					values = thumbnailCache.get(key);
+					if (values != null) m.put(id, values);
+					else {
+						keys.put(id, key);
+						toFetch.add(id);
+					}
+				}
+			}
+			j = toFetch.iterator();
 			List blocks = new ArrayList();
 			int index = 0;
 			List l = null;
@@ -676,12 +824,26 @@ class OmeroImageServiceImpl
 				blocks.add(l);
 			ids.addAll(pixelsID);
 			j = blocks.iterator();
-			Map m = new HashMap();
 			Map map;
+			Iterator k;
+			Entry entry;
 			while (j.hasNext()) {
 				map = gateway.getThumbnailSet(ctx, (List) j.next(), max, false);
 				m.putAll(map);
+				k = map.entrySet().iterator();
+				while (k.hasNext()) {
+					entry = (Entry) k.next();
+					if (keys.containsKey(entry.getKey())
+							&& entry.getValue() instanceof byte[])
+						thumbnailCache.put(keys.get(entry.getKey()),
+								(byte[]) entry.getValue());
+				}
 			}
+			if (versions != null)
+				context.getLogger().debug(this, (pixelsID.size()-
+						toFetch.size())+" thumbnails read from disk, "+
+						toFetch.size()+" loaded. "+
+						thumbnailCache.getStatistics());
 			//m = gateway.getThumbnailSet(pixelsID, max, false);
 			if (m == null || m.size() == 0) {
 				i = ids.iterator();
@@ -746,6 +908,8 @@ class OmeroImageServiceImpl
 			proxy = PixelsServicesFactory.reloadRenderingControl(context,
 					pixelsID, proxies);
 			proxy.setAvailableLookupTables(getLookupTables(ctx));
+			startPrefetching(ctx, pixelsID, proxy);
+			startLocalRendering(pixelsID, proxy);
 			return proxy;
 		} catch (Exception e) {
 			throw new RenderingServiceException("Cannot restart the " +
@@ -779,9 +943,12 @@ class OmeroImageServiceImpl
 					exp.getId());
 			proxy = PixelsServicesFactory.resetRenderingControl(context,
 					pixelsID, proxies, def);
-			if (proxy != null)
+			if (proxy != null) {
 			    // the RenderingControlProxy can be closed already
 			    proxy.setAvailableLookupTables(getLookupTables(ctx));
+			    startPrefetching(ctx, pixelsID, proxy);
+			    startLocalRendering(pixelsID, proxy);
+			}
 			return proxy;
 		} catch (Exception e) {
 			throw new RenderingServiceException("Cannot restart the " +
@@ -905,6 +1072,20 @@ class OmeroImageServiceImpl
 				endZ, type, stepping, channels);
 	}
 
+	/** 
+	 * Implemented as specified by {@link OmeroImageService}. 
+	 * @see OmeroImageService#renderChannels(SecurityContext, long, PlaneDef,
+	 * List, boolean, boolean)
+	 */
+	public List<BufferedImage> renderChannels(SecurityContext ctx,
+		long pixelsID, PlaneDef pd, List<Integer> channels, boolean greyScale,
+		boolean combined)
+		throws RenderingServiceException, DSOutOfServiceException
+	{
+		return PixelsServicesFactory.renderChannels(context, pixelsID, pd,
+				channels, greyScale, combined);
+	}
+
 	/** 
 	 * Implemented as specified by {@link OmeroImageService}. 
 	 * @see OmeroImageService#projectImage(SecurityContext, ProjectionParam)
@@ -1017,6 +1198,20 @@ class OmeroImageServiceImpl
 		return count == containers.size();
 	}
 	
+	/**
+	 * Implemented as specified by {@link OmeroImageService}.
+	 * @see OmeroImageService#closeImport(ImportableFile)
+	 */
+	public void closeImport(ImportableFile importable)
+		throws DSAccessException, DSOutOfServiceException
+	{
+		if (importable == null)
+			throw new IllegalArgumentException("No file imported.");
+		SecurityContext ctx = new SecurityContext(importable.getGroup().getId());
+		ExperimenterData loggedIn = context.getAdminService().getUserDetails();
+		gateway.closeImport(ctx, getImportUserName(importable, loggedIn));
+	}
+
 	/** 
 	 * Implemented as specified by {@link OmeroImageService}. 
 	 * @see OmeroImageService#importFile(ImportableObject,
@@ -1032,58 +1227,57 @@ class OmeroImageServiceImpl
 		//If import as.
 		ExperimenterData loggedIn = context.getAdminService().getUserDetails();
 		long userID = loggedIn.getId();
-		String userName = null;
-		if (importable.getUser() != null) {
-			ExperimenterData exp = importable.getUser();
-			userID = exp.getId();
-			if (exp.getId() != loggedIn.getId())
-				userName = exp.getUserName();
-		}
+		if (importable.getUser() != null)
+			userID = importable.getUser().getId();
+		String userName = getImportUserName(importable, loggedIn);
 		if (status.isMarkedAsCancel()) {
 			if (close) gateway.closeImport(ctx, userName);
 			return Boolean.valueOf(false);
 		}
-		Collection<TagAnnotationData> tags = object.getTags();
 		List<Annotation> customAnnotationList = new ArrayList<Annotation>();
 		List<IObject> l;
 		//Tags
 		Map<Object, Object> parameters = new HashMap<Object, Object>();
-		if (!CollectionUtils.isEmpty(tags)) {
-			List<TagAnnotationData> values = new ArrayList<TagAnnotationData>();
-			Iterator<TagAnnotationData> i = tags.iterator();
-			TagAnnotationData tag;
-			l = new ArrayList<IObject>();
-			while (i.hasNext()) {
-				tag = i.next();
-				if (tag.getId() > 0) {
-					values.add(tag);
-					customAnnotationList.add((Annotation) tag.asIObject());
-				} else l.add(tag.asIObject());
-			}
-			//save the tag.
-			try {
-				if (l.size() > 0) {
-					l = gateway.saveAndReturnObject(ctx, l, parameters, userName);
+		//The files can be imported at the same time.
+		synchronized (object) {
+			Collection<TagAnnotationData> tags = object.getTags();
+			if (!CollectionUtils.isEmpty(tags)) {
+				List<TagAnnotationData> values = new ArrayList<TagAnnotationData>();
+				Iterator<TagAnnotationData> i = tags.iterator();
+				TagAnnotationData tag;
+				l = new ArrayList<IObject>();
+				while (i.hasNext()) {
+					tag = i.next();
+					if (tag.getId() > 0) {
+						values.add(tag);
+						customAnnotationList.add((Annotation) tag.asIObject());
+					} else l.add(tag.asIObject());
 				}
-				Iterator<IObject> j = l.iterator();
-				Annotation a;
-				while (j.hasNext()) {
-					a = (Annotation) j.next();
-					values.add(new TagAnnotationData((TagAnnotation) a));
-					customAnnotationList.add(a); // THIS!
+				//save the tag.
+				try {
+					if (l.size() > 0) {
+						l = gateway.saveAndReturnObject(ctx, l, parameters, userName);
+					}
+					Iterator<IObject> j = l.iterator();
+					Annotation a;
+					while (j.hasNext()) {
+						a = (Annotation) j.next();
+						values.add(new TagAnnotationData((TagAnnotation) a));
+						customAnnotationList.add(a); // THIS!
+					}
+					object.setTags(values);
+				} catch (Exception e) {
+					LogMessage msg = new LogMessage();
+					msg.print("Cannot create the tags.");
+					msg.print(e);
+					context.getLogger().error(this, msg);
 				}
-				object.setTags(values);
-			} catch (Exception e) {
-				LogMessage msg = new LogMessage();
-				msg.print("Cannot create the tags.");
-				msg.print(e);
-				context.getLogger().error(this, msg);
 			}
 		}
 		IObject link;
 		//prepare the container.
 		List<String> candidates;
-		ImportCandidates ic = null;
+		ScannedCandidates ic = null;
 		File file = importable.getFile().getFileToImport();
 		DatasetData dataset = importable.getDataset();
 		DataObject container = importable.getParent();
@@ -1097,7 +1291,7 @@ class OmeroImageServiceImpl
 		ImportContainer importIc;
 		List<ImportContainer> icContainers;
 		if (file.isFile()) {
-			ic = gateway.getImportCandidates(ctx, object, file, status);
+			ic = scanner.scan(object, file, status);
 			if (CollectionUtils.isEmpty(ic.getContainers())) {
 				Object o = status.getImportResult();
 				if (o instanceof ImportException) {
@@ -1161,24 +1355,26 @@ class OmeroImageServiceImpl
 			} else { //no dataset specified.
 				if (container instanceof ScreenData) {
 					if (container.getId() <= 0) {
-						//project needs to be created to.
-						createdData = object.hasObjectBeenCreated(
-								container, ctx);
-						if (createdData == null) {
-							try {
-								ioContainer = gateway.saveAndReturnObject(ctx,
-										container.asIObject(), parameters,
-										userName);
-								//register
-								object.addNewDataObject(
-										PojoMapper.asDataObject(
-												ioContainer));
-							} catch (Exception e) {
-								LogMessage msg = new LogMessage();
-								msg.print("Cannot create the Screen hosting " +
-										"the plate.");
-								msg.print(e);
-								context.getLogger().error(this, msg);
+						synchronized (object) {
+							//project needs to be created to.
+							createdData = object.hasObjectBeenCreated(
+									container, ctx);
+							if (createdData == null) {
+								try {
+									ioContainer = gateway.saveAndReturnObject(ctx,
+											container.asIObject(), parameters,
+											userName);
+									//register
+									object.addNewDataObject(
+											PojoMapper.asDataObject(
+													ioContainer));
+								} catch (Exception e) {
+									LogMessage msg = new LogMessage();
+									msg.print("Cannot create the Screen hosting " +
+											"the plate.");
+									msg.print(e);
+									context.getLogger().error(this, msg);
+								}
 							}
 						}
 					} else {
@@ -1193,7 +1389,7 @@ class OmeroImageServiceImpl
             }
 			if (ImportableObject.isArbitraryFile(file)) {
 				if (ic == null) //already check if hcs.
-					ic = gateway.getImportCandidates(ctx, object, file, status);
+					ic = scanner.scan(object, file, status);
 				candidates = ic.getPaths();
 				int size = candidates.size();
 				if (size == 0) {
@@ -1256,7 +1452,7 @@ class OmeroImageServiceImpl
 			} else { //single file let's try to import it.
 				if (ioContainer == null)
 					status.setNoContainer();
-				ic = gateway.getImportCandidates(ctx, object, file, status);
+				ic = scanner.scan(object, file, status);
 				icContainers = ic.getContainers();
 				if (icContainers.size() == 0) {
 					Object o = status.getImportResult();
@@ -1280,7 +1476,7 @@ class OmeroImageServiceImpl
 			}
 		} //file import ends.
 		//Checks folder import.
-		ic = gateway.getImportCandidates(ctx, object, file, status);
+		ic = scanner.scan(object, file, status);
 		List<ImportContainer> lic = ic.getContainers();
 		if (lic.size() == 0) {
 			Object o = status.getImportResult();
@@ -1450,6 +1646,18 @@ class OmeroImageServiceImpl
 		return filters;
 	}
 
+	/**
+	 * Implemented as specified by {@link OmeroImageService}.
+	 * @see OmeroImageService#getUsedFiles(File)
+	 */
+	public Set<File> getUsedFiles(File folder)
+		throws ImportException
+	{
+		if (folder == null)
+			throw new IllegalArgumentException("No folder specified.");
+		return scanner.getUsedFiles(folder);
+	}
+
 	/** 
 	 * Implemented as specified by {@link OmeroImageService}. 
 	 * @see OmeroImageService#createMovie(SecurityContext, long, long, List,
@@ -1796,6 +2004,29 @@ class OmeroImageServiceImpl
 		return list;
 	}
 
+	/**
+	 * Implemented as specified by {@link OmeroImageService}.
+	 * @see OmeroImageService#countROIMeasurements(SecurityContext, Class, List,
+	 * long)
+	 */
+	public Map<Long, Long> countROIMeasurements(SecurityContext ctx,
+		Class type, List<Long> ids, long userID)
+		throws DSOutOfServiceException, DSAccessException
+	{
+		Map<Long, Long> counts = new HashMap<Long, Long>();
+		if (ids == null || ids.size() == 0) return counts;
+		Map<Long, Long> found = gateway.countROIMeasurements(ctx, type, ids,
+				userID);
+		Iterator<Long> i = ids.iterator();
+		Long id, value;
+		while (i.hasNext()) {
+			id = i.next();
+			value = found.get(id);
+			counts.put(id, value == null ? Long.valueOf(0) : value);
+		}
+		return counts;
+	}
+
 	/**
 	 * Implemented as specified by {@link OmeroDataService}.
 	 * @see OmeroImageService#getFSThumbnailSet(SecurityContext, List, int, long)
@@ -0,0 +1,82 @@
+/*
+ * org.openmicroscopy.shoola.env.data.ScannedCandidates
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.data;
+
+//Java imports
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+//Third-party libraries
+
+//Application-internal dependencies
+import ome.formats.importer.ImportContainer;
+
+/**
+ * The files to import found by the {@link ImportScanner}, each one with
+ * the files it uses.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+class ScannedCandidates
+{
+
+    /** The containers, one per file to import. */
+    private final List<ImportContainer> containers;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param containers The containers, one per file to import.
+     */
+    ScannedCandidates(List<ImportContainer> containers)
+    {
+        if (containers == null) containers = new ArrayList<ImportContainer>();
+        this.containers = Collections.unmodifiableList(containers);
+    }
+
+    /**
+     * Returns the containers, one per file to import.
+     *
+     * @return See above.
+     */
+    List<ImportContainer> getContainers() { return containers; }
+
+    /**
+     * Returns the absolute paths of the files to import.
+     *
+     * @return See above.
+     */
+    List<String> getPaths()
+    {
+        List<String> paths = new ArrayList<String>(containers.size());
+        Iterator<ImportContainer> i = containers.iterator();
+        while (i.hasNext())
+            paths.add(i.next().getFile().getAbsolutePath());
+        return paths;
+    }
+
+}
@@ -0,0 +1,212 @@
+/*
+ * org.openmicroscopy.shoola.env.data.ThumbnailCache
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.data;
+
+//Java imports
+
+//Third-party libraries
+
+//Application-internal dependencies
+import omero.gateway.cache.CacheService;
+import omero.gateway.model.ExperimenterData;
+
+import org.openmicroscopy.shoola.env.LookupNames;
+import org.openmicroscopy.shoola.env.config.Registry;
+
+/**
+ * Keeps the encoded thumbnails in the persistent cache so that they are
+ * available across sessions.
+ * A thumbnail is identified by the server, the user, the pixels set, the
+ * last event modifying the rendering settings of the pixels set and the
+ * requested size, so a thumbnail is never returned once the rendering
+ * settings have been modified.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+class ThumbnailCache
+{
+
+    /** Indicates that the cache has not been created yet. */
+    private static final int NOT_CREATED = -2;
+
+    /** Reference to the registry. */
+    private final Registry context;
+
+    /** The identifier of the cache or <code>-1</code> if not available. */
+    private int cacheID = NOT_CREATED;
+
+    /** The prefix of the keys, identifying the server and the user. */
+    private String prefix;
+
+    /** The number of thumbnails found in the cache. */
+    private long hits;
+
+    /** The number of thumbnails not found in the cache. */
+    private long misses;
+
+    /** The number of bytes read from the cache. */
+    private long bytesRead;
+
+    /** The number of bytes written to the cache. */
+    private long bytesWritten;
+
+    /**
+     * Returns the identifier of the cache, creates the cache the first time.
+     *
+     * @return See above.
+     */
+    private synchronized int getCacheID()
+    {
+        if (cacheID != NOT_CREATED) return cacheID;
+        cacheID = -1;
+        CacheService cache = context.getCacheService();
+        Integer size = (Integer) context.lookup(
+                LookupNames.THUMBNAIL_CACHE_SZ);
+        if (cache == null || size == null || size.intValue() <= 0)
+            return cacheID;
+        String server = null;
+        try {
+            server = context.getAdminService().getServerName();
+        } catch (Exception e) {
+            //ignore
+        }
+        ExperimenterData exp = (ExperimenterData) context.lookup(
+                LookupNames.CURRENT_USER_DETAILS);
+        if (server == null || exp == null) return cacheID;
+        prefix = "thumbnail/"+server+"/"+exp.getId()+"/";
+        cacheID = cache.createCache(CacheService.PERSISTENCE_ON_DISK,
+                size.intValue());
+        return cacheID;
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param context Reference to the registry. Mustn't be <code>null</code>.
+     */
+    ThumbnailCache(Registry context)
+    {
+        if (context == null)
+            throw new IllegalArgumentException("No registry.");
+        this.context = context;
+    }
+
+    /**
+     * Forgets the cache and the prefix of the keys when the session ends,
+     * the persistent caches being closed. They are resolved again for the
+     * next session, which may be for another server or user.
+     */
+    synchronized void reset()
+    {
+        cacheID = NOT_CREATED;
+        prefix = null;
+        hits = 0;
+        misses = 0;
+        bytesRead = 0;
+        bytesWritten = 0;
+    }
+
+    /**
+     * Returns <code>true</code> if the thumbnails can be stored,
+     * <code>false</code> otherwise.
+     *
+     * @return See above.
+     */
+    boolean isAvailable() { return getCacheID() >= 0; }
+
+    /**
+     * Returns the key identifying the thumbnail.
+     *
+     * @param pixelsID The identifier of the pixels set.
+     * @param version The identifier of the last event modifying the
+     *                rendering settings.
+     * @param maxLength The maximum length of the thumbnail.
+     * @return See above.
+     */
+    synchronized String createKey(long pixelsID, long version, int maxLength)
+    {
+        StringBuffer buf = new StringBuffer(prefix);
+        buf.append(pixelsID+"/");
+        buf.append(version+"/");
+        buf.append(maxLength);
+        return buf.toString();
+    }
+
+    /**
+     * Returns the encoded thumbnail or <code>null</code> if not stored.
+     *
+     * @param key The key identifying the thumbnail.
+     * @return See above.
+     */
+    byte[] get(String key)
+    {
+        int id = getCacheID();
+        if (id < 0) return null;
+        Object value = context.getCacheService().getElement(id, key);
+        synchronized (this) {
+            if (value instanceof byte[]) {
+                hits++;
+                bytesRead += ((byte[]) value).length;
+                return (byte[]) value;
+            }
+            misses++;
+        }
+        return null;
+    }
+
+    /**
+     * Stores the encoded thumbnail.
+     *
+     * @param key The key identifying the thumbnail.
+     * @param values The encoded thumbnail.
+     */
+    void put(String key, byte[] values)
+    {
+        int id = getCacheID();
+        if (id < 0 || values == null || values.length == 0) return;
+        context.getCacheService().addElement(id, key, values);
+        synchronized (this) {
+            bytesWritten += values.length;
+        }
+    }
+
+    /**
+     * Returns the number of hits and misses and the number of bytes read
+     * from and written to the cache since the start of the session.
+     *
+     * @return See above.
+     */
+    synchronized String getStatistics()
+    {
+        StringBuffer buf = new StringBuffer();
+        buf.append("Thumbnail cache: ");
+        buf.append(hits+" hits, ");
+        buf.append(misses+" misses, ");
+        buf.append(bytesRead+" bytes read, ");
+        buf.append(bytesWritten+" bytes written");
+        return buf.toString();
+    }
+
+}
@@ -0,0 +1,311 @@
+/*
+ * org.openmicroscopy.shoola.env.data.model.ColumnarTableResult
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.data.model;
+
+//Java imports
+import java.util.HashMap;
+import java.util.Map;
+
+//Third-party libraries
+
+//Application-internal dependencies
+import omero.gateway.model.TableResult;
+
+/**
+ * A {@link TableResult} storing each column in a primitive array.
+ * Numerical columns are kept as <code>long[]</code> or <code>double[]</code>,
+ * boolean columns as <code>boolean[]</code> and string columns as an index
+ * into a dictionary of the distinct values, so no object is created per cell.
+ * The result may only hold a range of the rows of the table, see
+ * {@link #getRowOffset()} and {@link #getTotalRowCount()}.
+ * <p>{@link #getData()} is still supported but creates the boxed values
+ * each time it is invoked; use the typed accessors when possible.</p>
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+public class ColumnarTableResult
+    extends TableResult
+{
+
+    /** Identifies a column whose type is not supported. */
+    public static final int UNKNOWN = 0;
+
+    /** Identifies a column of <code>long</code>. */
+    public static final int LONG = 1;
+
+    /** Identifies a column of <code>double</code>. */
+    public static final int DOUBLE = 2;
+
+    /** Identifies a column of <code>boolean</code>. */
+    public static final int BOOLEAN = 3;
+
+    /** Identifies a column of <code>String</code>. */
+    public static final int STRING = 4;
+
+    /** The type of each column. */
+    private final int[] types;
+
+    /** The values of each column, the codes for string columns. */
+    private final Object[] columns;
+
+    /** The distinct values of each string column. */
+    private final String[][] dictionaries;
+
+    /** The number of rows held. */
+    private final int rowCount;
+
+    /** The index in the table of the first row held. */
+    private final long rowOffset;
+
+    /** The number of rows of the table. */
+    private final long totalRowCount;
+
+    /**
+     * Replaces the values of a string column by their index in a
+     * dictionary of the distinct values.
+     *
+     * @param index The index of the column.
+     * @param values The values to encode.
+     */
+    private void encode(int index, String[] values)
+    {
+        Map<String, Integer> codes = new HashMap<String, Integer>();
+        int[] encoded = new int[values.length];
+        Integer code;
+        for (int i = 0; i < values.length; i++) {
+            code = codes.get(values[i]);
+            if (code == null) {
+                code = codes.size();
+                codes.put(values[i], code);
+            }
+            encoded[i] = code;
+        }
+        String[] dictionary = new String[codes.size()];
+        for (Map.Entry<String, Integer> e : codes.entrySet())
+            dictionary[e.getValue()] = e.getKey();
+        columns[index] = encoded;
+        dictionaries[index] = dictionary;
+    }
+
+    /**
+     * Creates a new instance.
+     * Each column is either a <code>long[]</code>, a <code>double[]</code>,
+     * a <code>boolean[]</code>, a <code>String[]</code> or <code>null</code>
+     * if the type is not supported. String columns are encoded.
+     *
+     * @param headers The name of each column.
+     * @param columns The values of each column.
+     * @param rowCount The number of rows held.
+     * @param rowOffset The index in the table of the first row held.
+     * @param totalRowCount The number of rows of the table.
+     */
+    public ColumnarTableResult(String[] headers, Object[] columns,
+            int rowCount, long rowOffset, long totalRowCount)
+    {
+        super(null, headers);
+        if (headers == null || columns == null)
+            throw new IllegalArgumentException("No columns.");
+        if (headers.length != columns.length)
+            throw new IllegalArgumentException("Headers and columns " +
+                    "do not match.");
+        this.rowCount = rowCount;
+        this.rowOffset = rowOffset;
+        this.totalRowCount = totalRowCount;
+        this.columns = new Object[columns.length];
+        types = new int[columns.length];
+        dictionaries = new String[columns.length][];
+        Object c;
+        for (int i = 0; i < columns.length; i++) {
+            c = columns[i];
+            if (c instanceof long[]) types[i] = LONG;
+            else if (c instanceof double[]) types[i] = DOUBLE;
+            else if (c instanceof boolean[]) types[i] = BOOLEAN;
+            else if (c instanceof String[]) types[i] = STRING;
+            else if (c != null)
+                throw new IllegalArgumentException("Column type not " +
+                        "supported: "+c.getClass());
+            if (types[i] == STRING) encode(i, (String[]) c);
+            else this.columns[i] = c;
+        }
+    }
+
+    /**
+     * Returns the number of rows held.
+     *
+     * @return See above.
+     */
+    public int getRowCount() { return rowCount; }
+
+    /**
+     * Returns the number of columns.
+     *
+     * @return See above.
+     */
+    public int getColumnCount() { return columns.length; }
+
+    /**
+     * Returns the index in the table of the first row held.
+     *
+     * @return See above.
+     */
+    public long getRowOffset() { return rowOffset; }
+
+    /**
+     * Returns the number of rows of the table. This is greater than
+     * {@link #getRowCount()} if only a range of rows was loaded.
+     *
+     * @return See above.
+     */
+    public long getTotalRowCount() { return totalRowCount; }
+
+    /**
+     * Returns the type of the specified column, one of the constants
+     * defined by this class.
+     *
+     * @param column The index of the column.
+     * @return See above.
+     */
+    public int getColumnType(int column) { return types[column]; }
+
+    /**
+     * Returns the value of a <code>long</code> column.
+     *
+     * @param row The index of the row.
+     * @param column The index of the column.
+     * @return See above.
+     */
+    public long getLong(int row, int column)
+    {
+        return ((long[]) columns[column])[row];
+    }
+
+    /**
+     * Returns the value of a <code>double</code> column.
+     *
+     * @param row The index of the row.
+     * @param column The index of the column.
+     * @return See above.
+     */
+    public double getDouble(int row, int column)
+    {
+        return ((double[]) columns[column])[row];
+    }
+
+    /**
+     * Returns the value of a <code>boolean</code> column.
+     *
+     * @param row The index of the row.
+     * @param column The index of the column.
+     * @return See above.
+     */
+    public boolean getBoolean(int row, int column)
+    {
+        return ((boolean[]) columns[column])[row];
+    }
+
+    /**
+     * Returns the value of a <code>String</code> column.
+     *
+     * @param row The index of the row.
+     * @param column The index of the column.
+     * @return See above.
+     */
+    public String getString(int row, int column)
+    {
+        return dictionaries[column][((int[]) columns[column])[row]];
+    }
+
+    /**
+     * Returns the distinct values of a <code>String</code> column.
+     *
+     * @param column The index of the column.
+     * @return See above.
+     */
+    public String[] getDictionary(int column) { return dictionaries[column]; }
+
+    /**
+     * Returns the value of the specified cell as an object or
+     * <code>null</code> if the type of the column is not supported.
+     *
+     * @param row The index of the row.
+     * @param column The index of the column.
+     * @return See above.
+     */
+    public Object getValueAt(int row, int column)
+    {
+        switch (types[column]) {
+            case LONG: return getLong(row, column);
+            case DOUBLE: return getDouble(row, column);
+            case BOOLEAN: return getBoolean(row, column);
+            case STRING: return getString(row, column);
+            default: return null;
+        }
+    }
+
+    /**
+     * Returns the index of the first row whose value in the specified
+     * <code>long</code> column is the passed one, <code>-1</code> if none.
+     *
+     * @param column The index of the column.
+     * @param value The value to find.
+     * @return See above.
+     */
+    public int findRow(int column, long value)
+    {
+        long[] values = (long[]) columns[column];
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the values of the rows <code>[from, to)</code> as objects,
+     * in the format of {@link TableResult#getData()}.
+     *
+     * @param from The index of the first row.
+     * @param to The index after the last row.
+     * @return See above.
+     */
+    public Object[][] getData(int from, int to)
+    {
+        if (from < 0 || to > rowCount || from > to)
+            throw new IndexOutOfBoundsException("Rows not valid: "+from+
+                    "-"+to);
+        Object[][] data = new Object[to-from][columns.length];
+        for (int j = 0; j < columns.length; j++) {
+            for (int i = from; i < to; i++)
+                data[i-from][j] = getValueAt(i, j);
+        }
+        return data;
+    }
+
+    /**
+     * Overridden to create the values from the columns.
+     * @see TableResult#getData()
+     */
+    public Object[][] getData() { return getData(0, rowCount); }
+
+}
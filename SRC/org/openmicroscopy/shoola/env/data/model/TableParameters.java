@@ -54,6 +54,12 @@ public class TableParameters
 		
 	/** The identifier of the original file. */
 	private List<Long> originalFileIDs;
+	
+	/** The index of the first row to load. */
+	private long rowOffset;
+	
+	/** The number of rows to load or <code>-1</code> to load all the rows. */
+	private int rowCount = -1;
 
 	/** 
 	 * Creates a new instance. 
@@ -99,4 +105,33 @@ public class TableParameters
 	 */
 	public long getNodeID() { return nodeID; }
 	
+	/**
+	 * Sets the range of rows to load. By default all the rows are loaded.
+	 * 
+	 * @param rowOffset The index of the first row to load.
+	 * @param rowCount The number of rows to load.
+	 */
+	public void setRange(long rowOffset, int rowCount)
+	{
+		if (rowOffset < 0 || rowCount < 0)
+			throw new IllegalArgumentException("Range not valid.");
+		this.rowOffset = rowOffset;
+		this.rowCount = rowCount;
+	}
+	
+	/**
+	 * Returns the index of the first row to load.
+	 * 
+	 * @return See above.
+	 */
+	public long getRowOffset() { return rowOffset; }
+	
+	/**
+	 * Returns the number of rows to load or <code>-1</code> to load all
+	 * the rows.
+	 * 
+	 * @return See above.
+	 */
+	public int getRowCount() { return rowCount; }
+	
 }
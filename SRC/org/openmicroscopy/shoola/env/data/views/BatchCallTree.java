@@ -148,7 +148,8 @@ public abstract class BatchCallTree
         
         //Only one thread will ever make it here b/c hasExecuted is sync.
         buildTree();
-        ExecHandle handle = getProcessor().exec(root, getMonitor(observer));
+        ExecHandle handle = getProcessor().exec(root, getMonitor(observer),
+                getPriority());
         return new CallHandle(handle);
     }
     
@@ -163,6 +164,18 @@ public abstract class BatchCallTree
         return (CmdProcessor) context.lookup(LookupNames.CMD_PROCESSOR);
     }
     
+    /**
+     * Returns the priority with which the call tree is
+     * {@link #exec(AgentEventListener) executed}, one of the constants
+     * defined by {@link CmdProcessor}.
+     * Subclasses the user is waiting for, e.g. rendering, should return
+     * {@link CmdProcessor#INTERACTIVE}; subclasses running in the background,
+     * e.g. loading thumbnails, should return {@link CmdProcessor#BACKGROUND}.
+     * 
+     * @return See above.
+     */
+    protected int getPriority() { return CmdProcessor.NORMAL; }
+    
     /**
      * Returns an implementation of {@link ExecMonitor} that works as an 
      * adapter to notify the specified <code>observer</code> of execution
@@ -98,6 +98,60 @@ public interface DataManagerView
 	public CallHandle getImages(SecurityContext ctx, Class nodeType,
 			List nodeIDs, long userID, AgentEventListener observer);
 
+	/**
+	 * Retrieves a page of the images contained in the specified dataset,
+	 * ordered by name or by date.
+	 * 
+	 * @param ctx The security context.
+	 * @param datasetID The id of the dataset.
+	 * @param offset The index of the first image to retrieve.
+	 * @param limit The maximum number of images to retrieve.
+	 * @param byDate Pass <code>true</code> to order the images by date,
+	 *               <code>false</code> to order them by name.
+	 * @param observer Call-back handler.
+	 * @return A handle that can be used to cancel the call.
+	 */
+	public CallHandle loadImagesPage(SecurityContext ctx, long datasetID,
+			int offset, int limit, boolean byDate,
+			AgentEventListener observer);
+
+	/**
+	 * Retrieves a page of the images not contained in a dataset or a plate,
+	 * ordered by name or by date.
+	 * 
+	 * @param ctx The security context.
+	 * @param userID The id of the user or <code>-1</code> to retrieve the
+	 *               images of all the members of the group.
+	 * @param offset The index of the first image to retrieve.
+	 * @param limit The maximum number of images to retrieve.
+	 * @param byDate Pass <code>true</code> to order the images by date,
+	 *               <code>false</code> to order them by name.
+	 * @param observer Call-back handler.
+	 * @return A handle that can be used to cancel the call.
+	 */
+	public CallHandle loadOrphanedImagesPage(SecurityContext ctx, long userID,
+			int offset, int limit, boolean byDate,
+			AgentEventListener observer);
+
+	/**
+	 * Retrieves the projects of the specified user and a page of the
+	 * datasets not contained in a project, ordered by name or by date.
+	 * The projects are only retrieved with the first page.
+	 * 
+	 * @param ctx The security context.
+	 * @param userID The id of the user or <code>-1</code> to retrieve the
+	 *               data of all the members of the group.
+	 * @param offset The index of the first dataset to retrieve.
+	 * @param limit The maximum number of datasets to retrieve.
+	 * @param byDate Pass <code>true</code> to order the datasets by date,
+	 *               <code>false</code> to order them by name.
+	 * @param observer Call-back handler.
+	 * @return A handle that can be used to cancel the call.
+	 */
+	public CallHandle loadContainerHierarchyPage(SecurityContext ctx,
+			long userID, int offset, int limit, boolean byDate,
+			AgentEventListener observer);
+
 	/**
 	 * Creates a new <code>DataObject</code> whose parent is specified by the
 	 * ID.
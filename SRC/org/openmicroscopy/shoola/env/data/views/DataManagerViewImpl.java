@@ -53,6 +53,8 @@ import org.openmicroscopy.shoola.env.event.AgentEventListener;
 
 import omero.gateway.model.ChannelData;
 import omero.gateway.model.DataObject;
+import omero.gateway.model.DatasetData;
+import omero.gateway.model.ExperimenterData;
 import omero.gateway.model.ImageData;
 
 /** 
@@ -108,6 +110,47 @@ class DataManagerViewImpl
 		return cmd.exec(observer);
 	}
 
+	/**
+	 * Implemented as specified by the view interface.
+	 * @see DataManagerView#loadImagesPage(SecurityContext, long, int, int,
+	 * boolean, AgentEventListener)
+	 */
+	public CallHandle loadImagesPage(SecurityContext ctx, long datasetID,
+			int offset, int limit, boolean byDate,
+			AgentEventListener observer)
+	{
+		BatchCallTree cmd = new ImagesLoader(ctx, DatasetData.class,
+				datasetID, offset, limit, byDate);
+		return cmd.exec(observer);
+	}
+
+	/**
+	 * Implemented as specified by the view interface.
+	 * @see DataManagerView#loadOrphanedImagesPage(SecurityContext, long, int,
+	 * int, boolean, AgentEventListener)
+	 */
+	public CallHandle loadOrphanedImagesPage(SecurityContext ctx, long userID,
+			int offset, int limit, boolean byDate,
+			AgentEventListener observer)
+	{
+		BatchCallTree cmd = new ImagesLoader(ctx, ExperimenterData.class,
+				userID, offset, limit, byDate);
+		return cmd.exec(observer);
+	}
+
+	/**
+	 * Implemented as specified by the view interface.
+	 * @see DataManagerView#loadContainerHierarchyPage(SecurityContext, long,
+	 * int, int, boolean, AgentEventListener)
+	 */
+	public CallHandle loadContainerHierarchyPage(SecurityContext ctx,
+			long userID, int offset, int limit, boolean byDate,
+			AgentEventListener observer)
+	{
+		BatchCallTree cmd = new DMLoader(ctx, userID, offset, limit, byDate);
+		return cmd.exec(observer);
+	}
+
 	/**
 	 * Implemented as specified by the view interface.
 	 * @see DataManagerView#createDataObject(SecurityContext, DataObject,
@@ -180,6 +180,25 @@ public interface ImageDataView
     public CallHandle renderProjected(SecurityContext ctx, long pixelsID,
     	int startZ, int endZ, int stepping, int algorithm,
     	List<Integer> channels, AgentEventListener observer);
+
+    /**
+     * Renders each of the specified channels of the plane on its own,
+     * as displayed in the split view.
+     * 
+     * @param ctx The security context.
+     * @param pixelsID  The id of the pixels set.
+     * @param pd        The plane to render.
+     * @param channels  The indexes of the channels to render.
+     * @param greyScale Pass <code>true</code> to render the channels in
+     *                  grey, <code>false</code> to use their color.
+     * @param combined  Pass <code>true</code> to add the combined image,
+     *                  <code>false</code> otherwise.
+     * @param observer  Call-back handler.
+     * @return See above.
+     */
+    public CallHandle renderChannels(SecurityContext ctx, long pixelsID,
+    	PlaneDef pd, List<Integer> channels, boolean greyScale,
+    	boolean combined, AgentEventListener observer);
     
     /**
      * Projects a section of the stack and returns the projected image.
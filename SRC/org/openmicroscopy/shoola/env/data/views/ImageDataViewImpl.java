@@ -38,6 +38,8 @@ import omero.gateway.SecurityContext;
 import org.openmicroscopy.shoola.env.data.views.calls.AcquisitionDataLoader;
 import org.openmicroscopy.shoola.env.data.views.calls.AcquisitionDataSaver;
 import org.openmicroscopy.shoola.env.data.views.calls.Analyser;
+import org.openmicroscopy.shoola.env.data.views.calls.ChannelsRenderer;
+import org.openmicroscopy.shoola.env.data.views.calls.DirectoryWatcher;
 import org.openmicroscopy.shoola.env.data.views.calls.EnumerationLoader;
 import org.openmicroscopy.shoola.env.data.views.calls.ExportLoader;
 import org.openmicroscopy.shoola.env.data.views.calls.FigureCreator;
@@ -189,6 +191,20 @@ class ImageDataViewImpl
 
 	/**
      * Implemented as specified by the view interface.
+     * @see ImageDataView#renderChannels(SecurityContext, long, PlaneDef, List,
+     *                       boolean, boolean, AgentEventListener)
+     */
+	public CallHandle renderChannels(SecurityContext ctx, long pixelsID,
+		PlaneDef pd, List<Integer> channels, boolean greyScale,
+		boolean combined, AgentEventListener observer)
+	{
+		BatchCallTree cmd = new ChannelsRenderer(ctx, pixelsID, pd, channels,
+				greyScale, combined);
+		return cmd.exec(observer);
+	}
+
+	/**
+     * Implemented as specified by the view interface.
      * @see ImageDataView#projectImage(ProjectionParam, AgentEventListener)
      */
 	public CallHandle projectImage(SecurityContext ctx, ProjectionParam ref,
@@ -301,7 +317,8 @@ class ImageDataViewImpl
 		DataObject container, long userID, long groupID,
 		AgentEventListener observer)
 	{
-		return null;
+		BatchCallTree cmd = new DirectoryWatcher(directory);
+		return cmd.exec(observer);
 	}
 
 	/**
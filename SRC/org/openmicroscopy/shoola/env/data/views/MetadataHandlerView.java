@@ -134,6 +134,19 @@ public interface MetadataHandlerView
 	
     public CallHandle loadHistogram(SecurityContext ctx, ImageData img,
             int[] channels, int z, int t, AgentEventListener observer);
+
+    /**
+     * Computes the statistics of the stacks of the specified channels from
+     * the raw planes loaded to render the image on the client.
+     * 
+     * @param pixelsID The id of the pixels set.
+     * @param channels The channel indices.
+     * @param t The selected time-point.
+     * @param observer Call-back handler.
+     * @return A handle that can be used to cancel the call.
+     */
+    public CallHandle loadStackStats(long pixelsID, int[] channels, int t,
+            AgentEventListener observer);
 	
 	/**
 	 * Loads all annotations related the specified objects.
@@ -44,6 +44,7 @@ import org.openmicroscopy.shoola.env.data.views.calls.FilesetLoader;
 import org.openmicroscopy.shoola.env.data.views.calls.HistogramLoader;
 import org.openmicroscopy.shoola.env.data.views.calls.RelatedContainersLoader;
 import org.openmicroscopy.shoola.env.data.views.calls.ScriptsLoader;
+import org.openmicroscopy.shoola.env.data.views.calls.StackStatsLoader;
 import org.openmicroscopy.shoola.env.data.views.calls.StructuredAnnotationLoader;
 import org.openmicroscopy.shoola.env.data.views.calls.StructuredAnnotationSaver;
 import org.openmicroscopy.shoola.env.data.views.calls.TabularDataLoader;
@@ -128,6 +129,18 @@ class MetadataHandlerViewImpl
         BatchCallTree cmd = new HistogramLoader(ctx, img, channels, z, t);
         return cmd.exec(observer);
     }
+
+    /**
+     * Implemented as specified by the view interface.
+     * @see MetadataHandlerView#loadStackStats(long, int[], int,
+     * AgentEventListener)
+     */
+    public CallHandle loadStackStats(long pixelsID, int[] channels, int t,
+            AgentEventListener observer)
+    {
+        BatchCallTree cmd = new StackStatsLoader(pixelsID, channels, t);
+        return cmd.exec(observer);
+    }
             
 	/**
 	 * Implemented as specified by the view interface.
@@ -0,0 +1,123 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2016 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+
+package org.openmicroscopy.shoola.env.data.views.calls;
+
+import java.util.List;
+
+import omero.romio.PlaneDef;
+
+import org.openmicroscopy.shoola.env.data.OmeroImageService;
+import omero.gateway.SecurityContext;
+import org.openmicroscopy.shoola.env.data.views.BatchCall;
+import org.openmicroscopy.shoola.env.data.views.BatchCallTree;
+import org.openmicroscopy.shoola.util.concur.tasks.CmdProcessor;
+
+/** 
+ * Renders each of the specified channels of a plane on its own,
+ * as displayed in the split view.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * 				<a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+public class ChannelsRenderer
+    extends BatchCallTree
+{
+
+    /** The rendered images. */
+    private Object result;
+    
+    /** Renders the channels. */
+    private BatchCall loadCall;
+    
+    /** The security context.*/
+    private SecurityContext ctx;
+    
+    /**
+     * Creates a {@link BatchCall} to render the channels.
+     * 
+     * @param pixelsID The id of the pixels set the plane belongs to.
+     * @param pd The plane to render.
+     * @param channels The indexes of the channels to render.
+     * @param greyScale Pass <code>true</code> to render the channels in
+     *                  grey, <code>false</code> to use their color.
+     * @param combined Pass <code>true</code> to add the combined image,
+     *                 <code>false</code> otherwise.
+     * @return The {@link BatchCall}.
+     */
+    private BatchCall makeBatchCall(final long pixelsID, final PlaneDef pd,
+    		final List<Integer> channels, final boolean greyScale,
+    		final boolean combined)
+    {
+        return new BatchCall("rendering channels: ") {
+            public void doCall() throws Exception
+            {
+                OmeroImageService rds = context.getImageService();
+                result = rds.renderChannels(ctx, pixelsID, pd, channels,
+                		greyScale, combined);
+            }
+        };
+    } 
+    
+    /**
+     * Adds the {@link #loadCall} to the computation tree.
+     * 
+     * @see BatchCallTree#buildTree()
+     */
+    protected void buildTree() { add(loadCall); }
+
+    /**
+     * Returns the rendered images.
+     * 
+     * @see BatchCallTree#getResult()
+     */
+    protected Object getResult() { return result; }
+
+    /**
+     * Returns {@link CmdProcessor#INTERACTIVE} as
+     * the user is waiting for the result.
+     * @see BatchCallTree#getPriority()
+     */
+    protected int getPriority() { return CmdProcessor.INTERACTIVE; }
+
+    /**
+     * Creates a new instance.
+     * 
+     * @param ctx The security context.
+     * @param pixelsID  The id of the pixels set the plane belongs to.
+     * @param pd        The plane to render.
+     * @param channels  The indexes of the channels to render.
+     * @param greyScale Pass <code>true</code> to render the channels in
+     *                  grey, <code>false</code> to use their color.
+     * @param combined  Pass <code>true</code> to add the combined image,
+     *                  <code>false</code> otherwise.
+     */
+    public ChannelsRenderer(SecurityContext ctx, long pixelsID, PlaneDef pd,
+    	List<Integer> channels, boolean greyScale, boolean combined)
+    {
+    	this.ctx = ctx;
+        if (pixelsID < 0)
+            throw new IllegalArgumentException("ID not valid.");
+        loadCall = makeBatchCall(pixelsID, pd, channels, greyScale, combined);
+    }
+    
+}
@@ -35,6 +35,7 @@ import org.openmicroscopy.shoola.env.data.OmeroImageService;
 import omero.gateway.SecurityContext;
 import org.openmicroscopy.shoola.env.data.views.BatchCall;
 import org.openmicroscopy.shoola.env.data.views.BatchCallTree;
+import org.openmicroscopy.shoola.util.concur.tasks.CmdProcessor;
 import omero.gateway.model.DataObject;
 import omero.gateway.model.DatasetData;
 import omero.gateway.model.ExperimenterData;
@@ -82,9 +83,7 @@ public class ContainerCounterLoader
                 Entry<Class<?>, List<Long>> entry;
                 Iterator<Entry<Class<?>, List<Long>>> i = types.entrySet().iterator();
                 Class<?> type;
-                Iterator<Long> j;
                 List<Long> ids;
-                Long id;
                 OmeroImageService ms = context.getImageService();
                 ExperimenterData exp = (ExperimenterData) context.lookup(
                         LookupNames.CURRENT_USER_DETAILS);
@@ -98,13 +97,8 @@ public class ContainerCounterLoader
                     type = entry.getKey();
                     ids = entry.getValue();
                     if (PlateData.class.equals(type)) {
-                        j = ids.iterator();
-                        while (j.hasNext()) {
-                            id = j.next();
-                            m.put(id, Long.valueOf(
-                                    ms.loadROIMeasurements(ctx,
-                                            type, id, userID).size()));
-                        }
+                        m.putAll(ms.countROIMeasurements(ctx, type, ids,
+                                userID));
                         result = m;
                     } else if (GroupData.class.equals(type)) {
                         svc = context.getAdminService();
@@ -134,6 +128,13 @@ public class ContainerCounterLoader
      */
     protected Object getResult() { return result; }
 
+    /**
+     * Returns {@link CmdProcessor#BACKGROUND} as
+     * the result is not needed immediately.
+     * @see BatchCallTree#getPriority()
+     */
+    protected int getPriority() { return CmdProcessor.BACKGROUND; }
+
     /**
      * Creates a new instance.
      * If bad arguments are passed, we throw a runtime
@@ -103,6 +103,30 @@ public class DMLoader
         };
     }
     
+    /**
+     * Creates a {@link BatchCall} to retrieve the projects and a page of the
+     * datasets not contained in a project.
+     * 
+     * @param userID The identifier of the user.
+     * @param offset The index of the first dataset to retrieve.
+     * @param limit The maximum number of datasets to retrieve.
+     * @param byDate Pass <code>true</code> to order the datasets by date,
+     *               <code>false</code> to order them by name.
+     * @return The {@link BatchCall}.
+     */
+    private BatchCall makePageBatchCall(final long userID, final int offset,
+    		final int limit, final boolean byDate)
+    {
+        return new BatchCall("Loading container tree: ") {
+            public void doCall() throws Exception
+            {
+                OmeroDataService os = context.getDataService();
+                results = os.loadContainerHierarchyPage(ctx, userID, offset,
+                		limit, byDate);
+            }
+        };
+    }
+    
     /**
      * Adds the {@link #loadCall} to the computation tree.
      * @see BatchCallTree#buildTree()
@@ -147,4 +171,27 @@ public class DMLoader
                                                 rootNodeType);
     }
 
+    /**
+     * Creates a new instance to retrieve the projects and a page of the
+     * datasets not contained in a project.
+     * If bad arguments are passed, we throw a runtime
+	 * exception so to fail early and in the caller's thread.
+     * 
+     * @param ctx The security context.
+     * @param userID The identifier of the user or <code>-1</code> to
+     *               retrieve the data of all the members of the group.
+     * @param offset The index of the first dataset to retrieve.
+     * @param limit The maximum number of datasets to retrieve.
+     * @param byDate Pass <code>true</code> to order the datasets by date,
+     *               <code>false</code> to order them by name.
+     */
+    public DMLoader(SecurityContext ctx, long userID, int offset, int limit,
+    		boolean byDate)
+    {
+        if (offset < 0 || limit <= 0)
+            throw new IllegalArgumentException("Page not valid.");
+        this.ctx = ctx;
+        loadCall = makePageBatchCall(userID, offset, limit, byDate);
+    }
+
 }
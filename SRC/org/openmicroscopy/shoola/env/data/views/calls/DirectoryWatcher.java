@@ -0,0 +1,379 @@
+/*
+ * org.openmicroscopy.shoola.env.data.views.calls.DirectoryWatcher
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.data.views.calls;
+
+//Java imports
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+//Third-party libraries
+
+//Application-internal dependencies
+import org.openmicroscopy.shoola.env.LookupNames;
+import org.openmicroscopy.shoola.env.data.views.BatchCall;
+import org.openmicroscopy.shoola.env.data.views.BatchCallTree;
+import org.openmicroscopy.shoola.util.concur.tasks.CmdProcessor;
+
+/**
+ * Command watching a folder for new acquisitions.
+ * <p>Each file or folder written directly into the watched folder is a
+ * fileset. The filesets ready, see {@link FilesetTracker}, are delivered as
+ * partial results, a <code>List</code> of <code>File</code>s, in batches of
+ * bounded size. A fileset changing after being delivered is delivered again.
+ * The files written directly into the watched folder and used by another
+ * one of these files, e.g. the companion files, are not delivered as they
+ * are imported with it. The content of the folder when the watch starts is
+ * not delivered.</p>
+ * <p>The command runs on its own thread, not on the threads of the
+ * container's processor, until {@link #stop(File)} is invoked as cancelling
+ * the call does not interrupt it.</p>
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+public class DirectoryWatcher
+    extends BatchCallTree
+{
+
+    /** The default quiet period in milliseconds. */
+    private static final int QUIET_PERIOD = 5000;
+
+    /** The default maximum number of filesets delivered together. */
+    private static final int BATCH_SIZE = 10;
+
+    /** The time, in milliseconds, to wait for an event. */
+    private static final long POLL = 1000;
+
+    /** The commands running, the key is the watched folder. */
+    private static final Map<File, DirectoryWatcher> WATCHERS =
+            new ConcurrentHashMap<File, DirectoryWatcher>();
+
+    /** The folder to watch. */
+    private final File directory;
+
+    /** The filesets delivered. */
+    private List<File> partialResult;
+
+    /** The service notifying the changes. */
+    private WatchService watcher;
+
+    /** The folders registered, the key is the watch key of the folder. */
+    private Map<WatchKey, Path> keys;
+
+    /** The filesets not delivered yet and the ones delivered. */
+    private FilesetTracker tracker;
+
+    /** The maximum number of filesets delivered together. */
+    private int batchSize;
+
+    /** Flag indicating that the watch has been stopped. */
+    private volatile boolean stopped;
+
+    /**
+     * Stops watching the specified folder.
+     *
+     * @param directory The watched folder.
+     */
+    public static void stop(File directory)
+    {
+        if (directory == null) return;
+        DirectoryWatcher w = WATCHERS.remove(directory.getAbsoluteFile());
+        if (w != null) w.close();
+    }
+
+    /**
+     * Reads the integer value of the specified configuration entry.
+     *
+     * @param name The name of the entry.
+     * @param defaultValue The value to use if not set.
+     * @return See above.
+     */
+    private int getValue(String name, int defaultValue)
+    {
+        Integer v = (Integer) context.lookup(name);
+        if (v == null || v.intValue() <= 0) return defaultValue;
+        return v.intValue();
+    }
+
+    /** Stops the watch and releases the service. */
+    private void close()
+    {
+        stopped = true;
+        try {
+            if (watcher != null) watcher.close();
+        } catch (IOException e) {
+            context.getLogger().debug(this,
+                    "Cannot close the watch service: "+e.getMessage());
+        }
+    }
+
+    /**
+     * Registers the folder and its sub-folders.
+     *
+     * @param dir The folder to register.
+     * @throws IOException If the folder cannot be registered.
+     */
+    private void register(Path dir)
+        throws IOException
+    {
+        Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+            public FileVisitResult preVisitDirectory(Path d,
+                    BasicFileAttributes attrs)
+                throws IOException
+            {
+                keys.put(d.register(watcher,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE,
+                        StandardWatchEventKinds.ENTRY_MODIFY), d);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Returns the fileset the specified file belongs to i.e. the entry of the
+     * watched folder containing it, or <code>null</code> if the file should
+     * be ignored.
+     *
+     * @param path The file.
+     * @return See above.
+     */
+    private Path getFileset(Path path)
+    {
+        Path root = directory.toPath();
+        if (!path.startsWith(root) || path.equals(root)) return null;
+        Path fileset = root.resolve(root.relativize(path).getName(0));
+        if (fileset.getFileName().toString().startsWith(".")) return null;
+        return fileset;
+    }
+
+    /**
+     * Records the events of the specified key.
+     *
+     * @param key The key signalled.
+     */
+    private void handleEvents(WatchKey key)
+    {
+        Path dir = keys.get(key);
+        long now = System.currentTimeMillis();
+        Path path, fileset;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                //Events lost, check all the filesets not delivered.
+                File[] files = directory.listFiles();
+                if (files == null) continue;
+                for (int i = 0; i < files.length; i++) {
+                    fileset = getFileset(files[i].toPath());
+                    if (fileset != null) tracker.markChanged(fileset, now);
+                }
+                continue;
+            }
+            if (dir == null) continue;
+            path = dir.resolve((Path) event.context());
+            fileset = getFileset(path);
+            if (fileset == null) continue;
+            if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE &&
+                    path.equals(fileset)) {
+                tracker.markRemoved(fileset);
+                continue;
+            }
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE &&
+                    Files.isDirectory(path)) {
+                try {
+                    register(path);
+                } catch (IOException e) {
+                    context.getLogger().warn(this,
+                            "Cannot watch "+path+": "+e.getMessage());
+                }
+            }
+            tracker.markChanged(fileset, now);
+        }
+        if (!key.reset()) keys.remove(key);
+    }
+
+    /**
+     * Removes from the batch the files written directly into the watched
+     * folder that are used by another file of the folder, as they are
+     * imported with it.
+     *
+     * @param batch The filesets to deliver.
+     */
+    private void removeUsedFiles(List<File> batch)
+    {
+        boolean loose = false;
+        for (File f : batch) {
+            if (f.isFile()) {
+                loose = true;
+                break;
+            }
+        }
+        if (!loose) return;
+        try {
+            Set<File> used = context.getImageService().getUsedFiles(directory);
+            if (used != null) batch.removeAll(used);
+        } catch (Exception e) {
+            context.getLogger().warn(this,
+                    "Cannot scan the files of "+directory+": "+e.getMessage());
+        }
+    }
+
+    /**
+     * Waits for filesets to be ready and delivers them. Adds the call
+     * waiting for the next ones to the computation tree.
+     *
+     * @throws Exception If the folder cannot be watched.
+     */
+    private void watch()
+        throws Exception
+    {
+        partialResult = null;
+        WatchKey key;
+        List<File> batch = new ArrayList<File>();
+        List<File> again = new ArrayList<File>();
+        try {
+            while (!stopped && batch.isEmpty()) {
+                key = watcher.poll(POLL, TimeUnit.MILLISECONDS);
+                while (key != null) {
+                    handleEvents(key);
+                    key = watcher.poll();
+                }
+                tracker.checkQuiescence(System.currentTimeMillis());
+                if (tracker.hasReady()) {
+                    batch = tracker.nextBatch(batchSize, again);
+                    removeUsedFiles(batch);
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            stopped = true;
+        }
+        if (stopped) return;
+        for (File f : again) {
+            if (batch.contains(f))
+                context.getLogger().warn(this, f+" changed after being "+
+                        "imported, it will be imported again.");
+        }
+        partialResult = batch;
+        add(new BatchCall("Watching folder") {
+            public void doCall() throws Exception { watch(); }
+        });
+    }
+
+    /**
+     * Registers the folder and adds the {@link #watch()} call to the
+     * computation tree.
+     *
+     * @see BatchCallTree#buildTree()
+     */
+    protected void buildTree()
+    {
+        add(new BatchCall("Watching folder") {
+            public void doCall() throws Exception
+            {
+                tracker = new FilesetTracker(getValue(
+                        LookupNames.IMPORT_WATCH_QUIET, QUIET_PERIOD));
+                batchSize = getValue(LookupNames.IMPORT_WATCH_BATCH,
+                        BATCH_SIZE);
+                watcher = FileSystems.getDefault().newWatchService();
+                DirectoryWatcher previous = WATCHERS.put(directory,
+                        DirectoryWatcher.this);
+                if (previous != null) previous.close();
+                try {
+                    register(directory.toPath());
+                } catch (IOException e) {
+                    stop(directory);
+                    throw e;
+                }
+                context.getLogger().info(this, "Watching "+directory);
+                watch();
+            }
+        });
+    }
+
+    /**
+     * Returns the filesets ready to be imported or <code>null</code> if the
+     * watch has been stopped.
+     *
+     * @return A <code>List</code> of <code>File</code>s.
+     */
+    protected Object getPartialResult() { return partialResult; }
+
+    /**
+     * Returns <code>null</code> as the filesets are delivered as partial
+     * results.
+     *
+     * @see BatchCallTree#getResult()
+     */
+    protected Object getResult() { return null; }
+
+    /**
+     * Returns a processor running the call on a new daemon thread so that
+     * the watch, running until stopped, does not hold one of the threads
+     * of the container's processor.
+     * @see BatchCallTree#getProcessor()
+     */
+    protected CmdProcessor getProcessor()
+    {
+        return new CmdProcessor() {
+            protected void doExec(Runnable cmd)
+            {
+                Thread t = new Thread(cmd, "DirectoryWatcher");
+                t.setDaemon(true);
+                t.start();
+            }
+        };
+    }
+
+    /**
+     * Creates a new instance. If bad arguments are passed, we throw a runtime
+     * exception so to fail early and in the call.
+     *
+     * @param directory The folder to watch.
+     */
+    public DirectoryWatcher(File directory)
+    {
+        if (directory == null || !directory.isDirectory())
+            throw new IllegalArgumentException("No folder to watch.");
+        this.directory = directory.getAbsoluteFile();
+        keys = new HashMap<WatchKey, Path>();
+    }
+
+}
@@ -40,6 +40,7 @@ import org.openmicroscopy.shoola.env.data.model.TimeRefObject;
 import omero.gateway.SecurityContext;
 import org.openmicroscopy.shoola.env.data.views.BatchCall;
 import org.openmicroscopy.shoola.env.data.views.BatchCallTree;
+import org.openmicroscopy.shoola.util.concur.tasks.CmdProcessor;
 import omero.log.LogMessage;
 
 /** 
@@ -178,6 +179,13 @@ public class ExperimenterImagesCounter
      */
     protected Object getResult() { return null; }
 
+    /**
+     * Returns {@link CmdProcessor#BACKGROUND} as
+     * the result is not needed immediately.
+     * @see BatchCallTree#getPriority()
+     */
+    protected int getPriority() { return CmdProcessor.BACKGROUND; }
+
     /**
      * Creates a new instance.
      * 
@@ -0,0 +1,226 @@
+/*
+ * org.openmicroscopy.shoola.env.data.views.calls.FilesetTracker
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.data.views.calls;
+
+//Java imports
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+//Third-party libraries
+
+//Application-internal dependencies
+
+/**
+ * Keeps track of the filesets of a watched folder until they are delivered.
+ * A fileset is ready when its files have not changed during the quiet
+ * period, i.e. neither their number, their size nor their time of last
+ * modification. The filesets ready are delivered in batches of bounded size,
+ * in the order of their paths. A fileset delivered is delivered again if its
+ * files change afterwards, e.g. an acquisition pausing for longer than the
+ * quiet period, but not if the files are the same once quiet again.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+class FilesetTracker
+{
+
+    /** The time, in milliseconds, the files must not change. */
+    private final long quietPeriod;
+
+    /**
+     * The filesets modified but not delivered yet. The value is the time of
+     * the last change.
+     */
+    private final Map<Path, Long> changed;
+
+    /** The signature of the filesets when last checked. */
+    private final Map<Path, String> signatures;
+
+    /** The filesets ready to be delivered and their signature. */
+    private final Map<Path, String> ready;
+
+    /** The filesets already delivered and their signature when delivered. */
+    private final Map<Path, String> delivered;
+
+    /**
+     * Returns a string changing with the number, size or time of last
+     * modification of the files of the fileset, <code>null</code> if the
+     * fileset does not exist.
+     *
+     * @param fileset The fileset.
+     * @return See above.
+     */
+    static String getSignature(Path fileset)
+    {
+        if (!Files.exists(fileset)) return null;
+        final long[] values = new long[3];
+        try {
+            Files.walkFileTree(fileset, new SimpleFileVisitor<Path>() {
+                public FileVisitResult visitFile(Path f,
+                        BasicFileAttributes attrs)
+                {
+                    values[0]++;
+                    values[1] += attrs.size();
+                    values[2] = Math.max(values[2],
+                            attrs.lastModifiedTime().toMillis());
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            return null;
+        }
+        return values[0]+"/"+values[1]+"/"+values[2];
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param quietPeriod The time, in milliseconds, the files must not
+     *                    change.
+     */
+    FilesetTracker(long quietPeriod)
+    {
+        this.quietPeriod = quietPeriod;
+        changed = new HashMap<Path, Long>();
+        signatures = new HashMap<Path, String>();
+        ready = new TreeMap<Path, String>();
+        delivered = new HashMap<Path, String>();
+    }
+
+    /**
+     * Returns <code>true</code> if the fileset has been delivered,
+     * <code>false</code> otherwise.
+     *
+     * @param fileset The fileset.
+     * @return See above.
+     */
+    boolean isDelivered(Path fileset)
+    {
+        return delivered.containsKey(fileset);
+    }
+
+    /**
+     * Records a change of the fileset. A fileset delivered is checked again
+     * and delivered again if its files changed since.
+     *
+     * @param fileset The fileset.
+     * @param time The time of the change.
+     */
+    void markChanged(Path fileset, long time)
+    {
+        changed.put(fileset, time);
+        ready.remove(fileset);
+    }
+
+    /**
+     * Forgets the fileset, it will be delivered again if written again.
+     *
+     * @param fileset The fileset.
+     */
+    void markRemoved(Path fileset)
+    {
+        delivered.remove(fileset);
+        changed.remove(fileset);
+        signatures.remove(fileset);
+        ready.remove(fileset);
+    }
+
+    /**
+     * Moves the filesets whose files did not change during the quiet period
+     * to the ready ones. The signature is checked as well since the events
+     * are not always notified for files written through network shares.
+     * The filesets delivered whose files are the same as when delivered are
+     * not ready.
+     *
+     * @param now The current time.
+     */
+    void checkQuiescence(long now)
+    {
+        Iterator<Map.Entry<Path, Long>> i = changed.entrySet().iterator();
+        Map.Entry<Path, Long> e;
+        String signature;
+        while (i.hasNext()) {
+            e = i.next();
+            if (now-e.getValue() < quietPeriod) continue;
+            signature = getSignature(e.getKey());
+            if (signature == null) {
+                i.remove();
+                signatures.remove(e.getKey());
+            } else if (signature.equals(signatures.get(e.getKey()))) {
+                i.remove();
+                signatures.remove(e.getKey());
+                if (!signature.equals(delivered.get(e.getKey())))
+                    ready.put(e.getKey(), signature);
+            } else {
+                signatures.put(e.getKey(), signature);
+                e.setValue(now);
+            }
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if filesets are ready to be delivered,
+     * <code>false</code> otherwise.
+     *
+     * @return See above.
+     */
+    boolean hasReady() { return !ready.isEmpty(); }
+
+    /**
+     * Delivers the filesets ready, at most the specified number.
+     *
+     * @param size The maximum number of filesets.
+     * @param again Filled with the filesets of the batch already delivered
+     *              before, or <code>null</code>.
+     * @return See above.
+     */
+    List<File> nextBatch(int size, List<File> again)
+    {
+        List<File> batch = new ArrayList<File>();
+        Iterator<Map.Entry<Path, String>> i = ready.entrySet().iterator();
+        Map.Entry<Path, String> e;
+        while (i.hasNext() && batch.size() < size) {
+            e = i.next();
+            i.remove();
+            if (delivered.put(e.getKey(), e.getValue()) != null &&
+                    again != null)
+                again.add(e.getKey().toFile());
+            batch.add(e.getKey().toFile());
+        }
+        return batch;
+    }
+
+}
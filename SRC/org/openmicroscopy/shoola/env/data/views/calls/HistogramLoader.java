@@ -28,6 +28,7 @@ import omero.gateway.model.ImageData;
 
 import org.openmicroscopy.shoola.env.data.views.BatchCall;
 import org.openmicroscopy.shoola.env.data.views.BatchCallTree;
+import org.openmicroscopy.shoola.util.concur.tasks.CmdProcessor;
 
 /**
  * Loads the histogram data for a certain {@link ImageData}
@@ -84,4 +85,11 @@ public class HistogramLoader extends BatchCallTree {
         return result;
     }
 
+    /**
+     * Returns {@link CmdProcessor#INTERACTIVE} as
+     * the user is waiting for the result.
+     * @see BatchCallTree#getPriority()
+     */
+    protected int getPriority() { return CmdProcessor.INTERACTIVE; }
+
 }
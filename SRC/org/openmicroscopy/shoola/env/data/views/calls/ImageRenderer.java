@@ -31,6 +31,7 @@ import org.openmicroscopy.shoola.env.data.OmeroImageService;
 import omero.gateway.SecurityContext;
 import org.openmicroscopy.shoola.env.data.views.BatchCall;
 import org.openmicroscopy.shoola.env.data.views.BatchCallTree;
+import org.openmicroscopy.shoola.util.concur.tasks.CmdProcessor;
 
 /** 
  * Renders an image.s
@@ -94,6 +95,13 @@ public class ImageRenderer
      */
     protected Object getResult() { return result; }
 
+    /**
+     * Returns {@link CmdProcessor#INTERACTIVE} as
+     * the user is waiting for the result.
+     * @see BatchCallTree#getPriority()
+     */
+    protected int getPriority() { return CmdProcessor.INTERACTIVE; }
+
     /**
      * Creates a new instance.
      * 
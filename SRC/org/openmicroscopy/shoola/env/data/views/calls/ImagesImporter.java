@@ -22,10 +22,17 @@
  */
 package org.openmicroscopy.shoola.env.data.views.calls;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.openmicroscopy.shoola.env.LookupNames;
@@ -35,9 +42,14 @@ import org.openmicroscopy.shoola.env.data.model.ImportableFile;
 import org.openmicroscopy.shoola.env.data.model.ImportableObject;
 import org.openmicroscopy.shoola.env.data.views.BatchCall;
 import org.openmicroscopy.shoola.env.data.views.BatchCallTree;
+import org.openmicroscopy.shoola.util.concur.tasks.CmdProcessor;
 
 /** 
  * Command to import images in a container if specified.
+ * <p>If configured, several filesets are imported at the same time: while
+ * the result of a file is delivered, the next files are already being
+ * scanned and uploaded, and the server processes the filesets already
+ * uploaded. The results are delivered in the order of the files.</p>
  *
  * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
  * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
@@ -87,6 +99,34 @@ public class ImagesImporter
     /** The object hosting the information for the import. */
     private ImportableObject object;
 
+    /** The number of filesets imported at the same time. */
+    private int filesets;
+
+    /** The imports started, in the order of the files. */
+    private List<Future<Object>> pending;
+
+    /** Imports the files of all the importers. */
+    private static ExecutorService importer;
+
+    /**
+     * Returns the executor importing the files, creates it the first time.
+     *
+     * @return See above.
+     */
+    private static synchronized ExecutorService getImporter()
+    {
+        if (importer == null) {
+            importer = Executors.newCachedThreadPool(new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "FilesetImporter");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+        return importer;
+    }
+
     /**
      * Imports the file.
      *
@@ -106,6 +146,64 @@ public class ImagesImporter
         }
     }
 
+    /**
+     * Starts importing the files up to the specified one if not already
+     * started. The import is not closed, see {@link #deliver}.
+     *
+     * @param last The index of the last file to start.
+     */
+    private void submit(int last)
+    {
+        List<ImportableFile> files = object.getFiles();
+        last = Math.min(last, files.size()-1);
+        final OmeroImageService os = context.getImageService();
+        ExecutorService executor = getImporter();
+        while (pending.size() <= last) {
+            final ImportableFile f = files.get(pending.size());
+            pending.add(executor.submit(new Callable<Object>() {
+                public Object call() throws Exception {
+                    return os.importFile(object, f, false);
+                }
+            }));
+        }
+    }
+
+    /**
+     * Waits for the import of the specified file, starting the import of
+     * the next files. Closes the import after the last file.
+     *
+     * @param index The index of the file.
+     * @param importable The file.
+     * @param close <code>true</code> to close the import,
+     *        <code>false</code> otherwise.
+     * @throws InterruptedException If the call was cancelled.
+     */
+    private void deliver(int index, ImportableFile importable, boolean close)
+        throws InterruptedException
+    {
+        submit(index+filesets-1);
+        partialResult = new HashMap<>();
+        Object result;
+        try {
+            result = pending.get(index).get();
+        } catch (ExecutionException e) {
+            result = e.getCause();
+        } catch (InterruptedException e) {
+            for (int i = index; i < pending.size(); i++)
+                pending.get(i).cancel(true);
+            throw e;
+        }
+        partialResult.put(importable, result);
+        if (close) {
+            try {
+                context.getImageService().closeImport(importable);
+            } catch (Exception e) {
+                context.getLogger().error(this,
+                        "Cannot close the import: "+e.getMessage());
+            }
+        }
+    }
+
     /**
      * Adds the {@link #importFile} to the computation tree.
      *
@@ -115,6 +213,9 @@ public class ImagesImporter
     { 
         ImportableFile io;
         List<ImportableFile> files = object.getFiles();
+        Integer v = (Integer) context.lookup(LookupNames.IMPORT_FILESETS);
+        filesets = v == null ? 1 : Math.min(v.intValue(), files.size());
+        pending = new ArrayList<Future<Object>>();
         Iterator<ImportableFile> i = files.iterator();
         int index = 0;
         int n = files.size()-1;
@@ -122,10 +223,17 @@ public class ImagesImporter
             io = i.next();
             final ImportableFile f = io;
             final boolean b = index == n;
+            final int k = index;
             index++;
-            add(new BatchCall("Importing file") {
-                public void doCall() { importFile(f, b); }
-            }); 
+            if (filesets > 1) {
+                add(new BatchCall("Importing file") {
+                    public void doCall() throws Exception { deliver(k, f, b); }
+                });
+            } else {
+                add(new BatchCall("Importing file") {
+                    public void doCall() { importFile(f, b); }
+                });
+            }
         }
     }
 
@@ -146,6 +254,13 @@ public class ImagesImporter
      */
     protected Object getResult() { return null; }
 
+    /**
+     * Returns {@link CmdProcessor#BACKGROUND} as
+     * the result is not needed immediately.
+     * @see BatchCallTree#getPriority()
+     */
+    protected int getPriority() { return CmdProcessor.BACKGROUND; }
+
     /**
      * Creates a new instance. If bad arguments are passed, we throw a runtime
      * exception so to fail early and in the call.
@@ -35,6 +35,7 @@ import org.openmicroscopy.shoola.env.data.views.BatchCall;
 import org.openmicroscopy.shoola.env.data.views.BatchCallTree;
 
 import omero.gateway.model.DatasetData;
+import omero.gateway.model.ExperimenterData;
 import omero.gateway.model.ImageData;
 
 
@@ -127,6 +128,37 @@ public class ImagesLoader
         };
     }
     
+    /**
+     * Creates a {@link BatchCall} to retrieve a page of the images
+     * contained in the specified dataset or not contained in a dataset or
+     * a plate.
+     * 
+     * @param rootType The type of the root, either {@link DatasetData}
+     *                 or {@link ExperimenterData}.
+     * @param rootID The id of the dataset or of the user.
+     * @param offset The index of the first image to retrieve.
+     * @param limit The maximum number of images to retrieve.
+     * @param byDate Pass <code>true</code> to order the images by date,
+     *               <code>false</code> to order them by name.
+     * @return The {@link BatchCall}.
+     */
+    private BatchCall makePageBatchCall(final Class rootType,
+    		final long rootID, final int offset, final int limit,
+    		final boolean byDate)
+    {
+        return new BatchCall("Loading images: ") {
+            public void doCall() throws Exception
+            {
+                OmeroDataService os = context.getDataService();
+                if (DatasetData.class.equals(rootType))
+                    results = os.getImagesPage(ctx, rootID, offset, limit,
+                    		byDate);
+                else results = os.getOrphanedImagesPage(ctx, rootID, offset,
+                		limit, byDate);
+            }
+        };
+    }
+    
     /**
      * Creates a a {@link BatchCall} to retrieve images before or after
      * a given date depending on the passed parameter.
@@ -223,6 +255,36 @@ public class ImagesLoader
     	loadCall = makeBatchCall(startTime, endTime, userID);
     }
     
+    /**
+     * Creates a new instance. If bad arguments are passed, we throw a runtime
+	 * exception so to fail early and in the call.
+     * 
+     * @param ctx The security context.
+     * @param rootType The type of the root, either {@link DatasetData} to
+     *                 load the images of a dataset or
+     *                 {@link ExperimenterData} to load the images not
+     *                 contained in a dataset or a plate.
+     * @param rootID The id of the dataset or the id of the user,
+     *               <code>-1</code> to load the images of all the members
+     *               of the group.
+     * @param offset The index of the first image to retrieve.
+     * @param limit The maximum number of images to retrieve.
+     * @param byDate Pass <code>true</code> to order the images by date,
+     *               <code>false</code> to order them by name.
+     */
+    public ImagesLoader(SecurityContext ctx, Class rootType, long rootID,
+    		int offset, int limit, boolean byDate)
+    {
+        if (offset < 0 || limit <= 0)
+            throw new IllegalArgumentException("Page not valid.");
+        if (!DatasetData.class.equals(rootType) &&
+            !ExperimenterData.class.equals(rootType))
+            throw new IllegalArgumentException("Unsupported type: "+
+                    rootType);
+    	this.ctx = ctx;
+        loadCall = makePageBatchCall(rootType, rootID, offset, limit, byDate);
+    }
+    
     /** 
      * Creates a new instance. 
      * 
@@ -31,6 +31,7 @@ import org.openmicroscopy.shoola.env.data.OmeroImageService;
 import omero.gateway.SecurityContext;
 import org.openmicroscopy.shoola.env.data.views.BatchCall;
 import org.openmicroscopy.shoola.env.data.views.BatchCallTree;
+import org.openmicroscopy.shoola.util.concur.tasks.CmdProcessor;
 
 /** 
  * Renders the image with out without the overlays.
@@ -90,6 +91,13 @@ public class OverlaysRenderer
      */
     protected Object getResult() { return result; }
 
+    /**
+     * Returns {@link CmdProcessor#INTERACTIVE} as
+     * the user is waiting for the result.
+     * @see BatchCallTree#getPriority()
+     */
+    protected int getPriority() { return CmdProcessor.INTERACTIVE; }
+
     /**
      * Creates a new instance.
      *
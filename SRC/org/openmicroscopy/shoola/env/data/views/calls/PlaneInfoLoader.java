@@ -32,6 +32,7 @@ import org.openmicroscopy.shoola.env.data.OmeroImageService;
 import omero.gateway.SecurityContext;
 import org.openmicroscopy.shoola.env.data.views.BatchCall;
 import org.openmicroscopy.shoola.env.data.views.BatchCallTree;
+import org.openmicroscopy.shoola.util.concur.tasks.CmdProcessor;
 
 /** 
  * Loads the plane information related to a given pixels set.
@@ -91,6 +92,13 @@ public class PlaneInfoLoader
      * @see BatchCallTree#getResult()
      */
     protected Object getResult() { return result; }
+
+    /**
+     * Returns {@link CmdProcessor#INTERACTIVE} as
+     * the user is waiting for the result.
+     * @see BatchCallTree#getPriority()
+     */
+    protected int getPriority() { return CmdProcessor.INTERACTIVE; }
     
     /**
      * Creates a new instance.
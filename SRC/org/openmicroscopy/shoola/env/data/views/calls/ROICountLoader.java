@@ -27,6 +27,7 @@ import omero.gateway.facility.ROIFacility;
 
 import org.openmicroscopy.shoola.env.data.views.BatchCall;
 import org.openmicroscopy.shoola.env.data.views.BatchCallTree;
+import org.openmicroscopy.shoola.util.concur.tasks.CmdProcessor;
 
 /**
  * Loads the number of ROIs for a specific image
@@ -70,6 +71,13 @@ public class ROICountLoader extends BatchCallTree {
         return results;
     }
 
+    /**
+     * Returns {@link CmdProcessor#BACKGROUND} as
+     * the result is not needed immediately.
+     * @see BatchCallTree#getPriority()
+     */
+    protected int getPriority() { return CmdProcessor.BACKGROUND; }
+
     /**
      * Creates a new instance.
      * 
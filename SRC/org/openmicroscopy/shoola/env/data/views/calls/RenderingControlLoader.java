@@ -38,6 +38,7 @@ import omero.gateway.exception.DSOutOfServiceException;
 import org.openmicroscopy.shoola.env.data.views.BatchCall;
 import org.openmicroscopy.shoola.env.data.views.BatchCallTree;
 import org.openmicroscopy.shoola.env.rnd.RenderingControl;
+import org.openmicroscopy.shoola.util.concur.tasks.CmdProcessor;
 
 /** 
  * Command to retrieve the {@link RenderingControl}.
@@ -135,6 +136,13 @@ public class RenderingControlLoader
 	 */
 	protected Object getResult() { return result; }
 
+	/**
+	 * Returns {@link CmdProcessor#INTERACTIVE} as
+	 * the user is waiting for the result.
+	 * @see BatchCallTree#getPriority()
+	 */
+	protected int getPriority() { return CmdProcessor.INTERACTIVE; }
+
 	/**
 	 * Creates a new instance.
 	 * If bad arguments are passed, we throw a runtime exception so to fail
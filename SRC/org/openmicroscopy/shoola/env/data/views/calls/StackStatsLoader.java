@@ -0,0 +1,96 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2016-2017 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.data.views.calls;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.openmicroscopy.shoola.env.data.views.BatchCall;
+import org.openmicroscopy.shoola.env.data.views.BatchCallTree;
+import org.openmicroscopy.shoola.env.rnd.PixelsServicesFactory;
+import org.openmicroscopy.shoola.env.rnd.PlaneStats;
+import org.openmicroscopy.shoola.util.concur.tasks.CmdProcessor;
+
+/**
+ * Computes the statistics of the stacks of the specified channels from the
+ * raw planes loaded to render the image on the client.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+public class StackStatsLoader
+    extends BatchCallTree
+{
+
+    /** The call */
+    private BatchCall loadCall;
+
+    /**
+     * The result of the call, the statistics of the channels which could be
+     * computed, keyed by channel index.
+     */
+    private Map<Integer, PlaneStats> result;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param pixelsID The id of the pixels set.
+     * @param channels The channel indices.
+     * @param t The selected time-point.
+     */
+    public StackStatsLoader(final long pixelsID, final int[] channels,
+            final int t)
+    {
+        loadCall = new BatchCall("Computing the statistics of the stack") {
+            public void doCall() throws Exception {
+                result = new HashMap<Integer, PlaneStats>();
+                PlaneStats stats;
+                for (int c : channels) {
+                    stats = PixelsServicesFactory.getStackStats(context,
+                            pixelsID, t, c);
+                    if (stats != null && stats.hasValues())
+                        result.put(c, stats);
+                }
+            }
+        };
+    }
+
+    /**
+     * Adds the {@link #loadCall} to the computation tree.
+     * @see BatchCallTree#buildTree()
+     */
+    protected void buildTree() { add(loadCall); }
+
+    /**
+     * Returns the statistics keyed by channel index.
+     * @see BatchCallTree#getResult()
+     */
+    protected Object getResult() { return result; }
+
+    /**
+     * Returns {@link CmdProcessor#INTERACTIVE} as
+     * the user is waiting for the result.
+     * @see BatchCallTree#getPriority()
+     */
+    protected int getPriority() { return CmdProcessor.INTERACTIVE; }
+
+}
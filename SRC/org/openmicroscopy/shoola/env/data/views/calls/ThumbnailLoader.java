@@ -43,6 +43,7 @@ import org.openmicroscopy.shoola.util.image.geom.Factory;
 import org.openmicroscopy.shoola.util.image.io.EncoderException;
 import org.openmicroscopy.shoola.util.image.io.WriterImage;
 import org.openmicroscopy.shoola.util.ui.IconManager;
+import org.openmicroscopy.shoola.util.concur.tasks.CmdProcessor;
 
 import java.awt.Dimension;
 import java.awt.Image;
@@ -179,6 +180,13 @@ public class ThumbnailLoader extends BatchCallTree {
         return currentThumbnail;
     }
 
+    /**
+     * Returns {@link CmdProcessor#BACKGROUND} as
+     * the result is not needed immediately.
+     * @see BatchCallTree#getPriority()
+     */
+    protected int getPriority() { return CmdProcessor.BACKGROUND; }
+
     /**
      * Returns the lastly retrieved thumbnail.
      * This will be packed by the framework into a feedback event and
@@ -30,6 +30,11 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import org.openmicroscopy.shoola.env.LookupNames;
 import org.openmicroscopy.shoola.env.data.OmeroImageService;
@@ -42,6 +47,7 @@ import omero.gateway.exception.RenderingServiceException;
 import org.openmicroscopy.shoola.env.data.views.BatchCall;
 import org.openmicroscopy.shoola.env.data.views.BatchCallTree;
 import org.openmicroscopy.shoola.util.image.geom.Factory;
+import org.openmicroscopy.shoola.util.concur.tasks.CmdProcessor;
 
 import omero.gateway.model.DataObject;
 import omero.gateway.model.ExperimenterData;
@@ -53,6 +59,10 @@ import omero.gateway.model.PixelsData;
  * Command to load a given set of thumbnails.
  * <p>As thumbnails are retrieved from <i>OMERO</i>, they're posted back to the 
  * caller through <code>DSCallFeedbackEvent</code>s. </p>
+ * <p>The thumbnails are loaded by blocks. While a block is delivered, the
+ * next ones are already being loaded, each on its own thumbnail store, and
+ * decoded by the thread that loaded them. The blocks are delivered in the
+ * order of the collection passed to the constructor.</p>
  *
  * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
  * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
@@ -97,6 +107,15 @@ extends BatchCallTree
      */
     private static final double FETCH_MEDIUM_SPEED = 0.5;
 
+    /** The maximum number of blocks of thumbnails loaded at the same time. */
+    private static final int MAX_IN_FLIGHT = 6;
+
+    /** 
+     * The time, in milliseconds, below which a block is considered loaded
+     * quickly enough to load more blocks at the same time.
+     */
+    private static final long TARGET_LATENCY = 1000;
+
     /** Helper reference to the image service. */
     private OmeroImageService service;
 
@@ -124,6 +143,15 @@ extends BatchCallTree
     /** The security context.*/
     private SecurityContext ctx;
 
+    /** The blocks loaded or being loaded, in the order of delivery. */
+    private List<Future<Object[]>> pending;
+
+    /** The number of blocks loaded ahead of the one delivered. */
+    private int window = 2;
+
+    /** Loads the blocks of all the loaders. */
+    private static ExecutorService fetcher;
+
     /**
      * Creates a default thumbnail for the passed pixels set.
      * 
@@ -187,8 +215,9 @@ extends BatchCallTree
      * Loads the thumbnails for the passed collection of files.
      * 
      * @param files The collection of files to handle.
+     * @return The {@link ThumbnailData}s.
      */
-    private void loadFSThumbnails(List files)
+    private List loadFSThumbnails(List files)
     {
         List result = new ArrayList();
         try {
@@ -216,28 +245,28 @@ extends BatchCallTree
                 else 
                     result.add(new ThumbnailData(obj, thumb, valid));
             }
-            currentThumbs = result;
         } catch (Exception e) {
-            currentThumbs = result;
             context.getLogger().error(this, 
                     "Cannot retrieve thumbnail: "+e.getMessage());
         }
+        return result;
     }
 
     /**
      * Loads the thumbnails for the passed collection of experimenters.
      * 
      * @param experimenters The collection of experimenters to handle.
+     * @return The {@link ThumbnailData}s.
      */
-    private void loadExperimenterThumbnails(List experimenters)
+    private List loadExperimenterThumbnails(List experimenters)
     {
+        List result = new ArrayList();
         try {
             ExperimenterData exp = (ExperimenterData) context.lookup(
                     LookupNames.CURRENT_USER_DETAILS);
             Map<DataObject, BufferedImage> m = 
                     service.getExperimenterThumbnailSet(ctx, experimenters,
                             maxLength);
-            List result = new ArrayList();
             Entry<DataObject, BufferedImage> entry;
             Iterator<Entry<DataObject, BufferedImage>> i = m.entrySet().iterator();
             BufferedImage thumb;
@@ -255,11 +284,11 @@ extends BatchCallTree
                 else 
                     result.add(new ThumbnailData(obj, thumb, valid));
             }
-            currentThumbs = result;
         } catch (Exception e) {
             context.getLogger().error(this, 
                     "Cannot retrieve thumbnail: "+e.getMessage());
         }
+        return result;
     }
 
 
@@ -267,13 +296,14 @@ extends BatchCallTree
      * Loads the thumbnail for passed collection of pixels set.
      * 
      * @param ids The collection of pixels set id.
+     * @return The {@link ThumbnailData}s.
      */
-    private void loadThumbnails(List ids) 
+    private List loadThumbnails(List ids) 
     {
+        List<Object> result = new ArrayList<Object>();
         try {
             Map<Long, BufferedImage>
             m = service.getThumbnailSet(ctx, ids, maxLength);
-            List<Object> result = new ArrayList<Object>();
             Iterator<Long> i = m.keySet().iterator();
             long pixelsID;
             BufferedImage thumbPix;
@@ -297,12 +327,98 @@ extends BatchCallTree
                     result.add(new ThumbnailData(imageID, thumbPix,  valid));
                 }
             }
-            currentThumbs = result;
-
         } catch (RenderingServiceException e) {
             context.getLogger().error(this, 
                     "Cannot retrieve thumbnail: "+e.getExtendedMessage());
         }
+        return result;
+    }
+
+    /**
+     * Loads the thumbnails of the specified block.
+     * 
+     * @param ids The objects of the block.
+     * @return The {@link ThumbnailData}s.
+     */
+    private List load(List ids)
+    {
+        if (ImageData.class.equals(type)) return loadThumbnails(ids);
+        if (FileData.class.equals(type)) return loadFSThumbnails(ids);
+        if (ExperimenterData.class.equals(type))
+            return loadExperimenterThumbnails(ids);
+        return new ArrayList();
+    }
+
+    /**
+     * Returns the executor loading the blocks ahead of the one delivered.
+     * 
+     * @return See above.
+     */
+    private static synchronized ExecutorService getFetcher()
+    {
+        if (fetcher == null) {
+            fetcher = Executors.newFixedThreadPool(MAX_IN_FLIGHT,
+                    new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "ThumbnailFetcher");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+        return fetcher;
+    }
+
+    /**
+     * Starts loading the blocks up to the specified one if not already
+     * started.
+     * 
+     * @param last The index of the last block to start.
+     */
+    private void submit(int last)
+    {
+        last = Math.min(last, toHandle.size()-1);
+        ExecutorService executor = getFetcher();
+        while (pending.size() <= last) {
+            final List ids = toHandle.get(pending.size());
+            pending.add(executor.submit(new Callable<Object[]>() {
+                public Object[] call() {
+                    long start = System.currentTimeMillis();
+                    List result = load(ids);
+                    return new Object[] {result,
+                            System.currentTimeMillis()-start};
+                }
+            }));
+        }
+    }
+
+    /**
+     * Returns the thumbnails of the specified block, starting to load the
+     * next blocks. The number of blocks loaded ahead grows while the blocks
+     * are loaded quickly and shrinks when the server slows down.
+     * 
+     * @param index The index of the block.
+     * @return The {@link ThumbnailData}s.
+     * @throws Exception If the call was cancelled.
+     */
+    private List fetch(int index)
+        throws Exception
+    {
+        submit(index+window-1);
+        Object[] result;
+        try {
+            result = pending.get(index).get();
+        } catch (InterruptedException e) {
+            for (int i = index; i < pending.size(); i++)
+                pending.get(i).cancel(true);
+            throw e;
+        }
+        pending.set(index, null);
+        long latency = (Long) result[1];
+        if (latency < TARGET_LATENCY) window = Math.min(MAX_IN_FLIGHT,
+                window+1);
+        else if (latency > 2*TARGET_LATENCY) window = Math.max(1, window/2);
+        return (List) result[0];
     }
 
     /**
@@ -311,21 +427,13 @@ extends BatchCallTree
      */
     protected void buildTree()
     {
-        Iterator<List> i = toHandle.iterator();
         String description = "Loading collection of thumbnails";
-        List l;
-        while (i.hasNext()) {
-            l = i.next();
-            final List ids = l;
+        pending = new ArrayList<Future<Object[]>>();
+        for (int i = 0; i < toHandle.size(); i++) {
+            final int index = i;
             add(new BatchCall(description) {
-                public void doCall() { 
-                    if (ImageData.class.equals(type)) {
-                        loadThumbnails(ids);
-                    } else if (FileData.class.equals(type)) {
-                        loadFSThumbnails(ids);
-                    } else if (ExperimenterData.class.equals(type)) {
-                        loadExperimenterThumbnails(ids);
-                    }
+                public void doCall() throws Exception { 
+                    currentThumbs = fetch(index);
                 }
             });  
         }
@@ -349,6 +457,13 @@ extends BatchCallTree
      */
     protected Object getResult() { return null; }
 
+    /**
+     * Returns {@link CmdProcessor#BACKGROUND} as
+     * the result is not needed immediately.
+     * @see BatchCallTree#getPriority()
+     */
+    protected int getPriority() { return CmdProcessor.BACKGROUND; }
+
     /**
      * Creates a new instance.
      * 
@@ -24,24 +24,27 @@ package org.openmicroscopy.shoola.env.data.views.calls;
 
 
 //Java imports
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 
 //Third-party libraries
 
 //Application-internal dependencies
 import omero.romio.PlaneDef;
-import omero.romio.RegionDef;
 import omero.gateway.SecurityContext;
 import org.openmicroscopy.shoola.env.data.views.BatchCall;
 import org.openmicroscopy.shoola.env.data.views.BatchCallTree;
 import org.openmicroscopy.shoola.env.rnd.RenderingControl;
-import org.openmicroscopy.shoola.env.rnd.data.Region;
 import org.openmicroscopy.shoola.env.rnd.data.Tile;
-import org.openmicroscopy.shoola.util.image.geom.Factory;
+import org.openmicroscopy.shoola.util.concur.tasks.CmdProcessor;
 
 /** 
  * Loads the tiles.
+ * The tiles are rendered concurrently by the rendering engines associated
+ * to the passed rendering control and delivered as they are rendered.
  *
  * @author Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
  * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
@@ -60,7 +63,7 @@ public class TileLoader
     private Object	currentTile;
     
     /** The tiles.*/
-    private Collection<Tile> tiles;
+    private List<Tile> tiles;
 
     /** The plane to render.*/
     private PlaneDef pDef;
@@ -68,30 +71,26 @@ public class TileLoader
     /** The proxy to use.*/
     private RenderingControl proxy;
     
+    /** The tiles processed by the rendering engines.*/
+    private BlockingQueue<Tile> done;
+    
     /**
-     * Loads the tile.
+     * Waits for the next processed tile. The rendering of all the tiles
+     * is requested the first time this method is invoked.
+     * A tile cancelled before its image was set is not delivered.
      * 
-     * @param tile The tile to load.
+     * @throws InterruptedException If interrupted while waiting.
      */
-    private void loadTile(Tile tile) 
+    private void loadTile()
+    	throws InterruptedException
     {
-    	Region rt = tile.getRegion();
-    	try {
-    		PlaneDef def = new PlaneDef();
-    		def.slice = pDef.slice;
-    		def.stride = pDef.stride;
-    		def.x = pDef.x;
-    		def.y = pDef.y;
-    		def.z = pDef.z;
-    		def.t = pDef.t;
-    		def.region = new RegionDef(rt.getX(), rt.getY(),
-    				rt.getWidth(), rt.getHeight());
-    		tile.setImage(proxy.render(def));
-		} catch (Exception e) {
-			tile.setImage(Factory.createDefaultImageThumbnail(rt.getWidth(), 
-					rt.getHeight()));
-		}
-    	currentTile = tile;
+    	if (done == null) {
+    		done = new LinkedBlockingQueue<Tile>();
+    		proxy.renderTiles(pDef, tiles, done);
+    	}
+    	Tile tile = done.take();
+    	if (tile.isImageLoaded()) currentTile = tile;
+    	else currentTile = null;
     }
     
     /**
@@ -109,23 +108,26 @@ public class TileLoader
      * @see BatchCallTree#getResult()
      */
     protected Object getResult() { return null; }
+
+    /**
+     * Returns {@link CmdProcessor#INTERACTIVE} as
+     * the user is waiting for the result.
+     * @see BatchCallTree#getPriority()
+     */
+    protected int getPriority() { return CmdProcessor.INTERACTIVE; }
     
     /**
      * Adds a {@link BatchCall} to the tree for each tile to retrieve.
-     * The batch call simply invokes {@link #loadTile(Tile)}.
+     * The batch call simply invokes {@link #loadTile()}.
      * @see BatchCallTree#buildTree()
      */
     protected void buildTree()
     {
-    	Iterator<Tile> i = tiles.iterator();
     	String description = "Loading tiles";
-    	Tile tile;
-    	while (i.hasNext()) {
-			tile = i.next();
-			final Tile t = tile;
+    	for (int i = 0; i < tiles.size(); i++) {
 			add(new BatchCall(description) {
-        		public void doCall() { 
-        			loadTile(t);
+        		public void doCall() throws Exception { 
+        			loadTile();
         		}
         	});  
 		}
@@ -150,7 +152,7 @@ public class TileLoader
             throw new IllegalArgumentException("No tiles to load.");
         if (pDef == null)
         	 throw new IllegalArgumentException("No plane to render.");
-        this.tiles = tiles;
+        this.tiles = new ArrayList<Tile>(tiles);
         this.pDef = pDef;
         this.proxy = proxy;
     }
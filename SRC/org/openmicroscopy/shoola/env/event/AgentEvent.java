@@ -62,5 +62,16 @@ public abstract class AgentEvent
      * @return See above.
      */
     public Object getSource() { return source; }
+    
+    /**
+     * Returns the key used to coalesce the events delivered asynchronously
+     * or <code>null</code> if the event cannot be coalesced.
+     * An event waiting to be delivered is replaced by a more recent event
+     * of the same type with an equal key. Subclasses describing a state,
+     * e.g. the plane displayed, should override this method.
+     * 
+     * @return See above.
+     */
+    public Object getCoalescingKey() { return null; }
       
 }
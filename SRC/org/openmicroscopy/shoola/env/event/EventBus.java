@@ -67,6 +67,21 @@ public interface EventBus
 	 */     
     public void register(AgentEventListener  subscriber, Class<?> event);
     
+	/** 
+	 * Adds the subscriber to the List of the subscribers notified
+	 * asynchronously.
+	 * The subscriber is notified on the Swing event dispatching thread
+	 * after the event has been posted, so that the thread posting the event
+	 * doesn't wait for a subscriber doing heavy work e.g. repainting.
+	 * The events providing a {@link AgentEvent#getCoalescingKey() coalescing
+	 * key} are coalesced if the subscriber has not been notified yet of the
+	 * previous one.
+	 *
+	 * @param subscriber    AgentListener object to add.
+	 * @param event			a class. 
+	 */     
+    public void registerAsync(AgentEventListener  subscriber, Class<?> event);
+    
 	/** 
 	 * Removes the subscriber from the List.
 	 *
@@ -108,5 +123,13 @@ public interface EventBus
 	 *
 	 */ 
     public void post(AgentEvent e);
+    
+    /**
+     * Returns a summary of the number of events dispatched and of the time
+     * spent notifying the subscribers, per type of event.
+     * 
+     * @return See above.
+     */
+    public String getStatistics();
       
 }
\ No newline at end of file
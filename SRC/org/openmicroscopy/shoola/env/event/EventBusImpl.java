@@ -24,10 +24,18 @@
 package org.openmicroscopy.shoola.env.event;
 
 //Java imports
-import java.util.HashMap;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.swing.SwingUtilities;
 
 //Third-party libraries
 
@@ -38,7 +46,19 @@ import java.util.Map;
  * of the event propagation system. 
  * It maintains a de-multiplex table to 
  * keep track of what events have to be dispatched to which subscribers
- *
+ * <p>The bus can be used from any thread. The de-multiplex tables are
+ * copy-on-write so that dispatching never locks. Events are dispatched
+ * synchronously in the thread that posted them; an event posted while
+ * dispatching is queued up and dispatched, by the same thread, once the
+ * current event has been delivered to all its subscribers.</p>
+ * <p>Subscribers registered with <code>registerAsync</code> are notified
+ * later on the Swing event dispatching thread, so that the thread posting
+ * the event doesn't wait for them. Events delivered this way and providing
+ * a {@link AgentEvent#getCoalescingKey() coalescing key} are coalesced:
+ * if an event with the same type and key is still waiting to be delivered
+ * to a subscriber, it is replaced by the most recent one.</p>
+ * <p>The number of events dispatched and the time spent in the subscribers
+ * are collected for each event type.</p>
  *
  * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
  *              <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
@@ -55,42 +75,236 @@ class EventBusImpl
     implements EventBus
 {
     
-    /** Identifies the <code>IDLE</code> state. */
-	private static final int	IDLE = 0;
-	
-    /** Identifies the <code>DISPATCHING</code> state. */
-	private static final int	DISPATCHING = 1;
-	
-	/** Sequence of events to be dispatched. */
-    private LinkedList<AgentEvent> eventQueue;
+    /** The events to dispatch by a given thread. */
+    private static final class Dispatcher
+    {
+
+        /** Sequence of events to be dispatched. */
+        final Queue<AgentEvent> eventQueue = new ArrayDeque<AgentEvent>();
+
+        /** Flag indicating that the thread is dispatching an event. */
+        boolean dispatching;
+    }
+
+    /** An event waiting to be delivered asynchronously to a subscriber. */
+    private static final class Delivery
+    {
+
+        /** The subscriber to notify. */
+        final AgentEventListener listener;
+
+        /** The key used to coalesce the event or <code>null</code>. */
+        final List<Object> key;
+
+        /** The event to deliver. Guarded by <code>this</code>. */
+        private AgentEvent event;
+
+        /** Flag indicating that the event has been taken for delivery. */
+        private boolean taken;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param listener The subscriber to notify.
+         * @param event The event to deliver.
+         * @param key The key used to coalesce the event or <code>null</code>.
+         */
+        Delivery(AgentEventListener listener, AgentEvent event,
+                List<Object> key)
+        {
+            this.listener = listener;
+            this.event = event;
+            this.key = key;
+        }
+
+        /**
+         * Replaces the event to deliver. Returns <code>false</code> if the
+         * event has already been taken for delivery.
+         *
+         * @param e The new event.
+         * @return See above.
+         */
+        synchronized boolean replace(AgentEvent e)
+        {
+            if (taken) return false;
+            event = e;
+            return true;
+        }
+
+        /**
+         * Returns the event to deliver. The event cannot be replaced anymore.
+         *
+         * @return See above.
+         */
+        synchronized AgentEvent take()
+        {
+            taken = true;
+            return event;
+        }
+    }
+
+    /** The dispatching statistics of an event type. */
+    private static final class Timing
+    {
+
+        /** The number of notifications. */
+        final AtomicLong count = new AtomicLong();
+
+        /** The total time spent in the subscribers, in nanoseconds. */
+        final AtomicLong total = new AtomicLong();
+
+        /** The longest time spent in a subscriber, in nanoseconds. */
+        final AtomicLong max = new AtomicLong();
+
+        /**
+         * Records a notification.
+         *
+         * @param time The time spent in the subscriber, in nanoseconds.
+         */
+        void add(long time)
+        {
+            count.incrementAndGet();
+            total.addAndGet(time);
+            long m = max.get();
+            while (time > m && !max.compareAndSet(m, time))
+                m = max.get();
+        }
+    }
+
+    /** The events being dispatched by each thread. */
+    private final ThreadLocal<Dispatcher> dispatchers;
     
     /**
      * Keeps track of what events have to be dispatched to which subscribers. 
      * This is a map in which each key is an event class and the corresponding
-     * value is a linked lists containing all the subscribers for that event
-     * type.
+     * value is a list containing all the subscribers for that event type
+     * notified synchronously.
      */
-    private Map<Class<?>, LinkedList<AgentEventListener>> deMultiplexTable;
-    
-    /** Marks the current state. */
-    private int state;
-    
-    /** Dispatches the next event. */
-    private void dispatch()
+    private final Map<Class<?>, List<AgentEventListener>> deMultiplexTable;
+
+    /** Same as above for the subscribers notified asynchronously. */
+    private final Map<Class<?>, List<AgentEventListener>> asyncTable;
+
+    /** The events waiting to be delivered asynchronously. */
+    private final Queue<Delivery> deliveries;
+
+    /** The deliveries an event can still be coalesced with. */
+    private final Map<List<Object>, Delivery> coalescable;
+
+    /** Flag indicating that the delivery of the events has been scheduled. */
+    private final AtomicBoolean scheduled;
+
+    /** Delivers the events waiting on the event dispatching thread. */
+    private final Runnable deliverer;
+
+    /** The dispatching statistics of each event type. */
+    private final Map<Class<?>, Timing> timings;
+
+    /** The number of events coalesced. */
+    private final AtomicLong coalesced;
+
+    /**
+     * Notifies the subscriber and records the time spent.
+     *
+     * @param listener The subscriber to notify.
+     * @param e The event to deliver.
+     */
+    private void fire(AgentEventListener listener, AgentEvent e)
+    {
+        Class<?> eventType = e.getClass();
+        long start = System.nanoTime();
+        try {
+            listener.eventFired(e);
+        } finally {
+            Timing timing = timings.get(eventType);
+            if (timing == null) {
+                timing = new Timing();
+                Timing t = timings.putIfAbsent(eventType, timing);
+                if (t != null) timing = t;
+            }
+            timing.add(System.nanoTime()-start);
+        }
+    }
+
+    /** Schedules the delivery of the events waiting. */
+    private void schedule()
+    {
+        if (!deliveries.isEmpty() && scheduled.compareAndSet(false, true))
+            SwingUtilities.invokeLater(deliverer);
+    }
+
+    /**
+     * Queues the event for the specified subscriber. The event replaces
+     * the event waiting with the same type and coalescing key if any.
+     *
+     * @param listener The subscriber to notify.
+     * @param e The event to deliver.
+     */
+    private void enqueue(AgentEventListener listener, AgentEvent e)
+    {
+        Object value = e.getCoalescingKey();
+        List<Object> key = null;
+        if (value != null) {
+            key = Arrays.asList(listener, e.getClass(), value);
+            Delivery d = coalescable.get(key);
+            if (d != null && d.replace(e)) {
+                coalesced.incrementAndGet();
+                return;
+            }
+        }
+        Delivery d = new Delivery(listener, e, key);
+        if (key != null) coalescable.put(key, d);
+        deliveries.add(d);
+        schedule();
+    }
+
+    /**
+     * Delivers the events queued when the delivery was scheduled. The events
+     * queued while delivering are delivered next time.
+     */
+    private void deliver()
+    {
+        scheduled.set(false);
+        int n = deliveries.size();
+        Delivery d;
+        AgentEvent e;
+        try {
+            while (n-- > 0 && (d = deliveries.poll()) != null) {
+                e = d.take();
+                if (d.key != null) coalescable.remove(d.key, d);
+                fire(d.listener, e);
+            }
+        } finally {
+            schedule();
+        }
+    }
+
+    /**
+     * Dispatches the event.
+     *
+     * @param e The event to dispatch.
+     */
+    private void dispatch(AgentEvent e)
     {
-        //Grab the oldest event on the queue.
-        AgentEvent e = eventQueue.removeLast();
         Class<?> eventType = e.getClass();
-        LinkedList<AgentEventListener> 
-        evNotifList = deMultiplexTable.get(eventType);
+        List<AgentEventListener> evNotifList = deMultiplexTable.get(eventType);
+        Iterator<AgentEventListener> i;
+        AgentEventListener listener;
         if (evNotifList != null) {
-            Iterator<AgentEventListener> i = evNotifList.iterator();
-            AgentEventListener listener;
+            i = evNotifList.iterator();
             while (i.hasNext()) {
                 listener = i.next();
-                if (!listener.equals(e.getSource())) listener.eventFired(e);
+                if (!listener.equals(e.getSource())) fire(listener, e);
             }
         }  //else nobody registered for this event type.
+        evNotifList = asyncTable.get(eventType);
+        if (evNotifList != null) {
+            i = evNotifList.iterator();
+            while (i.hasNext()) {
+                listener = i.next();
+                if (!listener.equals(e.getSource())) enqueue(listener, e);
+            }
+        }
     }
     
     /** 
@@ -115,13 +329,69 @@ class EventBusImpl
         return b;
     }
     
+    /**
+     * Adds the subscriber to the specified table and removes it from the
+     * other one.
+     *
+     * @param subscriber The subscriber to add.
+     * @param eventType The type of event.
+     * @param table The table to add the subscriber to.
+     * @param other The table to remove the subscriber from.
+     */
+    private synchronized void register(AgentEventListener subscriber,
+            Class<?> eventType, Map<Class<?>, List<AgentEventListener>> table,
+            Map<Class<?>, List<AgentEventListener>> other)
+    {
+        if (subscriber == null)	
+            throw new NullPointerException("No subscriber.");
+        if (eventType == null)
+            throw new NullPointerException("No event type.");
+        if (!verifyInheritance(eventType)) return;
+        remove(subscriber, eventType, other);
+        List<AgentEventListener> evNotifList = table.get(eventType);
+        if (evNotifList == null) {	
+            evNotifList = new CopyOnWriteArrayList<AgentEventListener>();
+            table.put(eventType, evNotifList);
+        } 
+        if (!evNotifList.contains(subscriber))	
+            evNotifList.add(subscriber);
+    }
+
+    /**
+     * Removes the subscriber from the specified table.
+     *
+     * @param subscriber The subscriber to remove.
+     * @param eventType The type of event.
+     * @param table The table to remove the subscriber from.
+     */
+    private synchronized void remove(AgentEventListener subscriber,
+            Class<?> eventType, Map<Class<?>, List<AgentEventListener>> table)
+    {
+        List<AgentEventListener> evNotifList = table.get(eventType);
+        if (evNotifList != null) {
+            evNotifList.remove(subscriber);
+            if (evNotifList.isEmpty()) table.remove(eventType);
+        }
+    }
+
 	/** Creates a new instance. */
     EventBusImpl()
     {
-        eventQueue = new LinkedList<AgentEvent>();
+        dispatchers = new ThreadLocal<Dispatcher>() {
+            protected Dispatcher initialValue() { return new Dispatcher(); }
+        };
         deMultiplexTable = 
-        	new HashMap<Class<?>, LinkedList<AgentEventListener>>();
-        state = IDLE;
+            new ConcurrentHashMap<Class<?>, List<AgentEventListener>>();
+        asyncTable =
+            new ConcurrentHashMap<Class<?>, List<AgentEventListener>>();
+        deliveries = new ConcurrentLinkedQueue<Delivery>();
+        coalescable = new ConcurrentHashMap<List<Object>, Delivery>();
+        scheduled = new AtomicBoolean();
+        deliverer = new Runnable() {
+            public void run() { deliver(); }
+        };
+        timings = new ConcurrentHashMap<Class<?>, Timing>();
+        coalesced = new AtomicLong();
     }
     
 	/** 
@@ -142,21 +412,18 @@ class EventBusImpl
      */    
     public void register(AgentEventListener subscriber, Class<?> eventType)
     {
-    	if (subscriber == null)	
-    		throw new NullPointerException("No subscriber.");
-    	if (eventType == null)
-			throw new NullPointerException("No event type.");
-    	if (verifyInheritance(eventType)) { 
-        	LinkedList<AgentEventListener> evNotifList = 
-        		deMultiplexTable.get(eventType);
-            if (evNotifList == null) {	
-            	evNotifList = new LinkedList<AgentEventListener>();
-				deMultiplexTable.put(eventType, evNotifList);
-            } 
-            if (!evNotifList.contains(subscriber))	
-            	evNotifList.add(subscriber);
-        }     
+        register(subscriber, eventType, deMultiplexTable, asyncTable);
     } 
+
+    /** 
+     * Implemented as specified by {@link EventBus}. 
+     * @see EventBus#registerAsync(AgentEventListener, Class)
+     */    
+    public void registerAsync(AgentEventListener subscriber,
+            Class<?> eventType)
+    {
+        register(subscriber, eventType, asyncTable, deMultiplexTable);
+    }
     
 	/** 
      * Implemented as specified by {@link EventBus}. 
@@ -168,12 +435,8 @@ class EventBusImpl
 			throw new NullPointerException("No subscriber.");
 		if (eventType == null)
 			throw new NullPointerException("No event type.");
-		LinkedList<AgentEventListener> 
-		evNotifList = deMultiplexTable.get(eventType);
-		if (evNotifList != null) {
-			evNotifList.remove(subscriber);
-			if (evNotifList.isEmpty())	deMultiplexTable.remove(eventType);
-		}
+		remove(subscriber, eventType, deMultiplexTable);
+		remove(subscriber, eventType, asyncTable);
 	}
 	
     /** 
@@ -197,6 +460,9 @@ class EventBusImpl
         Iterator<Class<?>> e = deMultiplexTable.keySet().iterator();
         while (e.hasNext())	
         	remove(subscriber, e.next());
+        e = asyncTable.keySet().iterator();
+        while (e.hasNext())
+            remove(subscriber, e.next());
     }
     
     /** 
@@ -205,7 +471,8 @@ class EventBusImpl
      */ 
     public boolean hasListenerFor(Class<?> eventType)
     {
-        return (deMultiplexTable.get(eventType) != null);
+        return deMultiplexTable.get(eventType) != null ||
+                asyncTable.get(eventType) != null;
     }
     
     /** 
@@ -215,16 +482,43 @@ class EventBusImpl
     public void post(AgentEvent e)
     {
         if (e == null)	throw new NullPointerException("No event.");
-        switch (state) {
-            case IDLE:
-                state = DISPATCHING;
-                eventQueue.addFirst(e);
-                while (!eventQueue.isEmpty())	dispatch();
-                state = IDLE;
-                break;
-            case DISPATCHING:
-                eventQueue.addFirst(e);
+        Dispatcher d = dispatchers.get();
+        d.eventQueue.add(e);
+        if (d.dispatching) return;
+        d.dispatching = true;
+        try {
+            while (!d.eventQueue.isEmpty())
+                dispatch(d.eventQueue.poll());
+        } finally {
+            //Do not deliver the events posted by a failing subscriber later.
+            d.eventQueue.clear();
+            d.dispatching = false;
+        }
+    }
+
+    /** 
+     * Implemented as specified by {@link EventBus}. 
+     * @see EventBus#getStatistics()
+     */ 
+    public String getStatistics()
+    {
+        StringBuffer buf = new StringBuffer();
+        buf.append("Event bus coalesced="+coalesced.get());
+        Iterator<Map.Entry<Class<?>, Timing>> i = timings.entrySet().iterator();
+        Map.Entry<Class<?>, Timing> entry;
+        Timing timing;
+        long n;
+        while (i.hasNext()) {
+            entry = i.next();
+            timing = entry.getValue();
+            n = timing.count.get();
+            buf.append("\n"+entry.getKey().getSimpleName());
+            buf.append(": notified="+n);
+            if (n > 0)
+                buf.append(" avg(ms)="+(timing.total.get()/n/1000000.0));
+            buf.append(" max(ms)="+(timing.max.get()/1000000.0));
         }
+        return buf.toString();
     }
 
 }
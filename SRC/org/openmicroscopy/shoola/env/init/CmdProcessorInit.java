@@ -27,16 +27,22 @@ package org.openmicroscopy.shoola.env.init;
 //Java imports
 
 //Third-party libraries
+import omero.log.LogMessage;
+import omero.log.Logger;
 
 //Application-internal dependencies
 import org.openmicroscopy.shoola.env.LookupNames;
 import org.openmicroscopy.shoola.env.config.Registry;
 import org.openmicroscopy.shoola.util.concur.tasks.AsyncProcessor;
 import org.openmicroscopy.shoola.util.concur.tasks.CmdProcessor;
+import org.openmicroscopy.shoola.util.concur.tasks.PooledProcessor;
+import org.openmicroscopy.shoola.util.concur.tasks.UncaughtExcHandler;
 
 /** 
  * This task intializes the {@link CmdProcessor} the container will use
  * for asyncrhonous operations.
+ * The processor is a {@link PooledProcessor} if the configuration requests
+ * it, an {@link AsyncProcessor} otherwise.
  *
  * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
  * 				<a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
@@ -53,6 +59,9 @@ public final class CmdProcessorInit
     extends InitializationTask
 {
     
+    /** The value identifying the {@link PooledProcessor}. */
+    private static final String POOLED = "pooled";
+
     /** Constructor required by superclass. */
     CmdProcessorInit() {}
 
@@ -74,9 +83,29 @@ public final class CmdProcessorInit
      */
     void execute()
     {
-        //TODO: What processor to use should be externalized in cfg.
-        CmdProcessor processor = new AsyncProcessor();
         Registry reg = container.getRegistry();
+        CmdProcessor processor;
+        Object type = reg.lookup(LookupNames.CMD_PROCESSOR_TYPE);
+        if (POOLED.equals(type)) {
+            int threads = Runtime.getRuntime().availableProcessors();
+            Integer v = (Integer) reg.lookup(LookupNames.CMD_PROCESSOR_THREADS);
+            if (v != null && v.intValue() > 0) threads = v.intValue();
+            int max = threads;
+            v = (Integer) reg.lookup(LookupNames.CMD_PROCESSOR_MAX_THREADS);
+            if (v != null) max = v.intValue();
+            Boolean b = (Boolean) reg.lookup(LookupNames.CMD_PROCESSOR_VIRTUAL);
+            final Logger logger = reg.getLogger();
+            UncaughtExcHandler handler = new UncaughtExcHandler() {
+                public void handle(Throwable t) {
+                    LogMessage msg = new LogMessage();
+                    msg.print("Uncaught exception while executing a call.");
+                    msg.print(t);
+                    logger.error(CmdProcessorInit.this, msg);
+                }
+            };
+            processor = new PooledProcessor(threads, max,
+                    b != null && b.booleanValue(), handler);
+        } else processor = new AsyncProcessor();
         reg.bind(LookupNames.CMD_PROCESSOR, processor);
     }
 
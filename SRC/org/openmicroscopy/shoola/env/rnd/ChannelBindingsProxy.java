@@ -25,6 +25,7 @@ package org.openmicroscopy.shoola.env.rnd;
 
 
 //Java imports
+import java.util.Arrays;
 
 //Third-party libraries
 
@@ -242,6 +243,30 @@ class ChannelBindingsProxy
     	return copy;
     }
 
+    /**
+     * Returns the values used to render the channel, written out in full so
+     * that two channels rendered differently never have the same key.
+     * 
+     * @return See above.
+     */
+    String getSettingsKey()
+    {
+        StringBuffer buf = new StringBuffer();
+        buf.append(active ? 1 : 0);
+        buf.append(',').append(inputStart);
+        buf.append(',').append(inputEnd);
+        buf.append(',').append(Arrays.toString(rgba));
+        buf.append(',').append(curveCoefficient);
+        buf.append(',').append(family == null ? -1 : family.length());
+        buf.append(':').append(family);
+        buf.append(',').append(noiseReduction ? 1 : 0);
+        buf.append(',').append(lookupTable == null ? -1 :
+            lookupTable.length());
+        buf.append(':').append(lookupTable);
+        buf.append(',').append(revInt ? 1 : 0);
+        return buf.toString();
+    }
+
     /**
      * Get the lookup table
      * 
@@ -0,0 +1,163 @@
+/*
+ * org.openmicroscopy.shoola.env.rnd.ChannelSplitter
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.rnd;
+
+//Java imports
+
+//Third-party libraries
+
+//Application-internal dependencies
+
+/**
+ * Builds the images of the split view from the quantized intensities of
+ * the channels.
+ * Up to three channels are rendered at once by the server, each one in
+ * a band of a packed RGB plane. The intensities of each channel are then
+ * extracted from its band and turned into a grey or coloured image, the
+ * coloured images being added to obtain the combined image.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+class ChannelSplitter
+{
+
+    /** The number of channels rendered at once. */
+    static final int BANDS = 3;
+
+    /** The opaque alpha value of a packed pixel. */
+    private static final int OPAQUE = 0xFF000000;
+
+    /** Half of the unit of the fixed point values, used to round. */
+    private static final int HALF = 1 << 15;
+
+    /**
+     * Returns the color, as RGBA components, to set to a channel so that
+     * its intensities are rendered in the specified band.
+     *
+     * @param band The band, <code>0</code> for red, <code>1</code> for green
+     *             and <code>2</code> for blue.
+     * @return See above.
+     */
+    static int[] getBandColor(int band)
+    {
+        int[] rgba = {0, 0, 0, 255};
+        rgba[band] = 255;
+        return rgba;
+    }
+
+    /**
+     * Extracts the values of the specified band of the packed pixels.
+     *
+     * @param packed The packed RGB pixels.
+     * @param band The band, <code>0</code> for red, <code>1</code> for green
+     *             and <code>2</code> for blue.
+     * @return See above.
+     */
+    static int[] extractBand(int[] packed, int band)
+    {
+        int shift = 8*(BANDS-1-band);
+        int[] values = new int[packed.length];
+        for (int i = 0; i < packed.length; i++)
+            values[i] = (packed[i] >> shift) & 0xFF;
+        return values;
+    }
+
+    /**
+     * Returns the packed pixels of the grey image of the intensities.
+     *
+     * @param values The intensities, between <code>0</code> and
+     *               <code>255</code>.
+     * @return See above.
+     */
+    static int[] toGrey(int[] values)
+    {
+        int[] packed = new int[values.length];
+        int v;
+        for (int i = 0; i < values.length; i++) {
+            v = values[i];
+            packed[i] = OPAQUE | (v << 16) | (v << 8) | v;
+        }
+        return packed;
+    }
+
+    /**
+     * Returns the fixed point factor of the component weighted by the alpha.
+     *
+     * @param component The color component.
+     * @param alpha The alpha component.
+     * @return See above.
+     */
+    static int scale(int component, int alpha)
+    {
+        return (int) (((long) component*alpha << 16)/(255*255));
+    }
+
+    /**
+     * Returns the packed pixels of the intensities rendered with the
+     * specified color, the same way the server does in the RGB model.
+     *
+     * @param values The intensities, between <code>0</code> and
+     *               <code>255</code>.
+     * @param rgba The color of the channel.
+     * @return See above.
+     */
+    static int[] toColor(int[] values, int[] rgba)
+    {
+        //Premultiply the components by the alpha as 16.16 fixed point
+        //so that the loop only does integer multiplications.
+        int r = scale(rgba[0], rgba[3]);
+        int g = scale(rgba[1], rgba[3]);
+        int b = scale(rgba[2], rgba[3]);
+        int[] packed = new int[values.length];
+        int v;
+        for (int i = 0; i < values.length; i++) {
+            v = values[i];
+            packed[i] = OPAQUE | (((v*r+HALF) >> 16) << 16) |
+                    (((v*g+HALF) >> 16) << 8) | ((v*b+HALF) >> 16);
+        }
+        return packed;
+    }
+
+    /**
+     * Adds the packed pixels to the specified ones band by band, clamping
+     * the values.
+     *
+     * @param sum The pixels to add to.
+     * @param packed The pixels to add.
+     */
+    static void add(int[] sum, int[] packed)
+    {
+        int s, p, r, g, b;
+        for (int i = 0; i < sum.length; i++) {
+            s = sum[i];
+            p = packed[i];
+            r = Math.min(255, ((s >> 16) & 0xFF)+((p >> 16) & 0xFF));
+            g = Math.min(255, ((s >> 8) & 0xFF)+((p >> 8) & 0xFF));
+            b = Math.min(255, (s & 0xFF)+(p & 0xFF));
+            sum[i] = OPAQUE | (r << 16) | (g << 8) | b;
+        }
+    }
+
+}
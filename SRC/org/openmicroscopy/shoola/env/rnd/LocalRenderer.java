@@ -0,0 +1,760 @@
+/*
+ * org.openmicroscopy.shoola.env.rnd.LocalRenderer
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.rnd;
+
+//Java imports
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Third-party libraries
+
+//Application-internal dependencies
+import omero.romio.PlaneDef;
+
+/**
+ * Renders the XY planes on the client from their raw values so that
+ * modifying the rendering settings, e.g. dragging the slider of a channel
+ * window, does not require a call to the server.
+ * <p>The raw planes are loaded once, in a background thread, and kept in a
+ * cache whose size is bounded by a {@link MemoryBudget} shared by all the
+ * images. The planes are kept in the width of the pixels type, see
+ * {@link RawPlane}. A plane that does not fit in the budget is rendered
+ * by the server and not loaded again until the budget has room for it.
+ * A plane is only rendered locally if the
+ * raw planes of all its active channels are in the cache and the settings
+ * can be applied on the client, i.e. no active channel uses a lookup table
+ * or the noise reduction. Otherwise <code>null</code> is returned so that
+ * the plane is rendered by the server, and the missing raw planes are
+ * loaded for the next time.</p>
+ * <p>When a projection is requested, the z-stacks of the projected
+ * channels are streamed into {@link StackBuffer}s whose total size, across
+ * all the images, is bounded. The XY planes are read from the stacks
+ * already streamed, but rendering an XY plane does not stream a stack.
+ * The XZ and ZY planes are always rendered by the server.</p>
+ * <p>The projections along the z-axis are computed from the complete stacks,
+ * or from the raw planes if they are all cached, by {@link ProjectionTask}s
+ * run across the channels and the rows, then rendered as a plane.</p>
+ * <p>The rows of the plane are rendered concurrently by a pool shared by
+ * all the images.</p>
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+class LocalRenderer
+{
+
+    /** The minimum number of rows rendered by a task. */
+    private static final int MIN_ROWS = 64;
+
+    /** The number of threads used to render a plane. */
+    private static final int THREADS =
+            Math.max(1, Runtime.getRuntime().availableProcessors());
+
+    /** The pool rendering the rows, shared by all the images. */
+    private static ExecutorService renderPool;
+
+    /** The pool computing the projections, shared by all the images. */
+    private static ForkJoinPool projectionPool;
+
+    /** The proxy the planes are rendered for. */
+    private final RenderingControlProxy master;
+
+    /** The number of pixels along the x-axis. */
+    private final int sizeX;
+
+    /** The number of pixels along the y-axis. */
+    private final int sizeY;
+
+    /** The number of z-sections. */
+    private final int sizeZ;
+
+    /** The type of the pixels. */
+    private final String pixelsType;
+
+    /** The raw planes, the least recently used first. */
+    private final Map<String, RawPlane> planes;
+
+    /** The raw planes being loaded. */
+    private final Set<String> loading;
+
+    /** The raw planes loaded that did not fit in the budget. */
+    private final Set<String> rejected;
+
+    /** The number of bytes of a raw plane. */
+    private final long planeSize;
+
+    /** The maximum number of bytes written at a time into a stack. */
+    private final int blockSize;
+
+    /** The streamed stacks, the least recently used first. */
+    private final Map<String, StackBuffer> stacks;
+
+    /** The number of bytes used by the stacks of this image. */
+    private long stackUsed;
+
+    /** Loads the raw planes. */
+    private final ExecutorService loader;
+
+    /** The number of bytes used by the raw planes of this image. */
+    private long used;
+
+    /** The number of planes rendered locally. */
+    private final AtomicLong rendered;
+
+    /** The number of planes left to the server. */
+    private final AtomicLong delegated;
+
+    /** The number of raw planes loaded. */
+    private final AtomicLong loaded;
+
+    /** The number of raw planes removed from the cache. */
+    private final AtomicLong evicted;
+
+    /** The number of stacks streamed. */
+    private final AtomicLong streamed;
+
+    /** The number of projections rendered locally. */
+    private final AtomicLong projected;
+
+    /**
+     * Returns the pool rendering the rows, creates it the first time.
+     *
+     * @return See above.
+     */
+    private static synchronized ExecutorService getRenderPool()
+    {
+        if (renderPool == null) {
+            renderPool = Executors.newFixedThreadPool(THREADS,
+                    new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "LocalRenderer");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+        return renderPool;
+    }
+
+    /**
+     * Returns the pool computing the projections, creates it the first time.
+     *
+     * @return See above.
+     */
+    private static synchronized ForkJoinPool getProjectionPool()
+    {
+        if (projectionPool == null)
+            projectionPool = new ForkJoinPool(THREADS);
+        return projectionPool;
+    }
+
+    /**
+     * Returns the key identifying the raw plane.
+     *
+     * @param z The selected z-section.
+     * @param t The selected time-point.
+     * @param c The selected channel.
+     * @return See above.
+     */
+    private static String createKey(int z, int t, int c)
+    {
+        return z+"/"+t+"/"+c;
+    }
+
+    /**
+     * Returns the raw plane if cached, <code>null</code> otherwise.
+     *
+     * @param key The key identifying the plane.
+     * @return See above.
+     */
+    private synchronized RawPlane getPlane(String key)
+    {
+        return planes.get(key);
+    }
+
+    /**
+     * Caches the raw plane, removing the least recently used planes of the
+     * image if the shared budget is exhausted. The plane is not cached if
+     * the budget is used by the other images, it is then rejected so that
+     * it is not loaded again while the budget has no room for it.
+     *
+     * @param key The key identifying the plane.
+     * @param values The raw values.
+     */
+    private synchronized void putPlane(String key, RawPlane values)
+    {
+        loading.remove(key);
+        if (loader.isShutdown()) return;
+        long size = values.getSize();
+        MemoryBudget budget = MemoryBudget.PLANES;
+        Iterator<RawPlane> i = planes.values().iterator();
+        long n;
+        while (!budget.reserve(size)) {
+            if (!i.hasNext()) {
+                rejected.add(key);
+                return;
+            }
+            n = i.next().getSize();
+            i.remove();
+            used -= n;
+            budget.release(n);
+            evicted.incrementAndGet();
+        }
+        rejected.remove(key);
+        RawPlane old = planes.put(key, values);
+        used += size;
+        if (old != null) {
+            used -= old.getSize();
+            budget.release(old.getSize());
+        }
+    }
+
+    /**
+     * Returns the stack of the specified channel, starts streaming it if
+     * requested. Returns <code>null</code> if the stack is not streamed or
+     * does not fit in the buffers.
+     *
+     * @param t The selected time-point.
+     * @param c The selected channel.
+     * @param create Pass <code>true</code> to stream the stack if not
+     *               already streamed, <code>false</code> otherwise.
+     * @return See above.
+     */
+    private synchronized StackBuffer getStack(int t, int c, boolean create)
+    {
+        String key = t+"/"+c;
+        StackBuffer stack = stacks.get(key);
+        if (stack != null && stack.isFailed()) {
+            stacks.remove(key);
+            stackUsed -= stack.getSize();
+            MemoryBudget.STACKS.release(stack.getSize());
+            stack.dispose();
+            stack = null;
+        }
+        if (stack != null || !create || loader.isShutdown()) return stack;
+        long size = (long) sizeX*sizeY*sizeZ*
+                StackBuffer.getBytesPerPixel(pixelsType);
+        if (size > Integer.MAX_VALUE) return null;
+        MemoryBudget budget = MemoryBudget.STACKS;
+        Iterator<StackBuffer> i = stacks.values().iterator();
+        StackBuffer s;
+        while (!budget.reserve(size)) {
+            if (!i.hasNext()) return null;
+            s = i.next();
+            stackUsed -= s.getSize();
+            budget.release(s.getSize());
+            s.dispose();
+            i.remove();
+        }
+        stack = new StackBuffer(master, t, c, sizeX, sizeY, sizeZ,
+                pixelsType, blockSize);
+        stacks.put(key, stack);
+        stackUsed += size;
+        streamed.incrementAndGet();
+        return stack;
+    }
+
+    /**
+     * Returns the raw values of the specified channel in the plane,
+     * <code>null</code> if not available yet. The values are read from
+     * the stack if already streamed, otherwise the raw plane is loaded.
+     *
+     * @param pDef The plane to render.
+     * @param c The selected channel.
+     * @return See above.
+     */
+    private RawPlane getValues(PlaneDef pDef, int c)
+    {
+        String key = createKey(pDef.z, pDef.t, c);
+        RawPlane plane = getPlane(key);
+        if (plane != null) return plane;
+        StackBuffer stack = getStack(pDef.t, c, false);
+        if (stack != null) plane = stack.getRawPlane(pDef.z, 0);
+        if (plane != null) putPlane(key, plane);
+        else load(pDef.z, pDef.t, c);
+        return plane;
+    }
+
+    /**
+     * Loads the raw plane in the background if not already cached or
+     * being loaded. A plane rejected is only loaded again if the budget
+     * has room for it.
+     *
+     * @param z The selected z-section.
+     * @param t The selected time-point.
+     * @param c The selected channel.
+     */
+    private synchronized void load(final int z, final int t, final int c)
+    {
+        final String key = createKey(z, t, c);
+        if (planes.containsKey(key) || loading.contains(key) ||
+                loader.isShutdown())
+            return;
+        if (rejected.contains(key) &&
+                !MemoryBudget.PLANES.isAvailable(planeSize))
+            return;
+        loading.add(key);
+        loader.submit(new Runnable() {
+            public void run() {
+                RawPlane values = null;
+                try {
+                    values = RawPlane.decode(
+                            master.loadRawPlane(z, t, c), pixelsType,
+                            sizeX*sizeY);
+                } catch (Exception e) {
+                    master.logLocalRendering("Cannot load the raw plane z="+
+                            z+" t="+t+" c="+c+": "+e);
+                }
+                if (values != null) {
+                    putPlane(key, values);
+                    loaded.incrementAndGet();
+                    master.computeStats(z, t, c, values);
+                } else {
+                    synchronized (LocalRenderer.this) {
+                        loading.remove(key);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the indexes of the active channels or <code>null</code> if the
+     * settings of an active channel cannot be applied on the client.
+     *
+     * @param def The settings.
+     * @return See above.
+     */
+    private List<Integer> getRenderableChannels(RndProxyDef def)
+    {
+        List<Integer> channels = new ArrayList<Integer>();
+        ChannelBindingsProxy cb;
+        for (int i = 0; i < def.getNumberOfChannels(); i++) {
+            cb = def.getChannel(i);
+            if (cb == null || !cb.isActive()) continue;
+            if (!isRenderable(cb)) return null;
+            channels.add(i);
+        }
+        return channels;
+    }
+
+    /**
+     * Returns <code>true</code> if the settings of the channel can be
+     * applied on the client, <code>false</code> otherwise.
+     *
+     * @param cb The settings of the channel.
+     * @return See above.
+     */
+    private boolean isRenderable(ChannelBindingsProxy cb)
+    {
+        return cb != null && cb.getLookupTable() == null &&
+                !cb.isNoiseReduction() &&
+                RawPlaneRenderer.getFamily(cb.getFamily()) >= 0;
+    }
+
+    /**
+     * Renders the rows of the plane concurrently, returns <code>null</code>
+     * if an error occurred.
+     *
+     * @param renderer The renderer initialized with the channels.
+     * @param width The number of pixels of a row.
+     * @param height The number of rows.
+     * @return See above.
+     */
+    private int[] render(final RawPlaneRenderer renderer, int width,
+            int height)
+    {
+        final int[] dst = new int[width*height];
+        int tasks = Math.max(1, Math.min(THREADS, height/MIN_ROWS));
+        int rows = (height+tasks-1)/tasks;
+        List<Callable<Object>> l = new ArrayList<Callable<Object>>(tasks);
+        for (int from = 0; from < height; from += rows) {
+            final int start = from;
+            final int end = Math.min(from+rows, height);
+            l.add(new Callable<Object>() {
+                public Object call() {
+                    renderer.render(dst, start, end);
+                    return null;
+                }
+            });
+        }
+        try {
+            if (l.size() == 1) l.get(0).call();
+            else {
+                for (Future<Object> f : getRenderPool().invokeAll(l))
+                    f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            master.logLocalRendering("Cannot render the plane locally: "+e);
+            return null;
+        }
+        return dst;
+    }
+
+    /**
+     * Creates the task projecting the specified channel, returns
+     * <code>null</code> if the z-sections are not all available. The values
+     * are read from the stack if complete, otherwise from the cached raw
+     * planes. The missing raw planes are loaded if the stack is not
+     * streamed.
+     *
+     * @param type The type of projection.
+     * @param zs The z-sections to project.
+     * @param t The selected time-point.
+     * @param c The selected channel.
+     * @param dst The projected values.
+     * @return See above.
+     */
+    private ProjectionTask createProjection(int type, int[] zs, int t, int c,
+            double[] dst)
+    {
+        StackBuffer stack = getStack(t, c, true);
+        if (stack != null && stack.isComplete())
+            return new ProjectionTask(type, sizeX, zs, stack, null, dst, 0,
+                    sizeY);
+        RawPlane[] values = new RawPlane[zs.length];
+        boolean missing = false;
+        for (int k = 0; k < zs.length; k++) {
+            values[k] = getPlane(createKey(zs[k], t, c));
+            if (values[k] != null) continue;
+            missing = true;
+            if (stack == null) load(zs[k], t, c);
+        }
+        if (missing) return null;
+        return new ProjectionTask(type, sizeX, zs, null, values, dst, 0,
+                sizeY);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param master The proxy the planes are rendered for.
+     *               Mustn't be <code>null</code>.
+     * @param sizeX The number of pixels along the x-axis.
+     * @param sizeY The number of pixels along the y-axis.
+     * @param sizeZ The number of z-sections.
+     * @param pixelsType The type of the pixels.
+     * @param blockSize The maximum number of bytes written at a time
+     *                  into a stack.
+     */
+    LocalRenderer(RenderingControlProxy master, int sizeX, int sizeY,
+            int sizeZ, String pixelsType, int blockSize)
+    {
+        if (master == null)
+            throw new NullPointerException("No proxy to render for.");
+        this.master = master;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.pixelsType = pixelsType;
+        this.blockSize = blockSize;
+        stacks = new LinkedHashMap<String, StackBuffer>(16, 0.75f, true);
+        planes = new LinkedHashMap<String, RawPlane>(16, 0.75f, true);
+        loading = new HashSet<String>();
+        rejected = new HashSet<String>();
+        planeSize = (long) sizeX*sizeY*
+                Math.max(1, StackBuffer.getBytesPerPixel(pixelsType));
+        rendered = new AtomicLong();
+        delegated = new AtomicLong();
+        loaded = new AtomicLong();
+        evicted = new AtomicLong();
+        streamed = new AtomicLong();
+        projected = new AtomicLong();
+        loader = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "RawPlaneLoader");
+                t.setDaemon(true);
+                t.setPriority(Thread.MIN_PRIORITY);
+                return t;
+            }
+        });
+    }
+
+    /**
+     * Loads in the background the raw planes of the active channels of the
+     * specified planes, unless the stacks of the channels are streamed.
+     *
+     * @param pDefs The planes likely to be requested next.
+     * @param def The settings.
+     */
+    void preload(List<PlaneDef> pDefs, RndProxyDef def)
+    {
+        List<Integer> channels = getRenderableChannels(def);
+        if (channels == null || pDefs == null) return;
+        Iterator<PlaneDef> i = pDefs.iterator();
+        PlaneDef pDef;
+        while (i.hasNext()) {
+            pDef = i.next();
+            if (pDef.slice != omero.romio.XY.value) continue;
+            for (Integer c : channels) {
+                if (getStack(pDef.t, c, false) == null)
+                    load(pDef.z, pDef.t, c);
+            }
+        }
+    }
+
+    /**
+     * Renders the plane with the specified settings, returns
+     * <code>null</code> if the plane has to be rendered by the server.
+     *
+     * @param pDef The plane to render.
+     * @param def The settings to render the plane with.
+     * @return The packed RGB pixels or <code>null</code>.
+     */
+    int[] render(PlaneDef pDef, RndProxyDef def)
+    {
+        if (pDef.slice != omero.romio.XY.value || pDef.region != null) {
+            delegated.incrementAndGet();
+            return null;
+        }
+        List<Integer> channels = getRenderableChannels(def);
+        if (channels == null || channels.isEmpty()) {
+            delegated.incrementAndGet();
+            return null;
+        }
+        boolean grey = RenderingControl.GREY_SCALE.equals(
+                def.getColorModel());
+        if (grey) channels = channels.subList(0, 1);
+        final RawPlaneRenderer renderer = new RawPlaneRenderer(sizeX,
+                channels.size(), grey);
+        renderer.setQuantum(def.getBitResolution(), def.getCdStart(),
+                def.getCdEnd());
+        boolean missing = false;
+        ChannelBindingsProxy cb;
+        RawPlane plane;
+        int c;
+        for (int k = 0; k < channels.size(); k++) {
+            c = channels.get(k);
+            plane = getValues(pDef, c);
+            if (plane == null) {
+                missing = true;
+                continue;
+            }
+            cb = def.getChannel(c);
+            renderer.setChannel(k, plane, cb.getInputStart(),
+                    cb.getInputEnd(), RawPlaneRenderer.getFamily(
+                            cb.getFamily()), cb.getCurveCoefficient(),
+                    cb.getReverseIntensity(), cb.getRGBA());
+        }
+        if (missing) {
+            delegated.incrementAndGet();
+            return null;
+        }
+        int[] dst = render(renderer, sizeX, sizeY);
+        if (dst == null) delegated.incrementAndGet();
+        else rendered.incrementAndGet();
+        return dst;
+    }
+
+    /**
+     * Projects the specified z-sections of the channels and renders the
+     * projection with the specified settings, returns <code>null</code> if
+     * the projection has to be rendered by the server.
+     *
+     * @param startZ The first z-section.
+     * @param endZ The last z-section.
+     * @param stepping The stepping of the projection.
+     * @param type The type of projection, one of the constants defined by
+     *             {@link org.openmicroscopy.shoola.env.data.OmeroImageService}.
+     * @param channels The channels to project.
+     * @param t The selected time-point.
+     * @param def The settings to render the projection with.
+     * @return The packed RGB pixels or <code>null</code>.
+     */
+    int[] renderProjected(int startZ, int endZ, int stepping, int type,
+            List<Integer> channels, int t, RndProxyDef def)
+    {
+        if (!ProjectionTask.isSupported(type) || channels == null ||
+                channels.isEmpty() || stepping < 1 || startZ < 0 ||
+                endZ >= sizeZ || startZ > endZ)
+            return null;
+        for (Integer c : channels) {
+            if (!isRenderable(def.getChannel(c))) return null;
+        }
+        boolean grey = RenderingControl.GREY_SCALE.equals(
+                def.getColorModel());
+        if (grey) channels = channels.subList(0, 1);
+        int[] zs = new int[(endZ-startZ)/stepping+1];
+        for (int k = 0; k < zs.length; k++)
+            zs[k] = startZ+k*stepping;
+        final List<ProjectionTask> tasks = new ArrayList<ProjectionTask>();
+        double[][] values = new double[channels.size()][];
+        ProjectionTask task;
+        boolean missing = false;
+        for (int k = 0; k < channels.size(); k++) {
+            values[k] = new double[sizeX*sizeY];
+            task = createProjection(type, zs, t, channels.get(k), values[k]);
+            if (task == null) missing = true;
+            else tasks.add(task);
+        }
+        if (missing) return null;
+        try {
+            getProjectionPool().invoke(new RecursiveAction() {
+                protected void compute() { invokeAll(tasks); }
+            });
+        } catch (RuntimeException e) {
+            master.logLocalRendering("Cannot project locally: "+e);
+            return null;
+        }
+        RawPlaneRenderer renderer = new RawPlaneRenderer(sizeX,
+                channels.size(), grey);
+        renderer.setQuantum(def.getBitResolution(), def.getCdStart(),
+                def.getCdEnd());
+        ChannelBindingsProxy cb;
+        for (int k = 0; k < channels.size(); k++) {
+            cb = def.getChannel(channels.get(k));
+            renderer.setChannel(k, RawPlane.wrap(values[k]),
+                    cb.getInputStart(), cb.getInputEnd(),
+                    RawPlaneRenderer.getFamily(cb.getFamily()),
+                    cb.getCurveCoefficient(), cb.getReverseIntensity(),
+                    cb.getRGBA());
+        }
+        int[] dst = render(renderer, sizeX, sizeY);
+        if (dst != null) projected.incrementAndGet();
+        return dst;
+    }
+
+    /**
+     * Returns the raw plane if cached or held by a complete stack,
+     * <code>null</code> otherwise. The plane is not loaded.
+     *
+     * @param z The selected z-section.
+     * @param t The selected time-point.
+     * @param c The selected channel.
+     * @return See above.
+     */
+    RawPlane getRawPlane(int z, int t, int c)
+    {
+        RawPlane plane = getPlane(createKey(z, t, c));
+        if (plane != null) return plane;
+        StackBuffer stack = getStack(t, c, false);
+        return stack == null ? null : stack.getRawPlane(z, 0);
+    }
+
+    /**
+     * Aggregates the statistics of the planes of the stack. The statistics
+     * of the planes not cached are computed concurrently from the raw
+     * planes. Returns <code>null</code> if a raw plane is not available.
+     *
+     * @param t The selected time-point.
+     * @param c The selected channel.
+     * @param start The lower bound of the range of the channel.
+     * @param end The upper bound of the range of the channel.
+     * @param bins The number of bins of the histogram.
+     * @return See above.
+     */
+    PlaneStats getStackStats(final int t, final int c, final double start,
+            final double end, final int bins)
+    {
+        final long pixelsID = master.getPixelsID();
+        List<PlaneStats> stats = new ArrayList<PlaneStats>(sizeZ);
+        List<Callable<PlaneStats>> tasks = new ArrayList<Callable<PlaneStats>>();
+        PlaneStats s;
+        for (int z = 0; z < sizeZ; z++) {
+            s = StatsCache.get(pixelsID, z, t, c, bins, start, end);
+            if (s != null && s.hasValues()) {
+                stats.add(s);
+                continue;
+            }
+            final int index = z;
+            tasks.add(new Callable<PlaneStats>() {
+                public PlaneStats call() {
+                    RawPlane values = getRawPlane(index, t, c);
+                    if (values == null) return null;
+                    PlaneStats r = PlaneStats.compute(values, start, end,
+                            bins);
+                    StatsCache.put(pixelsID, index, t, c, r);
+                    return r;
+                }
+            });
+        }
+        try {
+            for (Future<PlaneStats> f : getRenderPool().invokeAll(tasks)) {
+                s = f.get();
+                if (s == null) return null;
+                stats.add(s);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            master.logLocalRendering("Cannot compute the statistics: "+e);
+            return null;
+        }
+        return stats.isEmpty() ? null : PlaneStats.merge(stats);
+    }
+
+    /**
+     * Discards the pending loads, the raw planes and the stacks, and
+     * releases their memory to the other images.
+     */
+    synchronized void shutDown()
+    {
+        loader.shutdownNow();
+        planes.clear();
+        loading.clear();
+        rejected.clear();
+        MemoryBudget.PLANES.release(used);
+        used = 0;
+        for (StackBuffer stack : stacks.values())
+            stack.dispose();
+        stacks.clear();
+        MemoryBudget.STACKS.release(stackUsed);
+        stackUsed = 0;
+    }
+
+    /**
+     * Returns a summary of the local rendering activity.
+     *
+     * @return See above.
+     */
+    String getStatistics()
+    {
+        StringBuffer buf = new StringBuffer();
+        buf.append("Local rendering rendered="+rendered.get());
+        buf.append(" delegated="+delegated.get());
+        buf.append(" raw planes loaded="+loaded.get());
+        buf.append(" evicted="+evicted.get());
+        buf.append(" stacks streamed="+streamed.get());
+        buf.append(" projections="+projected.get());
+        return buf.toString();
+    }
+
+}
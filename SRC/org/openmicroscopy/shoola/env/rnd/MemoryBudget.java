@@ -0,0 +1,116 @@
+/*
+ * org.openmicroscopy.shoola.env.rnd.MemoryBudget
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.rnd;
+
+//Java imports
+
+//Third-party libraries
+
+//Application-internal dependencies
+
+/**
+ * Keeps track of the memory used by the {@link LocalRenderer}s of all the
+ * images opened. A renderer reserves the bytes of a raw plane or of a stack
+ * before caching it and releases them when the entry is discarded, so that
+ * opening several viewers does not multiply the memory used.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+class MemoryBudget
+{
+
+    /** The budget of the raw planes, shared by all the images. */
+    static final MemoryBudget PLANES = new MemoryBudget();
+
+    /** The budget of the streamed stacks, shared by all the images. */
+    static final MemoryBudget STACKS = new MemoryBudget();
+
+    /** The maximum number of bytes. */
+    private long limit;
+
+    /** The number of bytes reserved. */
+    private long used;
+
+    /**
+     * Sets the maximum number of bytes. The bytes already reserved are
+     * kept even if they exceed the new limit.
+     *
+     * @param limit The value to set.
+     */
+    synchronized void setLimit(long limit)
+    {
+        this.limit = Math.max(0, limit);
+    }
+
+    /**
+     * Returns the maximum number of bytes.
+     *
+     * @return See above.
+     */
+    synchronized long getLimit() { return limit; }
+
+    /**
+     * Returns the number of bytes reserved.
+     *
+     * @return See above.
+     */
+    synchronized long getUsed() { return used; }
+
+    /**
+     * Reserves the specified number of bytes if they fit in the budget.
+     *
+     * @param size The number of bytes.
+     * @return <code>true</code> if reserved, <code>false</code> otherwise.
+     */
+    synchronized boolean reserve(long size)
+    {
+        if (size < 0 || used+size > limit) return false;
+        used += size;
+        return true;
+    }
+
+    /**
+     * Returns <code>true</code> if the specified number of bytes fit in the
+     * budget, <code>false</code> otherwise. Nothing is reserved.
+     *
+     * @param size The number of bytes.
+     * @return See above.
+     */
+    synchronized boolean isAvailable(long size)
+    {
+        return size >= 0 && used+size <= limit;
+    }
+
+    /**
+     * Releases the specified number of bytes.
+     *
+     * @param size The number of bytes.
+     */
+    synchronized void release(long size)
+    {
+        used = Math.max(0, used-Math.max(0, size));
+    }
+
+}
@@ -209,6 +209,14 @@ class NavigationHistory
         history.add(pd);
     }
     
+    /**
+     * Returns the plane definition corresponding to the current move or
+     * <code>null</code> if the history is empty.
+     * 
+     * @return See above.
+     */
+    PlaneDef currentMove() { return curMove(); }
+    
     /**
      * Returns the navigation direction with respect to the two most recent
      * moves.
@@ -273,7 +281,7 @@ class NavigationHistory
             pd = new PlaneDef();
             pd.slice = omero.romio.XY.value;
             pd.t = (int) p.x2;
-            pd.y = (int) p.x1;
+            pd.z = (int) p.x1;
             
             //Even though dir.getPoint is monotonic, we could be getting a pd
             //equal to the previous one b/c of the above casts to int.  However,
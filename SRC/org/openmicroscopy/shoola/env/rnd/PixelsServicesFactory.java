@@ -303,6 +303,100 @@ public class PixelsServicesFactory
 		return proxy;
 	}
 	
+	/**
+	 * Sets the rendering engine used to render in the background the planes
+	 * likely to be requested next for the specified pixels set.
+	 * 
+	 * @param context Reference to the registry. To ensure that agents cannot
+	 *                call the method. It must be a reference to the
+	 *                container's registry.
+	 * @param pixelsID The ID of the pixels set.
+	 * @param re The rendering engine dedicated to prefetching.
+	 * @param depth The maximum number of planes to render ahead of the
+	 *              current one.
+	 */
+	public static void setPrefetchingEngine(Registry context, long pixelsID,
+			RenderingEnginePrx re, int depth)
+	{
+		if (!(registry.equals(context)))
+			throw new IllegalArgumentException("Not allow to access method.");
+		RenderingControlProxy proxy = (RenderingControlProxy) 
+			singleton.rndSvcProxies.get(pixelsID);
+		if (proxy != null) proxy.setPrefetchingEngine(re, depth);
+	}
+
+	/**
+	 * Turns on the rendering, on the client, of the planes of the specified
+	 * pixels set.
+	 * 
+	 * @param context   Reference to the registry. To ensure that agents cannot
+	 *                  call the method. It must be a reference to the
+	 *                  container's registry.
+	 * @param pixelsID  The ID of the pixels set.
+	 * @param size The size, in Mb, of the cache hosting the raw planes.
+	 * @param stackSize The size, in Mb, of the buffers hosting the stacks.
+	 * @param blockSize The size, in Kb, of the blocks written into a stack.
+	 */
+	public static void setLocalRendering(Registry context, long pixelsID,
+			int size, int stackSize, int blockSize)
+	{
+		if (!(registry.equals(context)))
+			throw new IllegalArgumentException("Not allow to access method.");
+		RenderingControlProxy proxy = (RenderingControlProxy) 
+			singleton.rndSvcProxies.get(pixelsID);
+		if (proxy != null)
+			proxy.setLocalRendering(size, stackSize, blockSize);
+	}
+
+	/**
+	 * Returns the raw plane already loaded to render the specified
+	 * pixels set on the client, <code>null</code> if not loaded.
+	 * 
+	 * @param context   Reference to the registry. To ensure that agents cannot
+	 *                  call the method. It must be a reference to the
+	 *                  container's registry.
+	 * @param pixelsID  The ID of the pixels set.
+	 * @param z The selected z-section.
+	 * @param t The selected time-point.
+	 * @param c The selected channel.
+	 * @return See above.
+	 */
+	public static float[] getRawPlane(Registry context, long pixelsID,
+			int z, int t, int c)
+	{
+		if (!(registry.equals(context)))
+			throw new IllegalArgumentException("Not allow to access method.");
+		RenderingControlProxy proxy = (RenderingControlProxy) 
+			singleton.rndSvcProxies.get(pixelsID);
+		if (proxy == null) return null;
+		RawPlane plane = proxy.getRawPlane(z, t, c);
+		return plane == null ? null : plane.toFloats();
+	}
+
+	/**
+	 * Returns the statistics of the stack of the specified channel,
+	 * computed over the raw planes loaded to render the specified pixels
+	 * set on the client, <code>null</code> if not available.
+	 * 
+	 * @param context   Reference to the registry. To ensure that agents cannot
+	 *                  call the method. It must be a reference to the
+	 *                  container's registry.
+	 * @param pixelsID  The ID of the pixels set.
+	 * @param t The selected time-point.
+	 * @param c The selected channel.
+	 * @return See above.
+	 */
+	public static PlaneStats getStackStats(Registry context, long pixelsID,
+			int t, int c)
+	{
+		if (!(registry.equals(context)))
+			throw new IllegalArgumentException("Not allow to access method.");
+		RenderingControlProxy proxy = (RenderingControlProxy) 
+			singleton.rndSvcProxies.get(pixelsID);
+		if (proxy == null) return null;
+		return proxy.getStackStats(t, c);
+	}
+	
 	/**
 	 * Shuts downs the rendering service attached to the specified 
 	 * pixels set. Returns <code>true</code> if the rendering control is shared,
@@ -349,6 +443,7 @@ public class PixelsServicesFactory
 		//Note that the class should be deleted.
 		singleton.rndSvcProxies.clear();
 		singleton.rndSvcProxiesCount.clear();
+		StatsCache.clear();
 	}
 
 
@@ -539,6 +634,40 @@ public class PixelsServicesFactory
 		return proxy.renderProjected(startZ, endZ, stepping, type, channels);
 	}
 
+	/**
+	 * Renders each of the specified channels of the plane on its own,
+	 * as displayed in the split view.
+	 * 
+	 * @param context	Reference to the registry. To ensure that agents cannot
+	 * 					call the method. It must be a reference to the
+	 * 					container's registry.
+	 * @param pixelsID  The id of the pixels set.
+	 * @param pDef		The plane to render.
+	 * @param channels	The indexes of the channels to render.
+	 * @param greyScale	Pass <code>true</code> to render the channels in
+	 *					grey, <code>false</code> to use their color.
+	 * @param combined	Pass <code>true</code> to add the combined image,
+	 *					<code>false</code> otherwise.
+	 * @return See above.
+	 * @throws RenderingServiceException 	If an error occurred while setting 
+	 * 										the value.
+	 * @throws DSOutOfServiceException  	If the connection is broken.
+	 */
+	public static List<BufferedImage> renderChannels(Registry context,
+			Long pixelsID, PlaneDef pDef, List<Integer> channels,
+			boolean greyScale, boolean combined)
+		throws RenderingServiceException, DSOutOfServiceException
+	{
+		if (!(context.equals(registry)))
+			throw new IllegalArgumentException("Not allow to access method.");
+		RenderingControlProxy proxy = 
+			(RenderingControlProxy) singleton.rndSvcProxies.get(pixelsID);
+		if (proxy == null) 
+			throw new RuntimeException("No rendering service " +
+			"initialized for the specified pixels set.");
+		return proxy.renderChannels(pDef, channels, greyScale, combined);
+	}
+
 	/**
 	 * Returns the compression quality related to the passed level.
 	 * 
@@ -0,0 +1,234 @@
+/*
+ * org.openmicroscopy.shoola.env.rnd.PlanePrefetcher
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ * 	This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+
+package org.openmicroscopy.shoola.env.rnd;
+
+
+//Java imports
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Third-party libraries
+
+//Application-internal dependencies
+import omero.romio.PlaneDef;
+
+/**
+ * Renders, in a background thread, the XY planes that are likely to be
+ * requested next and adds them to the cache of the {@link RenderingControl}
+ * that requested them.
+ * <p>The planes are rendered by a dedicated {@link RenderingControlProxy}
+ * i.e. a dedicated rendering engine so that prefetching never competes with
+ * the rendering of the plane currently displayed. The settings of that
+ * rendering engine are synchronized with the ones of the main proxy before
+ * rendering each batch of planes.</p>
+ * <p>Only the most recent request is served: a new request discards the
+ * planes of the previous one that have not yet been rendered.</p>
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * 				<a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+class PlanePrefetcher
+{
+
+    /** The proxy whose cache is filled. */
+    private final RenderingControlProxy master;
+
+    /** The proxy used to render the planes. */
+    private final RenderingControlProxy renderer;
+
+    /** The maximum number of planes to render ahead of the current one. */
+    private final int depth;
+
+    /** Runs the prefetching tasks. */
+    private final ExecutorService executor;
+
+    /** Identifies the most recent request. */
+    private final AtomicInteger generation;
+
+    /** The number of planes requested. */
+    private final AtomicLong requested;
+
+    /** The number of planes rendered and cached. */
+    private final AtomicLong rendered;
+
+    /** The number of planes already cached when the request was served. */
+    private final AtomicLong skipped;
+
+    /** The number of planes discarded because a new request was made. */
+    private final AtomicLong discarded;
+
+    /**
+     * Renders the specified planes unless a new request has been made.
+     *
+     * @param id The identifier of the request.
+     * @param planes The planes to render.
+     * @param settings The settings to render the planes with.
+     * @param key The settings used to key the cached planes.
+     * @param level The resolution level.
+     * @param compression The compression level.
+     */
+    private void render(int id, List<PlaneDef> planes, RndProxyDef settings,
+            String key, int level, int compression)
+    {
+        try {
+            renderer.syncSettings(settings, level, compression);
+        } catch (Exception e) {
+            master.logPrefetch("Cannot synchronize the settings: "+e);
+            discarded.addAndGet(planes.size());
+            return;
+        }
+        Iterator<PlaneDef> i = planes.iterator();
+        PlaneDef pd;
+        BufferedImage img;
+        int n = planes.size();
+        while (i.hasNext()) {
+            if (generation.get() != id || renderer.isShutDown()) {
+                discarded.addAndGet(n);
+                return;
+            }
+            pd = i.next();
+            n--;
+            if (master.isCached(pd, level, key)) {
+                skipped.incrementAndGet();
+                continue;
+            }
+            try {
+                img = renderer.renderPrefetched(pd);
+                if (img != null) {
+                    master.cachePrefetched(pd, level, key, img);
+                    rendered.incrementAndGet();
+                }
+            } catch (Exception e) {
+                master.logPrefetch("Cannot prefetch plane z="+pd.z+" t="+
+                        pd.t+": "+e);
+                discarded.addAndGet(n+1);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param master The proxy whose cache is filled.
+     *               Mustn't be <code>null</code>.
+     * @param renderer The proxy used to render the planes.
+     *                 Mustn't be <code>null</code>.
+     * @param depth The maximum number of planes to render ahead of the
+     *              current one.
+     */
+    PlanePrefetcher(RenderingControlProxy master,
+            RenderingControlProxy renderer, int depth)
+    {
+        if (master == null)
+            throw new NullPointerException("No proxy to prefetch for.");
+        if (renderer == null)
+            throw new NullPointerException("No proxy to render.");
+        this.master = master;
+        this.renderer = renderer;
+        this.depth = depth < 0 ? 0 : depth;
+        generation = new AtomicInteger();
+        requested = new AtomicLong();
+        rendered = new AtomicLong();
+        skipped = new AtomicLong();
+        discarded = new AtomicLong();
+        executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "PlanePrefetcher");
+                t.setDaemon(true);
+                t.setPriority(Thread.MIN_PRIORITY);
+                return t;
+            }
+        });
+    }
+
+    /**
+     * Returns the maximum number of planes to render ahead of the current
+     * one.
+     *
+     * @return See above.
+     */
+    int getDepth() { return depth; }
+
+    /**
+     * Renders the specified planes in the background. Any planes of the
+     * previous request that have not been rendered yet are discarded.
+     *
+     * @param planes The planes to render, in the order they should be
+     *               rendered.
+     * @param settings A copy of the settings to render the planes with.
+     * @param key The settings used to key the cached planes.
+     * @param level The resolution level.
+     * @param compression The compression level.
+     */
+    synchronized void prefetch(List<PlaneDef> planes,
+            final RndProxyDef settings, final String key, final int level,
+            final int compression)
+    {
+        if (planes == null || planes.isEmpty() || executor.isShutdown())
+            return;
+        final int id = generation.incrementAndGet();
+        final List<PlaneDef> l = new ArrayList<PlaneDef>(planes);
+        if (l.size() > depth) l.subList(depth, l.size()).clear();
+        requested.addAndGet(l.size());
+        executor.submit(new Runnable() {
+            public void run() {
+                render(id, l, settings, key, level, compression);
+            }
+        });
+    }
+
+    /** Discards the pending requests and shuts down the renderer. */
+    synchronized void shutDown()
+    {
+        generation.incrementAndGet();
+        executor.shutdownNow();
+        renderer.shutDown();
+    }
+
+    /**
+     * Returns a summary of the prefetching activity.
+     *
+     * @return See above.
+     */
+    String getStatistics()
+    {
+        StringBuffer buf = new StringBuffer();
+        buf.append("Prefetching depth="+depth);
+        buf.append(" requested="+requested.get());
+        buf.append(" rendered="+rendered.get());
+        buf.append(" already cached="+skipped.get());
+        buf.append(" discarded="+discarded.get());
+        return buf.toString();
+    }
+
+}
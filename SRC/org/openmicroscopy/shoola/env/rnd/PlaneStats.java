@@ -0,0 +1,258 @@
+/*
+ * org.openmicroscopy.shoola.env.rnd.PlaneStats
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.rnd;
+
+//Java imports
+import java.util.List;
+
+//Third-party libraries
+
+//Application-internal dependencies
+
+/**
+ * The statistics of a channel over a plane or a stack: the minimum, the
+ * maximum, the mean and the histogram of the values in the range of the
+ * channel. The histograms loaded from the server only hold the histogram.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+public class PlaneStats
+{
+
+    /** The number of bins of the histograms returned by the server. */
+    public static final int DEFAULT_BINS = 256;
+
+    /** The lower bound of the range of the histogram. */
+    private final double start;
+
+    /** The upper bound of the range of the histogram. */
+    private final double end;
+
+    /** The number of values in each bin. */
+    private final int[] histogram;
+
+    /** The minimum value. */
+    private final double min;
+
+    /** The maximum value. */
+    private final double max;
+
+    /** The sum of the values. */
+    private final double sum;
+
+    /** The number of values. */
+    private final long count;
+
+    /**
+     * Computes the statistics of the values. The values out of the range
+     * are not counted in the histogram.
+     *
+     * @param values The values.
+     * @param start The lower bound of the range of the histogram.
+     * @param end The upper bound of the range of the histogram.
+     * @param bins The number of bins.
+     * @return See above.
+     */
+    public static PlaneStats compute(float[] values, double start, double end,
+            int bins)
+    {
+        return compute(RawPlane.wrap(values), start, end, bins);
+    }
+
+    /**
+     * Computes the statistics of the values, read in the width of the
+     * pixels type. The values out of the range are not counted in the
+     * histogram.
+     *
+     * @param values The raw values.
+     * @param start The lower bound of the range of the histogram.
+     * @param end The upper bound of the range of the histogram.
+     * @param bins The number of bins of the histogram.
+     * @return See above.
+     */
+    static PlaneStats compute(RawPlane values, double start, double end,
+            int bins)
+    {
+        int[] histogram = new int[Math.max(1, bins)];
+        double factor = histogram.length/(end-start+1);
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        double sum = 0;
+        double v;
+        int bin;
+        int n = values.getLength();
+        for (int i = 0; i < n; i++) {
+            v = values.getValue(i);
+            if (v < min) min = v;
+            if (v > max) max = v;
+            sum += v;
+            if (v < start || v > end) continue;
+            bin = (int) ((v-start)*factor);
+            histogram[bin < histogram.length ? bin : histogram.length-1]++;
+        }
+        return new PlaneStats(start, end, histogram, min, max, sum, n);
+    }
+
+    /**
+     * Aggregates the statistics computed over the same range and with the
+     * same number of bins, e.g. the planes of a stack.
+     *
+     * @param stats The statistics to aggregate. Mustn't be empty.
+     * @return See above.
+     */
+    public static PlaneStats merge(List<PlaneStats> stats)
+    {
+        PlaneStats first = stats.get(0);
+        int[] histogram = new int[first.histogram.length];
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        double sum = 0;
+        long count = 0;
+        for (PlaneStats s : stats) {
+            if (!s.isRange(first.start, first.end) ||
+                    s.histogram.length != histogram.length)
+                throw new IllegalArgumentException("Statistics mismatch.");
+            for (int i = 0; i < histogram.length; i++)
+                histogram[i] += s.histogram[i];
+            if (count >= 0 && s.hasValues()) {
+                min = Math.min(min, s.min);
+                max = Math.max(max, s.max);
+                sum += s.sum;
+                count += s.count;
+            } else count = -1;
+        }
+        if (count < 0)
+            return new PlaneStats(first.start, first.end, histogram);
+        return new PlaneStats(first.start, first.end, histogram, min, max,
+                sum, count);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param start The lower bound of the range of the histogram.
+     * @param end The upper bound of the range of the histogram.
+     * @param histogram The number of values in each bin.
+     * @param min The minimum value.
+     * @param max The maximum value.
+     * @param sum The sum of the values.
+     * @param count The number of values.
+     */
+    private PlaneStats(double start, double end, int[] histogram, double min,
+            double max, double sum, long count)
+    {
+        this.start = start;
+        this.end = end;
+        this.histogram = histogram;
+        this.min = min;
+        this.max = max;
+        this.sum = sum;
+        this.count = count;
+    }
+
+    /**
+     * Creates a new instance holding only the histogram, e.g. loaded from
+     * the server.
+     *
+     * @param start The lower bound of the range of the histogram.
+     * @param end The upper bound of the range of the histogram.
+     * @param histogram The number of values in each bin.
+     */
+    public PlaneStats(double start, double end, int[] histogram)
+    {
+        this(start, end, histogram, Double.NaN, Double.NaN, Double.NaN, 0);
+    }
+
+    /**
+     * Returns <code>true</code> if the histogram was computed over the
+     * specified range, <code>false</code> otherwise.
+     *
+     * @param start The lower bound of the range.
+     * @param end The upper bound of the range.
+     * @return See above.
+     */
+    public boolean isRange(double start, double end)
+    {
+        return this.start == start && this.end == end;
+    }
+
+    /**
+     * Returns <code>true</code> if the minimum, maximum and mean are known,
+     * <code>false</code> if only the histogram is.
+     *
+     * @return See above.
+     */
+    public boolean hasValues() { return count > 0; }
+
+    /**
+     * Returns the number of values in each bin.
+     *
+     * @return See above.
+     */
+    public int[] getHistogram() { return histogram; }
+
+    /**
+     * Returns the lower bound of the range of the histogram.
+     *
+     * @return See above.
+     */
+    public double getStart() { return start; }
+
+    /**
+     * Returns the upper bound of the range of the histogram.
+     *
+     * @return See above.
+     */
+    public double getEnd() { return end; }
+
+    /**
+     * Returns the number of bins.
+     *
+     * @return See above.
+     */
+    public int getBins() { return histogram.length; }
+
+    /**
+     * Returns the minimum value or <code>NaN</code> if not known.
+     *
+     * @return See above.
+     */
+    public double getMin() { return min; }
+
+    /**
+     * Returns the maximum value or <code>NaN</code> if not known.
+     *
+     * @return See above.
+     */
+    public double getMax() { return max; }
+
+    /**
+     * Returns the mean value or <code>NaN</code> if not known.
+     *
+     * @return See above.
+     */
+    public double getMean() { return count > 0 ? sum/count : Double.NaN; }
+
+}
@@ -0,0 +1,160 @@
+/*
+ * org.openmicroscopy.shoola.env.rnd.ProjectionTask
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.rnd;
+
+//Java imports
+import java.util.concurrent.RecursiveAction;
+
+//Third-party libraries
+
+//Application-internal dependencies
+import org.openmicroscopy.shoola.env.data.OmeroImageService;
+
+/**
+ * Projects the raw values of a channel along the z-axis. The rows are
+ * split in halves until few enough to be projected by one task. The values
+ * are read either from the decoded planes or from a complete
+ * {@link StackBuffer}, one block of rows at a time.
+ * <p>The values are accumulated in double precision so that summing many
+ * z-sections does not lose the low bits, and are only narrowed when the
+ * projection is rendered.</p>
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+class ProjectionTask
+    extends RecursiveAction
+{
+
+    /** The maximum number of rows projected by one task. */
+    static final int MAX_ROWS = 32;
+
+    /** The type of projection. */
+    private final int type;
+
+    /** The number of pixels along the x-axis. */
+    private final int sizeX;
+
+    /** The z-sections to project. */
+    private final int[] zs;
+
+    /** The stack or <code>null</code> if the planes are decoded. */
+    private final StackBuffer stack;
+
+    /** The decoded planes, in the order of the z-sections. */
+    private final RawPlane[] planes;
+
+    /** The projected values. */
+    private final double[] dst;
+
+    /** The first row to project. */
+    private final int fromRow;
+
+    /** The row after the last one to project. */
+    private final int toRow;
+
+    /**
+     * Returns <code>true</code> if the type of projection is supported,
+     * <code>false</code> otherwise.
+     *
+     * @param type The type of projection.
+     * @return See above.
+     */
+    static boolean isSupported(int type)
+    {
+        return type == OmeroImageService.MAX_INTENSITY ||
+                type == OmeroImageService.MEAN_INTENSITY ||
+                type == OmeroImageService.SUM_INTENSITY;
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param type The type of projection, one of the constants defined by
+     *             {@link OmeroImageService}.
+     * @param sizeX The number of pixels along the x-axis.
+     * @param zs The z-sections to project.
+     * @param stack The stack or <code>null</code>.
+     * @param planes The decoded planes if no stack is specified.
+     * @param dst The projected values.
+     * @param fromRow The first row to project.
+     * @param toRow The row after the last one to project.
+     */
+    ProjectionTask(int type, int sizeX, int[] zs, StackBuffer stack,
+            RawPlane[] planes, double[] dst, int fromRow, int toRow)
+    {
+        this.type = type;
+        this.sizeX = sizeX;
+        this.zs = zs;
+        this.stack = stack;
+        this.planes = planes;
+        this.dst = dst;
+        this.fromRow = fromRow;
+        this.toRow = toRow;
+    }
+
+    /**
+     * Projects the rows or splits them in two tasks.
+     * @see RecursiveAction#compute()
+     */
+    protected void compute()
+    {
+        if (toRow-fromRow > MAX_ROWS) {
+            int middle = (fromRow+toRow) >>> 1;
+            invokeAll(new ProjectionTask(type, sizeX, zs, stack, planes, dst,
+                    fromRow, middle),
+                    new ProjectionTask(type, sizeX, zs, stack, planes, dst,
+                            middle, toRow));
+            return;
+        }
+        int start = fromRow*sizeX;
+        int end = toRow*sizeX;
+        boolean max = type == OmeroImageService.MAX_INTENSITY;
+        RawPlane values;
+        int offset;
+        double v;
+        for (int k = 0; k < zs.length; k++) {
+            if (stack != null) {
+                values = stack.getRawRows(zs[k], fromRow, toRow, 0);
+                if (values == null)
+                    throw new IllegalStateException("Stack not loaded.");
+                offset = start;
+            } else {
+                values = planes[k];
+                offset = 0;
+            }
+            for (int i = start; i < end; i++) {
+                v = values.getValue(i-offset);
+                if (k == 0) dst[i] = v;
+                else if (!max) dst[i] += v;
+                else if (v > dst[i]) dst[i] = v;
+            }
+        }
+        if (type == OmeroImageService.MEAN_INTENSITY) {
+            for (int i = start; i < end; i++)
+                dst[i] /= zs.length;
+        }
+    }
+
+}
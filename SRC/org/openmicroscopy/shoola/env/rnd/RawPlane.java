@@ -0,0 +1,273 @@
+/*
+ * org.openmicroscopy.shoola.env.rnd.RawPlane
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.rnd;
+
+//Java imports
+import java.nio.ByteBuffer;
+
+//Third-party libraries
+
+//Application-internal dependencies
+import org.openmicroscopy.shoola.env.data.OmeroImageService;
+
+/**
+ * Holds the decoded raw values of a plane, or of some rows of a plane, in
+ * the width of the pixels type, e.g. a <code>short</code> per pixel for
+ * 16-bit images, so that caching the planes of an 8-bit or 16-bit image
+ * does not use 4 bytes per pixel.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+class RawPlane
+{
+
+    /** Identifies the signed 8-bit values. */
+    private static final int INT_8 = 0;
+
+    /** Identifies the unsigned 8-bit values. */
+    private static final int UINT_8 = 1;
+
+    /** Identifies the signed 16-bit values. */
+    private static final int INT_16 = 2;
+
+    /** Identifies the unsigned 16-bit values. */
+    private static final int UINT_16 = 3;
+
+    /** Identifies the signed 32-bit values. */
+    private static final int INT_32 = 4;
+
+    /** Identifies the unsigned 32-bit values. */
+    private static final int UINT_32 = 5;
+
+    /** Identifies the single precision values. */
+    private static final int FLOAT = 6;
+
+    /** Identifies the double precision values. */
+    private static final int DOUBLE = 7;
+
+    /** The kind of values, one of the constants defined by this class. */
+    private final int kind;
+
+    /** The number of values. */
+    private final int length;
+
+    /** The 8-bit values or <code>null</code>. */
+    private final byte[] bytes;
+
+    /** The 16-bit values or <code>null</code>. */
+    private final short[] shorts;
+
+    /** The 32-bit integer values or <code>null</code>. */
+    private final int[] ints;
+
+    /** The single precision values or <code>null</code>. */
+    private final float[] floats;
+
+    /** The double precision values or <code>null</code>. */
+    private final double[] doubles;
+
+    /**
+     * Returns the kind of values of the specified type, <code>-1</code> if
+     * not supported.
+     *
+     * @param type The type of the pixels.
+     * @return See above.
+     */
+    private static int getKind(String type)
+    {
+        if (OmeroImageService.INT_8.equals(type)) return INT_8;
+        if (OmeroImageService.UINT_8.equals(type)) return UINT_8;
+        if (OmeroImageService.INT_16.equals(type)) return INT_16;
+        if (OmeroImageService.UINT_16.equals(type)) return UINT_16;
+        if (OmeroImageService.INT_32.equals(type)) return INT_32;
+        if (OmeroImageService.UINT_32.equals(type)) return UINT_32;
+        if (OmeroImageService.FLOAT.equals(type)) return FLOAT;
+        if (OmeroImageService.DOUBLE.equals(type)) return DOUBLE;
+        return -1;
+    }
+
+    /**
+     * Decodes the raw values, stored in big endian order, returns
+     * <code>null</code> if the type is not supported or the values are not
+     * complete.
+     *
+     * @param raw The raw values.
+     * @param type The type of the pixels.
+     * @param length The number of values.
+     * @return See above.
+     */
+    static RawPlane decode(byte[] raw, String type, int length)
+    {
+        int kind = getKind(type);
+        if (raw == null || kind < 0) return null;
+        ByteBuffer buf = ByteBuffer.wrap(raw);
+        try {
+            switch (kind) {
+                case INT_8:
+                case UINT_8:
+                    byte[] b = new byte[length];
+                    buf.get(b);
+                    return new RawPlane(kind, length, b, null, null, null,
+                            null);
+                case INT_16:
+                case UINT_16:
+                    short[] s = new short[length];
+                    buf.asShortBuffer().get(s);
+                    return new RawPlane(kind, length, null, s, null, null,
+                            null);
+                case INT_32:
+                case UINT_32:
+                    int[] i = new int[length];
+                    buf.asIntBuffer().get(i);
+                    return new RawPlane(kind, length, null, null, i, null,
+                            null);
+                case FLOAT:
+                    float[] f = new float[length];
+                    buf.asFloatBuffer().get(f);
+                    return wrap(f);
+                default:
+                    double[] d = new double[length];
+                    buf.asDoubleBuffer().get(d);
+                    return new RawPlane(kind, length, null, null, null, null,
+                            d);
+            }
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns a plane backed by the specified values.
+     *
+     * @param values The values. Mustn't be <code>null</code>.
+     * @return See above.
+     */
+    static RawPlane wrap(float[] values)
+    {
+        if (values == null) throw new NullPointerException("No values.");
+        return new RawPlane(FLOAT, values.length, null, null, null, values,
+                null);
+    }
+
+    /**
+     * Returns a plane backed by the specified values.
+     *
+     * @param values The values. Mustn't be <code>null</code>.
+     * @return See above.
+     */
+    static RawPlane wrap(double[] values)
+    {
+        if (values == null) throw new NullPointerException("No values.");
+        return new RawPlane(DOUBLE, values.length, null, null, null, null,
+                values);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param kind The kind of values.
+     * @param length The number of values.
+     * @param bytes The 8-bit values or <code>null</code>.
+     * @param shorts The 16-bit values or <code>null</code>.
+     * @param ints The 32-bit integer values or <code>null</code>.
+     * @param floats The single precision values or <code>null</code>.
+     * @param doubles The double precision values or <code>null</code>.
+     */
+    private RawPlane(int kind, int length, byte[] bytes, short[] shorts,
+            int[] ints, float[] floats, double[] doubles)
+    {
+        this.kind = kind;
+        this.length = length;
+        this.bytes = bytes;
+        this.shorts = shorts;
+        this.ints = ints;
+        this.floats = floats;
+        this.doubles = doubles;
+    }
+
+    /**
+     * Returns the number of values.
+     *
+     * @return See above.
+     */
+    int getLength() { return length; }
+
+    /**
+     * Returns the number of bytes used by the values.
+     *
+     * @return See above.
+     */
+    long getSize()
+    {
+        switch (kind) {
+            case INT_8:
+            case UINT_8:
+                return length;
+            case INT_16:
+            case UINT_16:
+                return 2L*length;
+            case DOUBLE:
+                return 8L*length;
+            default:
+                return 4L*length;
+        }
+    }
+
+    /**
+     * Returns the value at the specified index.
+     *
+     * @param index The index of the value.
+     * @return See above.
+     */
+    double getValue(int index)
+    {
+        switch (kind) {
+            case INT_8: return bytes[index];
+            case UINT_8: return bytes[index] & 0xFF;
+            case INT_16: return shorts[index];
+            case UINT_16: return shorts[index] & 0xFFFF;
+            case INT_32: return ints[index];
+            case UINT_32: return ints[index] & 0xFFFFFFFFL;
+            case FLOAT: return floats[index];
+            default: return doubles[index];
+        }
+    }
+
+    /**
+     * Returns the values as floats. The values are copied unless they are
+     * already floats.
+     *
+     * @return See above.
+     */
+    float[] toFloats()
+    {
+        if (floats != null) return floats;
+        float[] values = new float[length];
+        for (int i = 0; i < length; i++)
+            values[i] = (float) getValue(i);
+        return values;
+    }
+
+}
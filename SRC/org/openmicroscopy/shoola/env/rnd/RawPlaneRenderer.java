@@ -0,0 +1,298 @@
+/*
+ * org.openmicroscopy.shoola.env.rnd.RawPlaneRenderer
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.rnd;
+
+//Java imports
+//Third-party libraries
+
+//Application-internal dependencies
+import org.openmicroscopy.shoola.env.data.OmeroImageService;
+
+/**
+ * Renders a plane on the client from the raw values of its channels.
+ * The values of each channel are mapped to the codomain using the channel
+ * window, the quantization family and the bit resolution, reversed if
+ * requested, then the channels are combined with their color in the RGB
+ * model. In the grey scale model, the first channel is rendered in grey.
+ * <p>A range of rows can be rendered at a time so that several threads can
+ * render the same plane. No object is created while rendering.</p>
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+class RawPlaneRenderer
+{
+
+    /** Identifies the linear quantization family. */
+    static final int LINEAR = 0;
+
+    /** Identifies the polynomial quantization family. */
+    static final int POLYNOMIAL = 1;
+
+    /** Identifies the exponential quantization family. */
+    static final int EXPONENTIAL = 2;
+
+    /** Identifies the logarithmic quantization family. */
+    static final int LOGARITHMIC = 3;
+
+    /** Half of the unit of the fixed point colors, used to round. */
+    private static final int HALF = 1 << 15;
+
+    /** The number of pixels along the x-axis. */
+    private final int sizeX;
+
+    /** The raw values of each channel. */
+    private final RawPlane[] planes;
+
+    /** The family of each channel. */
+    private final int[] families;
+
+    /** The coefficient of the family of each channel. */
+    private final double[] coefficients;
+
+    /** The mapped start of the window of each channel. */
+    private final double[] starts;
+
+    /** The factor normalizing the mapped values of each channel. */
+    private final double[] scales;
+
+    /** Whether the intensities of each channel are reversed. */
+    private final boolean[] reversed;
+
+    /** The red, green and blue factors of each channel, as 16.16. */
+    private final int[][] colors;
+
+    /** Whether the first channel is rendered in grey. */
+    private final boolean greyScale;
+
+    /** The maximum quantized value. */
+    private int bitResolution = 255;
+
+    /** The lower bound of the codomain interval. */
+    private int cdStart = 0;
+
+    /** The upper bound of the codomain interval. */
+    private int cdEnd = 255;
+
+    /**
+     * Returns the family identified by the specified name.
+     *
+     * @param family The name of the family.
+     * @return One of the constants defined by this class or <code>-1</code>.
+     */
+    static int getFamily(String family)
+    {
+        if (RenderingControl.LINEAR.equals(family)) return LINEAR;
+        if (RenderingControl.POLYNOMIAL.equals(family)) return POLYNOMIAL;
+        if (RenderingControl.EXPONENTIAL.equals(family)) return EXPONENTIAL;
+        if (RenderingControl.LOGARITHMIC.equals(family)) return LOGARITHMIC;
+        return -1;
+    }
+
+    /**
+     * Returns <code>true</code> if the planes of the specified type can be
+     * decoded, <code>false</code> otherwise.
+     *
+     * @param type The type of the pixels.
+     * @return See above.
+     */
+    static boolean isSupported(String type)
+    {
+        return OmeroImageService.INT_8.equals(type) ||
+                OmeroImageService.UINT_8.equals(type) ||
+                OmeroImageService.INT_16.equals(type) ||
+                OmeroImageService.UINT_16.equals(type) ||
+                OmeroImageService.INT_32.equals(type) ||
+                OmeroImageService.UINT_32.equals(type) ||
+                OmeroImageService.FLOAT.equals(type) ||
+                OmeroImageService.DOUBLE.equals(type);
+    }
+
+    /**
+     * Decodes the raw plane, stored in big endian order, returns
+     * <code>null</code> if the type is not supported or the plane is not
+     * complete.
+     *
+     * @param raw The raw plane.
+     * @param type The type of the pixels.
+     * @param length The number of pixels of the plane.
+     * @return See above.
+     */
+    static float[] decode(byte[] raw, String type, int length)
+    {
+        RawPlane plane = RawPlane.decode(raw, type, length);
+        return plane == null ? null : plane.toFloats();
+    }
+
+    /**
+     * Maps the value according to the family.
+     *
+     * @param family The family.
+     * @param value The value to map.
+     * @param k The coefficient of the family.
+     * @return See above.
+     */
+    private static double map(int family, double value, double k)
+    {
+        switch (family) {
+            case POLYNOMIAL:
+                return Math.pow(value, k);
+            case EXPONENTIAL:
+                return Math.exp(Math.pow(value, k));
+            case LOGARITHMIC:
+                return value > 0 ? Math.log(value) : 0;
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param sizeX The number of pixels along the x-axis.
+     * @param channels The number of channels to render.
+     * @param greyScale Pass <code>true</code> to render the first channel in
+     *                  grey, <code>false</code> to combine the channels.
+     */
+    RawPlaneRenderer(int sizeX, int channels, boolean greyScale)
+    {
+        this.sizeX = sizeX;
+        this.greyScale = greyScale;
+        planes = new RawPlane[channels];
+        families = new int[channels];
+        coefficients = new double[channels];
+        starts = new double[channels];
+        scales = new double[channels];
+        reversed = new boolean[channels];
+        colors = new int[channels][3];
+    }
+
+    /**
+     * Sets the quantization parameters shared by the channels.
+     *
+     * @param bitResolution The maximum quantized value.
+     * @param cdStart The lower bound of the codomain interval.
+     * @param cdEnd The upper bound of the codomain interval.
+     */
+    void setQuantum(int bitResolution, int cdStart, int cdEnd)
+    {
+        this.bitResolution = bitResolution > 0 ? bitResolution : 255;
+        this.cdStart = cdStart;
+        this.cdEnd = cdEnd;
+    }
+
+    /**
+     * Sets the values and the settings of a channel.
+     *
+     * @param index The index of the channel, in the order of rendering.
+     * @param plane The raw values of the channel.
+     * @param start The lower bound of the window.
+     * @param end The upper bound of the window.
+     * @param family The family, one of the constants defined by this class.
+     * @param k The coefficient of the family.
+     * @param reverse Pass <code>true</code> to reverse the intensities.
+     * @param rgba The color of the channel.
+     */
+    void setChannel(int index, float[] plane, double start, double end,
+            int family, double k, boolean reverse, int[] rgba)
+    {
+        setChannel(index, RawPlane.wrap(plane), start, end, family, k,
+                reverse, rgba);
+    }
+
+    /**
+     * Sets the values and the settings of a channel.
+     *
+     * @param index The index of the channel, in the order of rendering.
+     * @param plane The raw values of the channel.
+     * @param start The lower bound of the window.
+     * @param end The upper bound of the window.
+     * @param family The family, one of the constants defined by this class.
+     * @param k The coefficient of the family.
+     * @param reverse Pass <code>true</code> to reverse the intensities.
+     * @param rgba The color of the channel.
+     */
+    void setChannel(int index, RawPlane plane, double start, double end,
+            int family, double k, boolean reverse, int[] rgba)
+    {
+        planes[index] = plane;
+        families[index] = family;
+        coefficients[index] = k;
+        double s = map(family, start, k);
+        double e = map(family, end, k);
+        starts[index] = s;
+        scales[index] = e > s ? 1/(e-s) : 0;
+        reversed[index] = reverse;
+        colors[index][0] = ChannelSplitter.scale(rgba[0], rgba[3]);
+        colors[index][1] = ChannelSplitter.scale(rgba[1], rgba[3]);
+        colors[index][2] = ChannelSplitter.scale(rgba[2], rgba[3]);
+    }
+
+    /**
+     * Renders the specified rows into the packed pixels.
+     *
+     * @param dst The packed pixels of the plane.
+     * @param fromRow The first row to render.
+     * @param toRow The row after the last one to render.
+     */
+    void render(int[] dst, int fromRow, int toRow)
+    {
+        int n = greyScale ? Math.min(1, planes.length) : planes.length;
+        int range = cdEnd-cdStart;
+        double q = bitResolution;
+        int end = toRow*sizeX;
+        int r, g, b, c, family;
+        double v;
+        for (int i = fromRow*sizeX; i < end; i++) {
+            r = 0;
+            g = 0;
+            b = 0;
+            for (int k = 0; k < n; k++) {
+                family = families[k];
+                v = planes[k].getValue(i);
+                if (family == LINEAR) v = (v-starts[k])*scales[k];
+                else v = (map(family, v, coefficients[k])-starts[k])*scales[k];
+                if (!(v > 0)) v = 0; //also handles NaN
+                else if (v > 1) v = 1;
+                c = (int) (v*q+0.5);
+                c = cdStart+(c*range+bitResolution/2)/bitResolution;
+                if (reversed[k]) c = cdEnd-c+cdStart;
+                if (greyScale) {
+                    r = c;
+                    g = c;
+                    b = c;
+                } else {
+                    r += (c*colors[k][0]+HALF) >> 16;
+                    g += (c*colors[k][1]+HALF) >> 16;
+                    b += (c*colors[k][2]+HALF) >> 16;
+                }
+            }
+            if (r > 255) r = 255;
+            if (g > 255) g = 255;
+            if (b > 255) b = 255;
+            dst[i] = 0xFF000000 | (r << 16) | (g << 8) | b;
+        }
+    }
+
+}
@@ -26,6 +26,7 @@ import java.awt.image.BufferedImage;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
 
 import omero.model.CodomainMapContext;
 import omero.model.Length;
@@ -34,6 +35,7 @@ import omero.gateway.exception.DSOutOfServiceException;
 import omero.gateway.exception.RenderingServiceException;
 
 import org.openmicroscopy.shoola.env.rnd.data.ResolutionLevel;
+import org.openmicroscopy.shoola.env.rnd.data.Tile;
 
 import omero.gateway.model.ChannelData;
 import omero.gateway.model.PixelsData;
@@ -595,6 +597,56 @@ public interface RenderingControl
 	 */
 	public boolean validatePixels(PixelsData pixels);
 	
+	/**
+	 * Renders, in the background, the specified XY planes with the current
+	 * settings so that they are cached when requested. This is a hint, the
+	 * planes will not be rendered if prefetching is turned off.
+	 * 
+	 * @param planes The planes likely to be requested next, in the order
+	 *               they will be requested.
+	 */
+	public void prefetch(List<PlaneDef> planes);
+	
+	/**
+	 * Renders, in the background, the specified tiles of the plane. The tiles
+	 * are rendered concurrently by the rendering engines available for the
+	 * image, in the order of the list. The tiles of the previous request
+	 * that have not been rendered yet are cancelled.
+	 * Each tile is added to the passed queue once processed, whether its
+	 * image was set or the tile was cancelled.
+	 * 
+	 * @param pDef The plane the tiles belong to.
+	 * @param tiles The tiles to render.
+	 * @param done The queue to add each tile to once processed.
+	 */
+	public void renderTiles(PlaneDef pDef, List<Tile> tiles,
+			BlockingQueue<Tile> done);
+	
+	/** Cancels the tiles that have not been rendered yet. */
+	public void cancelTiles();
+
+	/**
+	 * Renders each of the specified channels of the plane on its own,
+	 * as displayed in the split view. The current settings are not modified.
+	 * The channels are rendered on the client if possible, otherwise by the
+	 * rendering engine with the current compression level.
+	 * The images are returned in the order of the channels. If requested,
+	 * the combination of the channels in the RGB model is added last.
+	 * 
+	 * @param pDef The plane to render.
+	 * @param channels The indexes of the channels to render.
+	 * @param greyScale Pass <code>true</code> to render the channels in
+	 *                  grey, <code>false</code> to use their color.
+	 * @param combined Pass <code>true</code> to add the combined image,
+	 *                 <code>false</code> otherwise.
+	 * @return See above.
+	 * @throws RenderingServiceException 	If an error occurred.
+	 * @throws DSOutOfServiceException  	If the connection is broken.
+	 */
+	public List<BufferedImage> renderChannels(PlaneDef pDef,
+			List<Integer> channels, boolean greyScale, boolean combined)
+		throws RenderingServiceException, DSOutOfServiceException;
+	
 	/**
 	 * Sets the compression level.
 	 * 
@@ -873,4 +925,40 @@ public interface RenderingControl
      */
     boolean getReverseIntensity(int index);
 
+    /**
+     * Returns the histogram of the channel over the specified plane if
+     * already loaded or if it can be computed from the raw plane loaded to
+     * render the image on the client, <code>null</code> otherwise.
+     * The histogram has {@link PlaneStats#DEFAULT_BINS} bins over the range
+     * of the channel.
+     * 
+     * @param z The selected z-section.
+     * @param t The selected time-point.
+     * @param c The index of the channel.
+     * @return See above.
+     */
+    int[] getHistogram(int z, int t, int c);
+
+    /**
+     * Caches the histogram of the channel over the specified plane, e.g.
+     * loaded from the server.
+     * 
+     * @param z The selected z-section.
+     * @param t The selected time-point.
+     * @param c The index of the channel.
+     * @param histogram The histogram.
+     */
+    void setHistogram(int z, int t, int c, int[] histogram);
+
+    /**
+     * Returns the statistics of the channel over the stack at the specified
+     * time-point, <code>null</code> if the raw planes of the stack are not
+     * all loaded on the client.
+     * 
+     * @param t The selected time-point.
+     * @param c The index of the channel.
+     * @return See above.
+     */
+    PlaneStats getStackStats(int t, int c);
+
 }
@@ -27,7 +27,11 @@ import java.awt.Point;
 import java.awt.image.BufferedImage;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -36,10 +40,12 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 
 import omero.LockTimeout;
 import omero.api.RenderingEnginePrx;
 import omero.api.ResolutionDescription;
+import omero.gateway.cache.CacheService;
 import omero.model.CodomainMapContext;
 import omero.model.Family;
 import omero.model.IObject;
@@ -55,8 +61,6 @@ import omero.romio.ReverseIntensityMapContext;
 
 import org.openmicroscopy.shoola.env.LookupNames;
 
-import omero.gateway.cache.CacheService;
-
 import org.openmicroscopy.shoola.env.config.Registry;
 import org.openmicroscopy.shoola.env.data.ConnectionExceptionHandler;
 import org.openmicroscopy.shoola.env.data.model.ProjectionParam;
@@ -67,6 +71,7 @@ import omero.gateway.exception.RenderingServiceException;
 import omero.log.LogMessage;
 
 import org.openmicroscopy.shoola.env.rnd.data.ResolutionLevel;
+import org.openmicroscopy.shoola.env.rnd.data.Tile;
 import org.openmicroscopy.shoola.util.image.geom.Factory;
 import org.openmicroscopy.shoola.util.image.io.WriterImage;
 import org.openmicroscopy.shoola.util.ui.colourpicker.ColourPickerUtil;
@@ -113,6 +118,9 @@ class RenderingControlProxy
 	/** The maximum number of retry.*/
 	private static final int MAX_RETRY = 2;
 	
+	/** The maximum number of moves kept in the navigation history.*/
+	private static final int MAX_MOVES = 10;
+	
     /** List of supported families. */
     private List families;
     
@@ -125,8 +133,14 @@ class RenderingControlProxy
     /** Reference to service to render pixels set. */
     private RenderingEnginePrx servant;
 
-    /** The id of the cache associated to this proxy. */
-    private int cacheID;
+    /** The cache of rendered XY planes associated to this proxy. */
+    private XYCache xyCache;
+    
+    /** Keeps track of the XY planes rendered by this proxy. */
+    private NavigationHistory navigHistory;
+    
+    /** Renders in the background the planes likely to be requested next. */
+    private PlanePrefetcher prefetcher;
     
     /** The channel metadata. */
     private ChannelData[] metadata;
@@ -140,12 +154,9 @@ class RenderingControlProxy
     /** Helper reference to the registry. */
     private Registry context;
     
-    /** The size of the cache. */
+    /** The size, in bytes, of the cache. */
     private int cacheSize;
     
-    /** The size of the image. */
-    private int imageSize;
-    
     /** The rendering settings. */
     private Map<String, List<RndProxyDef>> settings;
     
@@ -164,6 +175,12 @@ class RenderingControlProxy
 	/** The associated rendering controls.*/
 	private List<RenderingControl> slaves;
 	
+	/** Renders the tiles using this control and the slaves.*/
+	private TileRenderingPool tilePool;
+	
+	/** The identifier of the persistent cache hosting the tiles.*/
+	private int tileCacheID = -1;
+	
 	/** Time of the last interaction.*/
 	private long lastAction;
 	
@@ -178,6 +195,15 @@ class RenderingControlProxy
 	
 	/** The lookup tables */
 	private Collection<String> lookupTables;
+
+	/** Renders the XY planes on the client or <code>null</code>.*/
+	private LocalRenderer localRenderer;
+
+	/** 
+	 * The channels whose window has been modified locally but not on the
+	 * rendering engine yet.
+	 */
+	private Set<Integer> pendingWindows;
 	
     /**
      * Maps the color channel Red to {@link #RED_INDEX}, Blue to 
@@ -262,6 +288,31 @@ class RenderingControlProxy
 		return sw.toString();
 	}
 
+    /**
+     * Returns <code>true</code> if the specified plane can be cached,
+     * <code>false</code> otherwise. Only the images corresponding to an
+     * entire XY-plane are cached.
+     * 
+     * @param pd The specified {@link PlaneDef plane definition}.
+     * @return See above.
+     */
+    private boolean isCacheable(PlaneDef pd)
+    {
+        return pd.slice == omero.romio.XY.value && pd.region == null;
+    }
+    
+    /**
+     * Returns the current rendering settings and compression level used to
+     * key the cached planes. The compression level is part of the key so the
+     * cache does not need to be cleared when it is modified.
+     * 
+     * @return See above.
+     */
+    private String getSettingsKey()
+    {
+        return rndDef.getSettingsKey()+"/"+compression;
+    }
+    
     /**
      * Retrieves from the cache the buffered image representing the specified
      * plane definition. Note that only the images corresponding to an XY-plane
@@ -273,10 +324,9 @@ class RenderingControlProxy
     private Object getFromCache(PlaneDef pd)
     {
         // We only cache XY images.
-    	if (pd.slice == omero.romio.XY.value && cacheID >= 0) {
-    		int index = pd.z+getPixelsDimensionsZ()*pd.t;
-    		return context.getCacheService().getElement(cacheID, index);
-    	}
+    	if (xyCache != null && isCacheable(pd))
+    		return xyCache.extract(pd, selectedResolutionLevel,
+    				getSettingsKey());
         return null;
     }
     
@@ -288,32 +338,52 @@ class RenderingControlProxy
      */
     private void cache(PlaneDef pd, Object object)
     {
-    	if (isBigImage()) return;
-        if (pd.slice == omero.romio.XY.value) {
-            //We only cache XY images.
-            //if (xyCache != null) xyCache.add(pd, object);
-        	if (cacheID >= 0) {
-        		int index = pd.z+getPixelsDimensionsZ()*pd.t;
-        		//context.getCacheService().addElement(cacheID,
-        			//	Integer.valueOf(index), object);
-        	}
-        }
+    	if (xyCache == null || object == null || !isCacheable(pd)) return;
+    	xyCache.add(pd, selectedResolutionLevel, getSettingsKey(), object);
+    }
+    
+    /**
+     * Records the specified plane as the current move so that the cache can
+     * determine the navigation direction.
+     * 
+     * @param pd The plane definition.
+     */
+    private void addMove(PlaneDef pd)
+    {
+    	if (navigHistory == null || !isCacheable(pd)) return;
+    	try {
+    		navigHistory.addMove(pd);
+    	} catch (Exception e) {
+    		//plane out of bounds, should not happen.
+    		log("Cannot record move: "+e.getMessage());
+    	}
+    }
+    
+    /**
+     * Prefetches the planes in the current navigation direction.
+     * 
+     * @param pd The plane just rendered.
+     */
+    private void prefetchNextMoves(PlaneDef pd)
+    {
+    	if (prefetcher == null || navigHistory == null || !isCacheable(pd))
+    		return;
+    	PlaneDef[] moves = navigHistory.guessNextMoves(prefetcher.getDepth());
+    	if (moves.length > 0) prefetch(Arrays.asList(moves));
     }
     
     /** Clears the cache. */
     private void invalidateCache()
     {
-    	if (isBigImage()) return;
-    	if (cacheID >= 0) context.getCacheService().clearCache(cacheID);
+    	if (xyCache != null) xyCache.clear();
     }
     
     /** Clears the cache and releases memory. */
     private void eraseCache()
     {
-    	if (isBigImage()) return;
     	invalidateCache();
-    	if (cacheID >=0)
-    		context.getCacheService().removeCache(cacheID);
+    	xyCache = null;
+    	navigHistory = null;
     }
     
     /**
@@ -323,37 +393,17 @@ class RenderingControlProxy
      */
     private void initializeCache(PlaneDef pDef)
     {
-    	if (isBigImage()) return;
-    	//if (xyCache != null) return;
-    	if (cacheID >= 0) return;
-    	/*
-    	if (pDef.getSlice() == PlaneDef.XY && xyCache == null) {
-    		//    		Okay, let's see if we can activate the xyCache.
-            //In order to 
-            //do that, the dimensions of the pixels array and the 
-            //xyImgSize have to be available. 
-            //This happens if at least one XY plane has been rendered.
-            //Note that doing remote calls upfront to eagerly 
-            //instantiate the xyCache is in most cases a total waste:
-            //the client is  likely to call getPixelsDims() before an
-            //image is ever  rendered and until an XY plane is 
-            //not requested it's pointless to have a cache.
-            xyCache = CachingService.createXYCache(pixs.getId(), length,
-            				getPixelsDimensionsZ(), getPixelsDimensionsT());
-    	}
-    	*/
-    	if (pDef.slice == omero.romio.XY.value) {
-    		try {
-    			cacheID = context.getCacheService().createCache(
-    					CacheService.IN_MEMORY, cacheSize/imageSize);
-			} catch (Exception e) {
-				//log the error for example if the cache manager could not
-				//be initialized.
-				LogMessage msg = new LogMessage();
-				msg.print("Initialize cache");
-				msg.print(e);
-				context.getLogger().error(this, msg);
-			}
+    	if (xyCache != null || !isCacheable(pDef)) return;
+    	//Until an XY plane is requested it's pointless to have a cache.
+    	try {
+    		navigHistory = new NavigationHistory(MAX_MOVES,
+    				getPixelsDimensionsZ(), getPixelsDimensionsT());
+    		xyCache = new XYCache(getPixelsID(), cacheSize, navigHistory);
+    	} catch (Exception e) {
+    		LogMessage msg = new LogMessage();
+    		msg.print("Initialize cache");
+    		msg.print(e);
+    		context.getLogger().error(this, msg);
     	}
     }
   
@@ -554,12 +604,15 @@ class RenderingControlProxy
 	private BufferedImage renderCompressedBI(PlaneDef pDef)
 		throws RenderingServiceException, DSOutOfServiceException
 	{
-		//Need to adjust the cache.
-		//Object array = getFromCache(pDef);
+		//See if the requested image is in cache.
+		BufferedImage img = (BufferedImage) getFromCache(pDef);
+		if (img != null) return img;
 		try {
 			byte[] values = servant.renderCompressed(pDef);
-			imageSize = values.length;
-			return WriterImage.bytesToImage(values);
+			initializeCache(pDef);
+			img = WriterImage.bytesToImage(values);
+			cache(pDef, img);
+			return img;
 		} catch (Throwable e) {
 			if (e instanceof LockTimeout && retry < MAX_RETRY) { //retry
 				retry++;
@@ -585,11 +638,10 @@ class RenderingControlProxy
 	{
 		//See if the requested image is in cache.
         BufferedImage img = (BufferedImage) getFromCache(pDef);
-        //if (img != null) return img;
+        if (img != null) return img;
         try {
         	int[] buf = servant.renderAsPackedInt(pDef);
             Point p = getSize(pDef);
-            imageSize = 3*buf.length;
             initializeCache(pDef);
             img = Factory.createImage(buf, 32, p.x, p.y);
             cache(pDef, img);
@@ -691,6 +743,79 @@ class RenderingControlProxy
 			ex.setIndex(RenderingServiceException.CONNECTION);
 			throw ex;
 		}
+		flushChannelWindows();
+	}
+
+	/**
+	 * Sets, on the rendering engine, the windows of the channels modified
+	 * while the planes were rendered on the client.
+	 * 
+	 * @throws RenderingServiceException If an error occurred while setting
+	 * the value.
+	 */
+	private void flushChannelWindows()
+		throws RenderingServiceException
+	{
+		if (pendingWindows.isEmpty()) return;
+		try {
+			ChannelBindingsProxy cb;
+			Iterator<Integer> i = pendingWindows.iterator();
+			int index;
+			while (i.hasNext()) {
+				index = i.next();
+				cb = rndDef.getChannel(index);
+				servant.setChannelWindow(index, cb.getInputStart(),
+						cb.getInputEnd());
+				i.remove();
+			}
+		} catch (Exception e) {
+			throw new RenderingServiceException("Cannot set the channel " +
+					"windows", e);
+		}
+	}
+
+	/**
+	 * Renders the plane on the client, returns <code>null</code> if the
+	 * plane has to be rendered by the rendering engine.
+	 * 
+	 * @param pDef The plane to render.
+	 * @return See above.
+	 */
+	private BufferedImage renderLocally(PlaneDef pDef)
+	{
+		if (localRenderer == null) return null;
+		BufferedImage img = (BufferedImage) getFromCache(pDef);
+		if (img != null) return img;
+		int[] buf = localRenderer.render(pDef, rndDef);
+		if (buf == null) return null;
+		Point p = getSize(pDef);
+		initializeCache(pDef);
+		img = Factory.createImage(buf, 32, p.x, p.y);
+		cache(pDef, img);
+		return img;
+	}
+
+	/**
+	 * Projects the selected optical sections on the client, returns
+	 * <code>null</code> if the projection has to be done by the rendering
+	 * engine.
+	 * 
+	 * @param startZ The first optical section.
+	 * @param endZ The last optical section.
+	 * @param stepping The stepping of the projection.
+	 * @param type The projection type.
+	 * @param channels The channels to project.
+	 * @return See above.
+	 */
+	private BufferedImage renderProjectedLocally(int startZ, int endZ,
+			int stepping, int type, List<Integer> channels)
+	{
+		if (localRenderer == null) return null;
+		int[] buf = localRenderer.renderProjected(startZ, endZ, stepping,
+				type, channels, getDefaultT(), rndDef);
+		if (buf == null) return null;
+		return Factory.createImage(buf, 32, getPixelsDimensionsX(),
+				getPixelsDimensionsY());
 	}
 
 	/**
@@ -734,6 +859,7 @@ class RenderingControlProxy
             throw new NullPointerException("No security context.");
         this.ctx = ctx;
         slaves = new ArrayList<RenderingControl>();
+        pendingWindows = new HashSet<Integer>();
         resolutionLevels = -1;
         selectedResolutionLevel = -1;
         lastAction = System.currentTimeMillis();
@@ -747,8 +873,6 @@ class RenderingControlProxy
         try {
         	families = servant.getAvailableFamilies();
             models = servant.getAvailableModels();
-            cacheID = -1;
-            imageSize = 1;
             this.compression = compression;
             metadata = new ChannelData[m.size()];
             Iterator<ChannelData> j = m.iterator();
@@ -851,6 +975,7 @@ class RenderingControlProxy
     	this.servant = servant;
     	shutDown = false;
     	lastAction = System.currentTimeMillis();
+    	pendingWindows.clear();
     	try {
     		if (rndDef == null) {
             	initialize();
@@ -893,6 +1018,7 @@ class RenderingControlProxy
     	this.servant = servant;
     	shutDown = false;
     	lastAction = System.currentTimeMillis();
+    	pendingWindows.clear();
     	// reset default of the rendering engine.
     	if (rndDef == null) return;
     	try {
@@ -949,8 +1075,27 @@ class RenderingControlProxy
     {
     	if (shutDown) return shutDown;
     	try {
-    		if (!keepCache && cacheID >= 0)
-    			context.getCacheService().removeCache(cacheID);
+    		if (xyCache != null) log(xyCache.getStatistics());
+    		if (prefetcher != null) {
+    			log(prefetcher.getStatistics());
+    			prefetcher.shutDown();
+    			prefetcher = null;
+    		}
+    		if (tilePool != null) {
+    			log(tilePool.getStatistics());
+    			tilePool.shutDown();
+    			tilePool = null;
+    		}
+    		if (localRenderer != null) {
+    			log(localRenderer.getStatistics());
+    			localRenderer.shutDown();
+    			localRenderer = null;
+    		}
+    		if (tileCacheID >= 0) {
+    			context.getCacheService().removeCache(tileCacheID);
+    			tileCacheID = -1;
+    		}
+    		if (!keepCache) eraseCache();
     		Iterator<RenderingControl> j = slaves.iterator();
 			while (j.hasNext())
 				((RenderingControlProxy) j.next()).shutDown();
@@ -971,9 +1116,240 @@ class RenderingControlProxy
 	 */
 	void setCacheSize(int size)
 	{
-		if (imageSize == 0) imageSize = 1;
-		if (cacheID >= 0)
-			context.getCacheService().setCacheEntries(cacheID, size/imageSize);
+		cacheSize = size;
+		if (xyCache != null) xyCache.resetCacheSize(size);
+	}
+	
+	/**
+	 * Sets the rendering engine used to render in the background the planes
+	 * likely to be requested next. Prefetching is turned off if the passed
+	 * depth is not positive.
+	 * 
+	 * @param re The rendering engine dedicated to prefetching.
+	 * @param depth The maximum number of planes to render ahead of the
+	 *              current one.
+	 */
+	void setPrefetchingEngine(RenderingEnginePrx re, int depth)
+	{
+		if (prefetcher != null) {
+			prefetcher.shutDown();
+			prefetcher = null;
+		}
+		if (re == null || depth <= 0) return;
+		List<ChannelData> m = new ArrayList<ChannelData>();
+		for (int i = 0; i < metadata.length; i++) {
+			if (metadata[i] != null) m.add(metadata[i]);
+		}
+		//Do not pass the settings so the proxy reflects the state of the
+		//engine, the settings are synchronized before rendering.
+		RenderingControlProxy proxy = new RenderingControlProxy(context, ctx,
+				re, pixs, m, compression, new ArrayList<RndProxyDef>(), 0);
+		prefetcher = new PlanePrefetcher(this, proxy, depth);
+	}
+	
+	/**
+	 * Applies the specified settings to the rendering engine if they differ
+	 * from the current ones. The changes are not propagated to the slaves.
+	 * This method should only be invoked on a proxy used for prefetching.
+	 * 
+	 * @param def The settings to apply.
+	 * @param level The resolution level or <code>-1</code>.
+	 * @param value The compression level.
+	 * @throws RenderingServiceException If an error occurred while setting
+     * the value.
+     * @throws DSOutOfServiceException If the connection is broken.
+	 */
+	void syncSettings(RndProxyDef def, int level, int value)
+		throws RenderingServiceException, DSOutOfServiceException
+	{
+		if (value != compression) setCompression(value);
+		if (level >= 0 && level != selectedResolutionLevel)
+			setSelectedResolutionLevel(level);
+		if (def.getSettingsKey().equals(rndDef.getSettingsKey())) return;
+		String model = def.getColorModel();
+		if (model != null && !model.equals(rndDef.getColorModel()))
+			setModel(model);
+		if (def.getCdStart() != rndDef.getCdStart() ||
+				def.getCdEnd() != rndDef.getCdEnd())
+			setCodomainInterval(def.getCdStart(), def.getCdEnd());
+		if (def.getBitResolution() != rndDef.getBitResolution())
+			setQuantumStrategy(def.getBitResolution());
+		ChannelBindingsProxy c, cb;
+		for (int i = 0; i < getPixelsDimensionsC(); i++) {
+			c = def.getChannel(i);
+			cb = rndDef.getChannel(i);
+			if (c == null || cb == null ||
+					c.getSettingsKey().equals(cb.getSettingsKey()))
+				continue;
+			if (!Arrays.equals(c.getRGBA(), cb.getRGBA()))
+				setRGBA(i, c.getRGBA());
+			String lut = c.getLookupTable();
+			if (lut == null ? cb.getLookupTable() != null :
+				!lut.equals(cb.getLookupTable()))
+				setLookupTable(i, lut);
+			if (c.getReverseIntensity() != cb.getReverseIntensity())
+				setReverseIntensity(i, c.getReverseIntensity());
+			if (c.getInputStart() != cb.getInputStart() ||
+					c.getInputEnd() != cb.getInputEnd())
+				setChannelWindow(i, c.getInputStart(), c.getInputEnd());
+			if (c.getCurveCoefficient() != cb.getCurveCoefficient() ||
+					c.isNoiseReduction() != cb.isNoiseReduction() ||
+					(c.getFamily() != null &&
+					!c.getFamily().equals(cb.getFamily())))
+				setQuantizationMap(i, c.getFamily(), c.getCurveCoefficient(),
+						c.isNoiseReduction());
+			if (c.isActive() != cb.isActive()) setActive(i, c.isActive());
+		}
+	}
+	
+	/**
+	 * Renders the specified plane without looking up the cache.
+	 * This method should only be invoked on a proxy used for prefetching.
+	 * 
+	 * @param pDef The plane to render.
+	 * @return See above.
+	 * @throws RenderingServiceException If an error occurred while setting
+     * the value.
+     * @throws DSOutOfServiceException If the connection is broken.
+	 */
+	BufferedImage renderPrefetched(PlaneDef pDef)
+		throws RenderingServiceException, DSOutOfServiceException
+	{
+		retry = 0;
+		lastAction = System.currentTimeMillis();
+		if (isCompressed()) return renderCompressedBI(pDef);
+		return renderUncompressed(pDef);
+	}
+	
+	/**
+	 * Returns <code>true</code> if the specified plane rendered with the
+	 * passed settings is cached, <code>false</code> otherwise.
+	 * 
+	 * @param pd The plane to check.
+	 * @param level The resolution level.
+	 * @param settings The settings.
+	 * @return See above.
+	 */
+	boolean isCached(PlaneDef pd, int level, String settings)
+	{
+		XYCache cache = xyCache;
+		return cache != null && cache.contains(pd, level, settings);
+	}
+	
+	/**
+	 * Adds the plane rendered in the background to the cache.
+	 * 
+	 * @param pd The plane.
+	 * @param level The resolution level.
+	 * @param settings The settings used to render the plane.
+	 * @param img The rendered image.
+	 */
+	void cachePrefetched(PlaneDef pd, int level, String settings,
+			BufferedImage img)
+	{
+		XYCache cache = xyCache;
+		if (cache != null && isCacheable(pd))
+			cache.add(pd, level, settings, img);
+	}
+	
+	/**
+	 * Logs a message related to the prefetching of planes.
+	 * 
+	 * @param message The message to log.
+	 */
+	void logPrefetch(String message) { log(message); }
+
+	/**
+	 * Logs a message related to the rendering of planes on the client.
+	 * 
+	 * @param message The message to log.
+	 */
+	void logLocalRendering(String message) { log(message); }
+
+	/**
+	 * Returns the raw plane loaded to render the image on the client,
+	 * <code>null</code> if not loaded.
+	 * 
+	 * @param z The selected z-section.
+	 * @param t The selected time-point.
+	 * @param c The selected channel.
+	 * @return See above.
+	 */
+	RawPlane getRawPlane(int z, int t, int c)
+	{
+		LocalRenderer renderer = localRenderer;
+		if (renderer == null) return null;
+		return renderer.getRawPlane(z, t, c);
+	}
+
+	/**
+	 * Computes and caches the statistics of the raw plane over the range
+	 * of the channel.
+	 * 
+	 * @param z The selected z-section.
+	 * @param t The selected time-point.
+	 * @param c The selected channel.
+	 * @param values The raw values.
+	 * @return See above.
+	 */
+	PlaneStats computeStats(int z, int t, int c, RawPlane values)
+	{
+		ChannelData data = getChannelData(c);
+		PlaneStats stats = PlaneStats.compute(values, data.getGlobalMin(),
+				data.getGlobalMax(), PlaneStats.DEFAULT_BINS);
+		StatsCache.put(getPixelsID(), z, t, c, stats);
+		return stats;
+	}
+
+	/**
+	 * Turns on the rendering of the planes on the client. The planes of
+	 * big images and of the types that cannot be decoded are always
+	 * rendered by the server, as are the images whose channels do not fit
+	 * in the cache. The XZ and ZY planes are always rendered by the server,
+	 * the stacks are only streamed to compute the projections.
+	 * The sizes of the cache and of the buffers are shared by the images
+	 * rendered on the client.
+	 * 
+	 * @param size The size, in Mb, of the cache hosting the raw planes.
+	 *             Local rendering is turned off if not positive.
+	 * @param stackSize The size, in Mb, of the buffers hosting the stacks.
+	 * @param blockSize The size, in Kb, of the blocks written into a stack.
+	 */
+	void setLocalRendering(int size, int stackSize, int blockSize)
+	{
+		if (localRenderer != null) {
+			localRenderer.shutDown();
+			localRenderer = null;
+		}
+		String type = pixs.getPixelsType().getValue().getValue();
+		long budget = size*1024L*1024L;
+		long stack = (long) Math.max(1, StackBuffer.getBytesPerPixel(type))*
+				getPixelsDimensionsX()*getPixelsDimensionsY()*
+				getPixelsDimensionsC();
+		if (size <= 0 || stack > budget || isBigImage() ||
+				!RawPlaneRenderer.isSupported(type))
+			return;
+		MemoryBudget.PLANES.setLimit(budget);
+		MemoryBudget.STACKS.setLimit(stackSize*1024L*1024L);
+		localRenderer = new LocalRenderer(this, getPixelsDimensionsX(),
+				getPixelsDimensionsY(), getPixelsDimensionsZ(), type,
+				Math.max(1, blockSize)*1024);
+	}
+
+	/**
+	 * Returns the raw XY plane identified by the passed z-section,
+	 * time-point and channel.
+	 * 
+	 * @param z The selected z-section.
+	 * @param t The selected time-point.
+	 * @param c The selected channel.
+	 * @return See above.
+	 * @throws Exception If an error occurred while loading the plane.
+	 */
+	byte[] loadRawPlane(int z, int t, int c)
+		throws Exception
+	{
+		return context.getImageService().getPlane(ctx, getPixelsID(), z, t, c);
 	}
 	
     /** 
@@ -1178,6 +1554,18 @@ class RenderingControlProxy
     public void setChannelWindow(int index, double start, double end)
     	throws RenderingServiceException, DSOutOfServiceException
     {
+    	if (localRenderer != null) {
+    		//The planes are rendered on the client, the rendering engine
+    		//is updated before it is next used.
+    		lastAction = System.currentTimeMillis();
+    		rndDef.getChannel(index).setInterval(start, end);
+    		pendingWindows.add(index);
+    		Iterator<RenderingControl> i = slaves.iterator();
+    		while (i.hasNext())
+    			i.next().setChannelWindow(index, start, end);
+    		invalidateCache();
+    		return;
+    	}
     	isSessionAlive();
     	try {
     		servant.setChannelWindow(index, start, end);
@@ -1669,29 +2057,430 @@ class RenderingControlProxy
 	 * Implemented as specified by {@link RenderingControl}.
 	 * @see RenderingControl#render(PlaneDef, int)
 	 */
-    public BufferedImage render(PlaneDef pDef, int value)
+    public synchronized BufferedImage render(PlaneDef pDef, int value)
     	throws RenderingServiceException, DSOutOfServiceException
     {
     	if (pDef == null) 
              throw new IllegalArgumentException("Plane def cannot be null.");
+    	BufferedImage local = renderLocally(pDef);
+    	if (local != null) {
+    		addMove(pDef);
+    		prefetchNextMoves(pDef);
+    		return local;
+    	}
     	try {
     	    context.getImageService().isAlive(ctx);
 			servant.ice_ping();
 		} catch (Exception e) {
 			return null;
 		}
+    	flushChannelWindows();
     	retry = 0;
     	//since this method is always invoked after another change in
     	//the settings and due to the fact that the proxy is usually invoked
     	//in the swing thread.
-    	if (value != compression) setCompression(value);
+    	int c = compression;
+    	if (value != c) setCompression(value);
+    	addMove(pDef);
     	BufferedImage img;
         if (isCompressed()) img = renderCompressedBI(pDef);
         else img = renderUncompressed(pDef);
-        if (value != compression) setCompression(compression);
+        prefetchNextMoves(pDef);
+        if (value != c) setCompression(c);
         return img;
     }
     
+    /**
+     * Sets the model of the rendering engine without modifying the settings.
+     * 
+     * @param value The model to set.
+     * @throws Exception If an error occurred while setting the value.
+     */
+    private void setServantModel(String value)
+    	throws Exception
+    {
+    	Iterator i = models.iterator();
+    	RenderingModel model;
+    	while (i.hasNext()) {
+    		model = (RenderingModel) i.next();
+    		if (model.getValue().getValue().equals(value))
+    			servant.setModel(model);
+    	}
+    }
+
+    /**
+     * Turns on the specified channels of the rendering engine and turns
+     * off the other ones, without modifying the settings.
+     * 
+     * @param active The channels currently active on the engine, updated.
+     * @param channels The channels to turn on.
+     * @throws Exception If an error occurred while setting the value.
+     */
+    private void selectServantChannels(boolean[] active,
+    		List<Integer> channels)
+    	throws Exception
+    {
+    	boolean b;
+    	for (int i = 0; i < active.length; i++) {
+    		b = channels.contains(i);
+    		if (active[i] != b) {
+    			servant.setActive(i, b);
+    			active[i] = b;
+    		}
+    	}
+    }
+
+    /**
+     * Restores the model, the active channels, the colors and the lookup
+     * tables of the rendering engine from the settings.
+     * 
+     * @param active The channels currently active on the engine.
+     * @param modified The channels whose color or lookup table was modified.
+     * @throws Exception If an error occurred while setting the value.
+     */
+    private void restoreServant(boolean[] active, Set<Integer> modified)
+    	throws Exception
+    {
+    	setServantModel(rndDef.getColorModel());
+    	ChannelBindingsProxy cb;
+    	for (int i = 0; i < active.length; i++) {
+    		cb = rndDef.getChannel(i);
+    		if (active[i] != cb.isActive()) servant.setActive(i, cb.isActive());
+    	}
+    	Iterator<Integer> i = modified.iterator();
+    	int index;
+    	int[] rgba;
+    	while (i.hasNext()) {
+    		index = i.next();
+    		cb = rndDef.getChannel(index);
+    		rgba = cb.getRGBA();
+    		servant.setRGBA(index, rgba[0], rgba[1], rgba[2], rgba[3]);
+    		if (cb.getLookupTable() != null)
+    			servant.setChannelLookupTable(index, cb.getLookupTable());
+    	}
+    }
+
+    /**
+     * Turns on the specified channels of the settings and turns off the
+     * other ones.
+     * 
+     * @param def The settings to modify.
+     * @param channels The channels to turn on.
+     */
+    private static void selectChannels(RndProxyDef def, List<Integer> channels)
+    {
+    	ChannelBindingsProxy cb;
+    	for (int i = 0; i < def.getNumberOfChannels(); i++) {
+    		cb = def.getChannel(i);
+    		if (cb != null) cb.setActive(channels.contains(i));
+    	}
+    }
+
+    /**
+     * Renders the plane with the current state of the rendering engine and
+     * returns the packed RGB pixels. The compressed image is requested and
+     * decoded if the compression is turned on.
+     * 
+     * @param pDef The plane to render.
+     * @return See above.
+     * @throws Exception If an error occurred while rendering the plane.
+     */
+    private int[] renderServantAsPackedInt(PlaneDef pDef)
+    	throws Exception
+    {
+    	if (!isCompressed()) return servant.renderAsPackedInt(pDef);
+    	BufferedImage img = WriterImage.bytesToImage(
+    			servant.renderCompressed(pDef));
+    	Point p = getSize(pDef);
+    	return img.getRGB(0, 0, p.x, p.y, null, 0, p.x);
+    }
+
+    /**
+     * Renders each of the specified channels on its own on the client,
+     * from a copy of the settings, so that neither the settings nor the
+     * rendering engine are modified. Returns <code>null</code> if the
+     * channels have to be rendered by the rendering engine.
+     * 
+     * @param pDef The plane to render.
+     * @param channels The indexes of the channels to render.
+     * @param greyScale Pass <code>true</code> to render the channels in
+     *                  grey, <code>false</code> to use their color.
+     * @param combined Pass <code>true</code> to add the combined image,
+     *                 <code>false</code> otherwise.
+     * @return See above.
+     */
+    private List<BufferedImage> renderChannelsLocally(PlaneDef pDef,
+    		List<Integer> channels, boolean greyScale, boolean combined)
+    {
+    	LocalRenderer renderer = localRenderer;
+    	if (renderer == null) return null;
+    	RndProxyDef def;
+    	synchronized (this) {
+    		def = rndDef.copy();
+    	}
+    	Point p = getSize(pDef);
+    	List<BufferedImage> images = new ArrayList<BufferedImage>();
+    	int[] buf;
+    	def.setColorModel(greyScale ? GREY_SCALE : RGB);
+    	for (int k = 0; k < channels.size(); k++) {
+    		selectChannels(def, channels.subList(k, k+1));
+    		buf = renderer.render(pDef, def);
+    		if (buf == null) return null;
+    		images.add(Factory.createImage(buf, 32, p.x, p.y));
+    	}
+    	if (combined) {
+    		selectChannels(def, channels);
+    		def.setColorModel(RGB);
+    		buf = renderer.render(pDef, def);
+    		if (buf == null) return null;
+    		images.add(Factory.createImage(buf, 32, p.x, p.y));
+    	}
+    	return images;
+    }
+
+    /**
+     * Renders each of the specified channels on its own with the rendering
+     * engine. The channels are rendered three at a time as the bands of a
+     * packed image, or one at a time in grey if the compression is turned
+     * on since the bands of a compressed image are not independent.
+     * The engine is modified directly and restored afterwards, the settings,
+     * the slaves and the cache are left untouched.
+     * 
+     * @param pDef The plane to render.
+     * @param channels The indexes of the channels to render.
+     * @param greyScale Pass <code>true</code> to render the channels in
+     *                  grey, <code>false</code> to use their color.
+     * @param combined Pass <code>true</code> to add the combined image,
+     *                 <code>false</code> otherwise.
+     * @return See above.
+     * @throws RenderingServiceException If an error occurred.
+     * @throws DSOutOfServiceException If the connection is broken.
+     */
+    private synchronized List<BufferedImage> renderChannelsOnServer(
+    		PlaneDef pDef, List<Integer> channels, boolean greyScale,
+    		boolean combined)
+    	throws RenderingServiceException, DSOutOfServiceException
+    {
+    	List<BufferedImage> images = new ArrayList<BufferedImage>();
+    	isSessionAlive();
+    	int n = channels.size();
+    	boolean[] active = new boolean[getPixelsDimensionsC()];
+    	for (int i = 0; i < active.length; i++)
+    		active[i] = rndDef.getChannel(i).isActive();
+    	Set<Integer> modified = new HashSet<Integer>();
+    	int[][] values = new int[n][];
+    	int[][] colors = new int[n][];
+    	Throwable failure = null;
+    	boolean compressed = isCompressed();
+    	int bands = compressed ? 1 : ChannelSplitter.BANDS;
+    	try {
+    		setServantModel(compressed ? GREY_SCALE : RGB);
+    		int end, index;
+    		int[] rgba, buf;
+    		for (int j = 0; j < n; j += bands) {
+    			end = Math.min(j+bands, n);
+    			selectServantChannels(active, channels.subList(j, end));
+    			for (int k = j; k < end; k++) {
+    				index = channels.get(k);
+    				modified.add(index);
+    				rgba = ChannelSplitter.getBandColor(k-j);
+    				servant.setRGBA(index, rgba[0], rgba[1], rgba[2], rgba[3]);
+    				if (getLookupTable(index) != null)
+    					servant.setChannelLookupTable(index, null);
+    			}
+    			buf = renderServantAsPackedInt(pDef);
+    			for (int k = j; k < end; k++)
+    				values[k] = ChannelSplitter.extractBand(buf, k-j);
+    		}
+    		//The colors of a lookup table cannot be derived from the
+    		//intensities, render the channel on its own.
+    		if (!greyScale || combined) {
+    			ChannelBindingsProxy cb;
+    			boolean rgb = !compressed;
+    			for (int k = 0; k < n; k++) {
+    				index = channels.get(k);
+    				cb = rndDef.getChannel(index);
+    				if (cb.getLookupTable() == null) continue;
+    				if (!rgb) {
+    					setServantModel(RGB);
+    					rgb = true;
+    				}
+    				rgba = cb.getRGBA();
+    				servant.setRGBA(index, rgba[0], rgba[1], rgba[2], rgba[3]);
+    				servant.setChannelLookupTable(index, cb.getLookupTable());
+    				selectServantChannels(active, channels.subList(k, k+1));
+    				colors[k] = renderServantAsPackedInt(pDef);
+    			}
+    		}
+    	} catch (Throwable e) {
+    		failure = e;
+    	}
+    	try {
+    		restoreServant(active, modified);
+    	} catch (Throwable e) {
+    		if (failure == null) failure = e;
+    	}
+    	if (failure != null) {
+    		handleException(failure, ERROR_RENDER+"the channels.");
+    		return images;
+    	}
+    	Point p = getSize(pDef);
+    	int[] sum = null;
+    	if (combined) sum = new int[p.x*p.y];
+    	int[] color;
+    	for (int k = 0; k < n; k++) {
+    		color = colors[k];
+    		if (color == null && (!greyScale || combined))
+    			color = ChannelSplitter.toColor(values[k],
+    					rndDef.getChannel(channels.get(k)).getRGBA());
+    		if (sum != null) ChannelSplitter.add(sum, color);
+    		if (greyScale)
+    			images.add(Factory.createImage(
+    					ChannelSplitter.toGrey(values[k]), 32, p.x, p.y));
+    		else images.add(Factory.createImage(color, 32, p.x, p.y));
+    	}
+    	if (sum != null) images.add(Factory.createImage(sum, 32, p.x, p.y));
+    	return images;
+    }
+
+    /** 
+	 * Implemented as specified by {@link RenderingControl}.
+	 * @see RenderingControl#renderChannels(PlaneDef, List, boolean, boolean)
+	 */
+    public List<BufferedImage> renderChannels(PlaneDef pDef,
+    		List<Integer> channels, boolean greyScale, boolean combined)
+    	throws RenderingServiceException, DSOutOfServiceException
+    {
+    	if (pDef == null) 
+            throw new IllegalArgumentException("Plane def cannot be null.");
+    	if (channels == null || channels.isEmpty())
+    		return new ArrayList<BufferedImage>();
+    	List<BufferedImage> images = renderChannelsLocally(pDef, channels,
+    			greyScale, combined);
+    	if (images != null) return images;
+    	return renderChannelsOnServer(pDef, channels, greyScale, combined);
+    }
+
+    /** 
+	 * Implemented as specified by {@link RenderingControl}.
+	 * @see RenderingControl#prefetch(List)
+	 */
+    public void prefetch(List<PlaneDef> planes)
+    {
+    	if (localRenderer != null) localRenderer.preload(planes, rndDef);
+    	if (prefetcher == null || planes == null || xyCache == null) return;
+    	prefetcher.prefetch(planes, rndDef.copy(), getSettingsKey(),
+    			selectedResolutionLevel, compression);
+    }
+    
+    /** 
+	 * Implemented as specified by {@link RenderingControl}.
+	 * @see RenderingControl#renderTiles(PlaneDef, List, BlockingQueue)
+	 */
+    public synchronized void renderTiles(PlaneDef pDef, List<Tile> tiles,
+    		BlockingQueue<Tile> done)
+    {
+    	if (pDef == null)
+    		throw new IllegalArgumentException("Plane def cannot be null.");
+    	if (tiles == null || done == null) return;
+    	if (isShutDown()) {
+    		done.addAll(tiles);
+    		return;
+    	}
+    	if (tilePool == null) {
+    		List<RenderingControlProxy> l =
+    				new ArrayList<RenderingControlProxy>();
+    		l.add(this);
+    		Iterator<RenderingControl> i = slaves.iterator();
+    		while (i.hasNext())
+    			l.add((RenderingControlProxy) i.next());
+    		CacheService cache = context.getCacheService();
+    		Integer size = (Integer) context.lookup(LookupNames.TILE_CACHE_SZ);
+    		if (cache != null && size != null && size.intValue() > 0)
+    			tileCacheID = cache.createCache(
+    					CacheService.PERSISTENCE_ON_DISK, size.intValue());
+    		tilePool = new TileRenderingPool(l, cache, tileCacheID);
+    	}
+    	tilePool.render(pDef, tiles, done, getTileCachePrefix());
+    }
+    
+    /**
+     * Returns the prefix of the keys identifying the tiles rendered with the
+     * current settings in the persistent cache. The settings are identified
+     * by a <code>SHA-1</code> digest of their full description.
+     * 
+     * @return See above.
+     */
+    private String getTileCachePrefix()
+    {
+    	String server = null;
+    	try {
+    		server = context.getAdminService().getServerName();
+    	} catch (Exception e) {
+    		//ignore
+    	}
+    	StringBuffer buf = new StringBuffer();
+    	buf.append("tile/");
+    	buf.append(server+"/");
+    	buf.append(getPixelsID()+"/");
+    	buf.append(selectedResolutionLevel+"/");
+    	String key = getSettingsKey();
+    	try {
+    		//The settings are too long to be part of every key.
+    		MessageDigest md = MessageDigest.getInstance("SHA-1");
+    		byte[] digest = md.digest(key.getBytes(StandardCharsets.UTF_8));
+    		for (int j = 0; j < digest.length; j++)
+    			buf.append(String.format("%02x", digest[j]));
+    	} catch (NoSuchAlgorithmException e) {
+    		buf.append(key);
+    	}
+    	buf.append("/");
+    	return buf.toString();
+    }
+    
+    /**
+     * Renders the specified plane and returns the encoded image: the
+     * <code>JPEG</code> image returned by the rendering engine if compressed,
+     * a <code>PNG</code> image otherwise. The image is not cached.
+     * 
+     * @param pDef The plane to render.
+     * @return See above.
+     * @throws RenderingServiceException If an error occurred while setting
+     *                                   the value.
+     * @throws DSOutOfServiceException If the connection is broken.
+     */
+    byte[] renderEncoded(PlaneDef pDef)
+    	throws RenderingServiceException, DSOutOfServiceException
+    {
+    	if (pDef == null) 
+    		throw new IllegalArgumentException("Plane def cannot be null.");
+    	if (isCompressed()) {
+    		try {
+    			return servant.renderCompressed(pDef);
+    		} catch (Throwable e) {
+    			handleException(e, ERROR_RENDER+"the compressed image.");
+    		}
+    		return null;
+    	}
+    	BufferedImage img = renderUncompressed(pDef);
+    	if (img == null) return null;
+    	try {
+    		return WriterImage.imageToByteStream(img, WriterImage.PNG);
+    	} catch (Exception e) {
+    		log("Cannot encode the tile: "+e.getMessage());
+    	}
+    	return null;
+    }
+    
+    /** 
+	 * Implemented as specified by {@link RenderingControl}.
+	 * @see RenderingControl#cancelTiles()
+	 */
+    public synchronized void cancelTiles()
+    {
+    	if (tilePool != null) tilePool.cancel();
+    }
+    
     /** 
 	 * Implemented as specified by {@link RenderingControl}.
 	 * @see RenderingControl#setCompression(int)
@@ -1707,7 +2496,6 @@ class RenderingControlProxy
 			Iterator<RenderingControl> i = slaves.iterator();
 			while (i.hasNext())
 				i.next().setCompression(compression);
-			eraseCache();
 		} catch (Exception e) {}
 	}
 
@@ -1775,6 +2563,9 @@ class RenderingControlProxy
 			                           int type, List<Integer> channels) 
 		throws RenderingServiceException, DSOutOfServiceException
 	{
+		BufferedImage img = renderProjectedLocally(startZ, endZ, stepping,
+				type, channels);
+		if (img != null) return img;
 		List<Integer> active = getActiveChannels();
 		for (int i = 0; i < getPixelsDimensionsC(); i++) 
 			setActive(i, false);
@@ -1782,7 +2573,6 @@ class RenderingControlProxy
 		Iterator<Integer> j = channels.iterator();
 		while (j.hasNext()) 
 			setActive(j.next(), true);
-		BufferedImage img;
 		retry = 0;
         if (isCompressed()) 
         	img = renderProjectedCompressed(startZ, endZ, stepping, type);
@@ -2017,6 +2807,7 @@ class RenderingControlProxy
 		throws RenderingServiceException, DSOutOfServiceException
 	{
 		tileSize = null;
+		cancelTiles();
 		if (level > getResolutionLevels())
 			level = getResolutionLevels();
 		isSessionAlive();
@@ -2226,4 +3017,58 @@ class RenderingControlProxy
                     + ".");
         }
     }
+
+    /**
+     * Implemented as specified by {@link RenderingControl}.
+     * 
+     * @see RenderingControl#getHistogram(int, int, int)
+     */
+    public int[] getHistogram(int z, int t, int c)
+    {
+        ChannelData data = getChannelData(c);
+        PlaneStats stats = StatsCache.get(getPixelsID(), z, t, c,
+                PlaneStats.DEFAULT_BINS, data.getGlobalMin(),
+                data.getGlobalMax());
+        if (stats == null) {
+            RawPlane values = getRawPlane(z, t, c);
+            if (values != null) stats = computeStats(z, t, c, values);
+        }
+        return stats == null ? null : stats.getHistogram();
+    }
+
+    /**
+     * Implemented as specified by {@link RenderingControl}.
+     * 
+     * @see RenderingControl#setHistogram(int, int, int, int[])
+     */
+    public void setHistogram(int z, int t, int c, int[] histogram)
+    {
+        if (histogram == null) return;
+        ChannelData data = getChannelData(c);
+        StatsCache.put(getPixelsID(), z, t, c, new PlaneStats(
+                data.getGlobalMin(), data.getGlobalMax(), histogram));
+    }
+
+    /**
+     * Implemented as specified by {@link RenderingControl}.
+     * 
+     * @see RenderingControl#getStackStats(int, int)
+     */
+    public PlaneStats getStackStats(int t, int c)
+    {
+        ChannelData data = getChannelData(c);
+        double start = data.getGlobalMin();
+        double end = data.getGlobalMax();
+        PlaneStats stats = StatsCache.get(getPixelsID(), StatsCache.STACK, t,
+                c, PlaneStats.DEFAULT_BINS, start, end);
+        if (stats != null) return stats;
+        LocalRenderer renderer = localRenderer;
+        if (renderer == null) return null;
+        stats = renderer.getStackStats(t, c, start, end,
+                PlaneStats.DEFAULT_BINS);
+        if (stats != null)
+            StatsCache.put(getPixelsID(), StatsCache.STACK, t, c, stats);
+        return stats;
+    }
+
 }
@@ -32,6 +32,7 @@ import java.sql.Timestamp;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.TreeSet;
 
 import omero.model.RenderingDef;
 
@@ -291,6 +292,32 @@ public class RndProxyDef
         return copy;
     }
 
+    /**
+     * Returns the values used to render a plane i.e. all the settings but
+     * the selected z-section and timepoint, written out in full. Two
+     * settings have the same key if and only if they produce the same image.
+     * 
+     * @return See above.
+     */
+    String getSettingsKey()
+    {
+        StringBuffer buf = new StringBuffer();
+        buf.append(bitResolution);
+        buf.append(',').append(cdStart);
+        buf.append(',').append(cdEnd);
+        buf.append(',').append(colorModel == null ? -1 : colorModel.length());
+        buf.append(':').append(colorModel);
+        buf.append(',').append(compression);
+        Iterator<Integer> i = new TreeSet<Integer>(channels.keySet()).iterator();
+        Integer index;
+        while (i.hasNext()) {
+            index = i.next();
+            buf.append(";").append(index).append('=');
+            buf.append(channels.get(index).getSettingsKey());
+        }
+        return buf.toString();
+    }
+
     /**
      * Returns the currently selected time-point.
      * 
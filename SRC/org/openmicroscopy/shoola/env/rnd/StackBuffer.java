@@ -0,0 +1,380 @@
+/*
+ * org.openmicroscopy.shoola.env.rnd.StackBuffer
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.rnd;
+
+//Java imports
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+//Third-party libraries
+
+//Application-internal dependencies
+import org.openmicroscopy.shoola.env.data.OmeroImageService;
+import org.openmicroscopy.shoola.util.concur.AsyncByteBuffer;
+import org.openmicroscopy.shoola.util.concur.BufferWriteException;
+import org.openmicroscopy.shoola.util.concur.ByteBufferFiller;
+import org.openmicroscopy.shoola.util.mem.ReadOnlyByteArray;
+
+/**
+ * Streams the raw z-stack of a channel at a given time-point into an
+ * {@link AsyncByteBuffer}. The planes are loaded one after the other by
+ * a background thread and written to the buffer in blocks, so that the
+ * planes already written can be read while the rest of the stack arrives,
+ * e.g. when projecting the stack.
+ * <p>The raw values are stored in big endian order, as returned by
+ * {@link OmeroImageService#getPlane}, and decoded when read.</p>
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+class StackBuffer
+{
+
+    /**
+     * The maximum time, in milliseconds, the buffer is locked while waiting
+     * for the next plane.
+     */
+    private static final long WAIT = 50;
+
+    /** The number of planes loaded ahead of the buffer. */
+    private static final int AHEAD = 2;
+
+    /**
+     * Writes the planes loaded into the buffer. The planes are loaded by
+     * another thread because the buffer cannot be read during a write.
+     */
+    private class PlaneFiller
+        implements ByteBufferFiller
+    {
+
+        /** The plane being written. */
+        private byte[] current;
+
+        /** The position of the next byte to write in the current plane. */
+        private int position;
+
+        /**
+         * Implemented as specified by the {@link ByteBufferFiller} interface.
+         * @see ByteBufferFiller#write(byte[], int, int)
+         */
+        public int write(byte[] buffer, int offset, int length)
+            throws BufferWriteException
+        {
+            if (offset >= getTotalLength()) return -1;
+            if (current == null || position == current.length) {
+                Object o;
+                try {
+                    o = planes.poll(WAIT, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    throw new BufferWriteException("Stack loading cancelled.");
+                }
+                if (o == null) return 0;
+                if (o instanceof Exception)
+                    throw new BufferWriteException("Cannot load the plane.",
+                            (Exception) o);
+                current = (byte[]) o;
+                position = 0;
+                if (current.length != planeSize)
+                    throw new BufferWriteException("Wrong plane size: "+
+                            current.length+" instead of "+planeSize+".");
+            }
+            int n = Math.min(length, current.length-position);
+            System.arraycopy(current, position, buffer, offset, n);
+            position += n;
+            return n;
+        }
+
+        /**
+         * Implemented as specified by the {@link ByteBufferFiller} interface.
+         * @see ByteBufferFiller#getTotalLength()
+         */
+        public int getTotalLength() { return planeSize*sizeZ; }
+
+    }
+
+    /** The proxy the stack is loaded for. */
+    private final RenderingControlProxy master;
+
+    /** The time-point of the stack. */
+    private final int t;
+
+    /** The channel of the stack. */
+    private final int c;
+
+    /** The number of pixels along the x-axis. */
+    private final int sizeX;
+
+    /** The number of pixels along the y-axis. */
+    private final int sizeY;
+
+    /** The number of z-sections. */
+    private final int sizeZ;
+
+    /** The type of the pixels. */
+    private final String pixelsType;
+
+    /** The number of bytes of a pixel. */
+    private final int bytesPerPixel;
+
+    /** The number of bytes of a plane. */
+    private final int planeSize;
+
+    /** Hosts the stack. */
+    private final AsyncByteBuffer buffer;
+
+    /** The planes loaded and not written yet, or the error. */
+    private final BlockingQueue<Object> planes;
+
+    /** Loads the planes. */
+    private final Thread loader;
+
+    /** Flag indicating that the stack could not be loaded. */
+    private volatile boolean failed;
+
+    /**
+     * Returns the number of bytes of a pixel of the specified type or
+     * <code>-1</code> if the type is not supported.
+     *
+     * @param type The type of the pixels.
+     * @return See above.
+     */
+    static int getBytesPerPixel(String type)
+    {
+        if (OmeroImageService.INT_8.equals(type) ||
+                OmeroImageService.UINT_8.equals(type))
+            return 1;
+        if (OmeroImageService.INT_16.equals(type) ||
+                OmeroImageService.UINT_16.equals(type))
+            return 2;
+        if (OmeroImageService.INT_32.equals(type) ||
+                OmeroImageService.UINT_32.equals(type) ||
+                OmeroImageService.FLOAT.equals(type))
+            return 4;
+        if (OmeroImageService.DOUBLE.equals(type)) return 8;
+        return -1;
+    }
+
+    /**
+     * Reads the specified segment of the stack, returns <code>null</code>
+     * if not available within the specified time.
+     *
+     * @param offset The position of the first byte.
+     * @param length The number of bytes.
+     * @param timeout The time to wait, in milliseconds.
+     * @return See above.
+     */
+    private ReadOnlyByteArray read(int offset, int length, long timeout)
+    {
+        if (failed) return null;
+        try {
+            return buffer.read(offset, length, timeout);
+        } catch (BufferWriteException e) {
+            failed = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    /**
+     * Loads the specified plane.
+     *
+     * @param z The z-section.
+     * @return See above.
+     * @throws Exception If an error occurred while loading the plane.
+     */
+    byte[] loadPlane(int z)
+        throws Exception
+    {
+        return master.loadRawPlane(z, t, c);
+    }
+
+    /**
+     * Creates a new instance and starts loading the stack.
+     *
+     * @param master The proxy the stack is loaded for.
+     * @param t The time-point of the stack.
+     * @param c The channel of the stack.
+     * @param sizeX The number of pixels along the x-axis.
+     * @param sizeY The number of pixels along the y-axis.
+     * @param sizeZ The number of z-sections.
+     * @param pixelsType The type of the pixels.
+     * @param blockSize The maximum number of bytes written at a time.
+     */
+    StackBuffer(RenderingControlProxy master, int t, int c, int sizeX,
+            int sizeY, int sizeZ, String pixelsType, int blockSize)
+    {
+        bytesPerPixel = getBytesPerPixel(pixelsType);
+        if (bytesPerPixel < 0)
+            throw new IllegalArgumentException("Type not supported: "+
+                    pixelsType);
+        long size = (long) sizeX*sizeY*sizeZ*bytesPerPixel;
+        if (size <= 0 || size > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Size not supported: "+size);
+        this.master = master;
+        this.t = t;
+        this.c = c;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.pixelsType = pixelsType;
+        planeSize = sizeX*sizeY*bytesPerPixel;
+        buffer = new AsyncByteBuffer((int) size,
+                (int) Math.max(1, Math.min(blockSize, size)));
+        planes = new ArrayBlockingQueue<Object>(AHEAD);
+        loader = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    for (int z = 0; z < StackBuffer.this.sizeZ; z++)
+                        planes.put(loadPlane(z));
+                } catch (InterruptedException e) {
+                    //cancelled
+                } catch (Exception e) {
+                    try {
+                        planes.put(e);
+                    } catch (InterruptedException ie) {
+                        //cancelled
+                    }
+                }
+            }
+        }, "StackLoader");
+        loader.setDaemon(true);
+        loader.setPriority(Thread.MIN_PRIORITY);
+        loader.start();
+        try {
+            buffer.setProducer(new PlaneFiller());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            dispose();
+        }
+    }
+
+    /**
+     * Returns the number of bytes of the stack.
+     *
+     * @return See above.
+     */
+    long getSize() { return buffer.getSize(); }
+
+    /**
+     * Returns <code>true</code> if the stack could not be loaded,
+     * <code>false</code> otherwise.
+     *
+     * @return See above.
+     */
+    boolean isFailed() { return failed; }
+
+    /**
+     * Returns <code>true</code> if the whole stack is loaded,
+     * <code>false</code> otherwise.
+     *
+     * @return See above.
+     */
+    boolean isComplete()
+    {
+        return read(0, planeSize*sizeZ, 0) != null;
+    }
+
+    /**
+     * Returns the raw values of the specified XY plane, <code>null</code> if
+     * the plane is not loaded within the specified time.
+     *
+     * @param z The z-section.
+     * @param timeout The time to wait, in milliseconds.
+     * @return See above.
+     */
+    float[] getPlane(int z, long timeout)
+    {
+        return getRows(z, 0, sizeY, timeout);
+    }
+
+    /**
+     * Returns the raw values of the specified rows of an XY plane,
+     * <code>null</code> if the rows are not loaded within the specified
+     * time.
+     *
+     * @param z The z-section.
+     * @param fromRow The first row.
+     * @param toRow The row after the last one.
+     * @param timeout The time to wait, in milliseconds.
+     * @return See above.
+     */
+    float[] getRows(int z, int fromRow, int toRow, long timeout)
+    {
+        RawPlane rows = getRawRows(z, fromRow, toRow, timeout);
+        return rows == null ? null : rows.toFloats();
+    }
+
+    /**
+     * Returns the raw values of the specified XY plane in the width of the
+     * pixels type, <code>null</code> if the plane is not loaded within the
+     * specified time.
+     *
+     * @param z The z-section.
+     * @param timeout The time to wait, in milliseconds.
+     * @return See above.
+     */
+    RawPlane getRawPlane(int z, long timeout)
+    {
+        return getRawRows(z, 0, sizeY, timeout);
+    }
+
+    /**
+     * Returns the raw values of the specified rows of an XY plane in the
+     * width of the pixels type, <code>null</code> if the rows are not
+     * loaded within the specified time.
+     *
+     * @param z The z-section.
+     * @param fromRow The first row.
+     * @param toRow The row after the last one.
+     * @param timeout The time to wait, in milliseconds.
+     * @return See above.
+     */
+    RawPlane getRawRows(int z, int fromRow, int toRow, long timeout)
+    {
+        if (z < 0 || z >= sizeZ || fromRow < 0 || toRow > sizeY ||
+                fromRow >= toRow)
+            return null;
+        int row = sizeX*bytesPerPixel;
+        int length = (toRow-fromRow)*row;
+        ReadOnlyByteArray a = read(z*planeSize+fromRow*row, length, timeout);
+        if (a == null) return null;
+        byte[] raw = new byte[length];
+        a.copyTo(0, raw, 0, length);
+        return RawPlane.decode(raw, pixelsType, (toRow-fromRow)*sizeX);
+    }
+
+    /** Stops loading the stack. */
+    void dispose()
+    {
+        loader.interrupt();
+        try {
+            buffer.setProducer(null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
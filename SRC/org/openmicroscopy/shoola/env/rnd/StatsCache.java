@@ -0,0 +1,133 @@
+/*
+ * org.openmicroscopy.shoola.env.rnd.StatsCache
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.rnd;
+
+//Java imports
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//Third-party libraries
+
+//Application-internal dependencies
+
+/**
+ * Caches the {@link PlaneStats} of the images, keyed by pixels set,
+ * z-section, time-point, channel and number of bins. The statistics are
+ * kept when an image is closed so that they are not loaded or computed
+ * again when it is reopened, the least recently used ones are discarded
+ * first. The cache is cleared when the connection is shut down.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+public class StatsCache
+{
+
+    /** The z-section identifying the statistics of a whole stack. */
+    public static final int STACK = -1;
+
+    /** The maximum number of statistics cached. */
+    static final int MAX_ENTRIES = 4096;
+
+    /** The statistics, the least recently used first. */
+    private static final Map<String, PlaneStats> CACHE =
+            new LinkedHashMap<String, PlaneStats>(16, 0.75f, true) {
+        protected boolean removeEldestEntry(
+                Map.Entry<String, PlaneStats> eldest)
+        {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * Returns the key identifying the statistics.
+     *
+     * @param pixelsID The id of the pixels set.
+     * @param z The z-section or {@link #STACK}.
+     * @param t The time-point.
+     * @param c The channel.
+     * @param bins The number of bins.
+     * @return See above.
+     */
+    private static String createKey(long pixelsID, int z, int t, int c,
+            int bins)
+    {
+        return pixelsID+"/"+z+"/"+t+"/"+c+"/"+bins;
+    }
+
+    /**
+     * Returns the statistics if cached and computed over the specified
+     * range, <code>null</code> otherwise.
+     *
+     * @param pixelsID The id of the pixels set.
+     * @param z The z-section or {@link #STACK}.
+     * @param t The time-point.
+     * @param c The channel.
+     * @param bins The number of bins.
+     * @param start The lower bound of the range of the channel.
+     * @param end The upper bound of the range of the channel.
+     * @return See above.
+     */
+    public static synchronized PlaneStats get(long pixelsID, int z, int t,
+            int c, int bins, double start, double end)
+    {
+        PlaneStats stats = CACHE.get(createKey(pixelsID, z, t, c, bins));
+        if (stats == null || !stats.isRange(start, end)) return null;
+        return stats;
+    }
+
+    /**
+     * Caches the statistics. Statistics with values are not replaced by
+     * a histogram alone over the same range.
+     *
+     * @param pixelsID The id of the pixels set.
+     * @param z The z-section or {@link #STACK}.
+     * @param t The time-point.
+     * @param c The channel.
+     * @param stats The statistics to cache.
+     */
+    public static synchronized void put(long pixelsID, int z, int t, int c,
+            PlaneStats stats)
+    {
+        String key = createKey(pixelsID, z, t, c, stats.getBins());
+        PlaneStats cached = CACHE.get(key);
+        if (cached != null && cached.hasValues() && !stats.hasValues() &&
+                cached.isRange(stats.getStart(), stats.getEnd()))
+            return;
+        CACHE.put(key, stats);
+    }
+
+    /**
+     * Discards all the statistics e.g. when the user logs out, so that the
+     * statistics of an image are not read back for another server.
+     */
+    public static synchronized void clear()
+    {
+        CACHE.clear();
+    }
+
+    /** Only static methods. */
+    private StatsCache() {}
+
+}
@@ -0,0 +1,350 @@
+/*
+ * org.openmicroscopy.shoola.env.rnd.TileRenderingPool
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ * 	This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+
+package org.openmicroscopy.shoola.env.rnd;
+
+
+//Java imports
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Third-party libraries
+
+//Application-internal dependencies
+import omero.gateway.cache.CacheService;
+import omero.romio.PlaneDef;
+import omero.romio.RegionDef;
+import org.openmicroscopy.shoola.env.rnd.data.Region;
+import org.openmicroscopy.shoola.env.rnd.data.Tile;
+import org.openmicroscopy.shoola.util.image.geom.Factory;
+import org.openmicroscopy.shoola.util.image.io.WriterImage;
+
+/**
+ * Renders the tiles of a big image concurrently. One worker thread is
+ * started for each rendering engine available for the image so that the
+ * engines are never shared between threads.
+ * <p>The tiles are rendered in the order they were submitted, the caller
+ * is responsible for placing first the tiles closest to the center of
+ * the viewport. Submitting new tiles cancels the tiles of the previous
+ * request that have not been rendered yet; the image of a tile that was
+ * being rendered when the request was cancelled is discarded.</p>
+ * <p>Every submitted tile is added to the queue passed at submission once
+ * processed, whether it was rendered or not, so that the caller can wait
+ * for exactly the number of tiles it submitted.</p>
+ * <p>If a persistent cache is available, the encoded tiles are looked up
+ * in the cache before being rendered and added to it once rendered.</p>
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * 				<a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+class TileRenderingPool
+{
+
+    /** Hosts a tile to render and where to deliver it. */
+    private static final class Job
+    {
+
+        /** The identifier of the request the tile belongs to. */
+        private final long request;
+
+        /** The plane the tile belongs to. */
+        private final PlaneDef plane;
+
+        /** The tile to render. */
+        private final Tile tile;
+
+        /** The queue to add the tile to once processed. */
+        private final BlockingQueue<Tile> done;
+
+        /** Identifies the image and the settings in the cache. */
+        private final String prefix;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param request The identifier of the request.
+         * @param plane The plane the tile belongs to.
+         * @param tile The tile to render.
+         * @param done The queue to add the tile to once processed.
+         * @param prefix Identifies the image and the settings in the cache.
+         */
+        Job(long request, PlaneDef plane, Tile tile, BlockingQueue<Tile> done,
+                String prefix)
+        {
+            this.request = request;
+            this.plane = plane;
+            this.tile = tile;
+            this.done = done;
+            this.prefix = prefix;
+        }
+
+        /**
+         * Returns the key identifying the tile in the cache.
+         *
+         * @return See above.
+         */
+        String getKey()
+        {
+            Region r = tile.getRegion();
+            StringBuffer buf = new StringBuffer(prefix);
+            buf.append(plane.z+"/"+plane.t+"/");
+            buf.append(tile.getRow()+"/"+tile.getColumn()+"/");
+            buf.append(r.getWidth()+"x"+r.getHeight());
+            return buf.toString();
+        }
+    }
+
+    /** The tiles waiting to be rendered. */
+    private final BlockingQueue<Job> jobs;
+
+    /** The threads rendering the tiles, one per rendering engine. */
+    private final List<Thread> workers;
+
+    /** Identifies the most recent request. Guarded by <code>this</code>. */
+    private long request;
+
+    /** Flag indicating that the pool has been shut down. */
+    private volatile boolean shutDown;
+
+    /** The number of tiles rendered. */
+    private final AtomicLong rendered;
+
+    /** The number of tiles cancelled before or while being rendered. */
+    private final AtomicLong cancelled;
+
+    /** The number of tiles read from the persistent cache. */
+    private final AtomicLong cached;
+
+    /** The persistent cache or <code>null</code>. */
+    private final CacheService cache;
+
+    /** The identifier of the persistent cache. */
+    private final int cacheID;
+
+    /**
+     * Returns <code>true</code> if the specified request is the current one,
+     * <code>false</code> otherwise.
+     *
+     * @param id The identifier of the request.
+     * @return See above.
+     */
+    private synchronized boolean isCurrent(long id)
+    {
+        return !shutDown && id == request;
+    }
+
+    /**
+     * Delivers the tile without rendering it.
+     *
+     * @param job The job to cancel.
+     */
+    private void cancel(Job job)
+    {
+        cancelled.incrementAndGet();
+        job.done.add(job.tile);
+    }
+
+    /**
+     * Renders the tile using the specified proxy. The image is only set
+     * if the request has not been cancelled in the meantime.
+     *
+     * @param proxy The proxy to use.
+     * @param job The tile to render.
+     */
+    private void render(RenderingControlProxy proxy, Job job)
+    {
+        Tile tile = job.tile;
+        if (tile.isImageLoaded()) { //e.g. loaded by a previous request.
+            job.done.add(tile);
+            return;
+        }
+        Region rt = tile.getRegion();
+        PlaneDef def = new PlaneDef();
+        def.slice = job.plane.slice;
+        def.stride = job.plane.stride;
+        def.x = job.plane.x;
+        def.y = job.plane.y;
+        def.z = job.plane.z;
+        def.t = job.plane.t;
+        def.region = new RegionDef(rt.getX(), rt.getY(), rt.getWidth(),
+                rt.getHeight());
+        Object image = null;
+        try {
+            if (cache == null) image = proxy.render(def);
+            else {
+                String key = job.getKey();
+                byte[] values = (byte[]) cache.getElement(cacheID, key);
+                if (values != null) {
+                    image = WriterImage.bytesToImage(values);
+                    if (image != null) cached.incrementAndGet();
+                }
+                if (image == null) {
+                    values = proxy.renderEncoded(def);
+                    if (values != null) {
+                        image = WriterImage.bytesToImage(values);
+                        if (image != null)
+                            cache.addElement(cacheID, key, values);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            image = null;
+        }
+        if (image == null)
+            image = Factory.createDefaultImageThumbnail(rt.getWidth(),
+                    rt.getHeight());
+        synchronized (this) {
+            if (isCurrent(job.request)) {
+                tile.setImage(image);
+                rendered.incrementAndGet();
+            } else cancelled.incrementAndGet();
+        }
+        job.done.add(tile);
+    }
+
+    /**
+     * Renders the tiles submitted until the pool is shut down.
+     *
+     * @param proxy The proxy used by the thread.
+     */
+    private void work(RenderingControlProxy proxy)
+    {
+        Job job;
+        while (!shutDown) {
+            try {
+                job = jobs.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (isCurrent(job.request)) render(proxy, job);
+            else cancel(job);
+        }
+    }
+
+    /** Delivers the tiles waiting to be rendered without rendering them. */
+    private void drain()
+    {
+        List<Job> l = new ArrayList<Job>();
+        jobs.drainTo(l);
+        Iterator<Job> i = l.iterator();
+        while (i.hasNext())
+            cancel(i.next());
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param proxies The proxies to render the tiles with, one thread is
+     *                started per proxy. Mustn't be <code>null</code> or
+     *                empty.
+     * @param cache The persistent cache or <code>null</code>.
+     * @param cacheID The identifier of the persistent cache, a negative
+     *                value to not use the cache.
+     */
+    TileRenderingPool(List<RenderingControlProxy> proxies,
+            CacheService cache, int cacheID)
+    {
+        if (proxies == null || proxies.size() == 0)
+            throw new IllegalArgumentException("No rendering control.");
+        this.cache = cacheID < 0 ? null : cache;
+        this.cacheID = cacheID;
+        jobs = new LinkedBlockingQueue<Job>();
+        rendered = new AtomicLong();
+        cancelled = new AtomicLong();
+        cached = new AtomicLong();
+        workers = new ArrayList<Thread>(proxies.size());
+        Iterator<RenderingControlProxy> i = proxies.iterator();
+        Thread t;
+        while (i.hasNext()) {
+            final RenderingControlProxy proxy = i.next();
+            t = new Thread(new Runnable() {
+                public void run() { work(proxy); }
+            }, "TileRenderingPool-"+workers.size());
+            t.setDaemon(true);
+            workers.add(t);
+            t.start();
+        }
+    }
+
+    /**
+     * Renders the specified tiles in the background. The tiles of the
+     * previous request not rendered yet are cancelled.
+     *
+     * @param pDef The plane the tiles belong to.
+     * @param tiles The tiles to render, in the order they should be
+     *              rendered.
+     * @param done The queue to add each tile to once processed.
+     * @param prefix Identifies the image and the rendering settings in the
+     *               cache.
+     */
+    synchronized void render(PlaneDef pDef, List<Tile> tiles,
+            BlockingQueue<Tile> done, String prefix)
+    {
+        request++;
+        drain();
+        Iterator<Tile> i = tiles.iterator();
+        while (i.hasNext()) {
+            if (shutDown) done.add(i.next());
+            else jobs.add(new Job(request, pDef, i.next(), done, prefix));
+        }
+    }
+
+    /** Cancels the tiles not rendered yet. */
+    synchronized void cancel()
+    {
+        request++;
+        drain();
+    }
+
+    /** Cancels the pending tiles and stops the worker threads. */
+    synchronized void shutDown()
+    {
+        shutDown = true;
+        request++;
+        drain();
+        Iterator<Thread> i = workers.iterator();
+        while (i.hasNext())
+            i.next().interrupt();
+    }
+
+    /**
+     * Returns a summary of the tile rendering activity.
+     *
+     * @return See above.
+     */
+    String getStatistics()
+    {
+        StringBuffer buf = new StringBuffer();
+        buf.append("Tile rendering threads="+workers.size());
+        buf.append(" rendered="+rendered.get());
+        buf.append(" cancelled="+cancelled.get());
+        buf.append(" from cache="+cached.get());
+        return buf.toString();
+    }
+
+}
@@ -32,6 +32,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -46,20 +47,23 @@ import org.openmicroscopy.shoola.util.math.geom2D.PlanePoint;
 
 /** 
  * Caches XY images, within a given pixels set, that have been rendered.
- * <p>The number of entries in the cache at any given time is  
- * <code>max_entries</code> at most, being <code>max_entries</code> the greatest
- * integer such that <nobr>
- * <code>max_entries</code>*<code>image_size</code> &lt;= 
- * <code>cache_size</code>
- * </nobr>.</p>
- * <p>If <code>max_entries</code> is reached and an entry has to be added, we 
- * discard a previous entry to make room for the new one.  The removal policy
- * is based on the current navigation direction maintained by the 
- * {@link NavigationHistory} and is as follows.  Let <code>C</code> be the set
- * of all entries in the cache and be <code>n</code> its cardinality.  It's a
- * trivial observation that we can identify an element of <code>C</code> with
- * a point in the <i>zOt</i> cartesian plane. Now if a point <code>p</code> is
- * to be added to <code>C</code> and <code>n=max_entries</code>, we consider
+ * <p>Entries are keyed by the z-section, the timepoint, the resolution
+ * level and the rendering settings used to produce the image
+ * (see {@link RndProxyDef#getSettingsKey()}). The pixels set is implicit
+ * since a cache is only ever associated to one pixels set.</p>
+ * <p>The cache is bounded by the number of bytes its entries occupy rather
+ * than by a number of entries: an entry is only added if its size is not
+ * greater than <code>cache_size</code> and, if the sum of the sizes of the
+ * cached entries would exceed <code>cache_size</code>, we discard previous
+ * entries to make room for the new one. Entries rendered with settings other
+ * than the ones of the entry to add are stale and are removed first. 
+ * Then the removal policy is based on the current navigation direction
+ * maintained by the {@link NavigationHistory} and is as follows.
+ * Let <code>C</code> be the set of all entries in the cache and be
+ * <code>n</code> its cardinality.  It's a trivial observation that we can
+ * identify an element of <code>C</code> with a point in the <i>zOt</i>
+ * cartesian plane. Now if a point <code>p</code> is to be added to
+ * <code>C</code> and there is not enough room for it, we consider
  * the set <code>C'</code> of all elements of <code>C</code> ordered such that
  * the first element is the farthest away from <code>p</code> and the last 
  * element is the closest to <code>p</code>.  That is:</p>
@@ -83,6 +87,9 @@ import org.openmicroscopy.shoola.util.math.geom2D.PlanePoint;
  *  to the next step.</li>
  *  <li>Remove <code>c<sub>1</sub></code>.</li>
  * </ol>
+ * <p>The steps above are repeated until there is enough room for the new
+ * entry. Access to the cache is synchronized so that planes can be added
+ * from a thread other than the one reading them.</p>
  *
  * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
  * 				<a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
@@ -97,8 +104,8 @@ import org.openmicroscopy.shoola.util.math.geom2D.PlanePoint;
 public class XYCache
 {
 
-    /** The size, in bytes, of a rendered XY image. */
-    private final int           			image_size;
+    /** The id of the pixels set this cache is associated to. */
+    private final long                      pixelsID;
     
     /** 
      * The size, in bytes, of the image cache.
@@ -108,22 +115,17 @@ public class XYCache
      */
     private int                 			cache_size;
     
-    /** 
-     * Maximum number of entries allowed in the cache.
-     * This is the greatest integer <code>M</code> such that 
-     * <nobr><code>
-     * M*{@link #image_size} &lt;= {@link #cache_size}</code></nobr>.
-     */
-    private int                 			max_entries;
+    /** The sum of the sizes, in bytes, of the cached entries. */
+    private long                            used_size;
     
     /**
-     * Maps {@link PlanePoint}s onto {@link BufferedImage}s or 
+     * Maps {@link PlaneKey}s onto {@link BufferedImage}s or 
      * <code>byte</code> array.
-     * The <code>add</code> method identifies a {@link PlaneDef} object with
-     * a point in the <i>zOt</i> cartesian plane, hence with an instance of
-     * {@link PlanePoint}. 
      */
-    private Map<PlanePoint, Object>			cache;
+    private Map<PlaneKey, Object>			cache;
+    
+    /** Maps {@link PlaneKey}s onto the size, in bytes, of the entry. */
+    private Map<PlaneKey, Integer>          sizes;
     
     /**
      * Refers to the {@link NavigationHistory} serving the pixels set this 
@@ -131,24 +133,59 @@ public class XYCache
      */
     private NavigationHistory   			navigHistory;
     
+    /** The number of requests served by the cache. */
+    private long                            hits;
+    
+    /** The number of requests the cache could not serve. */
+    private long                            misses;
+    
     /**
-     * Makes enough room in {@link #cache} for a new entry to be added.
-     * We remove an existing entry according to the removal algorithm 
-     * specified by this class.  It is assumed that this method will
-     * only be invoked when the cache size equals {@link #max_entries}
-     * and is one at least.
+     * Returns the size, in bytes, of the specified entry.
+     * 
+     * @param object A buffered image or a byte array.
+     * @return See above.
+     */
+    private static int sizeOf(Object object)
+    {
+        if (object instanceof byte[]) return ((byte[]) object).length;
+        if (object instanceof int[]) return 4*((int[]) object).length;
+        if (object instanceof BufferedImage) {
+            BufferedImage img = (BufferedImage) object;
+            int bits = img.getColorModel().getPixelSize();
+            return (int) Math.min(Integer.MAX_VALUE,
+                    (long) img.getWidth()*img.getHeight()*((bits+7)/8));
+        }
+        return 1;
+    }
+    
+    /**
+     * Removes the specified entry.
+     * 
+     * @param key The key of the entry to remove.
+     */
+    private void remove(PlaneKey key)
+    {
+        cache.remove(key);
+        Integer size = sizes.remove(key);
+        if (size != null) used_size -= size.intValue();
+    }
+    
+    /**
+     * Returns the entry to remove according to the removal algorithm 
+     * specified by this class. It is assumed that this method will
+     * only be invoked when the cache contains one entry at least.
      * 
-     * @param p The key for the new entry that has to be added.
-     *          It's assumed the caller will never pass <code>null</code>.
+     * @param p The point corresponding to the entry that has to be added.
+     * @param keys The keys of the entries that can be removed.
+     * @return See above.
      */
-    private void ensureCapacity(final PlanePoint p)
+    private PlaneKey selectCandidate(final PlanePoint p, PlaneKey[] keys)
     {
         //First off, build the C' sequence.
-        PlanePoint[] orderedCache = cache.keySet().toArray(new PlanePoint[0]);
-        Arrays.sort(orderedCache, new Comparator() {
-            public int compare(Object o1, Object o2) {
-                PlanePoint c1 = (PlanePoint) o1, c2 = (PlanePoint) o2;
-                return -Double.compare(c1.distance(p), c2.distance(p));
+        Arrays.sort(keys, new Comparator<PlaneKey>() {
+            public int compare(PlaneKey k1, PlaneKey k2) {
+                return -Double.compare(k1.toPoint().distance(p),
+                        k2.toPoint().distance(p));
                 //Note the minus above: we want descending order.
             }
         });
@@ -156,83 +193,105 @@ public class XYCache
         //Now get the current navigation direction and set the default
         //candidate for removal: the farthest point away from p. 
         Line curDir = navigHistory.currentDirection();
-        PlanePoint candidate = orderedCache[0];  //We assume cache size > 0.
+        PlaneKey candidate = keys[0];  //We assume cache size > 0.
         
         //Start the removal algorithm if the navigation direction is defined.
         if (curDir != null) {
-            List negativeHalf = new ArrayList(orderedCache.length);
+            List<PlaneKey> negativeHalf = new ArrayList<PlaneKey>(keys.length);
             int i = 0;
-            for (; i < orderedCache.length; ++i) {
+            PlanePoint point;
+            for (; i < keys.length; ++i) {
+                point = keys[i].toPoint();
                 //Does candidate lie on curDir at all?
-                if (!curDir.lies(orderedCache[i])) { 
+                if (!curDir.lies(point)) { 
                     //No.  This is the farthest point away from p not on curDir.
-                    candidate = orderedCache[i];
+                    candidate = keys[i];
                     break;
                 }
-                //Then orderedCache[i] lies on curDir, which half though?
-                if (curDir.lies(orderedCache[i], false))
+                //Then keys[i] lies on curDir, which half though?
+                if (curDir.lies(point, false))
                     //It lies on the negative half.  This means it sits behind
                     //the current move w/r/t movement orientation.  Collect it.
                     //Notice that points in this list are such that:
                     //  d(negativeHalf(i), p) >= d(negativeHalf(i+1), p) 
-                    negativeHalf.add(orderedCache[i]);
+                    negativeHalf.add(keys[i]);
             }
-            if (i == orderedCache.length  //All cached points lie on curDir. 
+            if (i == keys.length  //All cached points lie on curDir. 
                     && !negativeHalf.isEmpty())  //But some in neg half.
                 //Get farthest point away from p that sits behind current move.
-                candidate = (PlanePoint) negativeHalf.get(0);
+                candidate = negativeHalf.get(0);
+        }
+        return candidate;
+    }
+    
+    /**
+     * Makes enough room in {@link #cache} for a new entry to be added.
+     * We first remove the entries rendered with other settings or at
+     * another resolution level than the new entry, then remove existing
+     * entries according to the removal algorithm specified by this class
+     * until <code>size</code> bytes are available.
+     * 
+     * @param key  The key for the new entry that has to be added.
+     *             It's assumed the caller will never pass <code>null</code>.
+     * @param size The size, in bytes, of the new entry.
+     */
+    private void ensureCapacity(PlaneKey key, int size)
+    {
+        Iterator<PlaneKey> i = new ArrayList<PlaneKey>(cache.keySet()).iterator();
+        PlaneKey k;
+        while (i.hasNext() && used_size+size > cache_size) {
+            k = i.next();
+            if (!k.isSameRendering(key)) remove(k);
+        }
+        PlanePoint p = key.toPoint();
+        while (used_size+size > cache_size && cache.size() > 0) {
+            remove(selectCandidate(p, cache.keySet().toArray(new PlaneKey[0])));
         }
-        
-        //Finally remove.
-        cache.remove(candidate);
     }
     
     /**
      * Creates a new instance.
-     * An <code>ImageCache</code> works with a given pixels set and
+     * An <code>XYCache</code> works with a given pixels set and
      * with the {@link NavigationHistory} serving that pixels set.  The
-     * <code>cacheSize</code> and <code>imageSize</code> parameters determine
-     * how many {@link #max_entries entries} the cache will allow before
-     * purging old entries.  In particular, if the <code>imageSize</code> is
-     * greater than the <code>cacheSize</code>, no element will ever be
+     * <code>cacheSize</code> parameter determines how many bytes the
+     * cache will hold before purging old entries.  In particular, an image
+     * whose size is greater than the <code>cacheSize</code> will never be
      * cached.
      * 
+     * @param pixelsID  The id of the pixels set.
      * @param cacheSize The size, in bytes, of the cache. Must be positive.
-     * @param imageSize The size, in bytes, of an XY image. Must be positive.
      * @param nh        Reference to the {@link NavigationHistory} serving 
      *                  the pixels set this cache was associated to.  
      *                  Mustn't be <code>null</code>.  
      */
-    XYCache(int cacheSize, int imageSize, NavigationHistory nh)
+    XYCache(long pixelsID, int cacheSize, NavigationHistory nh)
     {
         if (cacheSize < 0)
             throw new IllegalArgumentException(
                     "Cache size must be positive: "+cacheSize+".");
-        if (imageSize <= 0) 
-            throw new IllegalArgumentException(
-                    "Image size must be positive: "+imageSize+".");
         if (nh == null)
             throw new NullPointerException("No navigation history.");
-        
+        this.pixelsID = pixelsID;
         cache_size = cacheSize;
-        image_size = imageSize;
-        max_entries = cache_size/image_size;
-        cache = new HashMap<PlanePoint, Object>(max_entries);
+        used_size = 0;
+        cache = new HashMap<PlaneKey, Object>();
+        sizes = new HashMap<PlaneKey, Integer>();
         navigHistory = nh;
     }
     
     /**
      * Adds the specified entry to the cache.
      * 
-     * @param pd    	The key. Mustn't be <code>null</code> and must define
+     * @param pd    	The plane. Mustn't be <code>null</code> and must define
      *              	an XY plane.
+     * @param level     The resolution level the image was rendered at.
+     * @param settings  The settings used to render the image.
      * @param object  	An XY image or a byte array.
      * 					Mustn't be <code>null</code>.
      */
-    void add(PlaneDef pd, Object object)
+    synchronized void add(PlaneDef pd, int level, String settings,
+            Object object)
     {
-        if (max_entries == 0) return;  //Caching disabled.
-        
         //Sanity checks.
         if (pd == null)
             throw new NullPointerException("No plane def.");
@@ -241,71 +300,204 @@ public class XYCache
                     "Can only accept XY planes: "+pd.slice+".");
         if (object == null)
             throw new NullPointerException("No image.");
+        int size = sizeOf(object);
+        if (size > cache_size) return;  //Caching disabled or too big.
         
+        PlaneKey key = new PlaneKey(pd.z, pd.t, level, settings);
+        remove(key);
         //Will the next entry fit into the cache?
-        PlanePoint key = new PlanePoint(pd.z, pd.t);
-        if (max_entries <= cache.size())  //Nope, make room for it.
-            ensureCapacity(key);
+        if (used_size+size > cache_size)  //Nope, make room for it.
+            ensureCapacity(key, size);
         //Once we're here we have enough room for the new element.
         cache.put(key, object);
+        sizes.put(key, Integer.valueOf(size));
+        used_size += size;
     }
    
     /**
      * Extracts the image (if any) associated to <code>pd</code>.
      * 
-     * @param pd    The key. Mustn't be <code>null</code> and must define
+     * @param pd    The plane. Mustn't be <code>null</code> and must define
      *              an XY plane.
+     * @param level    The resolution level.
+     * @param settings The rendering settings.
      * @return 		The image or byte array associated to <code>pd</code> or 
      * 				<code>null</code> if the cache doesn't contain such an
      * 				entry.
      */
-    Object extract(PlaneDef pd)
+    synchronized Object extract(PlaneDef pd, int level, String settings)
     {
         if (pd == null)
             throw new NullPointerException("No plane def.");
         if (pd.slice != omero.romio.XY.value)
             throw new IllegalArgumentException(
                     "Can only accept XY planes: "+pd.slice+".");
-        PlanePoint key = new PlanePoint(pd.z, pd.t);
-        return cache.get(key);
+        Object o = cache.get(new PlaneKey(pd.z, pd.t, level, settings));
+        if (o == null) misses++;
+        else hits++;
+        return o;
     }
     
     /**
      * Tells whether or not the cache contains an entry for the specified
      * plane definition.
      * 
-     * @param pd The key.
+     * @param pd The plane.
+     * @param level    The resolution level.
+     * @param settings The rendering settings.
      * @return <code>true</code> if the cache contains an entry for 
      *         <code>pd</code>, <code>false</code> otherwise.
-     * @see #add(PlaneDef, BufferedImage)
      */
-    boolean contains(PlaneDef pd)
+    synchronized boolean contains(PlaneDef pd, int level, String settings)
     {
         if (pd == null) return false;
-        PlanePoint key = new PlanePoint(pd.z, pd.t);
-        return (cache.get(key) != null);
+        return cache.containsKey(new PlaneKey(pd.z, pd.t, level, settings));
     }
     
     /** Removes all the entries from the cache. */
-    void clear()
+    synchronized void clear()
     {
-        int oldSize = cache.size();
-        cache = new HashMap<PlanePoint, Object>(oldSize);
+        cache = new HashMap<PlaneKey, Object>();
+        sizes = new HashMap<PlaneKey, Integer>();
+        used_size = 0;
     }
     
     /**
-     * Resets the size of the cache.
+     * Resets the size of the cache. Entries are removed if the cache
+     * is now too small to hold them.
      * 
-     * @param size
+     * @param size The size, in bytes, of the cache.
      */
-    void resetCacheSize(int size)
+    synchronized void resetCacheSize(int size)
     {
         if (size < 0)
             throw new IllegalArgumentException(
                     "Cache size must be positive: "+size+".");
         cache_size = size;
-        max_entries = cache_size/image_size;
-        cache = new HashMap<PlanePoint, Object>(max_entries);
+        if (used_size <= cache_size) return;
+        PlaneDef current = navigHistory.currentMove();
+        PlanePoint p = new PlanePoint(0, 0);
+        if (current != null) p = new PlanePoint(current.z, current.t);
+        while (used_size > cache_size && cache.size() > 0)
+            remove(selectCandidate(p, cache.keySet().toArray(new PlaneKey[0])));
+    }
+    
+    /**
+     * Returns the id of the pixels set this cache is associated to.
+     * 
+     * @return See above.
+     */
+    long getPixelsID() { return pixelsID; }
+    
+    /**
+     * Returns the sum of the sizes, in bytes, of the cached entries.
+     * 
+     * @return See above.
+     */
+    synchronized long getUsedSize() { return used_size; }
+    
+    /**
+     * Returns a summary of the cache usage.
+     * 
+     * @return See above.
+     */
+    synchronized String getStatistics()
+    {
+        StringBuffer buf = new StringBuffer();
+        buf.append("XY cache pixelsID="+pixelsID);
+        buf.append(" hits="+hits);
+        buf.append(" misses="+misses);
+        buf.append(" entries="+cache.size());
+        buf.append(" bytes="+used_size+"/"+cache_size);
+        return buf.toString();
+    }
+    
+    /**
+     * Returns the size, in bytes, of the cache.
+     * 
+     * @return See above.
+     */
+    synchronized int getCacheSize() { return cache_size; }
+    
+    /** 
+     * Identifies a cached plane.
+     * Only the z and t coordinates are used to determine the position of
+     * the plane in the <i>zOt</i> cartesian plane.
+     */
+    static final class PlaneKey
+    {
+        
+        /** The z-section. */
+        final int z;
+        
+        /** The timepoint. */
+        final int t;
+        
+        /** The resolution level. */
+        final int level;
+        
+        /** The rendering settings. */
+        final String settings;
+        
+        /**
+         * Creates a new instance.
+         * 
+         * @param z The z-section.
+         * @param t The timepoint.
+         * @param level The resolution level.
+         * @param settings The rendering settings.
+         */
+        PlaneKey(int z, int t, int level, String settings)
+        {
+            this.z = z;
+            this.t = t;
+            this.level = level;
+            this.settings = settings;
+        }
+        
+        /**
+         * Returns the point in the <i>zOt</i> cartesian plane.
+         * 
+         * @return See above.
+         */
+        PlanePoint toPoint() { return new PlanePoint(z, t); }
+        
+        /**
+         * Returns <code>true</code> if the passed key was rendered with the
+         * same settings and at the same resolution level,
+         * <code>false</code> otherwise.
+         * 
+         * @param key The key to compare.
+         * @return See above.
+         */
+        boolean isSameRendering(PlaneKey key)
+        {
+            return level == key.level && (settings == null ?
+                    key.settings == null : settings.equals(key.settings));
+        }
+        
+        /**
+         * Overridden to compare all the fields.
+         * @see Object#equals(Object)
+         */
+        public boolean equals(Object o)
+        {
+            if (!(o instanceof PlaneKey)) return false;
+            PlaneKey k = (PlaneKey) o;
+            return z == k.z && t == k.t && isSameRendering(k);
+        }
+        
+        /**
+         * Overridden to be consistent with {@link #equals(Object)}.
+         * @see Object#hashCode()
+         */
+        public int hashCode()
+        {
+            int h = 31*z+t;
+            h = 31*h+level;
+            return 31*h+(settings == null ? 0 : settings.hashCode());
+        }
+        
     }
     
 /* 
@@ -296,4 +296,25 @@ class PointIterator
         }
     }
 
+    /**
+     * Retrieves the specified plane from the pixels set bound to this
+     * iterator.
+     * 
+     * @param ctx The security context.
+     * @param z The z coordinate (stack frame) of the plane.
+     * @param t The t coordinate (timepoint) of the plane.
+     * @param w The w coordinate (channel) of the plane.
+     * @return See above.
+     * @throws DataSourceException If an error occurs while retrieving plane
+     *                             data from the pixels source.
+     */
+    Plane2D getPlane(SecurityContext ctx, int z, int t, int w)
+        throws DataSourceException
+    {
+        return rf.getPlane(ctx, pixels, z, t, w);
+    }
+
+    /** Closes the {@link RawDataFacility}. */
+    void close() { rf.close(); }
+
 }
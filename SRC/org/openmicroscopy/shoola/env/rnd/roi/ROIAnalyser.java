@@ -21,13 +21,18 @@
 package org.openmicroscopy.shoola.env.rnd.roi;
 
 
-import java.awt.Point;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.collections.CollectionUtils;
 
@@ -35,7 +40,11 @@ import omero.gateway.Gateway;
 import omero.gateway.SecurityContext;
 import omero.gateway.exception.DataSourceException;
 import omero.gateway.facility.RawDataFacility;
+import omero.gateway.rnd.Plane2D;
 
+import org.openmicroscopy.shoola.env.config.Registry;
+import org.openmicroscopy.shoola.env.data.OmeroImageService;
+import org.openmicroscopy.shoola.env.rnd.PixelsServicesFactory;
 import org.openmicroscopy.shoola.util.roi.model.ROIShape;
 import org.openmicroscopy.shoola.util.roi.model.util.Coord3D;
 
@@ -44,6 +53,11 @@ import omero.gateway.model.PixelsData;
 /** 
  * Does some basic statistic analysis on a collection of {@link ROIShape} 
  * which all refer to the same pixels set.
+ * The shapes are grouped by plane so that each plane is retrieved only once
+ * per channel, the shapes on the same plane are then analyzed concurrently
+ * by the {@link ROIStatsEngine}. The raw planes already loaded to render
+ * the image on the client are used instead of retrieving the planes when
+ * they hold the exact values.
  *
  * @author Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
  * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
@@ -61,6 +75,12 @@ public class ROIAnalyser
      */
     private PointIterator runner;
 
+    /** The maximum amount of memory, in bytes, used to cache planes. */
+    private static final long MAX_CACHE_SIZE = 256*1024*1024;
+
+    /** The maximum number of bytes per pixel, used to bound the cache. */
+    private static final int MAX_BYTES_PER_PIXEL = 8;
+
     /** The number of z-sections. */
     private int sizeZ;
 
@@ -70,6 +90,33 @@ public class ROIAnalyser
     /** The number of channels. */
     private int sizeC;
 
+    /** The number of pixels along the x-axis. */
+    private int sizeX;
+
+    /** The number of pixels along the y-axis. */
+    private int sizeY;
+
+    /** 
+     * The planes retrieved during the analysis, the least recently used
+     * plane is discarded when the cache is full.
+     */
+    private final Map<String, Plane2D> planes;
+
+    /**
+     * Reference to the registry used to access the raw planes loaded to
+     * render the image or <code>null</code>.
+     */
+    private final Registry context;
+
+    /** The id of the pixels set. */
+    private final long pixelsID;
+
+    /**
+     * <code>true</code> if the raw planes decoded to render the image on
+     * the client hold the exact values, <code>false</code> otherwise.
+     */
+    private final boolean rawExact;
+
     /**
      * Controls if the specified coordinates are valid.
      * Returns <code>true</code> if the passed values are in the correct ranges,
@@ -115,6 +162,105 @@ public class ROIAnalyser
         return !(w < 0 || sizeC <= w);
     }
 
+    /**
+     * Returns the specified plane. The plane is only retrieved if it is
+     * not in the cache.
+     * 
+     * @param ctx The security context.
+     * @param z The z coordinate.
+     * @param t The t coordinate.
+     * @param w The channel.
+     * @return See above.
+     * @throws DataSourceException If an error occurs while retrieving plane
+     *                             data from the pixels source.
+     */
+    private Plane2D getPlane(SecurityContext ctx, int z, int t, int w)
+        throws DataSourceException
+    {
+        String key = z+"/"+t+"/"+w;
+        Plane2D data = planes.get(key);
+        if (data == null) {
+            data = runner.getPlane(ctx, z, t, w);
+            planes.put(key, data);
+        }
+        return data;
+    }
+
+    /**
+     * Returns the raw plane loaded to render the image on the client,
+     * <code>null</code> if not loaded or not holding the exact values.
+     * 
+     * @param z The z coordinate.
+     * @param t The t coordinate.
+     * @param w The channel.
+     * @return See above.
+     */
+    private float[] getRawPlane(int z, int t, int w)
+    {
+        if (context == null || !rawExact) return null;
+        return PixelsServicesFactory.getRawPlane(context, pixelsID, z, t, w);
+    }
+
+    /**
+     * Computes the statistics of the specified shapes, all on the passed
+     * plane, and adds them to the results.
+     * 
+     * @param data The plane the shapes are on or <code>null</code>.
+     * @param raw The raw plane the shapes are on if <code>data</code> is
+     *            <code>null</code>.
+     * @param shapes The shapes to analyze.
+     * @param masks The selection of each shape.
+     * @param w The channel of the plane.
+     * @param results The results to populate.
+     * @param executor The executor used to analyze the shapes concurrently
+     *                 or <code>null</code>.
+     * @throws DataSourceException If an error occurs while analyzing.
+     */
+    private void analyze(final Plane2D data, final float[] raw,
+            List<ROIShape> shapes,
+            final Map<ROIShape, ROIMask> masks, final int w,
+            Map<ROIShape, Map<Integer, AbstractROIShapeStats>> results,
+            ExecutorService executor)
+        throws DataSourceException
+    {
+        List<Callable<AbstractROIShapeStats>> tasks =
+                new ArrayList<Callable<AbstractROIShapeStats>>(shapes.size());
+        Iterator<ROIShape> i = shapes.iterator();
+        while (i.hasNext()) {
+            final ROIShape shape = i.next();
+            tasks.add(new Callable<AbstractROIShapeStats>() {
+                public AbstractROIShapeStats call()
+                {
+                    if (data == null)
+                        return ROIStatsEngine.compute(masks.get(shape), raw,
+                                sizeX, sizeY, ROIStatsEngine.DEFAULT_BINS);
+                    return ROIStatsEngine.compute(masks.get(shape), data,
+                            sizeX, sizeY, ROIStatsEngine.DEFAULT_BINS);
+                }
+            });
+        }
+        Integer channel = Integer.valueOf(w);
+        try {
+            if (executor == null || tasks.size() == 1) {
+                for (int j = 0; j < tasks.size(); j++)
+                    results.get(shapes.get(j)).put(channel,
+                            tasks.get(j).call());
+            } else {
+                List<Future<AbstractROIShapeStats>> l =
+                        executor.invokeAll(tasks);
+                for (int j = 0; j < l.size(); j++)
+                    results.get(shapes.get(j)).put(channel, l.get(j).get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataSourceException(e);
+        } catch (ExecutionException e) {
+            throw new DataSourceException(e.getCause());
+        } catch (Exception e) {
+            throw new DataSourceException(e);
+        }
+    }
+
     /**
      * Creates a new instance to analyze the pixels set accessible through
      * <code>source</code>.
@@ -125,12 +271,50 @@ public class ROIAnalyser
      * @throws ExecutionException If {@link RawDataFacility} can't be accessed
      */
     public ROIAnalyser(Gateway gateway, PixelsData pixels) throws ExecutionException
+    {
+        this(gateway, pixels, null);
+    }
+
+    /**
+     * Creates a new instance to analyze the pixels set accessible through
+     * <code>source</code>, using the raw planes loaded to render the image
+     * on the client if any.
+     * 
+     * @param gateway Gateway to the raw data of the pixels set this iterator
+     *               will work on. Mustn't be <code>null</code>.
+     * @param pixels The pixels to analyze.
+     * @param context Reference to the registry or <code>null</code>.
+     * @throws ExecutionException If {@link RawDataFacility} can't be accessed
+     */
+    public ROIAnalyser(Gateway gateway, PixelsData pixels, Registry context)
+        throws ExecutionException
     {
         //Constructor will check source and dims.
         runner = new PointIterator(gateway, pixels);
         this.sizeZ = pixels.getSizeZ();
         this.sizeT = pixels.getSizeT();
         this.sizeC = pixels.getSizeC();
+        this.sizeX = pixels.getSizeX();
+        this.sizeY = pixels.getSizeY();
+        this.context = context;
+        this.pixelsID = pixels.getId();
+        String type = pixels.getPixelType();
+        rawExact = OmeroImageService.INT_8.equals(type) ||
+                OmeroImageService.UINT_8.equals(type) ||
+                OmeroImageService.INT_16.equals(type) ||
+                OmeroImageService.UINT_16.equals(type) ||
+                OmeroImageService.FLOAT.equals(type);
+        long planeSize = (long) pixels.getSizeX()*pixels.getSizeY()*
+                MAX_BYTES_PER_PIXEL;
+        final int maxPlanes = (int) Math.max(1, MAX_CACHE_SIZE/
+                Math.max(1, planeSize));
+        planes = new LinkedHashMap<String, Plane2D>(16, 0.75f, true) {
+            protected boolean removeEldestEntry(
+                    Map.Entry<String, Plane2D> eldest)
+            {
+                return size() > maxPlanes;
+            }
+        };
     }
 
     /**
@@ -160,40 +344,62 @@ public class ROIAnalyser
             throw new IllegalArgumentException("No channels defined.");
         Map<ROIShape, Map<Integer, AbstractROIShapeStats>>
         r = new HashMap<ROIShape, Map<Integer, AbstractROIShapeStats>>();
-        AbstractROIShapeStats computer;
-        Map<Integer, AbstractROIShapeStats> stats;
-        Iterator<Integer> j;
-        int n = channels.size();
+        List<Integer> valid = new ArrayList<Integer>(channels.size());
+        Iterator<Integer> j = channels.iterator();
         Integer w;
+        while (j.hasNext()) {
+            w = j.next();
+            if (checkChannel(w.intValue())) valid.add(w);
+        }
+        //Group the shapes by plane.
+        Map<Integer, List<ROIShape>> groups =
+                new LinkedHashMap<Integer, List<ROIShape>>();
+        Map<ROIShape, ROIMask> masks = new HashMap<ROIShape, ROIMask>();
+        Integer index;
+        List<ROIShape> group;
         ROIShape shape;
-        boolean close = false;
         for (int i = 0; i < shapes.length; ++i) {
             shape = shapes[i];
-            close = i == shapes.length-1;
             if (checkPlane(shape.getZ(), shape.getT())) {
-                stats = new HashMap<Integer, AbstractROIShapeStats>(n);
-                if (plane == null || matchesPlane(shape.getZ(), shape.getT(), plane)) {
-                    j = channels.iterator();
-                    List<Point> points = shape.getFigure().getPoints();
-                    int count = 0;
-                    boolean last = false;
-                    while (j.hasNext()) {
-                        w = j.next();
-                        if (checkChannel(w.intValue())) {
-                            computer =  new ROIShapeStatsSimple();
-                            runner.register(computer);
-                            if (close) {
-                                last = count == channels.size()-1;
-                            }
-                            runner.iterate(ctx, shape, points, w.intValue(), last);
-                            runner.remove(computer);
-                            stats.put(w, computer);
-                        }
-                        count++;
+                r.put(shape, new HashMap<Integer, AbstractROIShapeStats>(
+                        valid.size()));
+                if (plane == null || matchesPlane(shape.getZ(), shape.getT(),
+                        plane)) {
+                    index = shape.getT()*sizeZ+shape.getZ();
+                    group = groups.get(index);
+                    if (group == null) {
+                        group = new ArrayList<ROIShape>();
+                        groups.put(index, group);
                     }
+                    group.add(shape);
+                    masks.put(shape, ROIMask.fromFigure(shape.getFigure()));
+                }
+            }
+        }
+        int n = Math.min(Runtime.getRuntime().availableProcessors(),
+                shapes.length);
+        ExecutorService executor = null;
+        float[] raw;
+        if (n > 1) executor = Executors.newFixedThreadPool(n);
+        try {
+            Iterator<List<ROIShape>> k = groups.values().iterator();
+            while (k.hasNext()) {
+                group = k.next();
+                shape = group.get(0);
+                j = valid.iterator();
+                while (j.hasNext()) {
+                    w = j.next();
+                    raw = getRawPlane(shape.getZ(), shape.getT(),
+                            w.intValue());
+                    analyze(raw != null ? null : getPlane(ctx, shape.getZ(),
+                            shape.getT(), w.intValue()), raw, group, masks,
+                            w.intValue(), r, executor);
                 }
-                r.put(shape, stats);
             }
+        } finally {
+            if (executor != null) executor.shutdownNow();
+            planes.clear();
+            runner.close();
         }
         return r;
     }
@@ -0,0 +1,241 @@
+/*
+ * org.openmicroscopy.shoola.env.rnd.roi.ROIMask
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.rnd.roi;
+
+//Java imports
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+//Third-party libraries
+
+//Application-internal dependencies
+import org.openmicroscopy.shoola.util.roi.figures.RasterizedFigure;
+import org.openmicroscopy.shoola.util.roi.figures.ROIFigure;
+
+/**
+ * Run-length encoded 2D-selection within an XY-plane.
+ * The selection is stored as a sequence of horizontal runs ordered by row
+ * then by column; a run covers the pixels <code>[start, end)</code> of a
+ * row. This is a lot more compact than a list of points for big shapes.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+public class ROIMask
+{
+
+    /** The row of each run. */
+    private final int[] rows;
+
+    /** The first column of each run. */
+    private final int[] starts;
+
+    /** The column after the last one of each run. */
+    private final int[] ends;
+
+    /** The number of runs. */
+    private final int runCount;
+
+    /** The number of points in the selection. */
+    private final int pointsCount;
+
+    /**
+     * Creates a mask from the specified points. The points do not have to be
+     * ordered, duplicates are ignored.
+     *
+     * @param points The points to encode. Mustn't be <code>null</code>.
+     * @return See above.
+     */
+    public static ROIMask fromPoints(List<Point> points)
+    {
+        if (points == null) throw new NullPointerException("No points.");
+        //Sort by row then column without creating objects.
+        long[] keys = new long[points.size()];
+        Iterator<Point> i = points.iterator();
+        Point p;
+        int n = 0;
+        while (i.hasNext()) {
+            p = i.next();
+            keys[n++] = ((long) p.y << 32) | (p.x & 0xffffffffL);
+        }
+        Arrays.sort(keys);
+        int[] rows = new int[n];
+        int[] starts = new int[n];
+        int[] ends = new int[n];
+        int runs = 0;
+        int x, y;
+        for (int j = 0; j < n; j++) {
+            y = (int) (keys[j] >> 32);
+            x = (int) keys[j];
+            if (runs > 0 && rows[runs-1] == y) {
+                if (x < ends[runs-1]) continue; //duplicate
+                if (x == ends[runs-1]) {
+                    ends[runs-1]++;
+                    continue;
+                }
+            }
+            rows[runs] = y;
+            starts[runs] = x;
+            ends[runs] = x+1;
+            runs++;
+        }
+        return new ROIMask(rows, starts, ends, runs);
+    }
+
+    /**
+     * Creates a mask from the pixels of the specified figure. The runs of
+     * the figures filled by a scanline are used directly, the points are
+     * only requested from the other figures e.g. lines.
+     *
+     * @param figure The figure to encode. Mustn't be <code>null</code>.
+     * @return See above.
+     */
+    public static ROIMask fromFigure(ROIFigure figure)
+    {
+        if (figure == null) throw new NullPointerException("No figure.");
+        if (figure instanceof RasterizedFigure) {
+            int[][] runs = ((RasterizedFigure) figure).getRuns();
+            if (runs != null)
+                return new ROIMask(runs[0], runs[1], runs[2], runs[0].length);
+        }
+        return fromPoints(figure.getPoints());
+    }
+
+    /**
+     * Creates a new instance. The runs must be ordered by row then by
+     * column and must not overlap.
+     *
+     * @param rows The row of each run.
+     * @param starts The first column of each run.
+     * @param ends The column after the last one of each run.
+     * @param runCount The number of runs.
+     */
+    public ROIMask(int[] rows, int[] starts, int[] ends, int runCount)
+    {
+        if (rows == null || starts == null || ends == null)
+            throw new NullPointerException("No runs.");
+        if (runCount < 0 || runCount > rows.length ||
+                runCount > starts.length || runCount > ends.length)
+            throw new IllegalArgumentException("Runs count not valid.");
+        this.rows = rows;
+        this.starts = starts;
+        this.ends = ends;
+        this.runCount = runCount;
+        int count = 0;
+        for (int i = 0; i < runCount; i++)
+            count += ends[i]-starts[i];
+        pointsCount = count;
+    }
+
+    /**
+     * Returns the mask restricted to the plane <code>[0, sizeX)</code> x
+     * <code>[0, sizeY)</code>.
+     *
+     * @param sizeX The number of pixels along the x-axis.
+     * @param sizeY The number of pixels along the y-axis.
+     * @return See above.
+     */
+    public ROIMask clip(int sizeX, int sizeY)
+    {
+        int[] r = new int[runCount];
+        int[] s = new int[runCount];
+        int[] e = new int[runCount];
+        int n = 0;
+        int start, end;
+        for (int i = 0; i < runCount; i++) {
+            if (rows[i] < 0 || rows[i] >= sizeY) continue;
+            start = Math.max(0, starts[i]);
+            end = Math.min(sizeX, ends[i]);
+            if (start >= end) continue;
+            r[n] = rows[i];
+            s[n] = start;
+            e[n] = end;
+            n++;
+        }
+        if (n == runCount) {
+            boolean same = true;
+            for (int i = 0; i < n && same; i++)
+                same = s[i] == starts[i] && e[i] == ends[i];
+            if (same) return this;
+        }
+        return new ROIMask(r, s, e, n);
+    }
+
+    /**
+     * Returns the number of runs.
+     *
+     * @return See above.
+     */
+    public int getRunCount() { return runCount; }
+
+    /**
+     * Returns the row of the specified run.
+     *
+     * @param index The index of the run.
+     * @return See above.
+     */
+    public int getRow(int index) { return rows[index]; }
+
+    /**
+     * Returns the first column of the specified run.
+     *
+     * @param index The index of the run.
+     * @return See above.
+     */
+    public int getStart(int index) { return starts[index]; }
+
+    /**
+     * Returns the column after the last one of the specified run.
+     *
+     * @param index The index of the run.
+     * @return See above.
+     */
+    public int getEnd(int index) { return ends[index]; }
+
+    /**
+     * Returns the number of points in the selection.
+     *
+     * @return See above.
+     */
+    public int getPointsCount() { return pointsCount; }
+
+    /**
+     * Returns the points of the selection, ordered by row then by column.
+     *
+     * @return See above.
+     */
+    public List<Point> toPoints()
+    {
+        List<Point> points = new ArrayList<Point>(pointsCount);
+        for (int i = 0; i < runCount; i++) {
+            for (int x = starts[i]; x < ends[i]; x++)
+                points.add(new Point(x, rows[i]));
+        }
+        return points;
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * org.openmicroscopy.shoola.env.rnd.roi.ROIMaskStats
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.rnd.roi;
+
+//Java imports
+import java.awt.Point;
+import java.util.List;
+
+//Third-party libraries
+
+//Application-internal dependencies
+
+/**
+ * Stores the statistics computed by the {@link ROIStatsEngine} for a
+ * {@link ROIMask}. The values are kept in a primitive array in the order
+ * of the mask, the points are only created if requested.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+public class ROIMaskStats
+    extends ROIShapeStatsSimple
+{
+
+    /** The selection the statistics were computed for. */
+    private final ROIMask mask;
+
+    /** The value of each point of the mask. */
+    private final double[] values;
+
+    /** The histogram of the values. */
+    private final int[] histogram;
+
+    /** The points of the mask, created on demand. */
+    private List<Point> points;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param mask The selection the statistics were computed for.
+     * @param values The value of each point of the mask.
+     * @param histogram The histogram of the values.
+     */
+    ROIMaskStats(ROIMask mask, double[] values, int[] histogram)
+    {
+        this.mask = mask;
+        this.values = values;
+        this.histogram = histogram;
+    }
+
+    /**
+     * Returns the selection the statistics were computed for.
+     *
+     * @return See above.
+     */
+    public ROIMask getMask() { return mask; }
+
+    /**
+     * Returns the histogram of the values. The bins evenly split the range
+     * <code>[min, max]</code>.
+     *
+     * @return See above.
+     */
+    public int[] getHistogram() { return histogram; }
+
+    /**
+     * Overridden to return the values in the order of the mask.
+     * @see ROIShapeStatsSimple#getValues()
+     */
+    public double[] getValues() { return values; }
+
+    /**
+     * Overridden to create the points of the mask the first time.
+     * @see ROIShapeStatsSimple#getPoints()
+     */
+    public synchronized List<Point> getPoints()
+    {
+        if (points == null) points = mask.toPoints();
+        return points;
+    }
+
+    /**
+     * Overridden to look up the value in the mask.
+     * @see ROIShapeStatsSimple#getValue(Point)
+     */
+    public double getValue(Point p)
+    {
+        int offset = 0;
+        for (int i = 0; i < mask.getRunCount(); i++) {
+            if (mask.getRow(i) == p.y && p.x >= mask.getStart(i) &&
+                    p.x < mask.getEnd(i))
+                return values[offset+p.x-mask.getStart(i)];
+            offset += mask.getEnd(i)-mask.getStart(i);
+        }
+        return Double.NaN;
+    }
+
+}
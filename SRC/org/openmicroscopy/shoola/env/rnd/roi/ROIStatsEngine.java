@@ -0,0 +1,186 @@
+/*
+ * org.openmicroscopy.shoola.env.rnd.roi.ROIStatsEngine
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.env.rnd.roi;
+
+//Java imports
+
+//Third-party libraries
+
+//Application-internal dependencies
+import omero.gateway.rnd.Plane2D;
+
+/**
+ * Computes the statistics of a {@link ROIMask} over a plane.
+ * The values of the selection are first copied into a primitive array,
+ * run by run, then the minimum, maximum, sum, sum of squares, mean and
+ * standard deviation are computed in a single loop over that array and the
+ * histogram in a second one. No object is created per pixel.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+public class ROIStatsEngine
+{
+
+    /** The default number of bins of the histogram. */
+    public static final int DEFAULT_BINS = 256;
+
+    /**
+     * Computes the statistics of the selection over a plane stored in a
+     * primitive array in row-major order.
+     *
+     * @param mask The selection. Mustn't be <code>null</code>.
+     * @param pixels The values of the plane.
+     * @param sizeX The number of pixels along the x-axis.
+     * @param sizeY The number of pixels along the y-axis.
+     * @param bins The number of bins of the histogram.
+     * @return See above.
+     */
+    public static ROIMaskStats compute(ROIMask mask, double[] pixels,
+            int sizeX, int sizeY, int bins)
+    {
+        if (mask == null) throw new NullPointerException("No mask.");
+        mask = mask.clip(sizeX, sizeY);
+        double[] values = new double[mask.getPointsCount()];
+        int k = 0;
+        int offset, length;
+        for (int i = 0; i < mask.getRunCount(); i++) {
+            offset = mask.getRow(i)*sizeX+mask.getStart(i);
+            length = mask.getEnd(i)-mask.getStart(i);
+            System.arraycopy(pixels, offset, values, k, length);
+            k += length;
+        }
+        return compute(mask, values, bins);
+    }
+
+    /**
+     * Computes the statistics of the selection over a raw plane decoded to
+     * render the image on the client, stored in row-major order.
+     *
+     * @param mask The selection. Mustn't be <code>null</code>.
+     * @param pixels The values of the plane.
+     * @param sizeX The number of pixels along the x-axis.
+     * @param sizeY The number of pixels along the y-axis.
+     * @param bins The number of bins of the histogram.
+     * @return See above.
+     */
+    public static ROIMaskStats compute(ROIMask mask, float[] pixels,
+            int sizeX, int sizeY, int bins)
+    {
+        if (mask == null) throw new NullPointerException("No mask.");
+        mask = mask.clip(sizeX, sizeY);
+        double[] values = new double[mask.getPointsCount()];
+        int k = 0;
+        int offset, end;
+        for (int i = 0; i < mask.getRunCount(); i++) {
+            offset = mask.getRow(i)*sizeX;
+            end = offset+mask.getEnd(i);
+            for (int j = offset+mask.getStart(i); j < end; j++)
+                values[k++] = pixels[j];
+        }
+        return compute(mask, values, bins);
+    }
+
+    /**
+     * Computes the statistics of the selection over the specified plane.
+     *
+     * @param mask The selection. Mustn't be <code>null</code>.
+     * @param data The plane.
+     * @param sizeX The number of pixels along the x-axis.
+     * @param sizeY The number of pixels along the y-axis.
+     * @param bins The number of bins of the histogram.
+     * @return See above.
+     */
+    public static ROIMaskStats compute(ROIMask mask, Plane2D data,
+            int sizeX, int sizeY, int bins)
+    {
+        if (mask == null) throw new NullPointerException("No mask.");
+        mask = mask.clip(sizeX, sizeY);
+        double[] values = new double[mask.getPointsCount()];
+        int k = 0;
+        int y, end;
+        for (int i = 0; i < mask.getRunCount(); i++) {
+            y = mask.getRow(i);
+            end = mask.getEnd(i);
+            for (int x = mask.getStart(i); x < end; x++)
+                values[k++] = data.getPixelValue(x, y);
+        }
+        return compute(mask, values, bins);
+    }
+
+    /**
+     * Computes the statistics of the values of the selection, the values
+     * being in the order of the mask.
+     *
+     * @param mask The selection, already restricted to the plane.
+     * @param values The values of the selection.
+     * @param bins The number of bins of the histogram.
+     * @return See above.
+     */
+    private static ROIMaskStats compute(ROIMask mask, double[] values,
+            int bins)
+    {
+        int n = values.length;
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        double sum = 0, sumOfSquares = 0;
+        double v;
+        for (int i = 0; i < n; i++) {
+            v = values[i];
+            if (v < min) min = v;
+            if (v > max) max = v;
+            sum += v;
+            sumOfSquares += v*v;
+        }
+        int[] histogram = new int[Math.max(1, bins)];
+        if (n > 0) {
+            double range = max-min;
+            int last = histogram.length-1;
+            int bin;
+            if (range <= 0) histogram[0] = n;
+            else {
+                double factor = histogram.length/range;
+                for (int i = 0; i < n; i++) {
+                    bin = (int) ((values[i]-min)*factor);
+                    histogram[bin > last ? last : bin]++;
+                }
+            }
+        }
+        ROIMaskStats stats = new ROIMaskStats(mask, values, histogram);
+        if (n == 0) return stats;
+        stats.setMin(min);
+        stats.setMax(max);
+        stats.addToSum(sum);
+        stats.sumOfSquares = sumOfSquares;
+        stats.setPointsCount(n);
+        stats.setMean(sum/n);
+        if (n > 1) {
+            double sigmaSquare = (sumOfSquares-sum*sum/n)/(n-1);
+            if (sigmaSquare > 0)
+                stats.setStandardDeviation(Math.sqrt(sigmaSquare));
+        }
+        return stats;
+    }
+
+}
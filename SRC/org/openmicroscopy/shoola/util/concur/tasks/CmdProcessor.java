@@ -63,6 +63,15 @@ package org.openmicroscopy.shoola.util.concur.tasks;
 public abstract class CmdProcessor
 {
     
+    /** Priority of the services the user is waiting for, e.g. rendering. */
+    public static final int INTERACTIVE = 0;
+
+    /** Default priority of the services. */
+    public static final int NORMAL = 1;
+
+    /** Priority of the services running in the background. */
+    public static final int BACKGROUND = 2;
+
     /**
      * Subclasses have to implement this method in order to execute the
      * service.
@@ -80,6 +89,17 @@ public abstract class CmdProcessor
      */
     protected abstract void doExec(Runnable cmd);
     
+    /**
+     * Executes the service with the specified priority.
+     * By default, the priority is ignored and the service is executed by
+     * {@link #doExec(Runnable)}. Subclasses queueing up the services should
+     * override this method.
+     * 
+     * @param cmd       Enapsulates the service workflow.
+     * @param priority  One of the constants defined by this class.
+     */
+    protected void doExec(Runnable cmd, int priority) { doExec(cmd); }
+    
     /**
      * Executes the specified <code>task</code>.
      *   
@@ -348,6 +368,41 @@ public abstract class CmdProcessor
      */
     public Future exec(MultiStepTask task, ResultAssembler rAsm, 
                         ExecMonitor observer)
+    {
+        return exec(task, rAsm, observer, NORMAL);
+    }
+    
+    /**
+     * Executes the specified multi-step <code>task</code> with the given
+     * priority. Services with a higher priority are executed first if the
+     * concrete processor has to queue up the services.
+     *   
+     * @param task  The multi-step task to execute.  Mustn't be 
+     *              <code>null</code>.
+     * @param observer  To get feedback about the execution progress.
+     * @param priority  One of the constants defined by this class.
+     * @return A {@link Future} to collect the result of the invocation.
+     *          See {@link #exec(MultiStepTask, ExecMonitor)}.
+     */
+    public Future exec(MultiStepTask task, ExecMonitor observer, int priority)
+    {
+        return exec(task, null, observer, priority);
+    }
+    
+    /**
+     * Executes the specified multi-step <code>task</code> with the given
+     * priority.
+     *   
+     * @param task  The multi-step task to execute.  Mustn't be 
+     *              <code>null</code>.
+     * @param rAsm  To provide a specific way to assemble the computatation 
+     *              results from partial results.
+     * @param observer  To get feedback about the execution progress.
+     * @param priority  One of the constants defined by this class.
+     * @return A {@link Future} to collect the result of the invocation.
+     */
+    private Future exec(MultiStepTask task, ResultAssembler rAsm, 
+                        ExecMonitor observer, int priority)
     {
         if (task == null) throw new NullPointerException("No task.");
         
@@ -361,7 +416,7 @@ public abstract class CmdProcessor
         future.setCommand(cmd);  //OK, init completed now (two-step init).
         
         //Transfer command.
-        doExec(cmd);  //Normally executed in a different thread.  
+        doExec(cmd, priority);  //Normally executed in a different thread.  
         
         //Allow client to retrieve result and cancel execution.
         return future;
@@ -0,0 +1,590 @@
+/*
+ * org.openmicroscopy.shoola.util.concur.tasks.PooledProcessor
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ * 	This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+
+package org.openmicroscopy.shoola.util.concur.tasks;
+
+
+//Java imports
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ThreadFactory;
+
+//Third-party libraries
+
+//Application-internal dependencies
+
+/**
+ * A concrete {@link CmdProcessor} that executes the services using a
+ * bounded pool of threads.
+ * <p>The services are queued up in priority lanes: a thread always picks
+ * the oldest service of the highest priority lane, so that the services
+ * the user is waiting for (e.g. rendering) are executed before the ones
+ * running in the background (e.g. thumbnails or counts).</p>
+ * <p>Services are never executed in the client thread. Since services may
+ * depend on each other or run for a long time (e.g. import), extra threads
+ * are started, up to a maximum, when the oldest queued service has been
+ * waiting for too long while all the threads are busy. The extra threads
+ * exit after being idle for a while.</p>
+ * <p>The threads can be virtual threads if the JVM supports them.</p>
+ * <p>The number of queued services, the time they waited in the queue and
+ * the time they took to execute are collected per lane, see
+ * {@link #getStatistics()}.</p>
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * 				<a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+public class PooledProcessor
+    extends CmdProcessor
+{
+
+    /**
+     * The time, in milliseconds, a service can wait in the queue while all
+     * the threads are busy before an extra thread is started.
+     */
+    static final long STARVATION_DELAY = 1000;
+
+    /** The time, in milliseconds, after which an idle extra thread exits. */
+    static final long IDLE_TIMEOUT = 30000;
+
+    /** The names of the lanes, used for statistics. */
+    private static final String[] LANES = {"interactive", "normal",
+            "background"};
+
+    /** Hosts a queued command. */
+    private static final class Entry
+        implements Comparable<Entry>
+    {
+
+        /** The command to execute. */
+        final ExecCommand cmd;
+
+        /** The lane of the command. */
+        final int lane;
+
+        /** The order of submission. */
+        final long sequence;
+
+        /** The time of submission. */
+        final long queued;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param cmd The command to execute.
+         * @param lane The lane of the command.
+         * @param sequence The order of submission.
+         */
+        Entry(ExecCommand cmd, int lane, long sequence)
+        {
+            this.cmd = cmd;
+            this.lane = lane;
+            this.sequence = sequence;
+            queued = System.currentTimeMillis();
+        }
+
+        /**
+         * Orders by lane then by order of submission.
+         * @see Comparable#compareTo(Object)
+         */
+        public int compareTo(Entry o)
+        {
+            if (lane != o.lane) return lane < o.lane ? -1 : 1;
+            if (sequence == o.sequence) return 0;
+            return sequence < o.sequence ? -1 : 1;
+        }
+    }
+
+    /** The statistics of a lane. Guarded by the processor. */
+    private static final class Lane
+    {
+
+        /** The number of services submitted. */
+        long submitted;
+
+        /** The number of services executed. */
+        long executed;
+
+        /** The number of services currently queued. */
+        int depth;
+
+        /** The maximum number of services queued at the same time. */
+        int maxDepth;
+
+        /** The total time, in milliseconds, spent in the queue. */
+        long totalWait;
+
+        /** The maximum time, in milliseconds, spent in the queue. */
+        long maxWait;
+
+        /** The total time, in milliseconds, spent executing. */
+        long totalRun;
+    }
+
+    /** The run loop of the threads. */
+    private class Worker
+        implements Runnable
+    {
+
+        /**
+         * Flag indicating if the thread is one of the core threads, which
+         * never exit, or an extra thread.
+         */
+        private final boolean core;
+
+        /** The command being executed. Guarded by the processor. */
+        ExecCommand cmd;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param core Pass <code>true</code> for a core thread,
+         *             <code>false</code> for an extra thread.
+         */
+        Worker(boolean core) { this.core = core; }
+
+        /**
+         * Executes the queued commands until the processor is terminated or,
+         * if it is an extra thread, the thread has been idle for too long.
+         * @see Runnable#run()
+         */
+        public void run()
+        {
+            Entry entry;
+            long start;
+            try {
+                while ((entry = take(this)) != null) {
+                    start = System.currentTimeMillis();
+                    try {
+                        entry.cmd.run();
+                    } catch (Throwable t) {
+                        if (uncaughtExcHandler != null)
+                            uncaughtExcHandler.handle(t);
+                        else {
+                            Thread thread = Thread.currentThread();
+                            thread.getUncaughtExceptionHandler()
+                                .uncaughtException(thread, t);
+                        }
+                    } finally {
+                        //The thread is reused, clear the cancellation.
+                        Thread.interrupted();
+                        notifyExecuted(this, entry,
+                                System.currentTimeMillis()-start);
+                    }
+                }
+            } finally {
+                notifyExit(this);
+            }
+        }
+    }
+
+    /** The queued commands. */
+    private final PriorityQueue<Entry> queue;
+
+    /** The threads running or waiting for commands. */
+    private final Set<Worker> workers;
+
+    /** The threads mapped onto the worker they run. */
+    private final List<Thread> threads;
+
+    /** The statistics of each lane. */
+    private final Lane[] lanes;
+
+    /** Creates the threads. */
+    private final ThreadFactory factory;
+
+    /** The number of threads always available. */
+    private final int coreThreads;
+
+    /** The maximum number of threads. */
+    private final int maxThreads;
+
+    /** Custom handler used in the case of uncaught exceptions. */
+    private final UncaughtExcHandler uncaughtExcHandler;
+
+    /** The number of threads waiting for a command. */
+    private int idle;
+
+    /** The number of commands submitted. */
+    private long sequence;
+
+    /** The number of extra threads started. */
+    private long extraStarted;
+
+    /** Detects when the queued commands wait for too long. */
+    private Thread watchdog;
+
+    /**
+     * Tells whether the processor will accept and run new commands.
+     * Latches to <code>true</code> when {@link #terminate(long)} is called.
+     */
+    private boolean terminated;
+
+    /**
+     * Returns a factory creating virtual threads or <code>null</code>
+     * if the JVM does not support them.
+     *
+     * @return See above.
+     */
+    private static ThreadFactory createVirtualThreadFactory()
+    {
+        try {
+            Method m = Thread.class.getMethod("ofVirtual");
+            Object builder = m.invoke(null);
+            Class<?> c = Class.forName("java.lang.Thread$Builder");
+            builder = c.getMethod("name", String.class, long.class).invoke(
+                    builder, "PooledProcessor-", 0L);
+            return (ThreadFactory) c.getMethod("factory").invoke(builder);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns a factory creating daemon platform threads.
+     *
+     * @return See above.
+     */
+    private static ThreadFactory createThreadFactory()
+    {
+        return new ThreadFactory() {
+            private int count;
+            public synchronized Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "PooledProcessor-"+(count++));
+                t.setDaemon(true);
+                return t;
+            }
+        };
+    }
+
+    /**
+     * Starts a new thread. Must be invoked while holding the lock.
+     *
+     * @param core Pass <code>true</code> for a core thread,
+     *             <code>false</code> for an extra thread.
+     */
+    private void startWorker(boolean core)
+    {
+        Worker w = new Worker(core);
+        Thread t = factory.newThread(w);
+        workers.add(w);
+        threads.add(t);
+        t.start();
+    }
+
+    /**
+     * Starts the thread checking that the queued commands do not wait for
+     * too long. Must be invoked while holding the lock.
+     */
+    private void startWatchdog()
+    {
+        if (watchdog != null || maxThreads <= coreThreads) return;
+        watchdog = new Thread(new Runnable() {
+            public void run() { watch(); }
+        }, "PooledProcessor-watchdog");
+        watchdog.setDaemon(true);
+        watchdog.start();
+    }
+
+    /**
+     * Starts an extra thread when the oldest command of the highest priority
+     * lane has been waiting for too long and no thread is idle.
+     */
+    private void watch()
+    {
+        synchronized (this) {
+            Entry head;
+            while (!terminated) {
+                head = queue.peek();
+                if (head != null && idle == 0 && workers.size() < maxThreads
+                        && System.currentTimeMillis()-head.queued
+                        >= STARVATION_DELAY) {
+                    extraStarted++;
+                    startWorker(false);
+                }
+                try {
+                    wait(STARVATION_DELAY/2);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits for the next command to execute. Returns <code>null</code> if
+     * the thread should exit.
+     *
+     * @param w The worker requesting a command.
+     * @return See above.
+     */
+    private synchronized Entry take(Worker w)
+    {
+        w.cmd = null;
+        long timeout = w.core ? 0 : IDLE_TIMEOUT;
+        long end = System.currentTimeMillis()+timeout;
+        long remaining;
+        while (queue.isEmpty()) {
+            if (terminated) return null;
+            idle++;
+            try {
+                if (w.core) wait();
+                else {
+                    remaining = end-System.currentTimeMillis();
+                    if (remaining <= 0) return null;
+                    wait(remaining);
+                }
+            } catch (InterruptedException e) {
+                return null;
+            } finally {
+                idle--;
+            }
+        }
+        if (terminated) return null;
+        Entry entry = queue.poll();
+        Lane lane = lanes[entry.lane];
+        lane.depth--;
+        long wait = System.currentTimeMillis()-entry.queued;
+        lane.totalWait += wait;
+        if (wait > lane.maxWait) lane.maxWait = wait;
+        w.cmd = entry.cmd;
+        return entry;
+    }
+
+    /**
+     * Records the execution of a command.
+     *
+     * @param w The worker that executed the command.
+     * @param entry The executed command.
+     * @param time The time, in milliseconds, spent executing.
+     */
+    private synchronized void notifyExecuted(Worker w, Entry entry, long time)
+    {
+        w.cmd = null;
+        Lane lane = lanes[entry.lane];
+        lane.executed++;
+        lane.totalRun += time;
+    }
+
+    /**
+     * Callback used by a worker when exiting the run loop.
+     *
+     * @param w The worker that exited.
+     */
+    private synchronized void notifyExit(Worker w)
+    {
+        workers.remove(w);
+        threads.remove(Thread.currentThread());
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param coreThreads The number of threads always available.
+     *                    Must be positive.
+     * @param maxThreads The maximum number of threads. A value lower than
+     *                   <code>coreThreads</code> is replaced by
+     *                   <code>coreThreads</code>.
+     * @param virtual Pass <code>true</code> to use virtual threads if
+     *                supported by the JVM, <code>false</code> otherwise.
+     * @param handler Handles uncaught exceptions or <code>null</code>.
+     */
+    public PooledProcessor(int coreThreads, int maxThreads, boolean virtual,
+            UncaughtExcHandler handler)
+    {
+        if (coreThreads <= 0)
+            throw new IllegalArgumentException("No threads.");
+        this.coreThreads = coreThreads;
+        this.maxThreads = Math.max(coreThreads, maxThreads);
+        uncaughtExcHandler = handler;
+        ThreadFactory f = null;
+        if (virtual) f = createVirtualThreadFactory();
+        if (f == null) f = createThreadFactory();
+        factory = f;
+        queue = new PriorityQueue<Entry>();
+        workers = new HashSet<Worker>();
+        threads = new ArrayList<Thread>();
+        lanes = new Lane[LANES.length];
+        for (int i = 0; i < lanes.length; i++)
+            lanes[i] = new Lane();
+    }
+
+    /**
+     * Creates a new instance using platform threads.
+     *
+     * @param coreThreads The number of threads always available.
+     *                    Must be positive.
+     * @param maxThreads The maximum number of threads.
+     */
+    public PooledProcessor(int coreThreads, int maxThreads)
+    {
+        this(coreThreads, maxThreads, false, null);
+    }
+
+    /**
+     * Queues the command in the {@link #NORMAL} lane.
+     * @see CmdProcessor#doExec(Runnable)
+     */
+    protected void doExec(Runnable cmd)
+    {
+        doExec(cmd, NORMAL);
+    }
+
+    /**
+     * Queues the command in the lane corresponding to the priority.
+     * @see CmdProcessor#doExec(Runnable, int)
+     */
+    protected void doExec(Runnable cmd, int priority)
+    {
+        ExecCommand srv = (ExecCommand) cmd;
+        if (priority < INTERACTIVE) priority = INTERACTIVE;
+        if (priority > BACKGROUND) priority = BACKGROUND;
+        synchronized (this) {
+            if (!terminated) {
+                queue.add(new Entry(srv, priority, sequence++));
+                Lane lane = lanes[priority];
+                lane.submitted++;
+                lane.depth++;
+                if (lane.depth > lane.maxDepth) lane.maxDepth = lane.depth;
+                if (idle > 0) notifyAll();
+                else if (workers.size() < coreThreads) startWorker(true);
+                startWatchdog();
+                return;
+            }
+        }
+        srv.cancel();
+    }
+
+    /**
+     * Returns the number of threads currently started.
+     *
+     * @return See above.
+     */
+    public synchronized int getThreadCount() { return workers.size(); }
+
+    /**
+     * Returns the number of commands queued in the lane corresponding to
+     * the specified priority.
+     *
+     * @param priority One of the constants defined by {@link CmdProcessor}.
+     * @return See above.
+     */
+    public synchronized int getQueueDepth(int priority)
+    {
+        if (priority < INTERACTIVE || priority > BACKGROUND) return 0;
+        return lanes[priority].depth;
+    }
+
+    /**
+     * Returns a summary of the activity of each lane.
+     *
+     * @return See above.
+     */
+    public synchronized String getStatistics()
+    {
+        StringBuffer buf = new StringBuffer();
+        buf.append("Command processor threads="+workers.size());
+        buf.append(" (core="+coreThreads+", max="+maxThreads);
+        buf.append(", extra started="+extraStarted+")");
+        Lane lane;
+        for (int i = 0; i < lanes.length; i++) {
+            lane = lanes[i];
+            buf.append("\n"+LANES[i]+": submitted="+lane.submitted);
+            buf.append(" executed="+lane.executed);
+            buf.append(" queued="+lane.depth);
+            buf.append(" max queued="+lane.maxDepth);
+            long n = lane.submitted-lane.depth;
+            if (n > 0)
+                buf.append(" avg wait(ms)="+(lane.totalWait/n));
+            buf.append(" max wait(ms)="+lane.maxWait);
+            if (lane.executed > 0)
+                buf.append(" avg run(ms)="+(lane.totalRun/lane.executed));
+        }
+        return buf.toString();
+    }
+
+    /**
+     * Cancels all the queued services and the currently running ones.
+     * This is equivalent to calling the
+     * {@link ExecHandle#cancelExecution() cancelExecution} method on each
+     * {@link ExecHandle} of the queued and running services.
+     */
+    public void cancelAll()
+    {
+        List<ExecCommand> l = new ArrayList<ExecCommand>();
+        synchronized (this) {
+            Entry e;
+            while ((e = queue.poll()) != null) {
+                lanes[e.lane].depth--;
+                l.add(e.cmd);
+            }
+            Iterator<Worker> i = workers.iterator();
+            Worker w;
+            while (i.hasNext()) {
+                w = i.next();
+                if (w.cmd != null) l.add(w.cmd);
+            }
+        }
+        //Cancel outside the lock as the observers are notified.
+        Iterator<ExecCommand> j = l.iterator();
+        while (j.hasNext())
+            j.next().cancel();
+    }
+
+    /**
+     * Cancels all the queued and running services and disallows execution
+     * of new ones. Waits at most <code>maxWait</code> milliseconds for each
+     * thread to exit and returns <code>true</code> only if all the threads
+     * have exited.
+     *
+     * @param maxWait Maximum amount of milliseconds to wait for each
+     *                thread to exit.
+     * @return See above.
+     */
+    public boolean terminate(long maxWait)
+    {
+        Thread[] runners;
+        synchronized (this) {
+            terminated = true;
+            notifyAll();
+            runners = threads.toArray(new Thread[threads.size()]);
+        }
+        cancelAll();
+        boolean anyThreadStillRunning = false;
+        for (int i = 0; i < runners.length; ++i) {
+            try {
+                runners[i].join(maxWait);
+            } catch (InterruptedException ie) {
+                //Ignore.  This whole loop is a bounded wait.
+            }
+            if (runners[i].isAlive()) anyThreadStillRunning = true;
+        }
+        return !anyThreadStillRunning;
+    }
+
+}
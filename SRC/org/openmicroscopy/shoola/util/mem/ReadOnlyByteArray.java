@@ -120,4 +120,21 @@ public class ReadOnlyByteArray
 		return base[offset+index];
 	}
 
+	/**
+	 * Copies <code>n</code> elements of this slice, starting from the
+	 * <code>index</code> position, into <code>dst</code>.
+	 * 
+	 * @param index	The position of the first element to copy.
+	 * @param dst	The array to copy to.
+	 * @param dstOffset	The position of the first element in <code>dst</code>.
+	 * @param n	The number of elements to copy.
+	 */
+	public void copyTo(int index, byte[] dst, int dstOffset, int n)
+	{
+		if (n == 0) return;
+		checkIndex(index);
+		checkIndex(index+n-1);
+		System.arraycopy(base, offset+index, dst, dstOffset, n);
+	}
+
 }
@@ -26,7 +26,6 @@ package org.openmicroscopy.shoola.util.roi.figures;
 import java.awt.Font;
 import java.awt.Graphics2D;
 import java.awt.Point;
-import java.awt.Rectangle;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
@@ -67,7 +66,7 @@ import omero.model.enums.UnitsLength;
  */
 public class MeasureBezierFigure 
 	extends BezierTextFigure
-	implements ROIFigure
+	implements RasterizedFigure
 {
 	
 	/** Flag indicating the figure can/cannot be deleted.*/
@@ -118,6 +117,9 @@ public class MeasureBezierFigure
 	 */
 	private int 					status;
 	
+	/** Determines the pixels inside the polygon. */
+	private ShapeRasterizer rasterizer = new ShapeRasterizer();
+	
 	/**
 	 * Returns the number of points(pixels) on the polyline.
 	 * 
@@ -596,23 +598,7 @@ public class MeasureBezierFigure
 	 */
 	private List<Point> getAreaPoints()
 	{
-		Rectangle r = path.getBounds();
-		double iX = Math.floor(r.getX());
-		double iY = Math.floor(r.getY());
-		List<Point> vector = new ArrayList<Point>();
-		path.toPolygonArray();
-		Point2D point = new Point2D.Double(0,0);
-		for (int x = 0 ; x < Math.ceil(r.getWidth()); x++)
-		{
-			for ( int y = 0 ; y < Math.ceil(r.getHeight()) ; y++)
-			{
-				point.setLocation(iX+x, iY+y);
-				if (path.contains(point))
-					vector.add(new Point((int) point.getX(), (int)  
-							point.getY()));
-			}
-		}
-		return vector;
+		return rasterizer.getPoints(path);
 	}
 
 	/**
@@ -622,22 +608,17 @@ public class MeasureBezierFigure
 	 */
 	private int getAreaSize()
 	{
-		Rectangle r = path.getBounds();
-		double iX = Math.floor(r.getX());
-		double iY = Math.floor(r.getY());
-		int total = 0;
-		path.toPolygonArray();
-		Point2D point = new Point2D.Double(0,0);
-		for (int x = 0 ; x < Math.ceil(r.getWidth()); x++)
-		{
-			for ( int y = 0 ; y < Math.ceil(r.getHeight()) ; y++)
-			{
-				point.setLocation(iX+x, iY+y);
-				if (path.contains(point))
-					total++;
-			}
-		}
-		return total;
+		return rasterizer.getSize(path);
+	}
+
+	/**
+	 * Implemented as specified by the {@link RasterizedFigure} interface.
+	 * @see RasterizedFigure#getRuns()
+	 */
+	public int[][] getRuns()
+	{
+		if (isClosed()) return rasterizer.getRuns(path);
+		return null;
 	}
 	
 	/**
@@ -786,6 +767,7 @@ public class MeasureBezierFigure
 	public MeasureBezierFigure clone()
 	{
 		MeasureBezierFigure that = (MeasureBezierFigure) super.clone();
+		that.rasterizer = new ShapeRasterizer();
 		that.setReadOnly(this.isReadOnly());
 		that.setClientObject(this.isClientObject());
 		that.setObjectDirty(true);
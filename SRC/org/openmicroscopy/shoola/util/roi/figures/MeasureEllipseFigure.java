@@ -25,7 +25,6 @@ package org.openmicroscopy.shoola.util.roi.figures;
 import java.awt.Font;
 import java.awt.Graphics2D;
 import java.awt.Point;
-import java.awt.Shape;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
@@ -63,7 +62,7 @@ import omero.model.enums.UnitsLength;
  */
 public class MeasureEllipseFigure 
 	extends EllipseTextFigure 
-	implements ROIFigure
+	implements RasterizedFigure
 {
 
 	/** Flag indicating the figure can/cannot be deleted.*/
@@ -105,6 +104,9 @@ public class MeasureEllipseFigure
 	/** Flag indicating if the user can move or resize the shape.*/
 	private boolean interactable;
 	
+	/** Determines the pixels inside the ellipse. */
+	private ShapeRasterizer rasterizer = new ShapeRasterizer();
+	
 
 	/** Creates a new instance. */
 	public MeasureEllipseFigure()
@@ -495,23 +497,7 @@ public class MeasureEllipseFigure
 	 */
 	public List<Point> getPoints()
 	{
-		Shape transformedEllipse = getTransformedShape();
-		Rectangle2D r = transformedEllipse.getBounds2D();
-		//getP
-
-		List<Point> vector = new ArrayList<Point>
-				((int) r.getHeight()*(int) r.getWidth());
-		double xEnd = (r.getX()+r.getWidth());
-		double yEnd = (r.getY()+r.getHeight());
-		double startX = r.getX();
-		double startY =  r.getY();
-		double x, y;
-		for (y = startY; y < yEnd; ++y)
-			for (x = startX; x < xEnd; ++x)
-//				if(containsMapped(x,y))
-				if (transformedEllipse.intersects(x, y, 0.001, 0.001))
-					vector.add(new Point((int) x, (int) y));
-		return vector; 
+		return rasterizer.getPoints(getTransformedShape());
 	}
 	
 	/**
@@ -520,21 +506,16 @@ public class MeasureEllipseFigure
 	 */
 	public int getSize()
 	{
-		Shape transformedEllipse = getTransformedShape();
-		Rectangle2D r = transformedEllipse.getBounds2D();
-		//getP
+		return rasterizer.getSize(getTransformedShape());
+	}
 
-		int total = 0;
-		double xEnd = (r.getX()+r.getWidth());
-		double yEnd = (r.getY()+r.getHeight());
-		double startX = r.getX();
-		double startY =  r.getY();
-		double x, y;
-		for (y = startY; y < yEnd; ++y)
-			for (x = startX; x < xEnd; ++x)
-				if (transformedEllipse.intersects(x, y, 0.001, 0.001))
-					total++;
-		return total; 
+	/**
+	 * Implemented as specified by the {@link RasterizedFigure} interface.
+	 * @see RasterizedFigure#getRuns()
+	 */
+	public int[][] getRuns()
+	{
+		return rasterizer.getRuns(getTransformedShape());
 	}
 	
 	/**
@@ -654,6 +635,7 @@ public class MeasureEllipseFigure
 	public MeasureEllipseFigure clone()
 	{
 		MeasureEllipseFigure that = (MeasureEllipseFigure) super.clone();
+		that.rasterizer = new ShapeRasterizer();
 		that.setReadOnly(this.isReadOnly());
 		that.setClientObject(this.isClientObject());
 		that.setObjectDirty(true);
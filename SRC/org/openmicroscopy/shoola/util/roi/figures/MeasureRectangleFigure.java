@@ -26,7 +26,6 @@ package org.openmicroscopy.shoola.util.roi.figures;
 import java.awt.Font;
 import java.awt.Graphics2D;
 import java.awt.Point;
-import java.awt.Rectangle;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
@@ -62,7 +61,7 @@ import omero.model.enums.UnitsLength;
  */
 public class MeasureRectangleFigure
 	extends RectangleTextFigure
-	implements ROIFigure
+	implements RasterizedFigure
 {
 	
 	/** Flag indicating the figure can/cannot be deleted.*/
@@ -105,6 +104,9 @@ public class MeasureRectangleFigure
 	
 	/** Flag indicating if the user can move or resize the shape.*/
 	private boolean interactable;
+	
+	/** Determines the pixels inside the rectangle. */
+	private ShapeRasterizer rasterizer = new ShapeRasterizer();
 
     /** Creates a new instance. */
     public MeasureRectangleFigure() 
@@ -510,16 +512,7 @@ public class MeasureRectangleFigure
 	 */
 	public List<Point> getPoints()
 	{
-		Rectangle r = rectangle.getBounds();
-		List<Point> vector = new ArrayList<Point>(r.height*r.width);
-		int xEnd = r.x+r.width, yEnd = r.y+r.height;
-		int x, y;
-		for (y = r.y; y < yEnd; ++y) 
-			for (x = r.x; x < xEnd; ++x) 
-				if (rectangle.contains(x, y)) 
-					vector.add(new Point(x, y));
-		
-		return vector;
+		return rasterizer.getPoints(rectangle);
 	}
 	
 	/**
@@ -528,16 +521,16 @@ public class MeasureRectangleFigure
 	 */
 	public int getSize()
 	{
-		Rectangle r = rectangle.getBounds();
-		int total = 0;
-		int xEnd = r.x+r.width, yEnd = r.y+r.height;
-		int x, y;
-		for (y = r.y; y < yEnd; ++y) 
-			for (x = r.x; x < xEnd; ++x) 
-				if (rectangle.contains(x, y)) 
-					total++;
-		
-		return total;
+		return rasterizer.getSize(rectangle);
+	}
+
+	/**
+	 * Implemented as specified by the {@link RasterizedFigure} interface.
+	 * @see RasterizedFigure#getRuns()
+	 */
+	public int[][] getRuns()
+	{
+		return rasterizer.getRuns(rectangle);
 	}
 
 	/**
@@ -605,6 +598,7 @@ public class MeasureRectangleFigure
 	public MeasureRectangleFigure clone()
 	{
 		MeasureRectangleFigure that = (MeasureRectangleFigure) super.clone();
+		that.rasterizer = new ShapeRasterizer();
 		that.setReadOnly(this.isReadOnly());
 		that.setClientObject(this.isClientObject());
 		that.setObjectDirty(true);
@@ -0,0 +1,54 @@
+/*
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.util.roi.figures;
+
+//Java imports
+
+//Third-party libraries
+
+//Application-internal dependencies
+
+/**
+ * Implemented by the {@link ROIFigure}s whose pixels are determined by a
+ * {@link ShapeRasterizer}, so that the pixels can be retrieved as runs
+ * instead of a point per pixel.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+public interface RasterizedFigure
+	extends ROIFigure
+{
+
+	/**
+	 * Returns the pixels contained in the figure as horizontal runs ordered
+	 * by row then by column: the rows, the first columns and the columns
+	 * after the last ones of the runs. The runs do not overlap.
+	 * Returns <code>null</code> if the pixels are not determined by the
+	 * rasterizer, e.g. for an open polyline, in which case the points
+	 * returned by {@link ROIFigure#getPoints()} should be used.
+	 *
+	 * @return See above.
+	 */
+	public int[][] getRuns();
+
+}
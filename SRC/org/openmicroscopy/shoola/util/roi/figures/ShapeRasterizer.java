@@ -0,0 +1,348 @@
+/*
+ * org.openmicroscopy.shoola.util.roi.figures.ShapeRasterizer
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+package org.openmicroscopy.shoola.util.roi.figures;
+
+//Java imports
+import java.awt.Point;
+import java.awt.Shape;
+import java.awt.geom.PathIterator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+//Third-party libraries
+
+//Application-internal dependencies
+
+/**
+ * Determines the pixels inside a shape using a scanline fill.
+ * A pixel <code>(x, y)</code> is inside if the point <code>(x, y)</code> is
+ * contained in the shape as defined by {@link Shape#contains(double, double)}
+ * with the winding rule of the shape, so the result is the same as testing
+ * every pixel of the bounding box but only the edges crossing each row are
+ * visited. The pixels are stored as horizontal runs.
+ * <p>The result is cached until the geometry of the shape changes, so that
+ * a figure can call {@link #getSize(Shape)} and {@link #getPoints(Shape)}
+ * every time it is painted. The runs can be retrieved without creating
+ * a point per pixel, see {@link #getRuns(Shape)}.</p>
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * <a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+class ShapeRasterizer
+{
+
+    /** The maximum distance between a curve and its flattened version. */
+    private static final double FLATNESS = 0.01;
+
+    /** Identifies the geometry of the shape last rasterized. */
+    private long signature;
+
+    /** Flag indicating if a shape has been rasterized. */
+    private boolean rasterized;
+
+    /** The row of each run. */
+    private int[] rows;
+
+    /** The first column of each run. */
+    private int[] starts;
+
+    /** The column after the last one of each run. */
+    private int[] ends;
+
+    /** The number of runs. */
+    private int runCount;
+
+    /** The number of pixels inside the shape. */
+    private int size;
+
+    /**
+     * Returns a value identifying the geometry of the shape.
+     *
+     * @param shape The shape to handle.
+     * @return See above.
+     */
+    static long getSignature(Shape shape)
+    {
+        PathIterator i = shape.getPathIterator(null);
+        long h = i.getWindingRule();
+        double[] coords = new double[6];
+        int type, n;
+        while (!i.isDone()) {
+            type = i.currentSegment(coords);
+            h = 31*h+type;
+            switch (type) {
+                case PathIterator.SEG_CUBICTO: n = 6; break;
+                case PathIterator.SEG_QUADTO: n = 4; break;
+                case PathIterator.SEG_CLOSE: n = 0; break;
+                default: n = 2;
+            }
+            for (int j = 0; j < n; j++)
+                h = 31*h+Double.doubleToLongBits(coords[j]);
+            i.next();
+        }
+        return h;
+    }
+
+    /**
+     * Adds a run, merging it with the previous one if they touch.
+     *
+     * @param y The row.
+     * @param start The first column.
+     * @param end The column after the last one.
+     */
+    private void addRun(int y, int start, int end)
+    {
+        if (start >= end) return;
+        if (runCount > 0 && rows[runCount-1] == y &&
+                start <= ends[runCount-1]) {
+            if (end > ends[runCount-1]) {
+                size += end-ends[runCount-1];
+                ends[runCount-1] = end;
+            }
+            return;
+        }
+        if (runCount == rows.length) {
+            int n = 2*runCount+1;
+            rows = Arrays.copyOf(rows, n);
+            starts = Arrays.copyOf(starts, n);
+            ends = Arrays.copyOf(ends, n);
+        }
+        rows[runCount] = y;
+        starts[runCount] = start;
+        ends[runCount] = end;
+        runCount++;
+        size += end-start;
+    }
+
+    /**
+     * Rasterizes the specified shape.
+     *
+     * @param shape The shape to rasterize.
+     */
+    private void rasterize(Shape shape)
+    {
+        rows = new int[16];
+        starts = new int[16];
+        ends = new int[16];
+        runCount = 0;
+        size = 0;
+        //Collect the non horizontal edges of the flattened shape.
+        PathIterator i = shape.getPathIterator(null, FLATNESS);
+        boolean evenOdd = i.getWindingRule() == PathIterator.WIND_EVEN_ODD;
+        double[] edges = new double[64];
+        int n = 0;
+        double[] coords = new double[6];
+        double mx = 0, my = 0, cx = 0, cy = 0, nx, ny;
+        int type;
+        while (!i.isDone()) {
+            type = i.currentSegment(coords);
+            if (type == PathIterator.SEG_MOVETO) {
+                nx = coords[0];
+                ny = coords[1];
+                if (cy != my) n = addEdge(edges, n, cx, cy, mx, my);
+                edges = grow(edges, n);
+                mx = nx;
+                my = ny;
+            } else {
+                if (type == PathIterator.SEG_CLOSE) {
+                    nx = mx;
+                    ny = my;
+                } else {
+                    nx = coords[0];
+                    ny = coords[1];
+                }
+                edges = grow(edges, n);
+                if (cy != ny) n = addEdge(edges, n, cx, cy, nx, ny);
+            }
+            cx = nx;
+            cy = ny;
+            i.next();
+        }
+        edges = grow(edges, n);
+        if (cy != my) n = addEdge(edges, n, cx, cy, mx, my);
+        int count = n/5;
+        if (count == 0) return;
+        //Sort the edges by first row.
+        Integer[] order = new Integer[count];
+        double minY = Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int j = 0; j < count; j++) {
+            order[j] = j;
+            minY = Math.min(minY, edges[5*j+1]);
+            maxY = Math.max(maxY, edges[5*j+3]);
+        }
+        final double[] e = edges;
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return Double.compare(e[5*a+1], e[5*b+1]);
+            }
+        });
+        int[] active = new int[count];
+        int activeCount = 0;
+        double[] xs = new double[count];
+        int[] dirs = new int[count];
+        int next = 0;
+        int yEnd = (int) Math.ceil(maxY);
+        int k, m, dir, winding, start;
+        boolean inside, wasInside;
+        double x;
+        for (int y = (int) Math.ceil(minY); y < yEnd; y++) {
+            //Add the edges starting at or before this row.
+            while (next < count && edges[5*order[next]+1] <= y)
+                active[activeCount++] = order[next++];
+            //Compute the crossings, removing the edges ending before.
+            m = 0;
+            k = 0;
+            for (int j = 0; j < activeCount; j++) {
+                int idx = active[j];
+                if (edges[5*idx+3] <= y) continue;
+                active[k++] = idx;
+                x = edges[5*idx]+(y-edges[5*idx+1])*
+                        (edges[5*idx+2]-edges[5*idx])/
+                        (edges[5*idx+3]-edges[5*idx+1]);
+                dir = (int) edges[5*idx+4];
+                //Insertion sort, the number of crossings is small.
+                int p = m++;
+                while (p > 0 && xs[p-1] > x) {
+                    xs[p] = xs[p-1];
+                    dirs[p] = dirs[p-1];
+                    p--;
+                }
+                xs[p] = x;
+                dirs[p] = dir;
+            }
+            activeCount = k;
+            //A point is inside between a crossing (included) and the next.
+            winding = 0;
+            start = 0;
+            wasInside = false;
+            for (int j = 0; j < m; j++) {
+                winding += evenOdd ? 1 : dirs[j];
+                inside = evenOdd ? (winding & 1) != 0 : winding != 0;
+                if (inside && !wasInside) start = (int) Math.ceil(xs[j]);
+                else if (!inside && wasInside)
+                    addRun(y, start, (int) Math.ceil(xs[j]));
+                wasInside = inside;
+            }
+        }
+    }
+
+    /**
+     * Makes sure the array can host another edge.
+     *
+     * @param edges The edges.
+     * @param n The number of values used.
+     * @return See above.
+     */
+    private static double[] grow(double[] edges, int n)
+    {
+        if (n+5 <= edges.length) return edges;
+        return Arrays.copyOf(edges, 2*edges.length);
+    }
+
+    /**
+     * Adds an edge stored as top x, top y, bottom x, bottom y and direction.
+     *
+     * @return The number of values used.
+     */
+    private static int addEdge(double[] edges, int n, double x0, double y0,
+            double x1, double y1)
+    {
+        if (y0 < y1) {
+            edges[n] = x0;
+            edges[n+1] = y0;
+            edges[n+2] = x1;
+            edges[n+3] = y1;
+            edges[n+4] = 1;
+        } else {
+            edges[n] = x1;
+            edges[n+1] = y1;
+            edges[n+2] = x0;
+            edges[n+3] = y0;
+            edges[n+4] = -1;
+        }
+        return n+5;
+    }
+
+    /**
+     * Rasterizes the shape if its geometry changed since the last call.
+     *
+     * @param shape The shape to rasterize.
+     */
+    private void update(Shape shape)
+    {
+        long s = getSignature(shape);
+        if (rasterized && s == signature) return;
+        rasterize(shape);
+        signature = s;
+        rasterized = true;
+    }
+
+    /**
+     * Returns the number of pixels inside the shape.
+     *
+     * @param shape The shape to rasterize.
+     * @return See above.
+     */
+    synchronized int getSize(Shape shape)
+    {
+        update(shape);
+        return size;
+    }
+
+    /**
+     * Returns the pixels inside the shape ordered by row then by column.
+     * A new list is returned each time.
+     *
+     * @param shape The shape to rasterize.
+     * @return See above.
+     */
+    synchronized List<Point> getPoints(Shape shape)
+    {
+        update(shape);
+        List<Point> points = new ArrayList<Point>(size);
+        for (int i = 0; i < runCount; i++) {
+            for (int x = starts[i]; x < ends[i]; x++)
+                points.add(new Point(x, rows[i]));
+        }
+        return points;
+    }
+
+    /**
+     * Returns the pixels inside the shape as horizontal runs ordered by row
+     * then by column: the rows, the first columns and the columns after the
+     * last ones. The runs do not overlap. New arrays are returned each time.
+     *
+     * @param shape The shape to rasterize.
+     * @return See above.
+     */
+    synchronized int[][] getRuns(Shape shape)
+    {
+        update(shape);
+        return new int[][] {Arrays.copyOf(rows, runCount),
+                Arrays.copyOf(starts, runCount), Arrays.copyOf(ends, runCount)};
+    }
+
+}
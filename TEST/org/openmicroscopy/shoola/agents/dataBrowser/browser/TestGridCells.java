@@ -0,0 +1,169 @@
+/*
+ * org.openmicroscopy.shoola.agents.dataBrowser.browser.TestGridCells
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ * 	This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+
+package org.openmicroscopy.shoola.agents.dataBrowser.browser;
+
+
+//Java imports
+import java.awt.Dimension;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+//Third-party libraries
+import junit.framework.TestCase;
+
+//Application-internal dependencies
+
+/**
+ * Unit test for {@link GridCells}.
+ * Verifies the mapping of the cells of the {@link ThumbnailGrid} onto the
+ * locations used to select the images and onto the bounds used to paint
+ * and scroll to them.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * 				<a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+public class TestGridCells
+    extends TestCase
+{
+
+    /** The size of a cell. */
+    private static final Dimension CELL = new Dimension(10, 20);
+
+    /** The cells to test, 3 columns of 10 items. */
+    private GridCells<Integer> cells;
+
+    /**
+     * Creates the specified number of items.
+     *
+     * @param n The number of items.
+     * @return See above.
+     */
+    private static List<Integer> createItems(int n)
+    {
+        List<Integer> l = new ArrayList<Integer>(n);
+        for (int i = 0; i < n; i++)
+            l.add(i);
+        return l;
+    }
+
+    @Override
+    protected void setUp()
+    {
+        cells = new GridCells<Integer>(CELL);
+        cells.setItems(createItems(10));
+        cells.setGeometry(CELL, 0, 35);
+    }
+
+    public void testColumns()
+    {
+        assertEquals("Should fit the width.", 3, cells.getColumns());
+        assertEquals("Wrong size.", new Dimension(30, 80), cells.getSize());
+        cells.setGeometry(CELL, 4, 35);
+        assertEquals("Should use the cells per row.", 4, cells.getColumns());
+        assertEquals("Wrong size.", new Dimension(40, 60), cells.getSize());
+        cells.setGeometry(CELL, 0, 5);
+        assertEquals("Should display one column.", 1, cells.getColumns());
+    }
+
+    public void testItemAt()
+    {
+        assertEquals("Wrong item.", Integer.valueOf(0),
+                cells.getItemAt(new Point(0, 0)));
+        assertEquals("Wrong item.", Integer.valueOf(4),
+                cells.getItemAt(new Point(15, 25)));
+        assertEquals("Wrong item.", Integer.valueOf(9),
+                cells.getItemAt(new Point(9, 79)));
+        assertNull("No cell on the right.", cells.getItemAt(new Point(31, 0)));
+        assertNull("No item after the last.",
+                cells.getItemAt(new Point(15, 70)));
+        assertNull("No cell outside.", cells.getItemAt(new Point(-1, 5)));
+    }
+
+    public void testBounds()
+    {
+        assertEquals("Wrong bounds.", new Rectangle(10, 20, 10, 20),
+                cells.getBounds(Integer.valueOf(4)));
+        Rectangle r;
+        for (Integer item : cells.getItems()) {
+            r = cells.getBounds(item);
+            assertEquals("Should select the item of the cell.", item,
+                    cells.getItemAt(new Point((int) r.getCenterX(),
+                            (int) r.getCenterY())));
+        }
+    }
+
+    public void testSorted()
+    {
+        List<Integer> l = createItems(10);
+        Collections.reverse(l);
+        cells.setItems(l);
+        assertEquals("Wrong index.", 9, cells.indexOf(0));
+        assertEquals("Wrong item.", Integer.valueOf(9),
+                cells.getItemAt(new Point(0, 0)));
+        assertEquals("Wrong bounds.", new Rectangle(0, 60, 10, 20),
+                cells.getBounds(Integer.valueOf(0)));
+    }
+
+    public void testFiltered()
+    {
+        cells.setItems(Arrays.asList(1, 3, 5, 5));
+        assertEquals("Duplicates should be ignored.", 3, cells.size());
+        assertEquals("Not displayed.", -1, cells.indexOf(0));
+        assertNull("Not displayed.", cells.getBounds(Integer.valueOf(0)));
+        assertEquals("Wrong item.", Integer.valueOf(5),
+                cells.getItemAt(new Point(25, 5)));
+        assertNull("No item after the last.", cells.getItemAt(new Point(5, 25)));
+    }
+
+    public void testRange()
+    {
+        List<Integer> l = createItems(10);
+        Collections.reverse(l);
+        cells.setItems(l);
+        assertEquals("Should follow the cells.", Arrays.asList(6, 5, 4, 3),
+                cells.getRange(3, 6));
+        assertEquals("Should not depend on the direction.",
+                cells.getRange(3, 6), cells.getRange(6, 3));
+        assertEquals("Wrong single item.", Arrays.asList(2),
+                cells.getRange(2, 2));
+        cells.setItems(Arrays.asList(1, 3, 5));
+        assertTrue("Not displayed.", cells.getRange(0, 3).isEmpty());
+    }
+
+    public void testIndexesIn()
+    {
+        assertEquals("Wrong cells.", Arrays.asList(4, 5, 7, 8),
+                cells.getIndexesIn(new Rectangle(15, 25, 10, 20)));
+        assertEquals("Should stop after the last item.", Arrays.asList(9),
+                cells.getIndexesIn(new Rectangle(0, 65, 30, 40)));
+        assertTrue("No cell.",
+                cells.getIndexesIn(new Rectangle(0, 0, 0, 0)).isEmpty());
+    }
+
+}
@@ -0,0 +1,195 @@
+/*
+ * org.openmicroscopy.shoola.env.cache.TestDiskCache
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ * 	This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+
+package org.openmicroscopy.shoola.env.cache;
+
+
+//Java imports
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+//Third-party libraries
+import junit.framework.TestCase;
+
+//Application-internal dependencies
+
+/**
+ * Unit test for {@link DiskCache}.
+ * Verifies that the values survive a restart, that the least recently
+ * used values are removed first and that compaction keeps the live values.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * 				<a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+public class TestDiskCache
+    extends TestCase
+{
+
+    private static final int    VALUE_SIZE = 100;  //Size of a value.
+
+    private File                dir;  //The directory hosting the cache.
+
+    private DiskCache           target;  //Object under test.
+
+    private byte[] value(int v)
+    {
+        byte[] values = new byte[VALUE_SIZE];
+        Arrays.fill(values, (byte) v);
+        return values;
+    }
+
+    private void delete(File f)
+    {
+        File[] files = f.listFiles();
+        if (files != null) {
+            for (int i = 0; i < files.length; i++)
+                delete(files[i]);
+        }
+        f.delete();
+    }
+
+    public void setUp()
+        throws IOException
+    {
+        dir = File.createTempFile("diskcache", "");
+        dir.delete();
+        target = new DiskCache(dir, 3*VALUE_SIZE);
+    }
+
+    public void tearDown()
+        throws IOException
+    {
+        target.close();
+        delete(dir);
+    }
+
+    public void testLockedDirectory()
+    {
+        try {
+            new DiskCache(dir, VALUE_SIZE);
+            fail("Shouldn't share the directory.");
+        } catch (IOException ioe) {
+            //Ok, expected.
+        }
+    }
+
+    public void testPersistence()
+        throws IOException
+    {
+        target.put("a", value(1));
+        target.put("b", value(2));
+        target.close();
+        target = new DiskCache(dir, 3*VALUE_SIZE);
+        assertEquals("Should have kept the values.", 2, target.getCount());
+        assertTrue("Should have read the value.",
+                Arrays.equals(value(1), target.get("a")));
+        assertTrue("Should have read the value.",
+                Arrays.equals(value(2), target.get("b")));
+        assertNull("Shouldn't find unknown key.", target.get("c"));
+    }
+
+    public void testLeastRecentlyUsed()
+        throws IOException
+    {
+        target.put("a", value(1));
+        target.put("b", value(2));
+        target.put("c", value(3));
+        target.get("a");
+        target.put("d", value(4));
+        assertEquals("Should fit the maximum size.",
+                3*VALUE_SIZE, target.getSize());
+        assertFalse("Should have removed the least recently used.",
+                target.contains("b"));
+        assertTrue("Should have kept the recently used.",
+                target.contains("a"));
+        target.put("e", new byte[4*VALUE_SIZE]);
+        assertFalse("Shouldn't keep a value bigger than the cache.",
+                target.contains("e"));
+        target.setMaximumSize(VALUE_SIZE);
+        assertEquals("Should have removed the values not fitting.",
+                1, target.getCount());
+    }
+
+    public void testInterrupted()
+        throws IOException
+    {
+        target.put("a", value(1));
+        Thread.currentThread().interrupt();
+        try {
+            assertTrue("Should read despite the interrupt.",
+                    Arrays.equals(value(1), target.get("a")));
+            target.put("b", value(2));
+            assertTrue("Should have restored the interrupt.",
+                    Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+        assertTrue("Should have kept the channel open.",
+                Arrays.equals(value(2), target.get("b")));
+        assertTrue("Should have kept the value.", target.contains("a"));
+    }
+
+    public void testClearPrefix()
+        throws IOException
+    {
+        target.put("tile/a", value(1));
+        target.put("tile/b", value(2));
+        target.put("thumbnail/a", value(3));
+        target.clear("tile/");
+        assertFalse("Should have removed the value.", target.contains("tile/a"));
+        assertFalse("Should have removed the value.", target.contains("tile/b"));
+        assertTrue("Should have kept the value.",
+                Arrays.equals(value(3), target.get("thumbnail/a")));
+        assertEquals("Should have updated the size.",
+                VALUE_SIZE, target.getSize());
+    }
+
+    public void testCompact()
+        throws IOException
+    {
+        target.setMaximumSize(DiskCache.SEGMENT_SIZE);
+        int n = (int) (DiskCache.SEGMENT_SIZE/(1024*1024))+1;
+        byte[] big = new byte[1024*1024];
+        for (int i = 0; i < n; i++)
+            target.put("v"+i, big);
+        target.put("small", value(5));
+        //Overwrite the values of the first segment.
+        for (int i = 0; i < n-1; i++)
+            target.put("v"+i, value(i));
+        assertTrue("Should have wasted space.", target.getWastedSize() > 0);
+        assertTrue("Should have compacted a segment.", target.compact());
+        assertTrue("Should have reclaimed the space.",
+                target.getWastedSize() < DiskCache.SEGMENT_SIZE/2);
+        for (int i = 0; i < n-1; i++)
+            assertTrue("Should have kept the value.",
+                    Arrays.equals(value(i), target.get("v"+i)));
+        assertTrue("Should have kept the value.",
+                Arrays.equals(value(5), target.get("small")));
+        target.clear();
+        assertEquals("Should have removed all the values.",
+                0, target.getSize());
+    }
+
+}
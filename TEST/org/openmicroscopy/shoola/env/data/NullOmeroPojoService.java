@@ -231,6 +231,43 @@ public class NullOmeroPojoService
 
 	/**
      * No-operation implementation
+     * @see OmeroDataService#getImagesPage(SecurityContext, long, int, int,
+     * boolean)
+     */
+	public Collection<ImageData> getImagesPage(SecurityContext ctx,
+			long datasetID, int offset, int limit, boolean byDate)
+		throws DSOutOfServiceException, DSAccessException
+	{
+		return null;
+	}
+
+	/**
+     * No-operation implementation
+     * @see OmeroDataService#getOrphanedImagesPage(SecurityContext, long, int,
+     * int, boolean)
+     */
+	public Collection<ImageData> getOrphanedImagesPage(SecurityContext ctx,
+			long userID, int offset, int limit, boolean byDate)
+		throws DSOutOfServiceException, DSAccessException
+	{
+		return null;
+	}
+
+	/**
+     * No-operation implementation
+     * @see OmeroDataService#loadContainerHierarchyPage(SecurityContext, long,
+     * int, int, boolean)
+     */
+	public Collection<DataObject> loadContainerHierarchyPage(
+			SecurityContext ctx, long userID, int offset, int limit,
+			boolean byDate)
+		throws DSOutOfServiceException, DSAccessException
+	{
+		return null;
+	}
+
+	/**
+     * No-operation implementation
      * @see OmeroDataService#getImagesAllPeriodCount(Timestamp, Timestamp, long)
      */
 	public List getImagesAllPeriodCount(SecurityContext ctx,
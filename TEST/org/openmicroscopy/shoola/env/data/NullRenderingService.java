@@ -226,6 +226,19 @@ public class NullRenderingService
 
 	/**
      * No-op implementation
+     * @see OmeroImageService#renderChannels(SecurityContext, long, PlaneDef,
+     * List, boolean, boolean)
+     */
+	public List<BufferedImage> renderChannels(SecurityContext ctx,
+			long pixelsID, PlaneDef pd, List<Integer> channels,
+			boolean greyScale, boolean combined)
+		throws RenderingServiceException, DSOutOfServiceException
+	{
+		return null;
+	}
+
+	/**
+     * No-op implementation
      * @see OmeroImageService#projectImage(ProjectionParam)
      */
 	public ImageData projectImage(SecurityContext ctx, ProjectionParam ref)
@@ -273,6 +286,16 @@ public class NullRenderingService
 
 	/**
      * No-op implementation
+     * @see OmeroImageService#getUsedFiles(File)
+     */
+	public Set<File> getUsedFiles(File folder)
+		throws ImportException
+	{
+		return null;
+	}
+
+	/**
+     * No-op implementation
      * @see OmeroImageService#importImage(ImportableObject, ImportableFile, 
      * long, long, boolean)
      */
@@ -285,6 +308,15 @@ public class NullRenderingService
 
 	/**
      * No-op implementation
+     * @see OmeroImageService#closeImport(ImportableFile)
+     */
+	public void closeImport(ImportableFile importable)
+		throws DSAccessException, DSOutOfServiceException
+	{
+	}
+
+	/**
+     * No-op implementation
      * @see OmeroImageService#getFSFileSystemView()
      */
 	public FileSystemView getFSFileSystemView(SecurityContext ctx)
@@ -408,6 +440,18 @@ public class NullRenderingService
 
 	/**
      * No-op implementation
+     * @see OmeroImageService#countROIMeasurements(SecurityContext, Class,
+     * List, long)
+     */
+	public Map<Long, Long> countROIMeasurements(SecurityContext ctx,
+			Class type, List<Long> ids, long userID)
+			throws DSOutOfServiceException, DSAccessException
+	{
+		return null;
+	}
+
+	/**
+     * No-op implementation
      * @see OmeroImageService#loadAvailableScripts(long)
      */
 	public List<ScriptObject> loadAvailableScripts(SecurityContext ctx,
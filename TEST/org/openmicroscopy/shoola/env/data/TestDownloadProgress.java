@@ -0,0 +1,133 @@
+/*
+ * org.openmicroscopy.shoola.env.data.TestDownloadProgress
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ * 	This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+
+package org.openmicroscopy.shoola.env.data;
+
+
+//Java imports
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+//Third-party libraries
+import junit.framework.TestCase;
+
+//Application-internal dependencies
+
+/**
+ * Unit test for {@link DownloadProgress}.
+ * Verifies that the blocks downloaded are read back from the record only
+ * for the same download.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * 				<a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+public class TestDownloadProgress
+    extends TestCase
+{
+
+    private static final long   FILE_ID = 1;
+
+    private static final long   SIZE = 25;  //Five blocks, the last one short.
+
+    private static final int    BLOCK = 6;
+
+    /** The downloaded file. */
+    private File file;
+
+    /**
+     * Creates the downloaded file.
+     * @see TestCase#setUp()
+     */
+    protected void setUp()
+        throws Exception
+    {
+        file = File.createTempFile("download", ".tif");
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(SIZE);
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Deletes the file and its record.
+     * @see TestCase#tearDown()
+     */
+    protected void tearDown()
+    {
+        new File(file.getPath()+DownloadProgress.EXTENSION).delete();
+        file.delete();
+    }
+
+    public void testBlocks()
+    {
+        DownloadProgress p = new DownloadProgress(file, FILE_ID, SIZE, BLOCK);
+        assertFalse("Nothing to resume.", p.isResumed());
+        assertEquals("Wrong number of blocks.", 5,
+                p.getMissingBlocks().size());
+        assertEquals("Wrong offset.", 24, p.getOffset(4));
+        assertEquals("Wrong length of the last block.", 1, p.getLength(4));
+        assertEquals("Wrong length.", BLOCK, p.getLength(0));
+    }
+
+    public void testResume()
+        throws Exception
+    {
+        DownloadProgress p = new DownloadProgress(file, FILE_ID, SIZE, BLOCK);
+        p.setDone(0);
+        p.setDone(3);
+        p.save();
+        assertTrue("Should resume.",
+                DownloadProgress.canResume(file, FILE_ID));
+        assertFalse("Should not resume another file.",
+                DownloadProgress.canResume(file, FILE_ID+1));
+        p = new DownloadProgress(file, FILE_ID, SIZE, BLOCK);
+        assertTrue("Should resume.", p.isResumed());
+        assertEquals("Wrong blocks left.", Arrays.asList(1, 2, 4),
+                p.getMissingBlocks());
+        p.setDone(1);
+        p.setDone(2);
+        p.setDone(4);
+        assertTrue("Should be complete.", p.isComplete());
+        p.delete();
+        assertFalse("Should not resume once deleted.",
+                DownloadProgress.canResume(file, FILE_ID));
+    }
+
+    public void testMismatch()
+        throws Exception
+    {
+        DownloadProgress p = new DownloadProgress(file, FILE_ID, SIZE, BLOCK);
+        p.setDone(0);
+        p.save();
+        p = new DownloadProgress(file, FILE_ID, SIZE, BLOCK+1);
+        assertFalse("Should restart with another block size.",
+                p.isResumed());
+        p = new DownloadProgress(file, FILE_ID, SIZE+1, BLOCK);
+        assertFalse("Should restart with another size.", p.isResumed());
+    }
+
+}
@@ -0,0 +1,262 @@
+/*
+ * org.openmicroscopy.shoola.env.data.TestImportScanner
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ * 	This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+
+package org.openmicroscopy.shoola.env.data;
+
+
+//Java imports
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Third-party libraries
+import junit.framework.TestCase;
+
+//Application-internal dependencies
+import omero.gateway.cache.CacheService;
+import omero.log.Logger;
+import org.openmicroscopy.shoola.env.LookupNames;
+import org.openmicroscopy.shoola.env.cache.NullCacheService;
+import org.openmicroscopy.shoola.env.config.NullRegistry;
+import org.openmicroscopy.shoola.env.data.model.ImportableFile;
+import org.openmicroscopy.shoola.env.data.model.ImportableObject;
+import org.openmicroscopy.shoola.env.data.util.Status;
+import org.openmicroscopy.shoola.env.log.NullLogger;
+
+/**
+ * Unit test for {@link ImportScanner}.
+ * Verifies that the digest identifying a scanned folder only changes when
+ * the files of the folder change, that a cached result is discarded when a
+ * file it uses changes, and that the files of a folder scanned one at a
+ * time do not share their cached result.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * 				<a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+public class TestImportScanner
+    extends TestCase
+{
+
+    /** The folder scanned. */
+    private File root;
+
+    /** The registry providing a cache kept in memory. */
+    private NullRegistry registry;
+
+    /**
+     * Writes the specified number of bytes to the file.
+     *
+     * @param file The file to write.
+     * @param size The number of bytes.
+     * @throws IOException If the file cannot be written.
+     */
+    private void write(File file, int size)
+        throws IOException
+    {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(new byte[size]);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Deletes the file and its content.
+     *
+     * @param file The file to delete.
+     */
+    private void delete(File file)
+    {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (int i = 0; i < files.length; i++)
+                delete(files[i]);
+        }
+        file.delete();
+    }
+
+    /**
+     * Creates a folder with two files and a sub-folder.
+     * @see TestCase#setUp()
+     */
+    protected void setUp()
+        throws Exception
+    {
+        root = File.createTempFile("scan", "");
+        root.delete();
+        root.mkdir();
+        write(new File(root, "a.tif"), 10);
+        write(new File(root, "b.tif"), 20);
+        File sub = new File(root, "sub");
+        sub.mkdir();
+        write(new File(sub, "c.tif"), 30);
+        final CacheService cache = new NullCacheService() {
+            private final Map<Object, Object> elements =
+                    new HashMap<Object, Object>();
+            public int createCache(int type, int size) { return 1; }
+            public void addElement(int cacheID, Object key, Object element) {
+                elements.put(key, element);
+            }
+            public Object getElement(int cacheID, Object key) {
+                return elements.get(key);
+            }
+        };
+        final Logger logger = new NullLogger();
+        registry = new NullRegistry() {
+            public Object lookup(String name) {
+                if (LookupNames.SCAN_CACHE_SZ.equals(name))
+                    return Integer.valueOf(10);
+                return null;
+            }
+            public CacheService getCacheService() { return cache; }
+            public Logger getLogger() { return logger; }
+        };
+    }
+
+    /**
+     * Scans the specified file.
+     *
+     * @param scanner The scanner to use.
+     * @param file The file to scan.
+     * @return The paths of the files to import.
+     * @throws Exception If an error occurred while scanning.
+     */
+    private List<String> scan(ImportScanner scanner, File file)
+        throws Exception
+    {
+        ImportableObject object = new ImportableObject(
+                new ArrayList<ImportableFile>(), false);
+        return scanner.scan(object, file, new Status(null)).getPaths();
+    }
+
+    /**
+     * Deletes the folder.
+     * @see TestCase#tearDown()
+     */
+    protected void tearDown()
+    {
+        delete(root);
+    }
+
+    public void testUnchanged()
+        throws Exception
+    {
+        AtomicLong count = new AtomicLong();
+        byte[] first = ImportScanner.fingerprint(root, ImportScanner.DEPTH,
+                count);
+        assertEquals("Wrong number of files.", 3, count.get());
+        byte[] second = ImportScanner.fingerprint(root, ImportScanner.DEPTH,
+                new AtomicLong());
+        assertTrue("Should not change.", Arrays.equals(first, second));
+    }
+
+    public void testChanged()
+        throws Exception
+    {
+        byte[] first = ImportScanner.fingerprint(root, ImportScanner.DEPTH,
+                new AtomicLong());
+        write(new File(new File(root, "sub"), "c.tif"), 31);
+        byte[] second = ImportScanner.fingerprint(root, ImportScanner.DEPTH,
+                new AtomicLong());
+        assertFalse("Should change with the size.",
+                Arrays.equals(first, second));
+        new File(root, "a.tif").renameTo(new File(root, "d.tif"));
+        byte[] third = ImportScanner.fingerprint(root, ImportScanner.DEPTH,
+                new AtomicLong());
+        assertFalse("Should change with the name.",
+                Arrays.equals(second, third));
+    }
+
+    public void testKey()
+        throws Exception
+    {
+        String a = new File(root, "a.tif").getAbsolutePath();
+        String b = new File(root, "b.tif").getAbsolutePath();
+        String key = ImportScanner.createKey(new String[] {a}, 4, root, 1);
+        assertFalse("Should depend on the files scanned.", key.equals(
+                ImportScanner.createKey(new String[] {b}, 4, root, 1)));
+        assertEquals("Should not depend on the order of the files.",
+                ImportScanner.createKey(new String[] {a, b}, 4, root, 1),
+                ImportScanner.createKey(new String[] {b, a}, 4, root, 1));
+    }
+
+    public void testUsedFile()
+        throws Exception
+    {
+        File c = new File(new File(root, "sub"), "c.tif");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        ImportScanner.writeUsedFile(out, c.getAbsolutePath());
+        ImportScanner.writeUsedFile(out, c.getAbsolutePath());
+        out.flush();
+        DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals("Should not change.", c.getAbsolutePath(),
+                ImportScanner.readUsedFile(in));
+        write(c, 31);
+        assertNull("Should change with the size.",
+                ImportScanner.readUsedFile(in));
+    }
+
+    public void testScanSiblings()
+        throws Exception
+    {
+        //Bio-Formats recognizes the files by their extension.
+        File a = new File(root, "a.fake");
+        File b = new File(root, "b.fake");
+        write(a, 0);
+        write(b, 0);
+        ImportScanner scanner = new ImportScanner(registry);
+        assertEquals("Wrong file found.",
+                Arrays.asList(a.getAbsolutePath()), scan(scanner, a));
+        assertEquals("Should not reuse the result of the sibling.",
+                Arrays.asList(b.getAbsolutePath()), scan(scanner, b));
+        assertEquals("Wrong cached file.",
+                Arrays.asList(a.getAbsolutePath()), scan(scanner, a));
+    }
+
+    public void testDepth()
+        throws Exception
+    {
+        AtomicLong count = new AtomicLong();
+        byte[] first = ImportScanner.fingerprint(root, 1, count);
+        assertEquals("Should only list the folder.", 3, count.get());
+        write(new File(new File(root, "sub"), "c.tif"), 31);
+        byte[] second = ImportScanner.fingerprint(root, 1, new AtomicLong());
+        assertTrue("Should ignore the content of the sub-folder.",
+                Arrays.equals(first, second));
+    }
+
+}
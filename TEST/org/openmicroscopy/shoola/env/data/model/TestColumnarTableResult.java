@@ -0,0 +1,94 @@
+/*
+ * org.openmicroscopy.shoola.env.data.model.TestColumnarTableResult
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ * 	This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+
+package org.openmicroscopy.shoola.env.data.model;
+
+
+//Java imports
+
+//Third-party libraries
+import junit.framework.TestCase;
+
+//Application-internal dependencies
+
+/**
+ * Unit test for {@link ColumnarTableResult}.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * 				<a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+public class TestColumnarTableResult
+    extends TestCase
+{
+
+    private ColumnarTableResult table;  //Object under test.
+
+    public void setUp()
+    {
+        String[] headers = {"Well", "Area", "Valid", "Label", "Other"};
+        Object[] columns = {new long[] {11, 12, 13},
+                new double[] {1.5, 2.5, 3.5},
+                new boolean[] {true, false, true},
+                new String[] {"a", "b", "a"}, null};
+        table = new ColumnarTableResult(headers, columns, 3, 100, 1000);
+    }
+
+    public void testAccessors()
+    {
+        assertEquals("Wrong row count.", 3, table.getRowCount());
+        assertEquals("Wrong offset.", 100, table.getRowOffset());
+        assertEquals("Wrong total.", 1000, table.getTotalRowCount());
+        assertEquals("Wrong type.", ColumnarTableResult.LONG,
+                table.getColumnType(0));
+        assertEquals("Wrong type.", ColumnarTableResult.UNKNOWN,
+                table.getColumnType(4));
+        assertEquals("Wrong long.", 12, table.getLong(1, 0));
+        assertEquals("Wrong double.", 3.5, table.getDouble(2, 1), 0);
+        assertFalse("Wrong boolean.", table.getBoolean(1, 2));
+        assertEquals("Wrong string.", "a", table.getString(2, 3));
+        assertEquals("Should share the values.", 2,
+                table.getDictionary(3).length);
+        assertEquals("Wrong row.", 2, table.findRow(0, 13));
+        assertEquals("Should not find the row.", -1, table.findRow(0, 14));
+    }
+
+    public void testData()
+    {
+        Object[][] data = table.getData();
+        assertEquals("Wrong number of rows.", 3, data.length);
+        assertEquals("Wrong value.", Long.valueOf(11), data[0][0]);
+        assertEquals("Wrong value.", Double.valueOf(2.5), data[1][1]);
+        assertEquals("Wrong value.", Boolean.TRUE, data[2][2]);
+        assertEquals("Wrong value.", "b", data[1][3]);
+        assertNull("Type not supported.", data[0][4]);
+        data = table.getData(1, 2);
+        assertEquals("Wrong number of rows.", 1, data.length);
+        assertEquals("Wrong value.", Long.valueOf(12), data[0][0]);
+        try {
+            table.getData(2, 4);
+            fail("Rows not valid.");
+        } catch (IndexOutOfBoundsException e) {}
+    }
+
+}
@@ -0,0 +1,185 @@
+/*
+ * org.openmicroscopy.shoola.env.data.views.calls.TestFilesetTracker
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ * 	This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+
+package org.openmicroscopy.shoola.env.data.views.calls;
+
+
+//Java imports
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+//Third-party libraries
+import junit.framework.TestCase;
+
+//Application-internal dependencies
+
+/**
+ * Unit test for {@link FilesetTracker}.
+ * Verifies that a fileset is only ready once its files did not change
+ * during the quiet period, that the filesets ready are delivered in batches
+ * of bounded size and that they are delivered again if their files change.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * 				<a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+public class TestFilesetTracker
+    extends TestCase
+{
+
+    /** The quiet period used. */
+    private static final long QUIET = 100;
+
+    /** The watched folder. */
+    private File root;
+
+    /**
+     * Writes the specified number of bytes to the file.
+     *
+     * @param file The file to write.
+     * @param size The number of bytes.
+     * @return The path of the file.
+     * @throws IOException If the file cannot be written.
+     */
+    private Path write(File file, int size)
+        throws IOException
+    {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(new byte[size]);
+        } finally {
+            out.close();
+        }
+        return file.toPath();
+    }
+
+    /**
+     * Creates the watched folder.
+     * @see TestCase#setUp()
+     */
+    protected void setUp()
+        throws Exception
+    {
+        root = File.createTempFile("watch", "");
+        root.delete();
+        root.mkdir();
+    }
+
+    /**
+     * Deletes the watched folder.
+     * @see TestCase#tearDown()
+     */
+    protected void tearDown()
+    {
+        File[] files = root.listFiles();
+        for (int i = 0; files != null && i < files.length; i++)
+            files[i].delete();
+        root.delete();
+    }
+
+    public void testQuiescence()
+        throws Exception
+    {
+        FilesetTracker tracker = new FilesetTracker(QUIET);
+        Path a = write(new File(root, "a.tif"), 10);
+        tracker.markChanged(a, 0);
+        tracker.checkQuiescence(QUIET-1);
+        assertFalse("Should wait for the quiet period.", tracker.hasReady());
+        tracker.checkQuiescence(QUIET);
+        assertFalse("Should check the files once more.", tracker.hasReady());
+        write(a.toFile(), 20);
+        tracker.checkQuiescence(2*QUIET);
+        assertFalse("Should wait as the size changed.", tracker.hasReady());
+        tracker.checkQuiescence(3*QUIET);
+        assertTrue("Should be ready.", tracker.hasReady());
+        tracker.markChanged(a, 3*QUIET);
+        assertFalse("Should wait again once changed.", tracker.hasReady());
+    }
+
+    public void testRemovedWhileWritten()
+        throws Exception
+    {
+        FilesetTracker tracker = new FilesetTracker(QUIET);
+        Path a = write(new File(root, "a.tif"), 10);
+        tracker.markChanged(a, 0);
+        a.toFile().delete();
+        tracker.checkQuiescence(QUIET);
+        tracker.checkQuiescence(2*QUIET);
+        assertFalse("Should ignore the removed fileset.", tracker.hasReady());
+    }
+
+    public void testBatch()
+        throws Exception
+    {
+        FilesetTracker tracker = new FilesetTracker(QUIET);
+        Path a = write(new File(root, "a.tif"), 10);
+        Path b = write(new File(root, "b.tif"), 10);
+        Path c = write(new File(root, "c.tif"), 10);
+        tracker.markChanged(c, 0);
+        tracker.markChanged(a, 0);
+        tracker.markChanged(b, 0);
+        tracker.checkQuiescence(QUIET);
+        tracker.checkQuiescence(2*QUIET);
+        List<File> batch = tracker.nextBatch(2, null);
+        assertEquals("Wrong first batch.",
+                Arrays.asList(a.toFile(), b.toFile()), batch);
+        assertTrue("Should keep the others.", tracker.hasReady());
+        batch = tracker.nextBatch(2, null);
+        assertEquals("Wrong second batch.", Arrays.asList(c.toFile()), batch);
+        assertFalse("Should all be delivered.", tracker.hasReady());
+        tracker.markChanged(a, 2*QUIET);
+        tracker.checkQuiescence(3*QUIET);
+        tracker.checkQuiescence(4*QUIET);
+        assertFalse("Should not deliver again if unchanged.",
+                tracker.hasReady());
+        tracker.markRemoved(a);
+        assertFalse("Should be delivered again.", tracker.isDelivered(a));
+    }
+
+    public void testChangedAfterDelivery()
+        throws Exception
+    {
+        FilesetTracker tracker = new FilesetTracker(QUIET);
+        Path a = write(new File(root, "a.tif"), 10);
+        tracker.markChanged(a, 0);
+        tracker.checkQuiescence(QUIET);
+        tracker.checkQuiescence(2*QUIET);
+        List<File> again = new ArrayList<File>();
+        tracker.nextBatch(1, again);
+        assertTrue("Should not be delivered before.", again.isEmpty());
+        write(a.toFile(), 20);
+        tracker.markChanged(a, 2*QUIET);
+        tracker.checkQuiescence(3*QUIET);
+        tracker.checkQuiescence(4*QUIET);
+        assertTrue("Should deliver the new files.", tracker.hasReady());
+        List<File> batch = tracker.nextBatch(1, again);
+        assertEquals("Wrong batch.", Arrays.asList(a.toFile()), batch);
+        assertEquals("Should be delivered again.", batch, again);
+    }
+
+}
@@ -66,6 +66,15 @@ public class NullEventBus
 
     }
 
+    /* (non-Javadoc)
+     * @see org.openmicroscopy.shoola.env.event.EventBus#registerAsync(org.openmicroscopy.shoola.env.event.AgentEventListener, java.lang.Class)
+     */
+    public void registerAsync(AgentEventListener subscriber, Class event)
+    {
+        // TODO Auto-generated method stub
+
+    }
+
     /* (non-Javadoc)
      * @see org.openmicroscopy.shoola.env.event.EventBus#remove(org.openmicroscopy.shoola.env.event.AgentEventListener)
      */
@@ -111,4 +120,13 @@ public class NullEventBus
         return false;
     }
 
+    /* (non-Javadoc)
+     * @see org.openmicroscopy.shoola.env.event.EventBus#getStatistics()
+     */
+    public String getStatistics()
+    {
+        // TODO Auto-generated method stub
+        return null;
+    }
+
 }
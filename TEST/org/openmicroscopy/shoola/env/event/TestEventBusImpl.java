@@ -0,0 +1,186 @@
+/*
+ * org.openmicroscopy.shoola.env.event.TestEventBusImpl
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ * 	This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+
+package org.openmicroscopy.shoola.env.event;
+
+
+//Java imports
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.SwingUtilities;
+
+//Third-party libraries
+import junit.framework.TestCase;
+
+//Application-internal dependencies
+
+/**
+ * Unit test for {@link EventBusImpl}.
+ * Verifies the dispatching order of the events posted while dispatching,
+ * the asynchronous delivery and the coalescing of the events.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * 				<a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+public class TestEventBusImpl
+    extends TestCase
+{
+
+    /** Event used for testing. */
+    static class Event
+        extends AgentEvent
+    {
+        final int value;
+        final Object key;
+        Event(int value, Object key) { this.value = value; this.key = key; }
+        public Object getCoalescingKey() { return key; }
+    }
+
+    /** Records the events received and the thread notified. */
+    static class Listener
+        implements AgentEventListener
+    {
+        final List<Integer> values = new ArrayList<Integer>();
+        boolean edt = true;
+        public void eventFired(AgentEvent e)
+        {
+            values.add(((Event) e).value);
+            edt &= SwingUtilities.isEventDispatchThread();
+        }
+    }
+
+    private EventBusImpl    target;  //Object under test.
+
+    /** Waits for the events delivered asynchronously. */
+    private void flush()
+        throws Exception
+    {
+        SwingUtilities.invokeAndWait(new Runnable() {
+            public void run() {}
+        });
+    }
+
+    public void setUp()
+    {
+        target = new EventBusImpl();
+    }
+
+    public void testNestedPost()
+    {
+        final List<Integer> order = new ArrayList<Integer>();
+        target.register(new AgentEventListener() {
+            public void eventFired(AgentEvent e)
+            {
+                int v = ((Event) e).value;
+                if (v == 0) target.post(new Event(2, null));
+                order.add(v);
+            }
+        }, Event.class);
+        target.post(new Event(0, null));
+        assertEquals("Should have dispatched both events.", 2, order.size());
+        assertEquals("Should dispatch after the current event.",
+                Integer.valueOf(0), order.get(0));
+        assertEquals("Should dispatch after the current event.",
+                Integer.valueOf(2), order.get(1));
+    }
+
+    public void testSource()
+    {
+        Listener l = new Listener();
+        target.register(l, Event.class);
+        Event e = new Event(1, null);
+        e.setSource(l);
+        target.post(e);
+        assertTrue("Shouldn't notify the source.", l.values.isEmpty());
+    }
+
+    public void testAsync()
+        throws Exception
+    {
+        Listener l = new Listener();
+        target.registerAsync(l, Event.class);
+        assertTrue("Should have a listener.",
+                target.hasListenerFor(Event.class));
+        target.post(new Event(1, null));
+        target.post(new Event(2, null));
+        flush();
+        assertEquals("Should have delivered the events.", 2, l.values.size());
+        assertTrue("Should deliver on the event dispatching thread.", l.edt);
+        target.remove(l);
+        assertFalse("Should have removed the listener.",
+                target.hasListenerFor(Event.class));
+    }
+
+    public void testCoalescing()
+        throws Exception
+    {
+        final Listener l = new Listener();
+        target.registerAsync(l, Event.class);
+        //Post from the event dispatching thread so that no delivery happens
+        //in between.
+        SwingUtilities.invokeAndWait(new Runnable() {
+            public void run() {
+                target.post(new Event(1, "a"));
+                target.post(new Event(2, "b"));
+                target.post(new Event(3, "a"));
+                target.post(new Event(4, null));
+                target.post(new Event(5, null));
+            }
+        });
+        flush();
+        assertEquals("Should have coalesced the events.", 4, l.values.size());
+        assertEquals("Should have kept the last event.",
+                Integer.valueOf(3), l.values.get(0));
+        assertEquals("Should keep the order.",
+                Integer.valueOf(2), l.values.get(1));
+    }
+
+    public void testConcurrentPost()
+        throws Exception
+    {
+        final int n = 1000;
+        final List<Integer> values = new ArrayList<Integer>();
+        target.register(new AgentEventListener() {
+            public void eventFired(AgentEvent e)
+            {
+                synchronized (values) { values.add(((Event) e).value); }
+            }
+        }, Event.class);
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                public void run() {
+                    for (int j = 0; j < n; j++)
+                        target.post(new Event(j, null));
+                }
+            });
+            threads[i].start();
+        }
+        for (int i = 0; i < threads.length; i++)
+            threads[i].join();
+        assertEquals("Should have dispatched all the events.",
+                n*threads.length, values.size());
+    }
+
+}
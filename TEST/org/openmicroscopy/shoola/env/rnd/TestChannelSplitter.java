@@ -0,0 +1,92 @@
+/*
+ * org.openmicroscopy.shoola.env.rnd.TestChannelSplitter
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ * 	This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+
+package org.openmicroscopy.shoola.env.rnd;
+
+
+//Java imports
+
+//Third-party libraries
+import junit.framework.TestCase;
+
+//Application-internal dependencies
+
+/**
+ * Unit test for {@link ChannelSplitter}.
+ * Verifies that the intensities are extracted from the bands and that the
+ * tiles are colored and combined as the server does.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * 				<a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+public class TestChannelSplitter
+    extends TestCase
+{
+
+    private static final int[]  PACKED = {0xFF102030, 0xFFFF00AA};
+
+    public void testExtractBand()
+    {
+        for (int band = 0; band < ChannelSplitter.BANDS; band++) {
+            int[] rgba = ChannelSplitter.getBandColor(band);
+            assertEquals("Wrong band color.", 255, rgba[band]);
+            assertEquals("Should be opaque.", 255, rgba[3]);
+        }
+        int[] values = ChannelSplitter.extractBand(PACKED, 0);
+        assertEquals("Wrong red.", 0x10, values[0]);
+        assertEquals("Wrong red.", 0xFF, values[1]);
+        values = ChannelSplitter.extractBand(PACKED, 1);
+        assertEquals("Wrong green.", 0x20, values[0]);
+        values = ChannelSplitter.extractBand(PACKED, 2);
+        assertEquals("Wrong blue.", 0x30, values[0]);
+        assertEquals("Wrong blue.", 0xAA, values[1]);
+    }
+
+    public void testColor()
+    {
+        int[] values = {0, 100, 255};
+        int[] grey = ChannelSplitter.toGrey(values);
+        assertEquals("Wrong grey.", 0xFF646464, grey[1]);
+        int[] color = ChannelSplitter.toColor(values, new int[] {255, 0, 0,
+                255});
+        assertEquals("Wrong black.", 0xFF000000, color[0]);
+        assertEquals("Wrong red.", 0xFF640000, color[1]);
+        assertEquals("Wrong red.", 0xFFFF0000, color[2]);
+        color = ChannelSplitter.toColor(values, new int[] {0, 255, 255, 51});
+        assertEquals("Should weight by the alpha.", 0xFF003333, color[2]);
+        color = ChannelSplitter.toColor(values, new int[] {255, 128, 0,
+                255});
+        assertEquals("Wrong component.", 128, (color[2] >> 8) & 0xFF);
+    }
+
+    public void testAdd()
+    {
+        int[] sum = new int[] {0xFF000000, 0xFF000000};
+        ChannelSplitter.add(sum, new int[] {0xFF800010, 0xFFF0F0F0});
+        ChannelSplitter.add(sum, new int[] {0xFF900020, 0xFF101010});
+        assertEquals("Should clamp the sum.", 0xFFFF0030, sum[0]);
+        assertEquals("Should clamp the sum.", 0xFFFFFFFF, sum[1]);
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * org.openmicroscopy.shoola.env.rnd.TestMemoryBudget
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ * 	This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+
+package org.openmicroscopy.shoola.env.rnd;
+
+
+//Java imports
+
+//Third-party libraries
+import junit.framework.TestCase;
+
+//Application-internal dependencies
+
+/**
+ * Unit test for {@link MemoryBudget}.
+ * Verifies that the bytes reserved never exceed the limit and that the
+ * released bytes can be reserved again.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * 				<a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+public class TestMemoryBudget
+    extends TestCase
+{
+
+    public void testReserve()
+    {
+        MemoryBudget budget = new MemoryBudget();
+        budget.setLimit(100);
+        assertTrue("Should fit.", budget.reserve(60));
+        assertFalse("Should exceed the limit.", budget.reserve(50));
+        assertTrue("Should fit.", budget.reserve(40));
+        assertEquals("Wrong number of bytes used.", 100, budget.getUsed());
+    }
+
+    public void testRelease()
+    {
+        MemoryBudget budget = new MemoryBudget();
+        budget.setLimit(100);
+        budget.reserve(80);
+        assertFalse("Should exceed the limit.", budget.reserve(30));
+        budget.release(40);
+        assertTrue("Should fit once released.", budget.reserve(30));
+        budget.release(1000);
+        assertEquals("Should not be negative.", 0, budget.getUsed());
+    }
+
+    public void testAvailable()
+    {
+        MemoryBudget budget = new MemoryBudget();
+        budget.setLimit(100);
+        budget.reserve(80);
+        assertTrue("Should fit.", budget.isAvailable(20));
+        assertFalse("Should exceed the limit.", budget.isAvailable(21));
+        assertEquals("Should not reserve.", 80, budget.getUsed());
+    }
+
+    public void testLimitLowered()
+    {
+        MemoryBudget budget = new MemoryBudget();
+        budget.setLimit(100);
+        budget.reserve(80);
+        budget.setLimit(50);
+        assertEquals("Should keep the bytes reserved.", 80, budget.getUsed());
+        assertFalse("Should exceed the new limit.", budget.reserve(1));
+    }
+
+}
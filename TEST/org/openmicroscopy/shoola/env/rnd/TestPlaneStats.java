@@ -0,0 +1,112 @@
+/*
+ * org.openmicroscopy.shoola.env.rnd.TestPlaneStats
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ * 	This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+
+package org.openmicroscopy.shoola.env.rnd;
+
+
+//Java imports
+import java.util.Arrays;
+
+//Third-party libraries
+import junit.framework.TestCase;
+
+//Application-internal dependencies
+
+/**
+ * Unit test for {@link PlaneStats} and {@link StatsCache}.
+ * Verifies the statistics of a plane, their aggregation over a stack and
+ * that the cached statistics are only returned for the same range.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * 				<a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+public class TestPlaneStats
+    extends TestCase
+{
+
+    private static final double DELTA = 1e-9;  //Tolerance.
+
+    private static final float[] PLANE = {0, 1, 2, 3, 4, 5, 6, 7};
+
+    public void testCompute()
+    {
+        PlaneStats stats = PlaneStats.compute(PLANE, 0, 7, 4);
+        assertTrue("Should have values.", stats.hasValues());
+        assertEquals("Wrong min.", 0, stats.getMin(), DELTA);
+        assertEquals("Wrong max.", 7, stats.getMax(), DELTA);
+        assertEquals("Wrong mean.", 3.5, stats.getMean(), DELTA);
+        assertTrue("Wrong histogram.", Arrays.equals(new int[] {2, 2, 2, 2},
+                stats.getHistogram()));
+        stats = PlaneStats.compute(PLANE, 2, 5, 4);
+        assertTrue("Should skip the values out of the range.", Arrays.equals(
+                new int[] {1, 1, 1, 1}, stats.getHistogram()));
+    }
+
+    public void testMerge()
+    {
+        PlaneStats stats = PlaneStats.merge(Arrays.asList(
+                PlaneStats.compute(PLANE, 0, 7, 4),
+                PlaneStats.compute(new float[] {-1, 9}, 0, 7, 4)));
+        assertEquals("Wrong min.", -1, stats.getMin(), DELTA);
+        assertEquals("Wrong max.", 9, stats.getMax(), DELTA);
+        assertEquals("Wrong mean.", 3.6, stats.getMean(), DELTA);
+        assertEquals("Wrong bin.", 2, stats.getHistogram()[0]);
+        stats = PlaneStats.merge(Arrays.asList(
+                PlaneStats.compute(PLANE, 0, 7, 4),
+                new PlaneStats(0, 7, new int[] {1, 0, 0, 0})));
+        assertFalse("Should only hold the histogram.", stats.hasValues());
+        assertEquals("Wrong bin.", 3, stats.getHistogram()[0]);
+        try {
+            PlaneStats.merge(Arrays.asList(PlaneStats.compute(PLANE, 0, 7, 4),
+                    PlaneStats.compute(PLANE, 0, 8, 4)));
+            fail("Should reject statistics over another range.");
+        } catch (IllegalArgumentException e) {}
+    }
+
+    public void testCache()
+    {
+        long pixelsID = -1;
+        PlaneStats stats = PlaneStats.compute(PLANE, 0, 7, 4);
+        StatsCache.put(pixelsID, 1, 0, 2, stats);
+        assertSame("Should return the cached statistics.", stats,
+                StatsCache.get(pixelsID, 1, 0, 2, 4, 0, 7));
+        assertNull("Should not return another range.",
+                StatsCache.get(pixelsID, 1, 0, 2, 4, 0, 8));
+        assertNull("Should not return another plane.",
+                StatsCache.get(pixelsID, 0, 0, 2, 4, 0, 7));
+        StatsCache.put(pixelsID, 1, 0, 2, new PlaneStats(0, 7, new int[4]));
+        assertSame("Should keep the statistics with values.", stats,
+                StatsCache.get(pixelsID, 1, 0, 2, 4, 0, 7));
+    }
+
+    public void testClear()
+    {
+        long pixelsID = -2;
+        StatsCache.put(pixelsID, 1, 0, 2, PlaneStats.compute(PLANE, 0, 7, 4));
+        StatsCache.clear();
+        assertNull("Should discard the statistics.",
+                StatsCache.get(pixelsID, 1, 0, 2, 4, 0, 7));
+    }
+
+}
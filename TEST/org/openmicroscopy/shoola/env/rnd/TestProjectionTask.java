@@ -0,0 +1,221 @@
+/*
+ * org.openmicroscopy.shoola.env.rnd.TestProjectionTask
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ * 	This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+
+package org.openmicroscopy.shoola.env.rnd;
+
+
+//Java imports
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+
+//Third-party libraries
+import junit.framework.TestCase;
+
+//Application-internal dependencies
+import org.openmicroscopy.shoola.env.data.OmeroImageService;
+
+/**
+ * Unit test for {@link ProjectionTask}.
+ * Verifies the maximum, mean and sum projections of planes split across
+ * several tasks, read from the decoded planes or from a stack.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * 				<a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+public class TestProjectionTask
+    extends TestCase
+{
+
+    private static final int    SIZE_X = 3;
+
+    private static final int    SIZE_Y = 3*ProjectionTask.MAX_ROWS; //Splits.
+
+    private static final int    SIZE_Z = 4;
+
+    private static final int[]  ZS = {0, 2, 3};
+
+    private static final long   TIMEOUT = 5000;
+
+    /** The pool running the tasks. */
+    private ForkJoinPool pool;
+
+    /**
+     * Returns the value of the pixel, the maximum is reached at the
+     * z-section matching the column.
+     *
+     * @param x The column.
+     * @param y The row.
+     * @param z The z-section.
+     * @return See above.
+     */
+    private static int value(int x, int y, int z)
+    {
+        return (z == x ? 100 : z)+y;
+    }
+
+    /**
+     * Projects the decoded planes.
+     *
+     * @param type The type of projection.
+     * @return See above.
+     */
+    private double[] project(int type)
+    {
+        RawPlane[] planes = new RawPlane[ZS.length];
+        float[] values;
+        for (int k = 0; k < ZS.length; k++) {
+            values = new float[SIZE_X*SIZE_Y];
+            for (int y = 0; y < SIZE_Y; y++)
+                for (int x = 0; x < SIZE_X; x++)
+                    values[y*SIZE_X+x] = value(x, y, ZS[k]);
+            planes[k] = RawPlane.wrap(values);
+        }
+        double[] dst = new double[SIZE_X*SIZE_Y];
+        pool.invoke(new ProjectionTask(type, SIZE_X, ZS, null, planes, dst,
+                0, SIZE_Y));
+        return dst;
+    }
+
+    /**
+     * Returns the expected projected value.
+     *
+     * @param type The type of projection.
+     * @param x The column.
+     * @param y The row.
+     * @return See above.
+     */
+    private static float expected(int type, int x, int y)
+    {
+        float v = 0;
+        for (int k = 0; k < ZS.length; k++) {
+            if (type != OmeroImageService.MAX_INTENSITY)
+                v += value(x, y, ZS[k]);
+            else v = Math.max(v, value(x, y, ZS[k]));
+        }
+        if (type == OmeroImageService.MEAN_INTENSITY) v /= ZS.length;
+        return v;
+    }
+
+    /**
+     * Checks the projected values.
+     *
+     * @param type The type of projection.
+     * @param dst The projected values.
+     */
+    private static void check(int type, double[] dst)
+    {
+        for (int y = 0; y < SIZE_Y; y++)
+            for (int x = 0; x < SIZE_X; x++)
+                assertEquals("Wrong projected value.", expected(type, x, y),
+                        dst[y*SIZE_X+x], 1e-3f);
+    }
+
+    /**
+     * Creates the pool.
+     * @see TestCase#setUp()
+     */
+    protected void setUp()
+    {
+        pool = new ForkJoinPool(2);
+    }
+
+    /**
+     * Shuts the pool down.
+     * @see TestCase#tearDown()
+     */
+    protected void tearDown()
+    {
+        pool.shutdown();
+    }
+
+    public void testSupported()
+    {
+        assertTrue("Should support the maximum.", ProjectionTask.isSupported(
+                OmeroImageService.MAX_INTENSITY));
+        assertFalse("Should not support an unknown type.",
+                ProjectionTask.isSupported(-1));
+    }
+
+    public void testMax()
+    {
+        check(OmeroImageService.MAX_INTENSITY,
+                project(OmeroImageService.MAX_INTENSITY));
+    }
+
+    public void testMean()
+    {
+        check(OmeroImageService.MEAN_INTENSITY,
+                project(OmeroImageService.MEAN_INTENSITY));
+    }
+
+    public void testSum()
+    {
+        check(OmeroImageService.SUM_INTENSITY,
+                project(OmeroImageService.SUM_INTENSITY));
+    }
+
+    public void testSumPrecision()
+    {
+        int n = 16;
+        RawPlane[] planes = new RawPlane[n];
+        int[] zs = new int[n];
+        planes[0] = RawPlane.wrap(new float[] {1 << 24});
+        for (int k = 1; k < n; k++) {
+            zs[k] = k;
+            planes[k] = RawPlane.wrap(new float[] {1});
+        }
+        double[] dst = new double[1];
+        pool.invoke(new ProjectionTask(OmeroImageService.SUM_INTENSITY, 1,
+                zs, null, planes, dst, 0, 1));
+        assertEquals("Should not lose the low bits.", (1 << 24)+n-1,
+                dst[0], 0);
+    }
+
+    public void testStack()
+    {
+        StackBuffer stack = new StackBuffer(null, 0, 0, SIZE_X, SIZE_Y,
+                SIZE_Z, OmeroImageService.UINT_16, 7) {
+            byte[] loadPlane(int z)
+            {
+                ByteBuffer buf = ByteBuffer.allocate(2*SIZE_X*SIZE_Y);
+                for (int y = 0; y < SIZE_Y; y++)
+                    for (int x = 0; x < SIZE_X; x++)
+                        buf.putShort((short) value(x, y, z));
+                return buf.array();
+            }
+        };
+        try {
+            assertNotNull("Should stream the stack.",
+                    stack.getPlane(SIZE_Z-1, TIMEOUT));
+            assertTrue("Should be complete.", stack.isComplete());
+            double[] dst = new double[SIZE_X*SIZE_Y];
+            pool.invoke(new ProjectionTask(OmeroImageService.MAX_INTENSITY,
+                    SIZE_X, ZS, stack, null, dst, 0, SIZE_Y));
+            check(OmeroImageService.MAX_INTENSITY, dst);
+        } finally {
+            stack.dispose();
+        }
+    }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * org.openmicroscopy.shoola.env.rnd.TestRawPlaneRenderer
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ * 	This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+
+package org.openmicroscopy.shoola.env.rnd;
+
+
+//Java imports
+import java.nio.ByteBuffer;
+
+//Third-party libraries
+import junit.framework.TestCase;
+
+//Application-internal dependencies
+import org.openmicroscopy.shoola.env.data.OmeroImageService;
+
+/**
+ * Unit test for {@link RawPlaneRenderer}.
+ * Verifies that the raw planes are decoded and that the channel windows,
+ * the reverse intensity and the colors are applied.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * 				<a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+public class TestRawPlaneRenderer
+    extends TestCase
+{
+
+    private static final int    SIZE_X = 4;  //Width of the plane.
+
+    private static final int[]  RED = {255, 0, 0, 255};
+
+    private static final int[]  GREEN = {0, 255, 0, 255};
+
+    public void testDecode()
+    {
+        ByteBuffer buf = ByteBuffer.allocate(4);
+        buf.putShort((short) 65535);
+        buf.putShort((short) 1000);
+        float[] values = RawPlaneRenderer.decode(buf.array(),
+                OmeroImageService.UINT_16, 2);
+        assertEquals("Wrong unsigned value.", 65535f, values[0]);
+        assertEquals("Wrong value.", 1000f, values[1]);
+        values = RawPlaneRenderer.decode(new byte[] {-1, 2},
+                OmeroImageService.INT_8, 2);
+        assertEquals("Wrong signed value.", -1f, values[0]);
+        assertNull("Should not decode an incomplete plane.",
+                RawPlaneRenderer.decode(new byte[] {1},
+                        OmeroImageService.UINT_16, 1));
+        assertNull("Should not decode an unknown type.",
+                RawPlaneRenderer.decode(new byte[] {1}, "bit", 8));
+    }
+
+    public void testNativeWidth()
+    {
+        ByteBuffer buf = ByteBuffer.allocate(4);
+        buf.putShort((short) 65535);
+        buf.putShort((short) -2);
+        RawPlane plane = RawPlane.decode(buf.array(),
+                OmeroImageService.UINT_16, 2);
+        assertEquals("Should use 2 bytes per pixel.", 4, plane.getSize());
+        assertEquals("Wrong unsigned value.", 65535.0, plane.getValue(0));
+        plane = RawPlane.decode(buf.array(), OmeroImageService.INT_16, 2);
+        assertEquals("Wrong signed value.", -2.0, plane.getValue(1));
+        plane = RawPlane.decode(new byte[] {-1, 2}, OmeroImageService.UINT_8,
+                2);
+        assertEquals("Should use 1 byte per pixel.", 2, plane.getSize());
+        assertEquals("Wrong unsigned value.", 255.0, plane.getValue(0));
+    }
+
+    public void testWindow()
+    {
+        float[] plane = {0, 100, 150, 200, 300, 50, 125, 175};
+        RawPlaneRenderer r = new RawPlaneRenderer(SIZE_X, 1, false);
+        r.setChannel(0, plane, 100, 200, RawPlaneRenderer.LINEAR, 1, false,
+                RED);
+        int[] dst = new int[plane.length];
+        r.render(dst, 0, 2);
+        assertEquals("Below the window.", 0xFF000000, dst[0]);
+        assertEquals("Start of the window.", 0xFF000000, dst[1]);
+        assertEquals("Middle of the window.", 0xFF800000, dst[2]);
+        assertEquals("End of the window.", 0xFFFF0000, dst[3]);
+        assertEquals("Above the window.", 0xFFFF0000, dst[4]);
+        r.setChannel(0, plane, 100, 200, RawPlaneRenderer.LINEAR, 1, true,
+                RED);
+        r.render(dst, 0, 1);
+        assertEquals("Should reverse.", 0xFFFF0000, dst[0]);
+        assertEquals("Should reverse.", 0xFF000000, dst[3]);
+    }
+
+    public void testBlending()
+    {
+        float[] a = {0, 10, 10, 10};
+        float[] b = {10, 0, 10, 5};
+        RawPlaneRenderer r = new RawPlaneRenderer(SIZE_X, 2, false);
+        r.setChannel(0, a, 0, 10, RawPlaneRenderer.LINEAR, 1, false, RED);
+        r.setChannel(1, b, 0, 10, RawPlaneRenderer.LINEAR, 1, false, GREEN);
+        int[] dst = new int[SIZE_X];
+        r.render(dst, 0, 1);
+        assertEquals("Wrong green.", 0xFF00FF00, dst[0]);
+        assertEquals("Wrong red.", 0xFFFF0000, dst[1]);
+        assertEquals("Wrong blend.", 0xFFFFFF00, dst[2]);
+        r = new RawPlaneRenderer(SIZE_X, 2, true);
+        r.setChannel(0, a, 0, 10, RawPlaneRenderer.LINEAR, 1, false, RED);
+        r.setChannel(1, b, 0, 10, RawPlaneRenderer.LINEAR, 1, false, GREEN);
+        r.render(dst, 0, 1);
+        assertEquals("Should only render the first channel in grey.",
+                0xFFFFFFFF, dst[1]);
+        assertEquals("Should only render the first channel in grey.",
+                0xFF000000, dst[0]);
+    }
+
+}
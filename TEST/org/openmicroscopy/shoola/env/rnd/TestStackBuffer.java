@@ -0,0 +1,133 @@
+/*
+ * org.openmicroscopy.shoola.env.rnd.TestStackBuffer
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ * 	This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+
+package org.openmicroscopy.shoola.env.rnd;
+
+
+//Java imports
+import java.nio.ByteBuffer;
+
+//Third-party libraries
+import junit.framework.TestCase;
+
+//Application-internal dependencies
+import org.openmicroscopy.shoola.env.data.OmeroImageService;
+
+/**
+ * Unit test for {@link StackBuffer}.
+ * Verifies that the planes streamed in blocks are read back as planes and
+ * rows and that a failure to load a plane is reported.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * 				<a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+public class TestStackBuffer
+    extends TestCase
+{
+
+    private static final int    SIZE_X = 3;
+
+    private static final int    SIZE_Y = 2;
+
+    private static final int    SIZE_Z = 4;
+
+    private static final int    BLOCK = 5;  //Blocks span two planes.
+
+    private static final long   TIMEOUT = 5000;
+
+    /**
+     * Returns the value of the pixel, encoding its position.
+     *
+     * @param x The column.
+     * @param y The row.
+     * @param z The z-section.
+     * @return See above.
+     */
+    private static int value(int x, int y, int z)
+    {
+        return z*100+y*10+x;
+    }
+
+    /**
+     * Creates a buffer whose planes are generated, the plane
+     * <code>failAt</code> cannot be loaded.
+     *
+     * @param failAt The z-section that cannot be loaded or <code>-1</code>.
+     * @return See above.
+     */
+    private StackBuffer createBuffer(final int failAt)
+    {
+        return new StackBuffer(null, 0, 0, SIZE_X, SIZE_Y, SIZE_Z,
+                OmeroImageService.UINT_16, BLOCK) {
+            byte[] loadPlane(int z)
+                throws Exception
+            {
+                if (z == failAt) throw new Exception("Plane not found.");
+                ByteBuffer buf = ByteBuffer.allocate(2*SIZE_X*SIZE_Y);
+                for (int y = 0; y < SIZE_Y; y++)
+                    for (int x = 0; x < SIZE_X; x++)
+                        buf.putShort((short) value(x, y, z));
+                return buf.array();
+            }
+        };
+    }
+
+    public void testPlanes()
+    {
+        StackBuffer stack = createBuffer(-1);
+        try {
+            float[] last = stack.getPlane(SIZE_Z-1, TIMEOUT);
+            assertNotNull("Should stream the stack.", last);
+            assertTrue("Should be complete.", stack.isComplete());
+            for (int z = 0; z < SIZE_Z; z++) {
+                float[] xy = stack.getPlane(z, 0);
+                for (int y = 0; y < SIZE_Y; y++)
+                    for (int x = 0; x < SIZE_X; x++)
+                        assertEquals("Wrong XY value.",
+                                (float) value(x, y, z), xy[y*SIZE_X+x]);
+            }
+            float[] rows = stack.getRows(2, 1, 2, 0);
+            for (int x = 0; x < SIZE_X; x++)
+                assertEquals("Wrong row value.", (float) value(x, 1, 2),
+                        rows[x]);
+            assertNull("Should reject a plane out of the stack.",
+                    stack.getPlane(SIZE_Z, 0));
+        } finally {
+            stack.dispose();
+        }
+    }
+
+    public void testFailure()
+    {
+        StackBuffer stack = createBuffer(2);
+        try {
+            assertNull("Should not stream the stack.",
+                    stack.getPlane(SIZE_Z-1, TIMEOUT));
+            assertTrue("Should report the failure.", stack.isFailed());
+        } finally {
+            stack.dispose();
+        }
+    }
+
+}
@@ -0,0 +1,176 @@
+/*
+ * org.openmicroscopy.shoola.env.rnd.TestXYCache
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ * 	This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+
+package org.openmicroscopy.shoola.env.rnd;
+
+
+//Java imports
+
+//Third-party libraries
+import junit.framework.TestCase;
+
+//Application-internal dependencies
+import omero.romio.PlaneDef;
+
+/**
+ * Unit test for {@link XYCache}.
+ * Verifies that the byte budget is honored and that the entries are
+ * removed according to the navigation direction.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * 				<a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+public class TestXYCache
+    extends TestCase
+{
+
+    private static final int    IMAGE_SIZE = 10;  //Size of an entry.
+
+    private static final String SETTINGS = "1";  //The settings.
+
+    private static final String OTHER_SETTINGS = "2";  //Other settings.
+
+    private XYCache             target;  //Object under test.
+
+    private NavigationHistory   history;
+
+    private PlaneDef plane(int z, int t)
+    {
+        PlaneDef pd = new PlaneDef();
+        pd.slice = omero.romio.XY.value;
+        pd.z = z;
+        pd.t = t;
+        return pd;
+    }
+
+    //Adds the plane to the history and to the cache.
+    private void move(int z)
+    {
+        PlaneDef pd = plane(z, 0);
+        history.addMove(pd);
+        target.add(pd, 0, SETTINGS, new byte[IMAGE_SIZE]);
+    }
+
+    public void setUp()
+    {
+        history = new NavigationHistory(5, 20, 1);
+        target = new XYCache(1, 3*IMAGE_SIZE, history);
+    }
+
+    public void testXYCacheBadArgs()
+    {
+        try {
+            new XYCache(1, -1, history);
+            fail("Should only accept positive cache size.");
+        } catch (IllegalArgumentException iae) {
+            //Ok, expected.
+        }
+        try {
+            new XYCache(1, 1, null);
+            fail("Shouldn't accept null NavigationHistory.");
+        } catch (NullPointerException npe) {
+            //Ok, expected.
+        }
+    }
+
+    public void testAddBadArgs()
+    {
+        try {
+            target.add(null, 0, SETTINGS, new byte[1]);
+            fail("Shouldn't accept null plane def.");
+        } catch (NullPointerException npe) {
+            //Ok, expected.
+        }
+        PlaneDef pd = plane(0, 0);
+        pd.slice = omero.romio.XZ.value;
+        try {
+            target.add(pd, 0, SETTINGS, new byte[1]);
+            fail("Should only accept XY planes.");
+        } catch (IllegalArgumentException iae) {
+            //Ok, expected.
+        }
+        try {
+            target.add(plane(0, 0), 0, SETTINGS, null);
+            fail("Shouldn't accept null image.");
+        } catch (NullPointerException npe) {
+            //Ok, expected.
+        }
+        assertEquals("Shouldn't have added an entry.",
+                0, target.getCache().size());
+    }
+
+    public void testByteBudget()
+    {
+        target.add(plane(0, 0), 0, SETTINGS, new byte[4*IMAGE_SIZE]);
+        assertEquals("Shouldn't cache an entry bigger than the cache.",
+                0, target.getCache().size());
+        for (int z = 0; z < 5; z++)
+            move(z);
+        assertEquals("Should only keep the entries fitting the budget.",
+                3, target.getCache().size());
+        assertEquals("Should account for the size of the entries.",
+                3*IMAGE_SIZE, target.getUsedSize());
+        target.resetCacheSize(IMAGE_SIZE);
+        assertEquals("Should remove the entries not fitting the new size.",
+                1, target.getCache().size());
+        target.clear();
+        assertEquals("Should have removed all the entries.",
+                0, target.getUsedSize());
+    }
+
+    public void testRemoveBehindCurrentMove()
+    {
+        //Move up the stack: planes behind the current move go first.
+        for (int z = 0; z < 5; z++)
+            move(z);
+        assertNull("Should have removed the farthest plane behind.",
+                target.extract(plane(0, 0), 0, SETTINGS));
+        assertNull("Should have removed the farthest plane behind.",
+                target.extract(plane(1, 0), 0, SETTINGS));
+        assertNotNull("Should have kept the current plane.",
+                target.extract(plane(4, 0), 0, SETTINGS));
+    }
+
+    public void testRemoveStaleSettingsFirst()
+    {
+        move(0);
+        move(1);
+        target.add(plane(2, 0), 0, OTHER_SETTINGS, new byte[IMAGE_SIZE]);
+        target.add(plane(3, 0), 0, OTHER_SETTINGS, new byte[IMAGE_SIZE]);
+        assertEquals("Should have removed an entry with other settings.",
+                3, target.getCache().size());
+        assertFalse("Should have removed an entry with other settings.",
+                target.contains(plane(0, 0), 0, SETTINGS) &&
+                target.contains(plane(1, 0), 0, SETTINGS));
+        assertNotNull("Should have kept the entry.",
+                target.extract(plane(2, 0), 0, OTHER_SETTINGS));
+        assertNull("Should not find entries for other settings.",
+                target.extract(plane(2, 0), 0, SETTINGS));
+        assertNotNull("Should have kept the entry.",
+                target.extract(plane(3, 0), 0, OTHER_SETTINGS));
+        assertNull("Should not find entries for other resolution level.",
+                target.extract(plane(3, 0), 1, OTHER_SETTINGS));
+    }
+
+}
@@ -0,0 +1,165 @@
+/*
+ * org.openmicroscopy.shoola.env.rnd.roi.TestROIStatsEngine
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ * 	This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+
+package org.openmicroscopy.shoola.env.rnd.roi;
+
+
+//Java imports
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+//Third-party libraries
+import junit.framework.TestCase;
+
+//Application-internal dependencies
+
+/**
+ * Unit test for {@link ROIStatsEngine} and {@link ROIMask}.
+ * Verifies that the statistics match the ones computed point by point by
+ * {@link ROIShapeStatsSimple}.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * 				<a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+public class TestROIStatsEngine
+    extends TestCase
+{
+
+    private static final int    SIZE_X = 64;  //Width of the plane.
+
+    private static final int    SIZE_Y = 32;  //Height of the plane.
+
+    private static final double DELTA = 1e-9;  //Tolerance.
+
+    private double[]            plane;  //The values of the plane.
+
+    /** Computes the statistics point by point. */
+    private ROIShapeStatsSimple expected(List<Point> points)
+    {
+        ROIShapeStatsSimple stats = new ROIShapeStatsSimple();
+        stats.onStartPlane(0, 0, 0, points.size());
+        for (Point p : points)
+            stats.update(plane[p.y*SIZE_X+p.x], 0, 0, 0, p);
+        stats.onEndPlane(0, 0, 0, points.size());
+        return stats;
+    }
+
+    public void setUp()
+    {
+        Random r = new Random(7);
+        plane = new double[SIZE_X*SIZE_Y];
+        for (int i = 0; i < plane.length; i++)
+            plane[i] = r.nextInt(4096);
+    }
+
+    public void testFromPoints()
+    {
+        List<Point> points = new ArrayList<Point>();
+        for (int x = 3; x < 10; x++) {
+            points.add(new Point(x, 2));
+            points.add(new Point(x, 5));
+        }
+        points.add(new Point(12, 2));
+        points.add(new Point(4, 2)); //duplicate
+        Collections.shuffle(points, new Random(1));
+        ROIMask mask = ROIMask.fromPoints(points);
+        assertEquals("Wrong number of runs.", 3, mask.getRunCount());
+        assertEquals("Should have removed the duplicate.", 15,
+                mask.getPointsCount());
+        assertEquals("Wrong row.", 2, mask.getRow(0));
+        assertEquals("Wrong start.", 3, mask.getStart(0));
+        assertEquals("Wrong end.", 10, mask.getEnd(0));
+        assertEquals("Wrong start.", 12, mask.getStart(1));
+        assertEquals("Wrong row.", 5, mask.getRow(2));
+    }
+
+    public void testStatistics()
+    {
+        List<Point> points = new ArrayList<Point>();
+        for (int y = 4; y < 20; y++)
+            for (int x = y; x < 2*y; x++)
+                points.add(new Point(x, y));
+        ROIShapeStatsSimple exp = expected(points);
+        ROIMaskStats stats = ROIStatsEngine.compute(ROIMask.fromPoints(points),
+                plane, SIZE_X, SIZE_Y, 16);
+        assertEquals("Wrong count.", exp.getPointsCount(),
+                stats.getPointsCount());
+        assertEquals("Wrong min.", exp.getMin(), stats.getMin(), DELTA);
+        assertEquals("Wrong max.", exp.getMax(), stats.getMax(), DELTA);
+        assertEquals("Wrong sum.", exp.getSum(), stats.getSum(), DELTA);
+        assertEquals("Wrong mean.", exp.getMean(), stats.getMean(), DELTA);
+        assertEquals("Wrong standard deviation.", exp.getStandardDeviation(),
+                stats.getStandardDeviation(), DELTA);
+        int total = 0;
+        int[] histogram = stats.getHistogram();
+        for (int i = 0; i < histogram.length; i++)
+            total += histogram[i];
+        assertEquals("Should have binned all the values.", points.size(),
+                total);
+        Point p = points.get(10);
+        assertEquals("Wrong value.", plane[p.y*SIZE_X+p.x],
+                stats.getValue(p), DELTA);
+        assertEquals("Should keep the order of the points.", points,
+                stats.getPoints());
+    }
+
+    public void testRawPlane()
+    {
+        float[] raw = new float[plane.length];
+        for (int i = 0; i < plane.length; i++)
+            raw[i] = (float) plane[i];
+        List<Point> points = new ArrayList<Point>();
+        for (int y = 2; y < 12; y++)
+            for (int x = 5; x < 30; x++)
+                points.add(new Point(x, y));
+        ROIMask mask = ROIMask.fromPoints(points);
+        ROIMaskStats exp = ROIStatsEngine.compute(mask, plane, SIZE_X, SIZE_Y,
+                16);
+        ROIMaskStats stats = ROIStatsEngine.compute(mask, raw, SIZE_X, SIZE_Y,
+                16);
+        assertEquals("Wrong count.", exp.getPointsCount(),
+                stats.getPointsCount());
+        assertEquals("Wrong mean.", exp.getMean(), stats.getMean(), DELTA);
+        assertTrue("Wrong histogram.", Arrays.equals(
+                exp.getHistogram(), stats.getHistogram()));
+    }
+
+    public void testClip()
+    {
+        List<Point> points = new ArrayList<Point>();
+        for (int x = -5; x < SIZE_X+5; x++) {
+            points.add(new Point(x, 0));
+            points.add(new Point(x, SIZE_Y));
+        }
+        ROIMaskStats stats = ROIStatsEngine.compute(ROIMask.fromPoints(points),
+                plane, SIZE_X, SIZE_Y, ROIStatsEngine.DEFAULT_BINS);
+        assertEquals("Should only keep the points in the plane.", SIZE_X,
+                stats.getPointsCount());
+    }
+
+}
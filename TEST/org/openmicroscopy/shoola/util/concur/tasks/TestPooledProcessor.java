@@ -0,0 +1,155 @@
+/*
+ * org.openmicroscopy.shoola.util.concur.tasks.TestPooledProcessor
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ * 	This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+
+package org.openmicroscopy.shoola.util.concur.tasks;
+
+
+//Java imports
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+//Third-party libraries
+import junit.framework.TestCase;
+
+//Application-internal dependencies
+
+/**
+ * Unit test for {@link PooledProcessor}.
+ * Verifies that the services are executed by priority, that extra threads
+ * are started when the services wait for too long and that no service is
+ * executed after termination.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * 				<a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+public class TestPooledProcessor
+    extends TestCase
+{
+
+    private PooledProcessor     target;  //Object under test.
+
+    private List<String>        order;  //The order of execution.
+
+    /** Returns a task recording its name when executed. */
+    private MultiStepTask task(final String name, final CountDownLatch done)
+    {
+        return new MultiStepTask() {
+            private boolean executed;
+            public Object doStep()
+            {
+                synchronized (order) { order.add(name); }
+                executed = true;
+                done.countDown();
+                return null;
+            }
+            public boolean isDone() { return executed; }
+        };
+    }
+
+    /** Returns a task blocking until the latch is released. */
+    private MultiStepTask blocking(final CountDownLatch latch,
+            final CountDownLatch started)
+    {
+        return new MultiStepTask() {
+            private boolean executed;
+            public Object doStep()
+                throws Exception
+            {
+                started.countDown();
+                latch.await();
+                executed = true;
+                return null;
+            }
+            public boolean isDone() { return executed; }
+        };
+    }
+
+    public void setUp()
+    {
+        order = new ArrayList<String>();
+    }
+
+    public void tearDown()
+    {
+        if (target != null) target.terminate(1000);
+    }
+
+    public void testPriority()
+        throws Exception
+    {
+        target = new PooledProcessor(1, 1);
+        CountDownLatch latch = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        target.exec(blocking(latch, started));
+        assertTrue("Should have started the task.",
+                started.await(5, TimeUnit.SECONDS));
+        CountDownLatch done = new CountDownLatch(3);
+        target.exec(task("background", done), null, CmdProcessor.BACKGROUND);
+        target.exec(task("normal", done), null, CmdProcessor.NORMAL);
+        target.exec(task("interactive", done), null,
+                CmdProcessor.INTERACTIVE);
+        assertEquals("Should have queued the task.", 1,
+                target.getQueueDepth(CmdProcessor.BACKGROUND));
+        latch.countDown();
+        assertTrue("Should have executed the tasks.",
+                done.await(5, TimeUnit.SECONDS));
+        assertEquals("Wrong order.", "interactive", order.get(0));
+        assertEquals("Wrong order.", "normal", order.get(1));
+        assertEquals("Wrong order.", "background", order.get(2));
+    }
+
+    public void testExtraThread()
+        throws Exception
+    {
+        target = new PooledProcessor(1, 2);
+        CountDownLatch latch = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        target.exec(blocking(latch, started));
+        CountDownLatch done = new CountDownLatch(1);
+        target.exec(task("queued", done));
+        assertTrue("Should have started an extra thread.",
+                done.await(PooledProcessor.STARVATION_DELAY*5,
+                        TimeUnit.MILLISECONDS));
+        assertEquals("Should have two threads.", 2, target.getThreadCount());
+        latch.countDown();
+    }
+
+    public void testTerminate()
+        throws Exception
+    {
+        target = new PooledProcessor(1, 1);
+        assertTrue("Should have stopped the threads.", target.terminate(1000));
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        target.exec(task("terminated", done), new NullExecMonitor() {
+            public void onCancel() { cancelled.countDown(); }
+        });
+        assertEquals("Should have cancelled the task.", 0,
+                cancelled.getCount());
+        assertTrue("Shouldn't have executed the task.", order.isEmpty());
+    }
+
+}
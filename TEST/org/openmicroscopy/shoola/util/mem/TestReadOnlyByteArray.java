@@ -137,5 +137,24 @@ public class TestReadOnlyByteArray
             fail("Shouldn't accept index greater than length-1.");
         } catch (ArrayIndexOutOfBoundsException aiobe) {}
     }
+    
+    public void testCopyTo()
+    {
+        byte[] base = new byte[] {0, 1, 2, 3, 4};
+        ReadOnlyByteArray roba = new ReadOnlyByteArray(base, 1, 3);
+        byte[] dst = new byte[4];
+        roba.copyTo(1, dst, 1, 2);
+        assertEquals("Copied wrong element.", 0, dst[0]);
+        assertEquals("Copied wrong element.", 2, dst[1]);
+        assertEquals("Copied wrong element.", 3, dst[2]);
+        try {
+            roba.copyTo(1, dst, 0, 3);
+            fail("Shouldn't copy beyond length-1.");
+        } catch (ArrayIndexOutOfBoundsException aiobe) {}
+        try {
+            roba.copyTo(-1, dst, 0, 1);
+            fail("Shouldn't accept negative index.");
+        } catch (ArrayIndexOutOfBoundsException aiobe) {}
+    }
 
 }
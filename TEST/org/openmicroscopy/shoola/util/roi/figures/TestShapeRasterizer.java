@@ -0,0 +1,129 @@
+/*
+ * org.openmicroscopy.shoola.util.roi.figures.TestShapeRasterizer
+ *
+ *------------------------------------------------------------------------------
+ *  Copyright (C) 2006-2016 University of Dundee. All rights reserved.
+ *
+ *
+ * 	This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *------------------------------------------------------------------------------
+ */
+
+package org.openmicroscopy.shoola.util.roi.figures;
+
+
+//Java imports
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+//Third-party libraries
+import junit.framework.TestCase;
+
+//Application-internal dependencies
+
+/**
+ * Unit test for {@link ShapeRasterizer}.
+ * Verifies that the pixels found are the ones for which
+ * {@link Shape#contains(double, double)} returns <code>true</code>.
+ *
+ * @author  Jean-Marie Burel &nbsp;&nbsp;&nbsp;&nbsp;
+ * 				<a href="mailto:j.burel@dundee.ac.uk">j.burel@dundee.ac.uk</a>
+ * @since 5.2
+ */
+public class TestShapeRasterizer
+    extends TestCase
+{
+
+    /** Tests every pixel of the bounding box of the shape. */
+    private List<Point> expected(Shape shape)
+    {
+        Rectangle r = shape.getBounds();
+        List<Point> points = new ArrayList<Point>();
+        for (int y = r.y; y <= r.y+r.height; y++)
+            for (int x = r.x; x <= r.x+r.width; x++)
+                if (shape.contains(x, y)) points.add(new Point(x, y));
+        return points;
+    }
+
+    /** Checks the rasterizer against the point by point test. */
+    private void verify(Shape shape)
+    {
+        ShapeRasterizer rasterizer = new ShapeRasterizer();
+        List<Point> points = expected(shape);
+        assertEquals("Wrong points.", points, rasterizer.getPoints(shape));
+        assertEquals("Wrong size.", points.size(), rasterizer.getSize(shape));
+        int[][] runs = rasterizer.getRuns(shape);
+        List<Point> l = new ArrayList<Point>();
+        for (int i = 0; i < runs[0].length; i++)
+            for (int x = runs[1][i]; x < runs[2][i]; x++)
+                l.add(new Point(x, runs[0][i]));
+        assertEquals("Wrong runs.", points, l);
+    }
+
+    public void testRectangle()
+    {
+        verify(new Rectangle2D.Double(2, 3, 10, 5));
+        verify(new Rectangle2D.Double(2.5, 3.25, 10.3, 5.7));
+        verify(new Rectangle2D.Double(1, 1, 0, 4));
+    }
+
+    public void testEllipse()
+    {
+        verify(new Ellipse2D.Double(0.5, 1.5, 40.2, 17.9));
+        Shape s = new Ellipse2D.Double(10, 10, 30, 12);
+        verify(AffineTransform.getRotateInstance(0.7, 25, 16)
+                .createTransformedShape(s));
+    }
+
+    public void testPolygons()
+    {
+        Random r = new Random(11);
+        Path2D.Double path;
+        for (int i = 0; i < 50; i++) {
+            path = new Path2D.Double(i%2 == 0 ? Path2D.WIND_EVEN_ODD :
+                Path2D.WIND_NON_ZERO);
+            path.moveTo(r.nextInt(60), r.nextInt(60));
+            for (int j = 0; j < 8; j++) {
+                if (j%3 == 0) path.lineTo(r.nextInt(60), r.nextInt(60));
+                else path.lineTo(r.nextDouble()*60, r.nextDouble()*60);
+            }
+            path.closePath();
+            verify(path);
+        }
+    }
+
+    public void testCache()
+    {
+        ShapeRasterizer rasterizer = new ShapeRasterizer();
+        Rectangle2D.Double rectangle = new Rectangle2D.Double(0, 0, 4, 4);
+        assertEquals("Wrong size.", 16, rasterizer.getSize(rectangle));
+        List<Point> points = rasterizer.getPoints(rectangle);
+        points.clear();
+        assertEquals("Should not share the list.", 16,
+                rasterizer.getPoints(rectangle).size());
+        rectangle.width = 2;
+        assertEquals("Should follow the geometry.", 8,
+                rasterizer.getSize(rectangle));
+    }
+
+}